@@ -20,6 +20,7 @@ import com.amazonaws.services.s3.AmazonS3Client;
 import com.amazonaws.services.sns.AmazonSNSClient;
 import com.amazonaws.services.sqs.AmazonSQS;
 import com.amazonaws.services.sqs.AmazonSQSClient;
+import com.codahale.metrics.InstrumentedExecutorService;
 import com.codahale.metrics.graphite.Graphite;
 import com.codahale.metrics.graphite.GraphiteReporter;
 import com.fasterxml.jackson.databind.DeserializationFeature;
@@ -41,6 +42,8 @@ import com.hello.suripu.app.cli.PopulateSleepScoreParametersDynamoDBTable;
 import com.hello.suripu.app.cli.RecreatePillColorCommand;
 import com.hello.suripu.app.clients.TaimurainHttpClient;
 import com.hello.suripu.app.configuration.KMSConfiguration;
+import com.hello.suripu.app.configuration.LookupCacheConfiguration;
+import com.hello.suripu.app.configuration.SensorViewConfiguration;
 import com.hello.suripu.app.configuration.SuripuAppConfiguration;
 import com.hello.suripu.app.experimental.DataResource;
 import com.hello.suripu.app.filters.RateLimitingByIPFilter;
@@ -70,12 +73,19 @@ import com.hello.suripu.app.resources.v1.TimeZoneResource;
 import com.hello.suripu.app.resources.v1.TimelineResource;
 import com.hello.suripu.app.sensors.ScaleFactory;
 import com.hello.suripu.app.sensors.SensorViewFactory;
+import com.hello.suripu.app.sensors.LatestReadingCache;
+import com.hello.suripu.app.sensors.PressureHistory;
 import com.hello.suripu.app.sensors.SensorViewLogic;
+import com.hello.suripu.app.sensors.rollups.HourlyRollups;
+import com.hello.suripu.app.sensors.rollups.SensorRollupDAO;
+import com.hello.suripu.app.sensors.rollups.SensorRollupDAODynamoDB;
 import com.hello.suripu.app.service.TestVoiceResponsesDAO;
 import com.hello.suripu.app.sharing.ShareDAO;
 import com.hello.suripu.app.sharing.ShareDAODynamoDB;
+import com.hello.suripu.app.utils.LookupCache;
 import com.hello.suripu.app.utils.TokenCheckerFactory;
 import com.hello.suripu.app.v2.AlertsResource;
+import com.hello.suripu.app.v2.CompactBatchQueryResponseWriter;
 import com.hello.suripu.app.v2.DeviceResource;
 import com.hello.suripu.app.v2.ExpansionsResource;
 import com.hello.suripu.app.v2.SensorsResource;
@@ -160,6 +170,7 @@ import com.hello.suripu.core.db.util.PostgresIntegerArrayArgumentFactory;
 import com.hello.suripu.core.flipper.DynamoDBAdapter;
 import com.hello.suripu.core.logging.DataLogger;
 import com.hello.suripu.core.logging.KinesisLoggerFactory;
+import com.hello.suripu.core.models.TimeZoneHistory;
 import com.hello.suripu.core.models.VoiceCommandResponse;
 import com.hello.suripu.core.models.device.v2.DeviceProcessor;
 import com.hello.suripu.core.notifications.NotificationSubscriptionDAOWrapper;
@@ -253,6 +264,9 @@ import java.net.InetSocketAddress;
 import java.net.URL;
 import java.util.Map;
 import java.util.TimeZone;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 
@@ -351,6 +365,11 @@ public class SuripuApp extends Application<SuripuAppConfiguration> {
 
         final AmazonDynamoDB timezoneHistoryDynamoDBClient = dynamoDBClientFactory.getForTable(DynamoDBTableName.TIMEZONE_HISTORY);
         final TimeZoneHistoryDAODynamoDB timeZoneHistoryDAODynamoDB = new TimeZoneHistoryDAODynamoDB(timezoneHistoryDynamoDBClient, tableNames.get(DynamoDBTableName.TIMEZONE_HISTORY));
+        // voice uploads come in bursts from the same Sense, absent timezones are only cached for a minute
+        final LookupCacheConfiguration timeZoneCacheConfiguration = configuration.timeZoneCacheConfiguration();
+        final LookupCache<Long, TimeZoneHistory> timeZoneCache = LookupCache.create("current-timezone",
+                timeZoneHistoryDAODynamoDB::getCurrentTimeZone, timeZoneCacheConfiguration.ttlSeconds(),
+                timeZoneCacheConfiguration.negativeTtlSeconds(), timeZoneCacheConfiguration.maxSize(), environment.metrics());
 
         final AmazonDynamoDB mergedUserInfoDynamoDBClient = dynamoDBClientFactory.getForTable(DynamoDBTableName.ALARM_INFO);
         final MergedUserInfoDynamoDB mergedUserInfoDynamoDB = new MergedUserInfoDynamoDB(mergedUserInfoDynamoDBClient, tableNames.get(DynamoDBTableName.ALARM_INFO));
@@ -559,6 +578,32 @@ public class SuripuApp extends Application<SuripuAppConfiguration> {
 
         final SenseColorDAO senseColorDAO = new SenseColorDynamoDBDAO(senseMetadataDAO);
 
+        final SensorViewConfiguration sensorViewConfiguration = configuration.sensorViewConfiguration();
+
+        // latest reading per Sense, shared by sensors, room conditions, alexa and supichi
+        final LatestReadingCache latestReadingCache;
+        if(sensorViewConfiguration.asyncLookups()) {
+            // own pool, loads run from the sensor view lookups and must not wait on tasks queued behind them
+            final ExecutorService latestReadingExecutor = environment.lifecycle().executorService("latest_reading_loads")
+                    .minThreads(sensorViewConfiguration.lookupThreads())
+                    .maxThreads(sensorViewConfiguration.lookupThreads())
+                    .workQueue(new ArrayBlockingQueue<>(sensorViewConfiguration.lookupQueueSize()))
+                    .rejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy())
+                    .build();
+            latestReadingCache = LatestReadingCache.create(deviceDataDAODynamoDB, calibrationDAO, senseColorDAO, freshnessThresholdInMinutes,
+                    new InstrumentedExecutorService(latestReadingExecutor, environment.metrics(), "latest-reading-loads"));
+        } else {
+            latestReadingCache = LatestReadingCache.create(deviceDataDAODynamoDB, calibrationDAO, senseColorDAO, freshnessThresholdInMinutes);
+        }
+
+        Optional<HourlyRollups> hourlyRollups = Optional.absent();
+        if(sensorViewConfiguration.hourlyRollups()) {
+            // rollup table lives next to device data, validation makes sure it is configured
+            final SensorRollupDAO sensorRollupDAO = SensorRollupDAODynamoDB.create(deviceDataDAODynamoDBClient,
+                    sensorViewConfiguration.hourlyRollupsTable().get());
+            hourlyRollups = Optional.of(HourlyRollups.create(deviceDataDAODynamoDB, sensorRollupDAO, sensorViewConfiguration.hourlyRollupsClosedAfterMinutes()));
+        }
+
         if (configuration.getDebug()) {
             environment.jersey().register(new VersionResource());
             environment.jersey().register(new PingResource());
@@ -586,7 +631,7 @@ public class SuripuApp extends Application<SuripuAppConfiguration> {
         environment.jersey().register(new OTAResource(deviceDAO, sensorsViewsDynamoDB, otaHistoryDAODynamoDB, respCommandsDAODynamoDB));
 
         environment.jersey().register(new AccountResource(accountDAO, accountLocationDAO, profilePhotoStore));
-        environment.jersey().register(new RoomConditionsResource(deviceDataDAODynamoDB, deviceDAO, configuration.getAllowedQueryRange(), senseColorDAO, calibrationDAO, freshnessThresholdInMinutes));
+        environment.jersey().register(new RoomConditionsResource(deviceDataDAODynamoDB, deviceDAO, configuration.getAllowedQueryRange(), senseColorDAO, calibrationDAO, freshnessThresholdInMinutes, latestReadingCache, hourlyRollups));
         environment.jersey().register(new DeviceResources(deviceDAO, mergedUserInfoDynamoDB, sensorsViewsDynamoDB, pillHeartBeatDAODynamoDB));
 
         final S3BucketConfiguration provisionKeyConfiguration = configuration.getProvisionKeyConfiguration();
@@ -657,7 +702,7 @@ public class SuripuApp extends Application<SuripuAppConfiguration> {
         final TimelineProcessor timelineProcessor =  TimelineProcessor.createTimelineProcessors(timelineProcessorV2, timelineProcessorV3);
 
         environment.jersey().register(new TimelineResource(accountDAO, timelineDAODynamoDB, timelineLogDAO, timelineLogger, timelineProcessorV2));
-        environment.jersey().register(new TimeZoneResource(timeZoneHistoryDAODynamoDB, mergedUserInfoDynamoDB, deviceDAO));
+        environment.jersey().register(new TimeZoneResource(timeZoneHistoryDAODynamoDB, mergedUserInfoDynamoDB, deviceDAO, timeZoneCache));
 
         final AlarmProcessor alarmProcessor = new AlarmProcessor(alarmDAODynamoDB, mergedUserInfoDynamoDB);
         environment.jersey().register(new AlarmResource(deviceDAO, amazonS3, alarmProcessor));
@@ -727,6 +772,11 @@ public class SuripuApp extends Application<SuripuAppConfiguration> {
                 .withVoiceMetadataDAO(voiceMetadataDAO)
                 .withKeyStore(pillKeyStore)
                 .build();
+        // unpaired Senses are only cached for 30 seconds so pairing is picked up quickly
+        final LookupCacheConfiguration primaryAccountCacheConfiguration = configuration.primaryAccountCacheConfiguration();
+        final LookupCache<String, Long> primaryAccountCache = LookupCache.create("sense-primary-account",
+                deviceProcessor::primaryAccount, primaryAccountCacheConfiguration.ttlSeconds(),
+                primaryAccountCacheConfiguration.negativeTtlSeconds(), primaryAccountCacheConfiguration.maxSize(), environment.metrics());
 
 
         // Important, swap_intent has to be connected to the same endpoint as alarm_info
@@ -767,14 +817,13 @@ public class SuripuApp extends Application<SuripuAppConfiguration> {
                 accountDAO,
                 accessTokenDAO,
                 deviceDAO,
-                deviceDataDAODynamoDB,
+                latestReadingCache,
                 timelineDAODynamoDB,
                 messejiClient,
                 SleepSoundsProcessor.create(fileInfoSenseOneDAO, fileInfoSenseOneFiveDAO, fileManifestDAO),
                 durationDAO,
                 timelineProcessor,
                 accountPreferencesDAO,
-                calibrationDAO,
                 mergedUserInfoDynamoDB,
                 alarmDAODynamoDB,
                 voiceResponsesDAO,
@@ -808,7 +857,7 @@ public class SuripuApp extends Application<SuripuAppConfiguration> {
 
 
         final PairedAccounts pairedAccounts = new PairedAccounts(mergedUserInfoDynamoDB, deviceDAO, accountDAO);
-        environment.jersey().register(new DeviceResource(deviceProcessor, swapper, accountDAO, senseMetadataDAO, voiceMetadataDAO, messejiClient, externalTokenStore, pairedAccounts));
+        environment.jersey().register(new DeviceResource(deviceProcessor, swapper, accountDAO, senseMetadataDAO, voiceMetadataDAO, messejiClient, externalTokenStore, pairedAccounts, primaryAccountCache, latestReadingCache));
 
         final TokenCheckerFactory tokenCheckerFactory = new TokenCheckerFactory(deviceDAO, configuration.expansionConfiguration(), expansionStore, externalTokenStore, externalAppDataStore, environment.getObjectMapper());
         environment.jersey().register(new AppStatsResource(appStatsDAO, insightsDAODynamoDB, questionProcessor, accountDAO, timeZoneHistoryDAODynamoDB, tokenCheckerFactory));
@@ -838,9 +887,27 @@ public class SuripuApp extends Application<SuripuAppConfiguration> {
 
 
         final SensorViewFactory sensorViewFactory = new SensorViewFactory(new ScaleFactory(), freshnessThresholdInMinutes);
-        final SensorViewLogic sensorViewLogic = new SensorViewLogic(deviceDataDAODynamoDB, senseKeyStore, deviceDAO,
-                senseColorDAO, calibrationDAO, sensorViewFactory, configuration.availableSensors());
+        final PressureHistory pressureHistory = PressureHistory.create(sensorViewConfiguration.pressureHistoryMaxSenses());
+        final SensorViewLogic sensorViewLogic;
+        if(sensorViewConfiguration.asyncLookups()) {
+            // bounded pool, callers run the lookup themselves once the queue is full
+            final ExecutorService sensorViewExecutor = environment.lifecycle().executorService("sensor_view_lookups")
+                    .minThreads(sensorViewConfiguration.lookupThreads())
+                    .maxThreads(sensorViewConfiguration.lookupThreads())
+                    .workQueue(new ArrayBlockingQueue<>(sensorViewConfiguration.lookupQueueSize()))
+                    .rejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy())
+                    .build();
+            sensorViewLogic = SensorViewLogic.async(deviceDataDAODynamoDB, senseKeyStore, deviceDAO,
+                    senseColorDAO, calibrationDAO, sensorViewFactory, latestReadingCache, configuration.availableSensors(),
+                    new InstrumentedExecutorService(sensorViewExecutor, environment.metrics(), "sensor-view-lookups"),
+                    sensorViewConfiguration.lookupTimeoutMillis(), hourlyRollups, pressureHistory);
+        } else {
+            sensorViewLogic = new SensorViewLogic(deviceDataDAODynamoDB, senseKeyStore, deviceDAO,
+                    senseColorDAO, calibrationDAO, sensorViewFactory, latestReadingCache, configuration.availableSensors(),
+                    Optional.absent(), 0L, hourlyRollups, pressureHistory);
+        }
         environment.jersey().register(new SensorsResource(sensorViewLogic));
+        environment.jersey().register(new CompactBatchQueryResponseWriter());
 
         environment.jersey().register(new AlarmGroupsResource(deviceDAO, amazonS3, alarmProcessor, expansionStore));
 
@@ -861,7 +928,7 @@ public class SuripuApp extends Application<SuripuAppConfiguration> {
         // Default is True. Disable for local dev if you don't care about voice
         if(configuration.speechConfiguration().enabled()) {
             // speech resources
-            final Supichi supichi = new Supichi(environment, configuration, dynamoDBClientFactory, tableNames, commonDB, timelineProcessor, messejiClient, tokenKMSVault, deviceProcessor);
+            final Supichi supichi = new Supichi(environment, configuration, dynamoDBClientFactory, tableNames, commonDB, timelineProcessor, messejiClient, tokenKMSVault, latestReadingCache, primaryAccountCache, timeZoneCache);
 
             environment.jersey().register(supichi.demoUploadResource());
             environment.jersey().register(supichi.uploadResource());
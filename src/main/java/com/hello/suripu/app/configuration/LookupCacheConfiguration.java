@@ -0,0 +1,41 @@
+package com.hello.suripu.app.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+public class LookupCacheConfiguration {
+
+    @NotNull
+    @Min(1)
+    @JsonProperty("ttl_seconds")
+    private Integer ttlSeconds;
+    public Integer ttlSeconds() {
+        return ttlSeconds;
+    }
+
+    // absent values are re-read sooner, e.g. right after pairing
+    @NotNull
+    @Min(1)
+    @JsonProperty("negative_ttl_seconds")
+    private Integer negativeTtlSeconds;
+    public Integer negativeTtlSeconds() {
+        return negativeTtlSeconds;
+    }
+
+    @NotNull
+    @Min(1)
+    @JsonProperty("max_size")
+    private Integer maxSize = 100000;
+    public Integer maxSize() {
+        return maxSize;
+    }
+
+    private LookupCacheConfiguration() {}
+
+    public LookupCacheConfiguration(final Integer ttlSeconds, final Integer negativeTtlSeconds) {
+        this.ttlSeconds = ttlSeconds;
+        this.negativeTtlSeconds = negativeTtlSeconds;
+    }
+}
@@ -0,0 +1,84 @@
+package com.hello.suripu.app.configuration;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Optional;
+
+import javax.validation.Valid;
+import javax.validation.constraints.AssertTrue;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+
+public class SensorViewConfiguration {
+
+    @Valid
+    @JsonProperty("async_lookups")
+    private Boolean asyncLookups = false;
+    public Boolean asyncLookups() {
+        return asyncLookups;
+    }
+
+    @Valid
+    @Min(1)
+    @Max(128)
+    @JsonProperty("lookup_threads")
+    private Integer lookupThreads = 16;
+    public Integer lookupThreads() {
+        return lookupThreads;
+    }
+
+    @Valid
+    @Min(1)
+    @JsonProperty("lookup_queue_size")
+    private Integer lookupQueueSize = 256;
+    public Integer lookupQueueSize() {
+        return lookupQueueSize;
+    }
+
+    @Valid
+    @Min(1)
+    @JsonProperty("lookup_timeout_millis")
+    private Long lookupTimeoutMillis = 500L;
+    public Long lookupTimeoutMillis() {
+        return lookupTimeoutMillis;
+    }
+
+    @Valid
+    @JsonProperty("hourly_rollups")
+    private Boolean hourlyRollups = false;
+    public Boolean hourlyRollups() {
+        return hourlyRollups;
+    }
+
+    // required when hourly_rollups is enabled
+    @JsonProperty("hourly_rollups_table")
+    private String hourlyRollupsTable;
+    public Optional<String> hourlyRollupsTable() {
+        return Optional.fromNullable(hourlyRollupsTable);
+    }
+
+    @JsonIgnore
+    @AssertTrue(message = "hourly_rollups_table is required when hourly_rollups is enabled")
+    public boolean isHourlyRollupsTableSet() {
+        return !hourlyRollups || hourlyRollupsTable != null;
+    }
+
+    // readings uploaded after an hour is closed are not in the week view
+    @Valid
+    @Min(0)
+    @Max(59)
+    @JsonProperty("hourly_rollups_closed_after_minutes")
+    private Integer hourlyRollupsClosedAfterMinutes = 30;
+    public Integer hourlyRollupsClosedAfterMinutes() {
+        return hourlyRollupsClosedAfterMinutes;
+    }
+
+    // bounds the memory used by the pressure history, about 1.5KB per Sense
+    @Valid
+    @Min(1)
+    @JsonProperty("pressure_history_max_senses")
+    private Integer pressureHistoryMaxSenses = 20000;
+    public Integer pressureHistoryMaxSenses() {
+        return pressureHistoryMaxSenses;
+    }
+}
@@ -268,6 +268,28 @@ public class SuripuAppConfiguration extends Configuration {
         return availableSensors;
     }
 
+    @Valid
+    @JsonProperty("sensor_view")
+    private SensorViewConfiguration sensorViewConfiguration = new SensorViewConfiguration();
+    public SensorViewConfiguration sensorViewConfiguration() {
+        return sensorViewConfiguration;
+    }
+
+    @Valid
+    @JsonProperty("timezone_cache")
+    private LookupCacheConfiguration timeZoneCacheConfiguration = new LookupCacheConfiguration(600, 60);
+    public LookupCacheConfiguration timeZoneCacheConfiguration() {
+        return timeZoneCacheConfiguration;
+    }
+
+    // pairings also change outside of this service (e.g. re-pairing a Sense), keep this short
+    @Valid
+    @JsonProperty("primary_account_cache")
+    private LookupCacheConfiguration primaryAccountCacheConfiguration = new LookupCacheConfiguration(60, 30);
+    public LookupCacheConfiguration primaryAccountCacheConfiguration() {
+        return primaryAccountCacheConfiguration;
+    }
+
     @JsonProperty("export_data_queue_url")
     private String exportDataQueueUrl = "";
     public String exportDataQueueUrl() {
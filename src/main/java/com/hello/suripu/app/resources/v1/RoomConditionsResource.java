@@ -6,6 +6,11 @@ import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
 import com.codahale.metrics.annotation.Timed;
+import com.hello.suripu.app.sensors.LatestReading;
+import com.hello.suripu.app.sensors.LatestReadingCache;
+import com.hello.suripu.app.sensors.SensorCursor;
+import com.hello.suripu.app.sensors.SensorEntityTags;
+import com.hello.suripu.app.sensors.rollups.HourlyRollups;
 import com.hello.suripu.core.db.CalibrationDAO;
 import com.hello.suripu.core.db.DeviceDAO;
 import com.hello.suripu.core.db.DeviceDataDAODynamoDB;
@@ -32,6 +37,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
+import javax.servlet.http.HttpServletResponse;
 import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
@@ -39,7 +45,10 @@ import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import java.util.Collections;
 import java.util.List;
@@ -51,6 +60,9 @@ public class RoomConditionsResource extends BaseResource {
     @Inject
     RolloutClient feature;
 
+    @Context
+    HttpServletResponse servletResponse;
+
     private static final Logger LOGGER = LoggerFactory.getLogger(RoomConditionsResource.class);
     private final static ImmutableSet<String> hiddenSensors = ImmutableSet.copyOf(Sets.newHashSet("light_variance", "light_peakiness", "dust_min", "dust_max", "dust_variance"));
 
@@ -63,18 +75,24 @@ public class RoomConditionsResource extends BaseResource {
     private final SenseColorDAO senseColorDAO;
     private final CalibrationDAO calibrationDAO;
     private final Integer freshnessThresholdInMinutes;
+    private final LatestReadingCache latestReadingCache;
+    private final Optional<HourlyRollups> hourlyRollups;
 
     public RoomConditionsResource(
             final DeviceDataDAODynamoDB deviceDataDAODynamoDB, final DeviceDAO deviceDAO,
             final long allowedRangeInSeconds,final SenseColorDAO senseColorDAO,
             final CalibrationDAO calibrationDAO,
-            final Integer freshnessThresholdInMinutes) {
+            final Integer freshnessThresholdInMinutes,
+            final LatestReadingCache latestReadingCache,
+            final Optional<HourlyRollups> hourlyRollups) {
         this.deviceDataDAODynamoDB = deviceDataDAODynamoDB;
         this.deviceDAO = deviceDAO;
         this.allowedRangeInSeconds = allowedRangeInSeconds;
         this.senseColorDAO = senseColorDAO;
         this.calibrationDAO = calibrationDAO;
         this.freshnessThresholdInMinutes = freshnessThresholdInMinutes;
+        this.latestReadingCache = latestReadingCache;
+        this.hourlyRollups = hourlyRollups;
     }
 
 
@@ -83,48 +101,66 @@ public class RoomConditionsResource extends BaseResource {
     @GET
     @Path("/current")
     @Produces(MediaType.APPLICATION_JSON)
-    public CurrentRoomState current(@Auth final AccessToken token,
-                                    @DefaultValue("c") @QueryParam("temp_unit") final String unit) {
+    public Response current(@Auth final AccessToken token,
+                            @DefaultValue("c") @QueryParam("temp_unit") final String unit,
+                            @Context final Request request) {
 
 
         final Optional<DeviceAccountPair> deviceIdPair = deviceDAO.getMostRecentSensePairByAccountId(token.accountId);
 
         if(!deviceIdPair.isPresent()) {
             LOGGER.warn("Did not find any device_id for account_id = {}", token.accountId);
-            return CurrentRoomState.empty(false); // at this stage we don't have a Sense id, so we can't use FF.
+            return Response.ok(CurrentRoomState.empty(false)).build(); // at this stage we don't have a Sense id, so we can't use FF.
         }
 
-        final Optional<Calibration> calibrationOptional = getCalibrationStrict(deviceIdPair.get().externalDeviceId);
+        final String senseId = deviceIdPair.get().externalDeviceId;
+        final boolean delayedThreshold = this.hasDelayCurrentRoomStateThreshold(token.accountId);
+
+        // The shared cache uses the default look back, accounts with a delayed threshold still query directly
+        final LatestReading latestReading = delayedThreshold
+                ? LatestReading.empty(DateTime.now(DateTimeZone.UTC))
+                : latestReadingCache.get(token.accountId, senseId);
+
+        final Optional<Calibration> calibrationOptional = delayedThreshold ? getCalibrationStrict(senseId) : latestReading.calibration;
         final Boolean hasDust = calibrationOptional.isPresent();
 
         if(isSensorsViewUnavailable(token.accountId)) {
             LOGGER.warn("SENSORS VIEW UNAVAILABLE FOR USER {}", token.accountId);
-            return CurrentRoomState.empty(hasDust);
+            return Response.ok(CurrentRoomState.empty(hasDust)).build();
+        }
+
+        final boolean colorCompensation = this.hasColorCompensationEnabled(token.accountId);
+        final Optional<EntityTag> entityTag = delayedThreshold
+                ? Optional.absent()
+                : Optional.of(SensorEntityTags.from(senseId, latestReading, DateTime.now(DateTimeZone.UTC), unit, colorCompensation));
+        if(entityTag.isPresent()) {
+            final Response.ResponseBuilder notModified = request.evaluatePreconditions(entityTag.get());
+            if(notModified != null) {
+                return notModified.build();
+            }
         }
 
         Integer thresholdInMinutes = freshnessThresholdInMinutes;
-        Integer mostRecentLookBackMinutes = 30;
-        if (this.hasDelayCurrentRoomStateThreshold(token.accountId)) {
+        Optional<DeviceData> data = latestReading.deviceData;
+        if (delayedThreshold) {
             thresholdInMinutes = 120;
-            mostRecentLookBackMinutes = 120;
+            final Integer mostRecentLookBackMinutes = 120;
+            final DateTime maxDT = DateTime.now(DateTimeZone.UTC).plusMinutes(2);
+            final DateTime minDT = DateTime.now(DateTimeZone.UTC).minusMinutes(mostRecentLookBackMinutes);
+            data = deviceDataDAODynamoDB.getMostRecent(token.accountId, senseId, maxDT, minDT);
         }
 
-        final DateTime maxDT = DateTime.now(DateTimeZone.UTC).plusMinutes(2);
-        final DateTime minDT = DateTime.now(DateTimeZone.UTC).minusMinutes(mostRecentLookBackMinutes);
-        final Optional<DeviceData> data = deviceDataDAODynamoDB.getMostRecent(
-                token.accountId, deviceIdPair.get().externalDeviceId, maxDT, minDT);
-
 
         if(!data.isPresent()) {
-            return CurrentRoomState.empty(hasDust);
+            return withTag(Response.ok(CurrentRoomState.empty(hasDust)), entityTag);
         }
 
         //default -- return the usual
         DeviceData deviceData = data.get();
 
-        if (this.hasColorCompensationEnabled(token.accountId)) {
+        if (colorCompensation) {
             //color compensation?  get the color
-            final Optional<Device.Color> color = senseColorDAO.getColorForSense(deviceIdPair.get().externalDeviceId);
+            final Optional<Device.Color> color = delayedThreshold ? senseColorDAO.getColorForSense(senseId) : latestReading.color;
             deviceData = data.get().withCalibratedLight(color); //and compensate 
         }
 
@@ -132,7 +168,11 @@ public class RoomConditionsResource extends BaseResource {
 
         final CurrentRoomState roomState = CurrentRoomState.fromDeviceData(deviceData, DateTime.now(), thresholdInMinutes, unit, calibrationOptional, NO_SOUND_FILL_VALUE_DB);
 
-        return roomState.withDust(hasDust);
+        return withTag(Response.ok(roomState.withDust(hasDust)), entityTag);
+    }
+
+    private static Response withTag(final Response.ResponseBuilder builder, final Optional<EntityTag> entityTag) {
+        return entityTag.isPresent() ? builder.tag(entityTag.get()).build() : builder.build();
     }
 
 
@@ -187,15 +227,17 @@ public class RoomConditionsResource extends BaseResource {
     public List<Sample> getLast24hours(
             @Auth final AccessToken accessToken,
             @PathParam("sensor") String sensorName,
-            @QueryParam("from_utc") Long queryEndTimestampUTC) {
+            @QueryParam("from_utc") Long queryEndTimestampUTC,
+            @QueryParam("since_utc") Long sinceUTC) {
 
         if (hiddenSensors.contains(sensorName)) {
             throw new WebApplicationException(Response.status(Response.Status.NOT_FOUND).build());
         }
         validateQueryRange(queryEndTimestampUTC, DateTime.now(), accessToken.accountId, allowedRangeInSeconds);
+        final Optional<Long> since = validateSince(sinceUTC, queryEndTimestampUTC);
 
         final int slotDurationInMinutes = 5;
-        final long queryStartTimeUTC = new DateTime(queryEndTimestampUTC, DateTimeZone.UTC).minusHours(24).getMillis();
+        final long queryStartTimeUTC = SensorCursor.start(new DateTime(queryEndTimestampUTC, DateTimeZone.UTC).minusHours(24).getMillis(), since);
 
 
         // get latest device_id connected to this account
@@ -216,7 +258,9 @@ public class RoomConditionsResource extends BaseResource {
                 slotDurationInMinutes, sensor, missingDataDefaultValue(accessToken.accountId), color, calibrationOptional,
                 useAudioPeakEnergy(accessToken.accountId));
 
-        return adjustTimeSeries(timeSeries, sensor, deviceIdPair.get().externalDeviceId);
+        final List<Sample> newSamples = SensorCursor.after(timeSeries, since);
+        setCursor(SensorCursor.cursor(newSamples, slotDurationInMinutes, queryEndTimestampUTC, since));
+        return adjustTimeSeries(newSamples, sensor, deviceIdPair.get().externalDeviceId);
     }
 
     @ScopesAllowed({OAuthScope.SENSORS_BASIC})
@@ -227,7 +271,8 @@ public class RoomConditionsResource extends BaseResource {
     public  Map<Sensor, List<Sample>> getAllSensorsLast24hours(
             @Auth final AccessToken accessToken,
             @PathParam("sensor") String sensor,
-            @QueryParam("from_utc") Long queryEndTimestampUTC) {
+            @QueryParam("from_utc") Long queryEndTimestampUTC,
+            @QueryParam("since_utc") Long sinceUTC) {
 
         if (hiddenSensors.contains(sensor)) {
             throw new WebApplicationException(Response.status(Response.Status.NOT_FOUND).build());
@@ -238,9 +283,10 @@ public class RoomConditionsResource extends BaseResource {
             return AllSensorSampleList.getEmptyData();
         }
         validateQueryRange(queryEndTimestampUTC, DateTime.now(), accessToken.accountId, allowedRangeInSeconds);
+        final Optional<Long> since = validateSince(sinceUTC, queryEndTimestampUTC);
 
         final int slotDurationInMinutes = 5;
-        final long queryStartTimeUTC = new DateTime(queryEndTimestampUTC, DateTimeZone.UTC).minusHours(24).getMillis();
+        final long queryStartTimeUTC = SensorCursor.start(new DateTime(queryEndTimestampUTC, DateTimeZone.UTC).minusHours(24).getMillis(), since);
 
 
         // get latest device_id connected to this account
@@ -256,10 +302,11 @@ public class RoomConditionsResource extends BaseResource {
 
         final Optional<Calibration> calibrationOptional = getCalibrationStrict(deviceIdPair.get().externalDeviceId);
 
-        final AllSensorSampleList sensorData = deviceDataDAODynamoDB.generateTimeSeriesByUTCTimeAllSensors(
+        final AllSensorSampleList sensorData = SensorCursor.after(deviceDataDAODynamoDB.generateTimeSeriesByUTCTimeAllSensors(
                 queryStartTimeUTC, queryEndTimestampUTC, accessToken.accountId, deviceIdPair.get().externalDeviceId, slotDurationInMinutes,
-                missingDataDefaultValue(accessToken.accountId), color, calibrationOptional, useAudioPeakEnergy(accessToken.accountId));
+                missingDataDefaultValue(accessToken.accountId), color, calibrationOptional, useAudioPeakEnergy(accessToken.accountId)), since);
 
+        setCursor(SensorCursor.cursor(sensorData, slotDurationInMinutes, queryEndTimestampUTC, since));
         if (sensorData.isEmpty()) {
             return AllSensorSampleList.getEmptyData();
         }
@@ -277,9 +324,11 @@ public class RoomConditionsResource extends BaseResource {
     public  Map<Sensor, List<Sample>> getAllSensorsLastHours(
             @Auth final AccessToken accessToken,
             @QueryParam("quantity") Integer quantity,
-            @QueryParam("from_utc") Long queryEndTimestampUTC) {
+            @QueryParam("from_utc") Long queryEndTimestampUTC,
+            @QueryParam("since_utc") Long sinceUTC) {
 
         validateQueryRange(queryEndTimestampUTC, DateTime.now(), accessToken.accountId, allowedRangeInSeconds);
+        final Optional<Long> since = validateSince(sinceUTC, queryEndTimestampUTC);
 
 
         if(isSensorsViewUnavailable(accessToken.accountId)) {
@@ -289,7 +338,7 @@ public class RoomConditionsResource extends BaseResource {
 
 
         final int slotDurationInMinutes = 5;
-        final long queryStartTimeUTC = new DateTime(queryEndTimestampUTC, DateTimeZone.UTC).minusHours(quantity).getMillis();
+        final long queryStartTimeUTC = SensorCursor.start(new DateTime(queryEndTimestampUTC, DateTimeZone.UTC).minusHours(quantity).getMillis(), since);
 
 
         // get latest device_id connected to this account
@@ -305,11 +354,12 @@ public class RoomConditionsResource extends BaseResource {
 
         final Optional<Calibration> calibrationOptional = getCalibrationStrict(deviceIdPair.get().externalDeviceId);
 
-        final AllSensorSampleList sensorData = deviceDataDAODynamoDB.generateTimeSeriesByUTCTimeAllSensors(
+        final AllSensorSampleList sensorData = SensorCursor.after(deviceDataDAODynamoDB.generateTimeSeriesByUTCTimeAllSensors(
                 queryStartTimeUTC, queryEndTimestampUTC, accessToken.accountId, deviceIdPair.get().externalDeviceId,
                 slotDurationInMinutes, missingDataDefaultValue(accessToken.accountId), color, calibrationOptional,
-                useAudioPeakEnergy(accessToken.accountId));
+                useAudioPeakEnergy(accessToken.accountId)), since);
 
+        setCursor(SensorCursor.cursor(sensorData, slotDurationInMinutes, queryEndTimestampUTC, since));
         if (sensorData.isEmpty()) {
             return AllSensorSampleList.getEmptyData();
         }
@@ -467,6 +517,23 @@ public class RoomConditionsResource extends BaseResource {
         }
     }
 
+    /**
+     * The cursor must not be after the end of the query, older cursors just return the whole range
+     */
+    private static Optional<Long> validateSince(final Long sinceUTC, final Long queryEndTimestampUTC) {
+        final Optional<Long> since = Optional.fromNullable(sinceUTC);
+        if(!SensorCursor.isValid(since, queryEndTimestampUTC)) {
+            throw new WebApplicationException(Response.Status.BAD_REQUEST);
+        }
+        return since;
+    }
+
+    private void setCursor(final Optional<Long> cursor) {
+        if(cursor.isPresent() && servletResponse != null) {
+            servletResponse.setHeader(SensorCursor.HEADER, String.valueOf(cursor.get()));
+        }
+    }
+
     private List<Sample> retrieveDayData(final Long accountId, final Sensor sensor, final Long queryEndTimestampInUTC) {
 
         if(isSensorsViewUnavailable(accountId)) {
@@ -585,10 +652,14 @@ public class RoomConditionsResource extends BaseResource {
 
         final Optional<Calibration> calibrationOptional = getCalibrationStrict(deviceIdPair.get().externalDeviceId);
 
-        final AllSensorSampleList sensorData = deviceDataDAODynamoDB.generateTimeSeriesByUTCTimeAllSensors(
-                queryStartTimeInUTC, queryEndTimestampInUTC, accountId, deviceIdPair.get().externalDeviceId,
-                slotDurationInMinutes, missingDataDefaultValue(accountId), color, calibrationOptional,
-                useAudioPeakEnergy(accountId));
+        final AllSensorSampleList sensorData = hourlyRollups.isPresent()
+                ? hourlyRollups.get().generateTimeSeriesByUTCTimeAllSensors(
+                        queryStartTimeInUTC, queryEndTimestampInUTC, accountId, deviceIdPair.get().externalDeviceId,
+                        missingDataDefaultValue(accountId), color, calibrationOptional, useAudioPeakEnergy(accountId))
+                : deviceDataDAODynamoDB.generateTimeSeriesByUTCTimeAllSensors(
+                        queryStartTimeInUTC, queryEndTimestampInUTC, accountId, deviceIdPair.get().externalDeviceId,
+                        slotDurationInMinutes, missingDataDefaultValue(accountId), color, calibrationOptional,
+                        useAudioPeakEnergy(accountId));
 
         if (sensorData.isEmpty()) {
             return AllSensorSampleList.getEmptyData();
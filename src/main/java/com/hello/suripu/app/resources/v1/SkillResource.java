@@ -1,12 +1,11 @@
 package com.hello.suripu.app.resources.v1;
 
 import com.amazon.speech.speechlet.servlet.SpeechletServlet;
+import com.hello.suripu.app.sensors.LatestReadingCache;
 import com.hello.suripu.app.service.SenseSpeechlet;
 import com.hello.suripu.app.service.TestVoiceResponsesDAO;
 import com.hello.suripu.core.db.AccountDAO;
 import com.hello.suripu.core.db.AlarmDAODynamoDB;
-import com.hello.suripu.core.db.CalibrationDAO;
-import com.hello.suripu.core.db.DeviceDataDAODynamoDB;
 import com.hello.suripu.core.db.DeviceReadDAO;
 import com.hello.suripu.core.db.MergedUserInfoDynamoDB;
 import com.hello.suripu.core.db.SleepStatsDAO;
@@ -48,14 +47,13 @@ public class SkillResource extends SpeechletServlet {
   public SkillResource(final AccountDAO accountDAO,
                        final AccessTokenDAO accessTokenDAO,
                        final DeviceReadDAO deviceReadDAO,
-                       final DeviceDataDAODynamoDB deviceDataDAO,
+                       final LatestReadingCache latestReadingCache,
                        final TimelineDAODynamoDB timelineDAODynamoDB,
                        final MessejiClient messejiClient,
                        final SleepSoundsProcessor sleepSoundsProcessor,
                        final DurationDAO durationDAO,
                        final TimelineProcessor timelineProcessor,
                        final AccountPreferencesDAO preferencesDAO,
-                       final CalibrationDAO calibrationDAO,
                        final MergedUserInfoDynamoDB mergedUserInfoDynamoDB,
                        final AlarmDAODynamoDB alarmDAODynamoDB,
                        final TestVoiceResponsesDAO voiceResponsesDAO,
@@ -63,14 +61,13 @@ public class SkillResource extends SpeechletServlet {
     setSpeechlet(new SenseSpeechlet(accountDAO,
         accessTokenDAO,
         deviceReadDAO,
-        deviceDataDAO,
+        latestReadingCache,
         timelineDAODynamoDB,
         messejiClient,
         sleepSoundsProcessor,
         durationDAO,
         timelineProcessor,
         preferencesDAO,
-        calibrationDAO,
         mergedUserInfoDynamoDB,
         alarmDAODynamoDB,
         voiceResponsesDAO,
@@ -5,6 +5,7 @@ import com.google.common.base.Function;
 import com.google.common.base.Optional;
 
 import com.codahale.metrics.annotation.Timed;
+import com.hello.suripu.app.utils.LookupCache;
 import com.hello.suripu.core.db.DeviceDAO;
 import com.hello.suripu.core.db.MergedUserInfoDynamoDB;
 import com.hello.suripu.core.db.TimeZoneHistoryDAODynamoDB;
@@ -42,13 +43,29 @@ public class TimeZoneResource {
     private final TimeZoneHistoryDAODynamoDB timeZoneHistoryDAODynamoDB;
     private final MergedUserInfoDynamoDB mergedUserInfoDynamoDB;
     private final DeviceDAO deviceDAO;
+    private final Optional<LookupCache<Long, TimeZoneHistory>> timeZoneCache;
 
     public TimeZoneResource(final TimeZoneHistoryDAODynamoDB timeZoneHistoryDAODynamoDB,
                             final MergedUserInfoDynamoDB mergedUserInfoDynamoDB,
                             final DeviceDAO deviceDAO){
+        this(timeZoneHistoryDAODynamoDB, mergedUserInfoDynamoDB, deviceDAO, Optional.<LookupCache<Long, TimeZoneHistory>>absent());
+    }
+
+    public TimeZoneResource(final TimeZoneHistoryDAODynamoDB timeZoneHistoryDAODynamoDB,
+                            final MergedUserInfoDynamoDB mergedUserInfoDynamoDB,
+                            final DeviceDAO deviceDAO,
+                            final LookupCache<Long, TimeZoneHistory> timeZoneCache){
+        this(timeZoneHistoryDAODynamoDB, mergedUserInfoDynamoDB, deviceDAO, Optional.of(timeZoneCache));
+    }
+
+    private TimeZoneResource(final TimeZoneHistoryDAODynamoDB timeZoneHistoryDAODynamoDB,
+                             final MergedUserInfoDynamoDB mergedUserInfoDynamoDB,
+                             final DeviceDAO deviceDAO,
+                             final Optional<LookupCache<Long, TimeZoneHistory>> timeZoneCache){
         this.timeZoneHistoryDAODynamoDB = timeZoneHistoryDAODynamoDB;
         this.deviceDAO = deviceDAO;
         this.mergedUserInfoDynamoDB = mergedUserInfoDynamoDB;
+        this.timeZoneCache = timeZoneCache;
     }
 
     @ScopesAllowed({OAuthScope.USER_BASIC})
@@ -78,6 +95,9 @@ public class TimeZoneResource {
                         timeZoneHistory.timeZoneId,
                         timeZoneHistory.offsetMillis
                 );
+                if (timeZoneCache.isPresent()) {
+                    timeZoneCache.get().invalidate(token.accountId);
+                }
 
                 if (!timeZoneHistoryOptional.isPresent()) {
                     LOGGER.error("account {} set timezone history to id {}, offset {}, failed.",
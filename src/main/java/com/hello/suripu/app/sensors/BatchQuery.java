@@ -3,26 +3,64 @@ package com.hello.suripu.app.sensors;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.base.MoreObjects;
+import com.google.common.base.Optional;
 import com.hello.suripu.core.models.Sensor;
 
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
 import java.util.List;
 
 public class BatchQuery {
 
+    public static final int MIN_POINTS = 2;
+    public static final int MAX_POINTS = 2016; // a week of 5 minute slots
+
     private final QueryScope scope;
     private final List<Sensor> sensors;
+    private final AggregationMethod aggregation;
+
+    @Min(MIN_POINTS)
+    @Max(MAX_POINTS)
+    private final Integer points;
+
+    private final DownsamplingMethod downsampling;
+
+    @Min(0)
+    private final Long since;
 
-    private BatchQuery(QueryScope scope, List<Sensor> sensors) {
+    private BatchQuery(QueryScope scope, List<Sensor> sensors, AggregationMethod aggregation, Integer points, DownsamplingMethod downsampling,
+                       Long since) {
         this.scope = scope;
         this.sensors = sensors;
+        this.aggregation = aggregation;
+        this.points = points;
+        this.downsampling = downsampling;
+        this.since = since;
+    }
+
+    public static BatchQuery create(final QueryScope scope, final List<Sensor> sensors) {
+        return new BatchQuery(scope, sensors, AggregationMethod.AVG, null, DownsamplingMethod.BUCKETS, null);
+    }
+
+    public static BatchQuery create(final QueryScope scope, final List<Sensor> sensors, final AggregationMethod aggregation,
+                                    final Integer points, final DownsamplingMethod downsampling) {
+        return create(scope, sensors, aggregation, points, downsampling, null);
     }
 
     @JsonCreator
     public static BatchQuery create(
             @JsonProperty("scope") final QueryScope scope,
-            @JsonProperty("sensors") final List<Sensor> sensors) {
+            @JsonProperty("sensors") final List<Sensor> sensors,
+            @JsonProperty("aggregation") final AggregationMethod aggregation,
+            @JsonProperty("points") final Integer points,
+            @JsonProperty("downsampling") final DownsamplingMethod downsampling,
+            @JsonProperty("since") final Long since) {
 
-        return new BatchQuery(scope, sensors);
+        return new BatchQuery(scope, sensors,
+                (aggregation == null) ? AggregationMethod.AVG : aggregation,
+                points,
+                (downsampling == null) ? DownsamplingMethod.BUCKETS : downsampling,
+                since);
     }
 
     public QueryScope scope() {
@@ -33,11 +71,37 @@ public class BatchQuery {
         return sensors;
     }
 
+    public AggregationMethod aggregation() {
+        return aggregation;
+    }
+
+    /**
+     * Target number of points, absent to get every slot of the scope
+     */
+    public Optional<Integer> points() {
+        return Optional.fromNullable(points);
+    }
+
+    public DownsamplingMethod downsampling() {
+        return downsampling;
+    }
+
+    /**
+     * Cursor from a previous response, absent to get the whole scope
+     */
+    public Optional<Long> since() {
+        return Optional.fromNullable(since);
+    }
+
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(BatchQuery.class)
                 .add("scope", scope)
                 .add("sensors", sensors)
+                .add("aggregation", aggregation)
+                .add("points", points)
+                .add("downsampling", downsampling)
+                .add("since", since)
                 .toString();
     }
 }
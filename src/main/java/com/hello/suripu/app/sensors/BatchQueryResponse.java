@@ -1,49 +1,57 @@
 package com.hello.suripu.app.sensors;
 
-import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.google.common.base.Optional;
 import com.google.common.collect.Maps;
 import com.hello.suripu.core.models.Sensor;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
+/**
+ * Written to JSON by {@link BatchQueryResponseSerializer} only
+ */
+@JsonSerialize(using = BatchQueryResponseSerializer.class)
 public class BatchQueryResponse {
     private final Map<Sensor, SensorData> sensorData;
     private final List<X> timestamps;
+    private final Optional<Long> cursor;
 
-    private BatchQueryResponse(Map<Sensor, SensorData> sensorData, final List<X> timestamps) {
+    private BatchQueryResponse(Map<Sensor, SensorData> sensorData, final List<X> timestamps, final Optional<Long> cursor) {
         this.sensorData = sensorData;
         this.timestamps = timestamps;
+        this.cursor = cursor;
     }
 
     public static BatchQueryResponse ok(final Map<Sensor, SensorData> sensorData, final List<X> timestamps) {
-        return new BatchQueryResponse(sensorData, timestamps);
+        return new BatchQueryResponse(sensorData, timestamps, Optional.absent());
     }
 
     public static BatchQueryResponse noSense() {
-        return new BatchQueryResponse( Maps.newHashMap(), new ArrayList<>());
+        return new BatchQueryResponse( Maps.newHashMap(), new ArrayList<>(), Optional.absent());
     }
 
     public static BatchQueryResponse noData() {
-        return new BatchQueryResponse(Maps.newHashMap(), new ArrayList<>());
+        return new BatchQueryResponse(Maps.newHashMap(), new ArrayList<>(), Optional.absent());
+    }
+
+    public BatchQueryResponse withCursor(final Optional<Long> cursor) {
+        return new BatchQueryResponse(sensorData, timestamps, cursor);
     }
 
-    @JsonProperty("timestamps")
     public List<X> timestamps() {
         return timestamps;
     }
 
-    @JsonProperty("sensors")
-    public Map<String, float[]> sensors() {
+    /**
+     * Pass as since in the next query to only get newer slots
+     */
+    public Optional<Long> cursor() {
+        return cursor;
+    }
 
-        return sensorData.entrySet()
-                .stream()
-                .collect(
-                        Collectors.toMap(
-                                e -> e.getKey().name(),
-                                e -> e.getValue().values())
-                );
+    public Map<Sensor, SensorData> sensorData() {
+        return sensorData;
     }
-}
\ No newline at end of file
+}
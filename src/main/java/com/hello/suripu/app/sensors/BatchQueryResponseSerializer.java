@@ -0,0 +1,50 @@
+package com.hello.suripu.app.sensors;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.hello.suripu.core.models.Sensor;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Writes the sensor arrays straight from the response instead of building an intermediate map.
+ * Sensors are keyed by name and an absent cursor is left out.
+ */
+public class BatchQueryResponseSerializer extends StdSerializer<BatchQueryResponse> {
+
+    public BatchQueryResponseSerializer() {
+        super(BatchQueryResponse.class);
+    }
+
+    @Override
+    public void serialize(final BatchQueryResponse response, final JsonGenerator gen, final SerializerProvider provider) throws IOException {
+        gen.writeStartObject();
+
+        gen.writeArrayFieldStart("timestamps");
+        for(final X x : response.timestamps()) {
+            gen.writeStartObject();
+            gen.writeNumberField("t", x.timestamp());
+            gen.writeNumberField("o", x.offsetMillis());
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+
+        gen.writeObjectFieldStart("sensors");
+        for(final Map.Entry<Sensor, SensorData> entry : response.sensorData().entrySet()) {
+            gen.writeArrayFieldStart(entry.getKey().name());
+            for(final float value : entry.getValue().values()) {
+                gen.writeNumber(value);
+            }
+            gen.writeEndArray();
+        }
+        gen.writeEndObject();
+
+        if(response.cursor().isPresent()) {
+            gen.writeNumberField("cursor", response.cursor().get());
+        }
+
+        gen.writeEndObject();
+    }
+}
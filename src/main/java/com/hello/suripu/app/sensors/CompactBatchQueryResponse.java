@@ -0,0 +1,162 @@
+package com.hello.suripu.app.sensors;
+
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import com.hello.suripu.core.models.Sensor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact encoding of a {@link BatchQueryResponse}, written with the protobuf wire format:
+ *
+ * <pre>
+ * message CompactBatchQueryResponse {
+ *     optional int64 start = 1;                      // first timestamp, millis
+ *     optional int64 step = 2;                       // millis between timestamps, 0 if not on a regular grid
+ *     optional int32 count = 3;                      // number of timestamps
+ *     repeated OffsetChange offsets = 4;             // offset for index and following timestamps
+ *     repeated sint64 timestamp_deltas = 5 [packed]; // only when step is 0, deltas from the previous timestamp
+ *     repeated Column columns = 6;
+ *     optional int64 cursor = 7;                     // see BatchQueryResponse#cursor
+ * }
+ * message OffsetChange {
+ *     optional int32 index = 1;
+ *     optional sint32 offset_millis = 2;
+ * }
+ * message Column {
+ *     optional string sensor = 1;
+ *     optional int32 scale = 2;                      // value = quantized / scale
+ *     repeated sint64 deltas = 3 [packed];           // quantized values, deltas from the previous value
+ * }
+ * </pre>
+ *
+ * Values are already rounded to one decimal so quantizing them by 10 is lossless.
+ */
+public class CompactBatchQueryResponse {
+
+    public static final String MEDIA_TYPE = "application/x-protobuf";
+
+    public static final int SCALE = 10;
+
+    private static final int START = 1;
+    private static final int STEP = 2;
+    private static final int COUNT = 3;
+    private static final int OFFSETS = 4;
+    private static final int TIMESTAMP_DELTAS = 5;
+    private static final int COLUMNS = 6;
+    private static final int CURSOR = 7;
+
+    private static final int OFFSET_INDEX = 1;
+    private static final int OFFSET_MILLIS = 2;
+
+    private static final int COLUMN_SENSOR = 1;
+    private static final int COLUMN_SCALE = 2;
+    private static final int COLUMN_DELTAS = 3;
+
+    private CompactBatchQueryResponse() {}
+
+    public static void write(final BatchQueryResponse response, final OutputStream outputStream) throws IOException {
+        final CodedOutputStream out = CodedOutputStream.newInstance(outputStream);
+        final List<X> timestamps = response.timestamps();
+        final int count = timestamps.size();
+
+        if(count > 0) {
+            final long start = timestamps.get(0).timestamp();
+            final long step = step(timestamps);
+            out.writeInt64(START, start);
+            out.writeInt64(STEP, step);
+            out.writeInt32(COUNT, count);
+
+            int previousOffset = 0;
+            for(int i = 0; i < count; i++) {
+                final int offset = timestamps.get(i).offsetMillis();
+                if(i == 0 || offset != previousOffset) {
+                    out.writeTag(OFFSETS, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+                    out.writeUInt32NoTag(CodedOutputStream.computeInt32Size(OFFSET_INDEX, i) + CodedOutputStream.computeSInt32Size(OFFSET_MILLIS, offset));
+                    out.writeInt32(OFFSET_INDEX, i);
+                    out.writeSInt32(OFFSET_MILLIS, offset);
+                    previousOffset = offset;
+                }
+            }
+
+            if(step == 0L) {
+                int size = 0;
+                long previous = start;
+                for(final X x : timestamps) {
+                    size += CodedOutputStream.computeSInt64SizeNoTag(x.timestamp() - previous);
+                    previous = x.timestamp();
+                }
+                out.writeTag(TIMESTAMP_DELTAS, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+                out.writeUInt32NoTag(size);
+                previous = start;
+                for(final X x : timestamps) {
+                    out.writeSInt64NoTag(x.timestamp() - previous);
+                    previous = x.timestamp();
+                }
+            }
+        }
+
+        for(final Map.Entry<Sensor, SensorData> entry : response.sensorData().entrySet()) {
+            final String sensor = entry.getKey().name();
+            final float[] values = entry.getValue().values();
+
+            int deltasSize = 0;
+            long previous = 0L;
+            for(final float value : values) {
+                final long quantized = quantize(value);
+                deltasSize += CodedOutputStream.computeSInt64SizeNoTag(quantized - previous);
+                previous = quantized;
+            }
+
+            final int columnSize = CodedOutputStream.computeStringSize(COLUMN_SENSOR, sensor)
+                    + CodedOutputStream.computeInt32Size(COLUMN_SCALE, SCALE)
+                    + CodedOutputStream.computeTagSize(COLUMN_DELTAS)
+                    + CodedOutputStream.computeUInt32SizeNoTag(deltasSize)
+                    + deltasSize;
+
+            out.writeTag(COLUMNS, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            out.writeUInt32NoTag(columnSize);
+            out.writeString(COLUMN_SENSOR, sensor);
+            out.writeInt32(COLUMN_SCALE, SCALE);
+            out.writeTag(COLUMN_DELTAS, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            out.writeUInt32NoTag(deltasSize);
+            previous = 0L;
+            for(final float value : values) {
+                final long quantized = quantize(value);
+                out.writeSInt64NoTag(quantized - previous);
+                previous = quantized;
+            }
+        }
+
+        if(response.cursor().isPresent()) {
+            out.writeInt64(CURSOR, response.cursor().get());
+        }
+        out.flush();
+    }
+
+    static long quantize(final float value) {
+        return Math.round((double) value * SCALE);
+    }
+
+    /**
+     * Millis between consecutive timestamps, 0 if they are not evenly spaced.
+     */
+    static long step(final List<X> timestamps) {
+        if(timestamps.size() < 2) {
+            return 0L;
+        }
+        final long step = timestamps.get(1).timestamp() - timestamps.get(0).timestamp();
+        if(step == 0L) {
+            return 0L;
+        }
+        for(int i = 2; i < timestamps.size(); i++) {
+            if(timestamps.get(i).timestamp() - timestamps.get(i - 1).timestamp() != step) {
+                return 0L;
+            }
+        }
+        return step;
+    }
+}
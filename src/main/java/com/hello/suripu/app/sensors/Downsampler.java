@@ -0,0 +1,174 @@
+package com.hello.suripu.app.sensors;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.hello.suripu.core.models.Sample;
+
+import java.util.List;
+
+/**
+ * Reduces sensor time series to a target number of points.
+ *
+ * Bucketing splits the series into consecutive, evenly sized buckets and aggregates each one in a single pass.
+ * LTTB (largest triangle three buckets) keeps actual samples, picked to preserve the shape of the graph.
+ */
+public class Downsampler {
+
+    // value used by the time series for slots without data
+    static final float MISSING = -1f;
+
+    private Downsampler() {}
+
+    /**
+     * Index of the first sample in the given bucket, buckets are as even as possible.
+     */
+    static int bucketStart(final int bucket, final int size, final int points) {
+        return (int) ((long) bucket * size / points);
+    }
+
+    /**
+     * Aggregates samples into points buckets, slots without data are ignored.
+     * A bucket without any data is {@link #MISSING}.
+     */
+    public static float[] aggregate(final List<Sample> samples, final int points, final AggregationMethod method) {
+        final int size = samples.size();
+        final float[] values = new float[points];
+
+        int bucket = 0;
+        int bucketEnd = bucketStart(1, size, points);
+        float min = Float.POSITIVE_INFINITY;
+        float max = Float.NEGATIVE_INFINITY;
+        double sum = 0.0;
+        int count = 0;
+
+        int i = 0;
+        for(final Sample sample : samples) {
+            while(i >= bucketEnd) {
+                values[bucket] = aggregated(method, min, max, sum, count);
+                bucket++;
+                bucketEnd = bucketStart(bucket + 1, size, points);
+                min = Float.POSITIVE_INFINITY;
+                max = Float.NEGATIVE_INFINITY;
+                sum = 0.0;
+                count = 0;
+            }
+
+            if(sample != null && sample.value != MISSING) {
+                final float value = sample.value;
+                if(value < min) {
+                    min = value;
+                }
+                if(value > max) {
+                    max = value;
+                }
+                sum += value;
+                count++;
+            }
+            i++;
+        }
+        for(; bucket < points; bucket++) {
+            values[bucket] = aggregated(method, min, max, sum, count);
+            min = Float.POSITIVE_INFINITY;
+            max = Float.NEGATIVE_INFINITY;
+            sum = 0.0;
+            count = 0;
+        }
+        return values;
+    }
+
+    private static float aggregated(final AggregationMethod method, final float min, final float max, final double sum, final int count) {
+        if(count == 0) {
+            return MISSING;
+        }
+        switch (method) {
+            case MIN:
+                return SensorData.round(min);
+            case MAX:
+                return SensorData.round(max);
+            case SUM:
+                return SensorData.round((float) sum);
+            case AVG:
+            default:
+                return SensorData.round((float) (sum / count));
+        }
+    }
+
+    /**
+     * First timestamp of every bucket.
+     */
+    public static List<X> bucketTimestamps(final List<X> timestamps, final int points) {
+        final List<X> selected = Lists.newArrayListWithCapacity(points);
+        for(int bucket = 0; bucket < points; bucket++) {
+            selected.add(timestamps.get(bucketStart(bucket, timestamps.size(), points)));
+        }
+        return selected;
+    }
+
+    /**
+     * Indices of the samples picked by LTTB, in increasing order. The first and last samples are always kept.
+     * Samples are assumed to be evenly spaced, missing ones count as their fill value.
+     */
+    public static int[] lttb(final List<Sample> samples, final int points) {
+        final int size = samples.size();
+        Preconditions.checkArgument(points >= 3 && points < size, "lttb needs 3 <= points < samples, got points=%s samples=%s", points, size);
+
+        final int[] indices = new int[points];
+        final double bucketSize = (double) (size - 2) / (points - 2);
+        int selected = 0;
+        indices[0] = 0;
+
+        for(int bucket = 0; bucket < points - 2; bucket++) {
+            // average of the next bucket, the last point for the last bucket
+            final int nextStart = (int) Math.floor((bucket + 1) * bucketSize) + 1;
+            final int nextEnd = Math.min((int) Math.floor((bucket + 2) * bucketSize) + 1, size);
+            double averageX = 0.0;
+            double averageY = 0.0;
+            for(int j = nextStart; j < nextEnd; j++) {
+                averageX += j;
+                averageY += valueOf(samples.get(j));
+            }
+            final int nextCount = nextEnd - nextStart;
+            averageX /= nextCount;
+            averageY /= nextCount;
+
+            final int start = (int) Math.floor(bucket * bucketSize) + 1;
+            final int end = nextStart;
+            final double selectedY = valueOf(samples.get(selected));
+
+            double maxArea = -1.0;
+            int maxIndex = start;
+            for(int j = start; j < end; j++) {
+                final double area = Math.abs((selected - averageX) * (valueOf(samples.get(j)) - selectedY)
+                        - (selected - j) * (averageY - selectedY));
+                if(area > maxArea) {
+                    maxArea = area;
+                    maxIndex = j;
+                }
+            }
+            indices[bucket + 1] = maxIndex;
+            selected = maxIndex;
+        }
+        indices[points - 1] = size - 1;
+        return indices;
+    }
+
+    private static float valueOf(final Sample sample) {
+        return sample == null ? MISSING : sample.value;
+    }
+
+    public static float[] select(final List<Sample> samples, final int[] indices) {
+        final float[] values = new float[indices.length];
+        for(int i = 0; i < indices.length; i++) {
+            values[i] = indices[i] < samples.size() ? SensorData.parse(samples.get(indices[i])) : MISSING;
+        }
+        return values;
+    }
+
+    public static List<X> selectTimestamps(final List<X> timestamps, final int[] indices) {
+        final List<X> selected = Lists.newArrayListWithCapacity(indices.length);
+        for(final int index : indices) {
+            selected.add(timestamps.get(index));
+        }
+        return selected;
+    }
+}
@@ -0,0 +1,6 @@
+package com.hello.suripu.app.sensors;
+
+public enum DownsamplingMethod {
+    BUCKETS, // aggregate evenly sized buckets
+    LTTB; // keep the samples that best preserve the shape of the graph
+}
@@ -0,0 +1,93 @@
+package com.hello.suripu.app.sensors;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Optional;
+import com.hello.suripu.core.models.Calibration;
+import com.hello.suripu.core.models.Device;
+import com.hello.suripu.core.models.DeviceData;
+import org.joda.time.DateTime;
+
+/**
+ * Most recent reading for a Sense, along with the calibration and color needed to render it.
+ */
+public class LatestReading {
+
+    public final Optional<DeviceData> deviceData;
+    public final Optional<Calibration> calibration;
+    // stored calibration, or the default one when there is none
+    public final Optional<Calibration> calibrationOrDefault;
+    public final Optional<Device.Color> color;
+    public final DateTime loadedAt;
+    private final DateTime expiresAt;
+    private final DateTime tooOldAt;
+
+    private LatestReading(final Optional<DeviceData> deviceData, final Optional<Calibration> calibration,
+                          final Optional<Calibration> calibrationOrDefault, final Optional<Device.Color> color, final DateTime loadedAt, final DateTime expiresAt,
+                          final DateTime tooOldAt) {
+        this.deviceData = deviceData;
+        this.calibration = calibration;
+        this.calibrationOrDefault = calibrationOrDefault;
+        this.color = color;
+        this.loadedAt = loadedAt;
+        this.expiresAt = expiresAt;
+        this.tooOldAt = tooOldAt;
+    }
+
+    /**
+     * A reading is kept for at most maxTtlSeconds, and never past the point where its data becomes too old to display.
+     * Data that is already too old (or missing) is kept for the full maxTtlSeconds since it will render the same way.
+     */
+    public static LatestReading create(final Optional<DeviceData> deviceData, final Optional<Calibration> calibration,
+                                       final Optional<Device.Color> color, final DateTime loadedAt,
+                                       final Integer minutesBeforeDataTooOld, final Integer maxTtlSeconds) {
+        return create(deviceData, calibration, calibration, color, loadedAt, minutesBeforeDataTooOld, maxTtlSeconds);
+    }
+
+    public static LatestReading create(final Optional<DeviceData> deviceData, final Optional<Calibration> calibration,
+                                       final Optional<Calibration> calibrationOrDefault, final Optional<Device.Color> color,
+                                       final DateTime loadedAt, final Integer minutesBeforeDataTooOld, final Integer maxTtlSeconds) {
+        DateTime expiresAt = loadedAt.plusSeconds(maxTtlSeconds);
+        DateTime tooOldAt = loadedAt;
+        if(deviceData.isPresent()) {
+            tooOldAt = deviceData.get().dateTimeUTC.plusMinutes(minutesBeforeDataTooOld);
+            if(tooOldAt.isAfter(loadedAt) && tooOldAt.isBefore(expiresAt)) {
+                expiresAt = tooOldAt;
+            }
+        }
+        return new LatestReading(deviceData, calibration, calibrationOrDefault, color, loadedAt, expiresAt, tooOldAt);
+    }
+
+    public static LatestReading empty(final DateTime loadedAt) {
+        return new LatestReading(Optional.absent(), Optional.absent(), Optional.absent(), Optional.absent(), loadedAt, loadedAt, loadedAt);
+    }
+
+    public boolean isExpired(final DateTime now) {
+        return !now.isBefore(expiresAt);
+    }
+
+    /**
+     * True when there is no data, or when it is too old to display
+     */
+    public boolean isTooOld(final DateTime now) {
+        return !now.isBefore(tooOldAt);
+    }
+
+    /**
+     * Timestamp of the latest data, absent when there is none
+     */
+    public Optional<Long> timestampUTC() {
+        return deviceData.isPresent() ? Optional.of(deviceData.get().dateTimeUTC.getMillis()) : Optional.absent();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(LatestReading.class)
+                .add("device_data", deviceData)
+                .add("calibration", calibration)
+                .add("calibration_or_default", calibrationOrDefault)
+                .add("color", color)
+                .add("loaded_at", loadedAt)
+                .add("expires_at", expiresAt)
+                .toString();
+    }
+}
@@ -0,0 +1,195 @@
+package com.hello.suripu.app.sensors;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.hello.suripu.core.db.CalibrationDAO;
+import com.hello.suripu.core.db.DeviceDataDAODynamoDB;
+import com.hello.suripu.core.db.colors.SenseColorDAO;
+import com.hello.suripu.core.models.Calibration;
+import com.hello.suripu.core.models.Device;
+import com.hello.suripu.core.models.DeviceData;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * In-process cache of the latest reading per Sense, shared by every room conditions surface
+ * (sensors v2, room/current, supichi and alexa).
+ *
+ * Sense uploads about once a minute while apps poll a lot more often, so most lookups can be answered
+ * without going to DynamoDB. Concurrent loads for the same Sense are collapsed into a single query.
+ *
+ * Device data is queried by account, so readings are keyed by account and Sense: a Sense shared by two accounts
+ * (or re-paired to another one) never serves one account's reading to the other.
+ *
+ * With a load executor the calibration and color of a Sense are queried on it while the device data query runs.
+ */
+public class LatestReadingCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LatestReadingCache.class);
+
+    private static final Integer DEFAULT_MAX_TTL_SECONDS = 60; // Sense upload interval
+    private static final Integer DEFAULT_MAX_SIZE = 100000;
+    private static final Integer LOOK_BACK_MINUTES = 30;
+
+    private final DeviceDataDAODynamoDB deviceDataDAODynamoDB;
+    private final CalibrationDAO calibrationDAO;
+    private final SenseColorDAO senseColorDAO;
+    private final Integer minutesBeforeDataTooOld;
+    private final Integer maxTtlSeconds;
+    private final Optional<ExecutorService> loadExecutor;
+
+    private final Cache<Key, LatestReading> cache;
+
+    private static class Key {
+        private final Long accountId;
+        private final String senseId;
+
+        private Key(final Long accountId, final String senseId) {
+            this.accountId = accountId;
+            this.senseId = senseId;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if(!(other instanceof Key)) {
+                return false;
+            }
+            final Key key = (Key) other;
+            return Objects.equals(accountId, key.accountId) && Objects.equals(senseId, key.senseId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(accountId, senseId);
+        }
+    }
+
+    private LatestReadingCache(final DeviceDataDAODynamoDB deviceDataDAODynamoDB, final CalibrationDAO calibrationDAO,
+                               final SenseColorDAO senseColorDAO, final Integer minutesBeforeDataTooOld,
+                               final Integer maxTtlSeconds, final Optional<ExecutorService> loadExecutor,
+                               final Cache<Key, LatestReading> cache) {
+        this.deviceDataDAODynamoDB = deviceDataDAODynamoDB;
+        this.calibrationDAO = calibrationDAO;
+        this.senseColorDAO = senseColorDAO;
+        this.minutesBeforeDataTooOld = minutesBeforeDataTooOld;
+        this.maxTtlSeconds = maxTtlSeconds;
+        this.loadExecutor = loadExecutor;
+        this.cache = cache;
+    }
+
+    public static LatestReadingCache create(final DeviceDataDAODynamoDB deviceDataDAODynamoDB,
+                                            final CalibrationDAO calibrationDAO,
+                                            final SenseColorDAO senseColorDAO,
+                                            final Integer minutesBeforeDataTooOld) {
+        return create(deviceDataDAODynamoDB, calibrationDAO, senseColorDAO, minutesBeforeDataTooOld, DEFAULT_MAX_TTL_SECONDS, DEFAULT_MAX_SIZE, Optional.absent());
+    }
+
+    public static LatestReadingCache create(final DeviceDataDAODynamoDB deviceDataDAODynamoDB,
+                                            final CalibrationDAO calibrationDAO,
+                                            final SenseColorDAO senseColorDAO,
+                                            final Integer minutesBeforeDataTooOld,
+                                            final ExecutorService loadExecutor) {
+        return create(deviceDataDAODynamoDB, calibrationDAO, senseColorDAO, minutesBeforeDataTooOld, DEFAULT_MAX_TTL_SECONDS, DEFAULT_MAX_SIZE, Optional.of(loadExecutor));
+    }
+
+    public static LatestReadingCache create(final DeviceDataDAODynamoDB deviceDataDAODynamoDB,
+                                            final CalibrationDAO calibrationDAO,
+                                            final SenseColorDAO senseColorDAO,
+                                            final Integer minutesBeforeDataTooOld,
+                                            final Integer maxTtlSeconds,
+                                            final Integer maxSize,
+                                            final Optional<ExecutorService> loadExecutor) {
+        // per-entry expiration is checked on read, this only bounds how long anything stays around
+        final Cache<Key, LatestReading> cache = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(maxTtlSeconds, TimeUnit.SECONDS)
+                .build();
+        return new LatestReadingCache(deviceDataDAODynamoDB, calibrationDAO, senseColorDAO, minutesBeforeDataTooOld, maxTtlSeconds, loadExecutor, cache);
+    }
+
+    /**
+     * Latest reading of the given Sense for the given account, loading it if missing or expired.
+     */
+    public LatestReading get(final Long accountId, final String senseId, final DateTime nowUTC) {
+        final Key key = new Key(accountId, senseId);
+        final LatestReading cached = getOrLoad(key, nowUTC);
+        if(!cached.isExpired(nowUTC)) {
+            return cached;
+        }
+
+        // only evicts if nobody has replaced it in the meantime
+        cache.asMap().remove(key, cached);
+        return getOrLoad(key, nowUTC);
+    }
+
+    public LatestReading get(final Long accountId, final String senseId) {
+        return get(accountId, senseId, DateTime.now(DateTimeZone.UTC));
+    }
+
+    /**
+     * Drops the readings of the given Sense for every account, called when it is unpaired or reset
+     */
+    public void invalidate(final String senseId) {
+        cache.asMap().keySet().removeIf(key -> key.senseId.equals(senseId));
+    }
+
+    private LatestReading getOrLoad(final Key key, final DateTime nowUTC) {
+        try {
+            return cache.get(key, () -> load(key.accountId, key.senseId, nowUTC));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            LOGGER.error("error=latest-reading-load-failed sense_id={} account_id={} msg={}", key.senseId, key.accountId, e.getMessage());
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
+    private LatestReading load(final Long accountId, final String senseId, final DateTime nowUTC) {
+        final CompletableFuture<Optional<Calibration>> calibrationLookup = submit(() -> calibrationDAO.getStrict(senseId));
+        // the default calibration is cached as well, so list() doesn't query it on every request
+        final CompletableFuture<Optional<Calibration>> calibrationOrDefaultLookup = calibrationLookup.thenApply(
+                calibration -> calibration.isPresent() ? calibration : calibrationDAO.get(senseId));
+        final CompletableFuture<Optional<Device.Color>> colorLookup = submit(() -> senseColorDAO.getColorForSense(senseId));
+
+        final Optional<DeviceData> data = deviceDataDAODynamoDB.getMostRecent(
+                accountId, senseId, nowUTC.plusMinutes(2), nowUTC.minusMinutes(LOOK_BACK_MINUTES));
+        LOGGER.debug("action=load-latest-reading sense_id={} account_id={} has_data={}", senseId, accountId, data.isPresent());
+        return LatestReading.create(data, join(calibrationLookup), join(calibrationOrDefaultLookup), join(colorLookup),
+                nowUTC, minutesBeforeDataTooOld, maxTtlSeconds);
+    }
+
+    /**
+     * Without a load executor the lookup runs right away on the calling thread
+     */
+    private <T> CompletableFuture<T> submit(final Supplier<T> lookup) {
+        if(!loadExecutor.isPresent()) {
+            final CompletableFuture<T> future = new CompletableFuture<>();
+            try {
+                future.complete(lookup.get());
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+            return future;
+        }
+        return CompletableFuture.supplyAsync(lookup, loadExecutor.get());
+    }
+
+    private static <T> T join(final CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+}
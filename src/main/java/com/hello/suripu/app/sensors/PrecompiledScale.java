@@ -0,0 +1,26 @@
+package com.hello.suripu.app.sensors;
+
+import java.util.List;
+
+/**
+ * Scale with fixed intervals, compiled once into a {@link ScaleTable}.
+ * Instances are immutable and can be shared.
+ */
+public abstract class PrecompiledScale extends Scale {
+
+    private final ScaleTable table;
+
+    protected PrecompiledScale(final List<ScaleInterval> intervals) {
+        this.table = ScaleTable.create(intervals);
+    }
+
+    @Override
+    public List<ScaleInterval> intervals() {
+        return table.intervals();
+    }
+
+    @Override
+    public int indexOf(final float value) {
+        return table.indexOf(value);
+    }
+}
@@ -0,0 +1,140 @@
+package com.hello.suripu.app.sensors;
+
+import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.hello.suripu.core.models.CalibratedDeviceData;
+import com.hello.suripu.core.models.Calibration;
+import com.hello.suripu.core.models.Device;
+import com.hello.suripu.core.models.DeviceData;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recent calibrated pressure readings per Sense, to compute the 4h pressure change without querying DynamoDB.
+ *
+ * Each Sense gets a fixed size ring buffer with at most one reading per slot, enough to cover a bit more than 4 hours.
+ * Readings are recorded from data already fetched for the sensor view. Senses that are not polled anymore are evicted,
+ * and the number of Senses is bounded, which bounds the total size.
+ */
+public class PressureHistory {
+
+    public static final Integer DEFAULT_MAX_SENSES = 20000;
+
+    static final long SLOT_MILLIS = TimeUnit.MINUTES.toMillis(2);
+    static final int CAPACITY = 128; // 4h16m of 2 minute slots
+
+    private static final Integer IDLE_HOURS = 5;
+
+    private final Cache<String, Ring> rings;
+
+    private PressureHistory(final Cache<String, Ring> rings) {
+        this.rings = rings;
+    }
+
+    public static PressureHistory create(final Integer maxSenses) {
+        final Cache<String, Ring> rings = CacheBuilder.newBuilder()
+                .maximumSize(maxSenses)
+                .expireAfterAccess(IDLE_HOURS, TimeUnit.HOURS)
+                .build();
+        return new PressureHistory(rings);
+    }
+
+    public void record(final String senseId, final long timestampUTC, final float pressure) {
+        try {
+            rings.get(senseId, Ring::new).add(timestampUTC, pressure);
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * Records the calibrated pressure of the given data, if it has any
+     */
+    public Optional<Float> record(final String senseId, final Optional<DeviceData> deviceData, final Device.Color color,
+                                  final Optional<Calibration> calibration) {
+        if(!deviceData.isPresent() || !deviceData.get().hasExtra()) {
+            return Optional.absent();
+        }
+        final float pressure = new CalibratedDeviceData(deviceData.get(), color, calibration).pressure();
+        record(senseId, deviceData.get().dateTimeUTC.getMillis(), pressure);
+        return Optional.of(pressure);
+    }
+
+    /**
+     * Most recent pressure in [fromUTC, toUTC], absent if there is none in the history
+     */
+    public Optional<Float> mostRecent(final String senseId, final long fromUTC, final long toUTC) {
+        final Ring ring = rings.getIfPresent(senseId);
+        if(ring == null) {
+            return Optional.absent();
+        }
+        return ring.mostRecent(fromUTC, toUTC);
+    }
+
+    /**
+     * Readings sorted by timestamp in primitive arrays, the oldest one is dropped when full
+     */
+    static class Ring {
+        private final long[] timestamps = new long[CAPACITY];
+        private final float[] values = new float[CAPACITY];
+        private int start = 0;
+        private int size = 0;
+
+        private int index(final int position) {
+            return (start + position) % CAPACITY;
+        }
+
+        synchronized void add(final long timestampUTC, final float value) {
+            final long slot = Math.floorDiv(timestampUTC, SLOT_MILLIS);
+
+            // readings usually come in order, older ones come from the fallback query
+            int position = size;
+            while(position > 0 && timestamps[index(position - 1)] > timestampUTC) {
+                position--;
+            }
+
+            // keep the latest reading of each slot
+            if(position > 0 && Math.floorDiv(timestamps[index(position - 1)], SLOT_MILLIS) == slot) {
+                timestamps[index(position - 1)] = timestampUTC;
+                values[index(position - 1)] = value;
+                return;
+            }
+            if(position < size && Math.floorDiv(timestamps[index(position)], SLOT_MILLIS) == slot) {
+                return;
+            }
+
+            if(size == CAPACITY) {
+                if(position == 0) {
+                    return;
+                }
+                start = index(1);
+                size--;
+                position--;
+            }
+            for(int i = size; i > position; i--) {
+                timestamps[index(i)] = timestamps[index(i - 1)];
+                values[index(i)] = values[index(i - 1)];
+            }
+            timestamps[index(position)] = timestampUTC;
+            values[index(position)] = value;
+            size++;
+        }
+
+        synchronized Optional<Float> mostRecent(final long fromUTC, final long toUTC) {
+            for(int i = size - 1; i >= 0; i--) {
+                final long timestamp = timestamps[index(i)];
+                if(timestamp <= toUTC) {
+                    return (timestamp >= fromUTC) ? Optional.of(values[index(i)]) : Optional.absent();
+                }
+            }
+            return Optional.absent();
+        }
+
+        synchronized int size() {
+            return size;
+        }
+    }
+}
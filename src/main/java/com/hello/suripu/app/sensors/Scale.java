@@ -8,6 +8,19 @@ public abstract class Scale {
 
     abstract public List<ScaleInterval> intervals();
 
+    /**
+     * Index in {@link #intervals()} of the first interval containing value, -1 if none does.
+     */
+    public int indexOf(final float value) {
+        final List<ScaleInterval> intervals = intervals();
+        for(int i = 0; i < intervals.size(); i++) {
+            if(SensorViewFactory.inRange(value, intervals.get(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(Scale.class)
@@ -1,5 +1,7 @@
 package com.hello.suripu.app.sensors;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
 import com.hello.suripu.app.sensors.scales.Co2Scale;
 import com.hello.suripu.app.sensors.scales.HumidityScale;
 import com.hello.suripu.app.sensors.scales.LightScale;
@@ -11,42 +13,41 @@ import com.hello.suripu.app.sensors.scales.UvScale;
 import com.hello.suripu.app.sensors.scales.VocScale;
 import com.hello.suripu.core.models.Sensor;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 public class ScaleFactory {
 
-    public class EmptyScale extends Scale {
+    public static class EmptyScale extends Scale {
 
         @Override
         public List<ScaleInterval> intervals() {
-            return new ArrayList<>();
+            return ImmutableList.of();
         }
     }
 
-    Scale forSensor(final Sensor sensor) {
-        switch (sensor) {
-            case TEMPERATURE:
-                return new TemperatureScale();
-            case HUMIDITY:
-                return new HumidityScale();
-            case LIGHT:
-                return new LightScale();
-            case PARTICULATES:
-                return new ParticulatesScale();
-            case SOUND:
-                return new NoiseScale();
-            case CO2:
-                return new Co2Scale();
-            case TVOC:
-                return new VocScale();
-            case UV:
-                return new UvScale();
-            case PRESSURE:
-                // Pressure in an exception
-        }
+    private static final Scale EMPTY_SCALE = new EmptyScale();
+
+    // Scales are immutable, build them once and share them across requests
+    private final Map<Sensor, Scale> scales;
+
+    public ScaleFactory() {
+        final Map<Sensor, Scale> temp = Maps.newEnumMap(Sensor.class);
+        temp.put(Sensor.TEMPERATURE, new TemperatureScale());
+        temp.put(Sensor.HUMIDITY, new HumidityScale());
+        temp.put(Sensor.LIGHT, new LightScale());
+        temp.put(Sensor.PARTICULATES, new ParticulatesScale());
+        temp.put(Sensor.SOUND, new NoiseScale());
+        temp.put(Sensor.CO2, new Co2Scale());
+        temp.put(Sensor.TVOC, new VocScale());
+        temp.put(Sensor.UV, new UvScale());
+        // Pressure in an exception
+        this.scales = Maps.immutableEnumMap(temp);
+    }
 
-        return new EmptyScale();
+    Scale forSensor(final Sensor sensor) {
+        final Scale scale = scales.get(sensor);
+        return (scale == null) ? EMPTY_SCALE : scale;
     }
 
 
@@ -0,0 +1,86 @@
+package com.hello.suripu.app.sensors;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Precompiled lookup table for a list of non overlapping scale intervals.
+ *
+ * Bounds are stored as primitive arrays sorted by lower bound (open bounds become infinities)
+ * so finding the interval for a value is a binary search without boxing.
+ */
+public class ScaleTable {
+
+    private final ImmutableList<ScaleInterval> intervals;
+    private final float[] mins;
+    private final float[] maxs;
+    private final int[] positions; // index of the sorted interval in intervals
+
+    private ScaleTable(final ImmutableList<ScaleInterval> intervals, final float[] mins, final float[] maxs, final int[] positions) {
+        this.intervals = intervals;
+        this.mins = mins;
+        this.maxs = maxs;
+        this.positions = positions;
+    }
+
+    public static ScaleTable create(final List<ScaleInterval> intervals) {
+        final ImmutableList<ScaleInterval> copy = ImmutableList.copyOf(intervals);
+        final int size = copy.size();
+        final Integer[] order = new Integer[size];
+        for(int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Float.compare(lower(copy.get(a)), lower(copy.get(b))));
+
+        final float[] mins = new float[size];
+        final float[] maxs = new float[size];
+        final int[] positions = new int[size];
+        for(int i = 0; i < size; i++) {
+            final ScaleInterval interval = copy.get(order[i]);
+            mins[i] = lower(interval);
+            maxs[i] = upper(interval);
+            positions[i] = order[i];
+            Preconditions.checkArgument(mins[i] <= maxs[i], "invalid interval %s", interval);
+            Preconditions.checkArgument(i == 0 || mins[i] > maxs[i - 1], "overlapping interval %s", interval);
+        }
+        return new ScaleTable(copy, mins, maxs, positions);
+    }
+
+    public ImmutableList<ScaleInterval> intervals() {
+        return intervals;
+    }
+
+    /**
+     * Index in {@link #intervals()} of the interval containing value, -1 if none does.
+     */
+    public int indexOf(final float value) {
+        // last interval starting at or below value
+        int low = 0;
+        int high = mins.length - 1;
+        int candidate = -1;
+        while(low <= high) {
+            final int mid = (low + high) >>> 1;
+            if(mins[mid] <= value) {
+                candidate = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if(candidate < 0 || !(value <= maxs[candidate])) {
+            return -1;
+        }
+        return positions[candidate];
+    }
+
+    private static float lower(final ScaleInterval interval) {
+        return interval.min() == null ? Float.NEGATIVE_INFINITY : interval.min();
+    }
+
+    private static float upper(final ScaleInterval interval) {
+        return interval.max() == null ? Float.POSITIVE_INFINITY : interval.max();
+    }
+}
@@ -0,0 +1,100 @@
+package com.hello.suripu.app.sensors;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+import com.hello.suripu.core.models.AllSensorSampleList;
+import com.hello.suripu.core.models.Sample;
+import com.hello.suripu.core.models.Sensor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Incremental sensor queries.
+ *
+ * The cursor is the start of the last closed slot returned to the client. A query with a cursor only reads and
+ * returns slots starting after it, including the current partial slot which the client replaces on the next refresh.
+ */
+public class SensorCursor {
+
+    public static final String HEADER = "X-Sensor-Cursor";
+
+    private SensorCursor() {}
+
+    /**
+     * A cursor can't be negative or after the end of the query
+     */
+    public static boolean isValid(final Optional<Long> since, final long queryEndUTC) {
+        return !since.isPresent() || (since.get() >= 0 && since.get() <= queryEndUTC);
+    }
+
+    /**
+     * Start of the range to read, never before the cursor
+     */
+    public static long start(final long queryStartUTC, final Optional<Long> since) {
+        return since.isPresent() ? Math.max(queryStartUTC, since.get()) : queryStartUTC;
+    }
+
+    public static List<Sample> after(final List<Sample> samples, final Optional<Long> since) {
+        if(samples == null || !since.isPresent()) {
+            return samples;
+        }
+        final List<Sample> filtered = Lists.newArrayList();
+        for(final Sample sample : samples) {
+            if(sample != null && sample.dateTime > since.get()) {
+                filtered.add(sample);
+            }
+        }
+        return filtered;
+    }
+
+    /**
+     * Samples after the cursor, sensors without any are dropped
+     */
+    public static AllSensorSampleList after(final AllSensorSampleList allSensorSampleList, final Optional<Long> since) {
+        if(!since.isPresent() || allSensorSampleList.isEmpty()) {
+            return allSensorSampleList;
+        }
+        final AllSensorSampleList filtered = new AllSensorSampleList();
+        for(final Map.Entry<Sensor, List<Sample>> entry : allSensorSampleList.getAllData().entrySet()) {
+            final List<Sample> samples = after(entry.getValue(), since);
+            if(samples != null && !samples.isEmpty()) {
+                filtered.add(entry.getKey(), samples);
+            }
+        }
+        return filtered;
+    }
+
+    /**
+     * Start of the last slot ending before queryEndUTC, or the previous cursor when no new slot is closed
+     */
+    public static Optional<Long> cursor(final List<Sample> samples, final int slotDurationMinutes, final long queryEndUTC,
+                                        final Optional<Long> since) {
+        final long slotMillis = TimeUnit.MINUTES.toMillis(slotDurationMinutes);
+        Long latest = since.orNull();
+        if(samples != null) {
+            for(final Sample sample : samples) {
+                if(sample != null && sample.dateTime + slotMillis <= queryEndUTC && (latest == null || sample.dateTime > latest)) {
+                    latest = sample.dateTime;
+                }
+            }
+        }
+        return Optional.fromNullable(latest);
+    }
+
+    /**
+     * Same as {@link #cursor(List, int, long, Optional)}, using any sensor since they share their slots
+     */
+    public static Optional<Long> cursor(final AllSensorSampleList allSensorSampleList, final int slotDurationMinutes,
+                                        final long queryEndUTC, final Optional<Long> since) {
+        if(!allSensorSampleList.isEmpty()) {
+            for(final List<Sample> samples : allSensorSampleList.getAllData().values()) {
+                if(samples != null && !samples.isEmpty()) {
+                    return cursor(samples, slotDurationMinutes, queryEndUTC, since);
+                }
+            }
+        }
+        return since;
+    }
+}
@@ -1,42 +1,85 @@
 package com.hello.suripu.app.sensors;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
-import com.google.common.primitives.Floats;
 import com.hello.suripu.core.models.Sample;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class SensorData {
     private final float[] values;
     private static final Logger LOGGER = LoggerFactory.getLogger(SensorData.class);
 
+    // beyond this the float spacing gets close to the rounding precision, use the exact path
+    private static final float MAX_FAST_ROUNDING = 1 << 20;
+
     private SensorData(final float[] values) {
         this.values = values;
     }
 
+    public static SensorData create(final float[] values) {
+        return new SensorData(values);
+    }
+
     public static SensorData from(final List<Sample> values) {
         if(values == null) {
             return new SensorData(new float[]{});
         }
 
-        final List<Float> views = values
-                .stream()
-                .map(sample -> parse(sample))
-                .collect(Collectors.toList());
-        return new SensorData(Floats.toArray(views));
+        final float[] rounded = new float[values.size()];
+        parseInto(values, rounded);
+        return new SensorData(rounded);
     }
 
+    /**
+     * Rounds every sample into target, which must be at least as long as samples.
+     */
+    public static void parseInto(final List<Sample> samples, final float[] target) {
+        int i = 0;
+        for(final Sample sample : samples) {
+            target[i++] = parse(sample);
+        }
+    }
 
     public static float parse(Sample sample) {
         if(sample == null) {
             return -1f;
         }
+        return round(sample.value);
+    }
+
+    /**
+     * Rounds half up to one decimal, same result as going through the decimal representation of the float
+     * (BigDecimal(String.valueOf(value))) without allocating.
+     */
+    public static float round(final float value) {
+        if(Float.isNaN(value) || Float.isInfinite(value) || Math.abs(value) >= MAX_FAST_ROUNDING) {
+            return roundExact(value);
+        }
+
+        // float * 10 is exact in double
+        final double scaled = Math.abs((double) value) * 10.0;
+        final double floor = Math.floor(scaled);
+        final double fraction = scaled - floor;
+
+        // next to a tie the shortest decimal representation decides which way it goes
+        if(Math.abs(fraction - 0.5) <= Math.ulp(value) * 10.0) {
+            return roundExact(value);
+        }
+
+        final long tenths = (long) floor + (fraction > 0.5 ? 1 : 0);
+        if(tenths == 0) {
+            return 0f;
+        }
+        final float rounded = (float) (tenths / 10.0);
+        return value < 0 ? -rounded : rounded;
+    }
+
+    static float roundExact(final float value) {
         try {
-            return new BigDecimal(String.valueOf(sample.value)).setScale(1, BigDecimal.ROUND_HALF_UP).floatValue();
+            return new BigDecimal(String.valueOf(value)).setScale(1, BigDecimal.ROUND_HALF_UP).floatValue();
         } catch (Exception e) {
             LOGGER.warn("error=parsing-float msg={}", e.getMessage());
         }
@@ -47,4 +90,4 @@ public class SensorData {
     public float[] values() {
         return values;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,48 @@
+package com.hello.suripu.app.sensors;
+
+import com.google.common.base.Charsets;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.hello.suripu.core.models.Calibration;
+import org.joda.time.DateTime;
+
+import javax.ws.rs.core.EntityTag;
+
+/**
+ * Validators for conditional room conditions requests.
+ *
+ * Everything a room conditions view is built from changes with one of: the paired Sense, the timestamp of its latest
+ * data, whether that data is too old to display, its calibration and color, and the request options passed as extras
+ * (e.g. the hardware version).
+ * Tags are weak since equal tags only guarantee an equivalent view, not the same bytes.
+ */
+public class SensorEntityTags {
+
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+    private SensorEntityTags() {}
+
+    public static EntityTag from(final String senseId, final LatestReading latestReading, final DateTime nowUTC, final Object... extras) {
+        final Hasher hasher = HASH_FUNCTION.newHasher()
+                .putString(senseId, Charsets.UTF_8)
+                .putLong(latestReading.timestampUTC().or(-1L))
+                .putBoolean(latestReading.isTooOld(nowUTC))
+                .putBoolean(latestReading.calibration.isPresent());
+        if(latestReading.calibration.isPresent()) {
+            final Calibration calibration = latestReading.calibration.get();
+            putString(hasher, String.valueOf(calibration.dustOffset));
+            putString(hasher, String.valueOf(calibration.testedAt));
+        }
+        putString(hasher, latestReading.color.isPresent() ? latestReading.color.get().name() : "");
+        for(final Object extra : extras) {
+            putString(hasher, String.valueOf(extra));
+        }
+        return new EntityTag(hasher.hash().toString(), true);
+    }
+
+    // length prefixed, so adjacent values can't run into each other
+    private static void putString(final Hasher hasher, final String value) {
+        hasher.putInt(value.length()).putString(value, Charsets.UTF_8);
+    }
+}
@@ -0,0 +1,11 @@
+package com.hello.suripu.app.sensors;
+
+/**
+ * A lookup the sensor views can't be built without failed or timed out
+ */
+public class SensorLookupException extends RuntimeException {
+
+    public SensorLookupException(final String lookup) {
+        super(String.format("lookup %s failed", lookup));
+    }
+}
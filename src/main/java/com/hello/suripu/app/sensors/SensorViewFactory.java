@@ -137,9 +137,14 @@ public class SensorViewFactory {
                 }
                 // Pressure sensor is basically one big exception
                 final PressureScale pressureScale = scaleFactory.pressure(calibratedDeviceData.pressure());
-                final DeviceData old = query.oldData.or(query.deviceData);
-                final CalibratedDeviceData oldCalibrated = new CalibratedDeviceData(old, query.color, query.calibration);
-                final float pressureChange = calibratedDeviceData.pressure() - oldCalibrated.pressure();
+                final float oldPressure;
+                if(query.oldPressure.isPresent()) {
+                    oldPressure = query.oldPressure.get();
+                } else {
+                    final DeviceData old = query.oldData.or(query.deviceData);
+                    oldPressure = new CalibratedDeviceData(old, query.color, query.calibration).pressure();
+                }
+                final float pressureChange = calibratedDeviceData.pressure() - oldPressure;
                 state = pressureState(calibratedDeviceData.pressure(), pressureChange, pressureScale);
                 scale = pressureScale;
                 break;
@@ -156,10 +161,10 @@ public class SensorViewFactory {
             return SensorState.unknown();
         }
 
-        for(final ScaleInterval interval : scale.intervals()) {
-            if(inRange(value, interval)) {
-                return new SensorState(value, interval.message(), interval.condition());
-            }
+        final int index = scale.indexOf(value);
+        if(index >= 0) {
+            final ScaleInterval interval = scale.intervals().get(index);
+            return new SensorState(value, interval.message(), interval.condition());
         }
         LOGGER.warn("msg=not-in-range value={} scale={}", value, scale);
         return SensorState.unknown();
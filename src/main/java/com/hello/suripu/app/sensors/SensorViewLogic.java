@@ -6,6 +6,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.hello.suripu.app.sensors.converters.SensorQueryParameters;
+import com.hello.suripu.app.sensors.rollups.HourlyRollups;
 import com.hello.suripu.core.db.CalibrationDAO;
 import com.hello.suripu.core.db.DeviceDAO;
 import com.hello.suripu.core.db.DeviceDataDAODynamoDB;
@@ -28,10 +29,19 @@ import org.joda.time.DateTimeZone;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.ws.rs.core.EntityTag;
+
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -45,9 +55,20 @@ public class SensorViewLogic {
     private final SenseColorDAO senseColorDAO;
     private final CalibrationDAO calibrationDAO;
     private final SensorViewFactory sensorViewFactory;
+    private final LatestReadingCache latestReadingCache;
 
     private final Map<HardwareVersion, List<Sensor>> availableSensors;
 
+    // When present, the lookups following the pairing lookup in list() run concurrently on this executor
+    private final Optional<ExecutorService> lookupExecutor;
+    private final long lookupTimeoutMillis;
+
+    // When present, week queries read hourly rollups instead of a week of device data
+    private final Optional<HourlyRollups> hourlyRollups;
+
+    // Recent pressure per Sense, avoids querying the reading from 4h ago
+    private final PressureHistory pressureHistory;
+
     /**
      * Turns an Optional<T> into a Stream<T> of length zero or one depending upon
      * whether a value is present.
@@ -62,14 +83,59 @@ public class SensorViewLogic {
 
     public SensorViewLogic(DeviceDataDAODynamoDB deviceDataDAODynamoDB, KeyStore keyStore, DeviceDAO deviceDAO,
                            SenseColorDAO senseColorDAO, CalibrationDAO calibrationDAO, SensorViewFactory sensorViewFactory,
-                           Map<HardwareVersion, List<Sensor>> availableSensors) {
+                           LatestReadingCache latestReadingCache, Map<HardwareVersion, List<Sensor>> availableSensors) {
+        this(deviceDataDAODynamoDB, keyStore, deviceDAO, senseColorDAO, calibrationDAO, sensorViewFactory, latestReadingCache,
+                availableSensors, Optional.absent(), 0L, Optional.absent(), PressureHistory.create(PressureHistory.DEFAULT_MAX_SENSES));
+    }
+
+    public SensorViewLogic(DeviceDataDAODynamoDB deviceDataDAODynamoDB, KeyStore keyStore, DeviceDAO deviceDAO,
+                           SenseColorDAO senseColorDAO, CalibrationDAO calibrationDAO, SensorViewFactory sensorViewFactory,
+                           LatestReadingCache latestReadingCache, Map<HardwareVersion, List<Sensor>> availableSensors,
+                           Optional<ExecutorService> lookupExecutor, long lookupTimeoutMillis,
+                           Optional<HourlyRollups> hourlyRollups, PressureHistory pressureHistory) {
         this.deviceDataDAODynamoDB = deviceDataDAODynamoDB;
         this.keyStore = keyStore;
         this.deviceDAO = deviceDAO;
         this.senseColorDAO = senseColorDAO;
         this.calibrationDAO = calibrationDAO;
         this.sensorViewFactory = sensorViewFactory;
+        this.latestReadingCache = latestReadingCache;
         this.availableSensors = ImmutableMap.copyOf(availableSensors);
+        this.lookupExecutor = lookupExecutor;
+        this.lookupTimeoutMillis = lookupTimeoutMillis;
+        this.hourlyRollups = hourlyRollups;
+        this.pressureHistory = pressureHistory;
+    }
+
+    /**
+     * Sensor view logic running the independent lookups of list() in parallel on a bounded executor.
+     * When the latest reading or key store lookup fails or does not complete within lookupTimeoutMillis list() throws
+     * a {@link SensorLookupException}, the optional reading from 4h ago falls back to absent.
+     */
+    public static SensorViewLogic async(DeviceDataDAODynamoDB deviceDataDAODynamoDB, KeyStore keyStore, DeviceDAO deviceDAO,
+                                        SenseColorDAO senseColorDAO, CalibrationDAO calibrationDAO, SensorViewFactory sensorViewFactory,
+                                        LatestReadingCache latestReadingCache, Map<HardwareVersion, List<Sensor>> availableSensors,
+                                        final ExecutorService lookupExecutor, final long lookupTimeoutMillis,
+                                        final Optional<HourlyRollups> hourlyRollups, final PressureHistory pressureHistory) {
+        return new SensorViewLogic(deviceDataDAODynamoDB, keyStore, deviceDAO, senseColorDAO, calibrationDAO, sensorViewFactory,
+                latestReadingCache, availableSensors, Optional.of(lookupExecutor), lookupTimeoutMillis, hourlyRollups, pressureHistory);
+    }
+
+    public Optional<DeviceAccountPair> pairedSense(final Long accountId) {
+        return deviceDAO.getMostRecentSensePairByAccountId(accountId);
+    }
+
+    /**
+     * Sensor list along with its validator, the response is absent when the client's copy is still current
+     */
+    public static class TaggedSensorResponse {
+        public final EntityTag entityTag;
+        public final Optional<SensorResponse> response;
+
+        private TaggedSensorResponse(final EntityTag entityTag, final Optional<SensorResponse> response) {
+            this.entityTag = entityTag;
+            this.response = response;
+        }
     }
 
     public SensorResponse list(final Long accountId, final DateTime asOfUTC) {
@@ -77,18 +143,51 @@ public class SensorViewLogic {
         if(!deviceIdPair.isPresent()) {
             return new SensorResponse(SensorStatus.NO_SENSE, Lists.newArrayList(), Condition.UNKNOWN);
         }
+        return list(accountId, deviceIdPair.get(), asOfUTC);
+    }
 
-        final String senseId = deviceIdPair.get().externalDeviceId;
-        final DateTime maxDT = asOfUTC.plusMinutes(2);
-        final DateTime minDT = asOfUTC.minusMinutes(30);
-        final Optional<DeviceData> data = deviceDataDAODynamoDB.getMostRecent(
-                accountId, senseId, maxDT, minDT);
-
+    public SensorResponse list(final Long accountId, final DeviceAccountPair deviceAccountPair, final DateTime asOfUTC) {
+        return listIfModified(accountId, deviceAccountPair, asOfUTC, entityTag -> true).response.get();
+    }
 
-        final Optional<DeviceKeyStoreRecord> record = keyStore.getKeyStoreRecord(senseId);
+    /**
+     * Same as list(), the validator is computed from the latest reading and hardware version fetched for the views.
+     * Views are only built when isModified accepts it.
+     */
+    public TaggedSensorResponse listIfModified(final Long accountId, final DeviceAccountPair deviceAccountPair, final DateTime asOfUTC,
+                                               final Predicate<EntityTag> isModified) {
+        final String senseId = deviceAccountPair.externalDeviceId;
+
+        // Everything below only depends on the pairing. In async mode both lookups are started right away.
+        final long deadlineMillis = System.currentTimeMillis() + lookupTimeoutMillis;
+        final Supplier<LatestReading> latestReadingLookup = requiredLookup("latest-reading", deadlineMillis,
+                () -> latestReadingCache.get(accountId, senseId, asOfUTC));
+        final Supplier<Optional<DeviceKeyStoreRecord>> recordLookup = requiredLookup("key-store", deadlineMillis,
+                () -> keyStore.getKeyStoreRecord(senseId));
+
+        final Optional<DeviceKeyStoreRecord> record = recordLookup.get();
         final HardwareVersion hardwareVersion = record.isPresent() ? record.get().hardwareVersion : HardwareVersion.SENSE_ONE;
 
-        final Optional<Calibration> calibrationOptional = calibrationDAO.get(senseId);
+        // Fetch 4h ago to compute barometric pressure change, only for a Sense with a pressure sensor and unless the
+        // pressure history already has it. Started before waiting on the latest reading.
+        final boolean hasPressure = availableSensors.get(hardwareVersion).contains(Sensor.PRESSURE);
+        final DateTime fourHoursAgo = asOfUTC.minusHours(4);
+        final Optional<Float> historyPressure4hAgo = hasPressure
+                ? pressureHistory.mostRecent(senseId, fourHoursAgo.getMillis(), fourHoursAgo.plusMinutes(5).getMillis())
+                : Optional.absent();
+        final Supplier<Optional<DeviceData>> data4hAgoLookup = (!hasPressure || historyPressure4hAgo.isPresent())
+                ? () -> Optional.absent()
+                : lookup("most-recent-4h-ago", deadlineMillis, Optional.absent(),
+                        () -> deviceDataDAODynamoDB.getMostRecent(accountId, senseId, fourHoursAgo.plusMinutes(5), fourHoursAgo));
+
+        final LatestReading latestReading = latestReadingLookup.get();
+        final EntityTag entityTag = SensorEntityTags.from(senseId, latestReading, asOfUTC, deviceAccountPair.created.getMillis(), hardwareVersion);
+        if(!isModified.test(entityTag)) {
+            return new TaggedSensorResponse(entityTag, Optional.absent());
+        }
+        final Optional<DeviceData> data = latestReading.deviceData;
+
+        final Optional<Calibration> calibrationOptional = latestReading.calibrationOrDefault;
 
         if(!data.isPresent()) {
             final List<SensorView> views = availableSensors.get(hardwareVersion)
@@ -96,17 +195,19 @@ public class SensorViewLogic {
                     .flatMap(s -> streamopt(sensorViewFactory.tooOld(s))) // remove optional responses
                     .collect(Collectors.toList());
             LOGGER.warn("status=no-data account_id={} sense_id={}", accountId, senseId);
-            return SensorResponse.noData(views);
+            return new TaggedSensorResponse(entityTag, Optional.of(SensorResponse.noData(views)));
         }
 
-        // Fetch 4h ago to compute barometric pressure change
-        final Optional<DeviceData> data4hAgo = deviceDataDAODynamoDB.getMostRecent(
-                accountId, senseId, asOfUTC.minusHours(4).plusMinutes(5), asOfUTC.minusHours(4));
-
-        final Optional<Device.Color> colorOptional = senseColorDAO.getColorForSense(senseId);
+        final Optional<Device.Color> colorOptional = latestReading.color;
         final Device.Color color = colorOptional.or(Device.DEFAULT_COLOR);
         LOGGER.debug("function=sensor-view-logic-list account_id={} sense_id={} color_optional={} color={}", accountId, senseId, colorOptional.toString(), color.toString());
 
+        pressureHistory.record(senseId, data, color, calibrationOptional);
+        final Optional<DeviceData> data4hAgo = data4hAgoLookup.get();
+        final Optional<Float> pressure4hAgo = historyPressure4hAgo.isPresent()
+                ? historyPressure4hAgo
+                : pressureHistory.record(senseId, data4hAgo, color, calibrationOptional);
+
         //default -- return the usual
         final DeviceData deviceData = data.get();
 
@@ -120,13 +221,68 @@ public class SensorViewLogic {
                 roomStateWithDust,
                 deviceData,
                 data4hAgo,
+                pressure4hAgo,
                 new DateTime(DateTimeZone.UTC),
                 color,
                 calibrationOptional,
-                deviceIdPair.get().created
+                deviceAccountPair.created
         );
         final Condition condition = RoomConditionUtil.getGeneralRoomConditionV2(roomStateWithDust, calibrationOptional.isPresent());
-        return new SensorResponse(SensorStatus.OK, views, condition);
+        return new TaggedSensorResponse(entityTag, Optional.of(new SensorResponse(SensorStatus.OK, views, condition)));
+    }
+
+    /**
+     * Lookup the response can't be built without, throws a {@link SensorLookupException} instead of falling back
+     */
+    private <T> Supplier<T> requiredLookup(final String name, final long deadlineMillis, final Supplier<T> loader) {
+        return submit(name, deadlineMillis, () -> {
+            throw new SensorLookupException(name);
+        }, loader);
+    }
+
+    private <T> Supplier<T> lookup(final String name, final long deadlineMillis, final T fallback, final Supplier<T> loader) {
+        return submit(name, deadlineMillis, () -> fallback, loader);
+    }
+
+    /**
+     * Without an executor the loader runs lazily on the calling thread, exactly like a direct call.
+     * With an executor the loader is submitted immediately, and the returned supplier waits at most
+     * until deadlineMillis before giving up and returning the fallback.
+     */
+    private <T> Supplier<T> submit(final String name, final long deadlineMillis, final Supplier<T> fallback, final Supplier<T> loader) {
+        if(!lookupExecutor.isPresent()) {
+            return loader;
+        }
+
+        final CompletableFuture<T> future = CompletableFuture.supplyAsync(loader, lookupExecutor.get());
+        return () -> {
+            try {
+                final long remainingMillis = Math.max(0L, deadlineMillis - System.currentTimeMillis());
+                return future.get(remainingMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                LOGGER.warn("error=lookup-timeout lookup={} timeout_millis={}", name, lookupTimeoutMillis);
+            } catch (ExecutionException e) {
+                LOGGER.error("error=lookup-failed lookup={} msg={}", name, e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                LOGGER.warn("error=lookup-interrupted lookup={}", name);
+            }
+            return fallback.get();
+        };
+    }
+
+    public static List<SensorView> toView(
+            final List<Sensor> sensors,
+            final SensorViewFactory sensorViewFactory,
+            final CurrentRoomState roomState,
+            final DeviceData deviceData,
+            final Optional<DeviceData> data4hAgo,
+            final DateTime now,
+            final Device.Color color,
+            final Optional<Calibration> calibration,
+            final DateTime pairedAt) {
+        return toView(sensors, sensorViewFactory, roomState, deviceData, data4hAgo, Optional.absent(), now, color, calibration, pairedAt);
     }
 
     public static List<SensorView> toView(
@@ -135,6 +291,7 @@ public class SensorViewLogic {
             final CurrentRoomState roomState,
             final DeviceData deviceData,
             final Optional<DeviceData> data4hAgo,
+            final Optional<Float> pressure4hAgo,
             final DateTime now,
             final Device.Color color,
             final Optional<Calibration> calibration,
@@ -142,7 +299,7 @@ public class SensorViewLogic {
 
         return sensors.stream()
                 .flatMap(s -> streamopt( // remove optional responses
-                        sensorViewFactory.from(new SensorViewQuery(s, roomState, deviceData, data4hAgo, now,color, calibration, pairedAt))))
+                        sensorViewFactory.from(new SensorViewQuery(s, roomState, deviceData, data4hAgo, pressure4hAgo, now, color, calibration, pairedAt))))
                 .collect(Collectors.toList());
     }
 
@@ -164,6 +321,13 @@ public class SensorViewLogic {
      * Fetch data in batch for given account, with sensors specified in request
      */
     public BatchQueryResponse data(final Long accountId, final BatchQuery query) {
+        return data(accountId, query, DateTime.now(DateTimeZone.UTC));
+    }
+
+    /**
+     * Fetch data in batch for the query ending at nowUTC, the cursor of the query must not be after nowUTC
+     */
+    public BatchQueryResponse data(final Long accountId, final BatchQuery query, final DateTime nowUTC) {
 
         LOGGER.debug("account_id={} query={}", accountId, query);
 
@@ -181,20 +345,29 @@ public class SensorViewLogic {
         }
 
         final List<Sensor> sensors = availableSensors.getOrDefault(record.get().hardwareVersion, Lists.newArrayList());
-        final SensorQueryParameters queryParameters = SensorQueryParameters.from(query.scope(), DateTime.now(DateTimeZone.UTC));
+        final SensorQueryParameters queryParameters = SensorQueryParameters.from(query.scope(), nowUTC);
+        final long endUTC = queryParameters.end().getMillis();
+        if(!SensorCursor.isValid(query.since(), endUTC)) {
+            throw new IllegalArgumentException(String.format("since=%s is after the end of the query", query.since().get()));
+        }
+        final long startUTC = SensorCursor.start(queryParameters.start().getMillis(), query.since());
 
-        final AllSensorSampleList timeSeries = deviceDataDAODynamoDB.generateTimeSeriesByUTCTimeAllSensors(
-                queryParameters.start().getMillis(), queryParameters.end().getMillis(), accountId, senseId,
-                queryParameters.slotDuration(), -1, color, calibrationOptional, true);
+        final AllSensorSampleList generated = (query.scope() == QueryScope.WEEK_1_HOUR && hourlyRollups.isPresent())
+                ? hourlyRollups.get().generateTimeSeriesByUTCTimeAllSensors(
+                        startUTC, endUTC, accountId, senseId, -1, color, calibrationOptional, true)
+                : deviceDataDAODynamoDB.generateTimeSeriesByUTCTimeAllSensors(
+                        startUTC, endUTC, accountId, senseId, queryParameters.slotDuration(), -1, color, calibrationOptional, true);
 
+        final AllSensorSampleList timeSeries = SensorCursor.after(generated, query.since());
+        final Optional<Long> cursor = SensorCursor.cursor(timeSeries, queryParameters.slotDuration(), endUTC, query.since());
         if (timeSeries.isEmpty()) {
-            return BatchQueryResponse.noData();
+            return BatchQueryResponse.noData().withCursor(cursor);
         }
-        return convert(timeSeries, query, sensors);
+        return convert(timeSeries, query, sensors).withCursor(cursor);
     }
 
     public static BatchQueryResponse convert(final AllSensorSampleList timeSeries, final BatchQuery query, final List<Sensor> availableSensors) {
-        final Map<Sensor, SensorData> map = Maps.newHashMap();
+        final Map<Sensor, List<Sample>> samplesPerSensor = Maps.newEnumMap(Sensor.class);
         final Set<Sensor> sensors = Sets.newHashSet();
         sensors.addAll(availableSensors);
 
@@ -202,8 +375,7 @@ public class SensorViewLogic {
             if(sensors.contains(sensor)) {
                 final List<Sample> samples = timeSeries.get(sensor);
                 if(samples != null && !samples.isEmpty()) {
-                    final SensorData sensorData = SensorData.from(samples);
-                    map.put(sensor, sensorData);
+                    samplesPerSensor.put(sensor, samples);
                 } else {
                     LOGGER.warn("action=get-sensor-data sensor={} result=null_or_empty", sensor);
                     LOGGER.warn("samples={}", samples);
@@ -214,7 +386,39 @@ public class SensorViewLogic {
             }
         }
         final List<X> timestamps = extractTimestamps(timeSeries, availableSensors);
-        return BatchQueryResponse.ok(map, timestamps);
+
+        final int points = query.points().or(timestamps.size());
+        if(points >= timestamps.size() || samplesPerSensor.isEmpty()) {
+            final Map<Sensor, SensorData> map = Maps.newEnumMap(Sensor.class);
+            for(final Map.Entry<Sensor, List<Sample>> entry : samplesPerSensor.entrySet()) {
+                map.put(entry.getKey(), SensorData.from(entry.getValue()));
+            }
+            return BatchQueryResponse.ok(map, timestamps);
+        }
+        return downsample(samplesPerSensor, timestamps, query, points);
+    }
+
+    /**
+     * Timestamps are shared by all sensors, so LTTB picks the samples using the first requested sensor.
+     */
+    static BatchQueryResponse downsample(final Map<Sensor, List<Sample>> samplesPerSensor, final List<X> timestamps,
+                                         final BatchQuery query, final int points) {
+        final Map<Sensor, SensorData> map = Maps.newEnumMap(Sensor.class);
+
+        final Sensor reference = query.sensors().stream().filter(samplesPerSensor::containsKey).findFirst().get();
+        final List<Sample> referenceSamples = samplesPerSensor.get(reference);
+        if(query.downsampling() == DownsamplingMethod.LTTB && points >= 3 && referenceSamples.size() == timestamps.size()) {
+            final int[] indices = Downsampler.lttb(referenceSamples, points);
+            for(final Map.Entry<Sensor, List<Sample>> entry : samplesPerSensor.entrySet()) {
+                map.put(entry.getKey(), SensorData.create(Downsampler.select(entry.getValue(), indices)));
+            }
+            return BatchQueryResponse.ok(map, Downsampler.selectTimestamps(timestamps, indices));
+        }
+
+        for(final Map.Entry<Sensor, List<Sample>> entry : samplesPerSensor.entrySet()) {
+            map.put(entry.getKey(), SensorData.create(Downsampler.aggregate(entry.getValue(), points, query.aggregation())));
+        }
+        return BatchQueryResponse.ok(map, Downsampler.bucketTimestamps(timestamps, points));
     }
 
 
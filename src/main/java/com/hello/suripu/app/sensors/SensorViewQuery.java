@@ -18,8 +18,14 @@ public class SensorViewQuery {
     public final Optional<DeviceData> oldData;
     public final Optional<Calibration> calibration;
     public final DateTime pairedAt;
+    // calibrated pressure from about 4h ago, takes precedence over oldData
+    public final Optional<Float> oldPressure;
 
     public SensorViewQuery(final Sensor sensor, final CurrentRoomState roomState, final DeviceData deviceData, final Optional<DeviceData> oldData, final DateTime now, final Device.Color color, final Optional<Calibration> calibration, final DateTime pairedAt) {
+        this(sensor, roomState, deviceData, oldData, Optional.absent(), now, color, calibration, pairedAt);
+    }
+
+    public SensorViewQuery(final Sensor sensor, final CurrentRoomState roomState, final DeviceData deviceData, final Optional<DeviceData> oldData, final Optional<Float> oldPressure, final DateTime now, final Device.Color color, final Optional<Calibration> calibration, final DateTime pairedAt) {
         this.sensor = sensor;
         this.roomState = roomState;
         this.deviceData = deviceData;
@@ -28,6 +34,7 @@ public class SensorViewQuery {
         this.color = color;
         this.calibration = calibration;
         this.pairedAt = pairedAt;
+        this.oldPressure = oldPressure;
     }
 
     public static SensorViewQuery create(final Sensor sensor, final CurrentRoomState roomState, final DeviceData deviceData, final DateTime now, final Device.Color color, final DateTime pairedAt) {
@@ -0,0 +1,44 @@
+package com.hello.suripu.app.sensors.rollups;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableMap;
+import com.hello.suripu.core.models.Sensor;
+
+import java.util.Map;
+
+/**
+ * Values of every sensor for one closed UTC hour. An hour without any data has no values.
+ */
+public class HourlyRollup {
+
+    public final long hourUTC;
+    public final int offsetMillis;
+    public final Map<Sensor, Float> values;
+
+    private HourlyRollup(final long hourUTC, final int offsetMillis, final Map<Sensor, Float> values) {
+        this.hourUTC = hourUTC;
+        this.offsetMillis = offsetMillis;
+        this.values = values;
+    }
+
+    public static HourlyRollup create(final long hourUTC, final int offsetMillis, final Map<Sensor, Float> values) {
+        return new HourlyRollup(hourUTC, offsetMillis, ImmutableMap.copyOf(values));
+    }
+
+    public static HourlyRollup empty(final long hourUTC) {
+        return new HourlyRollup(hourUTC, 0, ImmutableMap.of());
+    }
+
+    public boolean isEmpty() {
+        return values.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(HourlyRollup.class)
+                .add("hour_utc", hourUTC)
+                .add("offset_millis", offsetMillis)
+                .add("values", values)
+                .toString();
+    }
+}
@@ -0,0 +1,203 @@
+package com.hello.suripu.app.sensors.rollups;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.hello.suripu.core.db.DeviceDataDAODynamoDB;
+import com.hello.suripu.core.models.AllSensorSampleList;
+import com.hello.suripu.core.models.Calibration;
+import com.hello.suripu.core.models.Device;
+import com.hello.suripu.core.models.Sample;
+import com.hello.suripu.core.models.Sensor;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hourly time series backed by stored rollups.
+ *
+ * Closed hours are read from the rollup store. Missing ones are generated from device data once and stored,
+ * so after the first read only newly closed hours and the current partial hour hit device data.
+ * An hour is considered closed closedAfterMinutes after it ends, to leave time for late uploads. Stored rollups are
+ * never regenerated: readings uploaded after an hour is closed (e.g. a Sense catching up after being offline) are not
+ * in the week view. The window is a trade-off between that loss and querying more device data for the partial hour.
+ */
+public class HourlyRollups {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HourlyRollups.class);
+
+    private static final long HOUR_MILLIS = TimeUnit.HOURS.toMillis(1);
+    private static final int SLOT_DURATION_MINUTES = 60;
+
+    private final DeviceDataDAODynamoDB deviceDataDAODynamoDB;
+    private final SensorRollupDAO sensorRollupDAO;
+    private final long closedAfterMillis;
+
+    private HourlyRollups(final DeviceDataDAODynamoDB deviceDataDAODynamoDB, final SensorRollupDAO sensorRollupDAO, final long closedAfterMillis) {
+        this.deviceDataDAODynamoDB = deviceDataDAODynamoDB;
+        this.sensorRollupDAO = sensorRollupDAO;
+        this.closedAfterMillis = closedAfterMillis;
+    }
+
+    public static HourlyRollups create(final DeviceDataDAODynamoDB deviceDataDAODynamoDB, final SensorRollupDAO sensorRollupDAO,
+                                       final Integer closedAfterMinutes) {
+        return new HourlyRollups(deviceDataDAODynamoDB, sensorRollupDAO, TimeUnit.MINUTES.toMillis(closedAfterMinutes));
+    }
+
+    /**
+     * Same result as {@link DeviceDataDAODynamoDB#generateTimeSeriesByUTCTimeAllSensors} with 60 minute slots,
+     * with slots aligned on UTC hours.
+     */
+    public AllSensorSampleList generateTimeSeriesByUTCTimeAllSensors(final Long queryStartTimestampUTC,
+                                                                    final Long queryEndTimestampUTC,
+                                                                    final Long accountId,
+                                                                    final String senseId,
+                                                                    final int missingDataDefaultValue,
+                                                                    final Optional<Device.Color> color,
+                                                                    final Optional<Calibration> calibrationOptional,
+                                                                    final Boolean useAudioPeakEnergy) {
+        final long nowUTC = DateTime.now(DateTimeZone.UTC).getMillis();
+        final long startHour = floorHour(queryStartTimestampUTC);
+        final long closedEnd = Math.max(startHour, Math.min(floorHour(queryEndTimestampUTC), floorHour(nowUTC - closedAfterMillis)));
+        final String key = key(accountId, senseId, missingDataDefaultValue, color, calibrationOptional, useAudioPeakEnergy);
+
+        final SortedMap<Long, HourlyRollup> rollups = Maps.newTreeMap(sensorRollupDAO.get(key, startHour, closedEnd));
+
+        long firstMissing = startHour;
+        while(firstMissing < closedEnd && rollups.containsKey(firstMissing)) {
+            firstMissing += HOUR_MILLIS;
+        }
+
+        if(firstMissing < closedEnd) {
+            final AllSensorSampleList generated = deviceDataDAODynamoDB.generateTimeSeriesByUTCTimeAllSensors(
+                    firstMissing, closedEnd, accountId, senseId, SLOT_DURATION_MINUTES, missingDataDefaultValue,
+                    color, calibrationOptional, useAudioPeakEnergy);
+            final List<HourlyRollup> filled = toRollups(generated, firstMissing, closedEnd);
+            sensorRollupDAO.put(key, filled);
+            for(final HourlyRollup rollup : filled) {
+                rollups.put(rollup.hourUTC, rollup);
+            }
+            LOGGER.debug("action=fill-rollups account_id={} sense_id={} hours={}", accountId, senseId, filled.size());
+        }
+
+        final AllSensorSampleList partial = (closedEnd < queryEndTimestampUTC)
+                ? deviceDataDAODynamoDB.generateTimeSeriesByUTCTimeAllSensors(
+                        closedEnd, queryEndTimestampUTC, accountId, senseId, SLOT_DURATION_MINUTES, missingDataDefaultValue,
+                        color, calibrationOptional, useAudioPeakEnergy)
+                : new AllSensorSampleList();
+
+        return merge(rollups, startHour, closedEnd, partial, missingDataDefaultValue);
+    }
+
+    static long floorHour(final long timestampUTC) {
+        return timestampUTC - Math.floorMod(timestampUTC, HOUR_MILLIS);
+    }
+
+    static String key(final Long accountId, final String senseId, final int missingDataDefaultValue,
+                      final Optional<Device.Color> color, final Optional<Calibration> calibrationOptional,
+                      final Boolean useAudioPeakEnergy) {
+        // rollups generated with different options are not interchangeable, including a recalibrated Sense
+        final String calibration = calibrationOptional.isPresent()
+                ? String.format("%s/%s", calibrationOptional.get().dustOffset, calibrationOptional.get().testedAt)
+                : "";
+        return String.format("%d:%s:%d:%s:%s:%s", accountId, senseId, missingDataDefaultValue,
+                color.isPresent() ? color.get().name() : "", calibration, useAudioPeakEnergy);
+    }
+
+    /**
+     * One rollup per hour in [startHour, endHour), hours without samples are stored empty.
+     */
+    static List<HourlyRollup> toRollups(final AllSensorSampleList generated, final long startHour, final long endHour) {
+        final Map<Long, Map<Sensor, Float>> values = Maps.newHashMap();
+        final Map<Long, Integer> offsets = Maps.newHashMap();
+        if(!generated.isEmpty()) {
+            for(final Map.Entry<Sensor, List<Sample>> entry : generated.getAllData().entrySet()) {
+                if(entry.getValue() == null) {
+                    continue;
+                }
+                for(final Sample sample : entry.getValue()) {
+                    final long hour = floorHour(sample.dateTime);
+                    if(hour < startHour || hour >= endHour) {
+                        continue;
+                    }
+                    if(!values.containsKey(hour)) {
+                        values.put(hour, Maps.newEnumMap(Sensor.class));
+                    }
+                    values.get(hour).put(entry.getKey(), sample.value);
+                    offsets.put(hour, sample.offsetMillis);
+                }
+            }
+        }
+
+        final List<HourlyRollup> rollups = Lists.newArrayList();
+        for(long hour = startHour; hour < endHour; hour += HOUR_MILLIS) {
+            rollups.add(values.containsKey(hour)
+                    ? HourlyRollup.create(hour, offsets.get(hour), values.get(hour))
+                    : HourlyRollup.empty(hour));
+        }
+        return rollups;
+    }
+
+    static AllSensorSampleList merge(final SortedMap<Long, HourlyRollup> rollups, final long startHour, final long closedEnd,
+                                     final AllSensorSampleList partial, final int missingDataDefaultValue) {
+        final Set<Sensor> sensors = Sets.newTreeSet();
+        for(final HourlyRollup rollup : rollups.values()) {
+            sensors.addAll(rollup.values.keySet());
+        }
+
+        // offset of every partial hour timestamp, in time order
+        final SortedMap<Long, Integer> partialOffsets = Maps.newTreeMap();
+        final Map<Sensor, Map<Long, Float>> partialValues = Maps.newEnumMap(Sensor.class);
+        if(!partial.isEmpty()) {
+            for(final Map.Entry<Sensor, List<Sample>> entry : partial.getAllData().entrySet()) {
+                if(entry.getValue() == null || entry.getValue().isEmpty()) {
+                    continue;
+                }
+                sensors.add(entry.getKey());
+                final Map<Long, Float> values = Maps.newHashMap();
+                for(final Sample sample : entry.getValue()) {
+                    if(sample.dateTime < closedEnd) {
+                        continue;
+                    }
+                    values.put(sample.dateTime, sample.value);
+                    partialOffsets.putIfAbsent(sample.dateTime, sample.offsetMillis);
+                }
+                partialValues.put(entry.getKey(), values);
+            }
+        }
+
+        final AllSensorSampleList merged = new AllSensorSampleList();
+        if(sensors.isEmpty()) {
+            return merged;
+        }
+
+        for(final Sensor sensor : sensors) {
+            final List<Sample> samples = Lists.newArrayList();
+            int offset = 0;
+            for(long hour = startHour; hour < closedEnd; hour += HOUR_MILLIS) {
+                final HourlyRollup rollup = rollups.get(hour);
+                if(rollup != null && !rollup.isEmpty()) {
+                    offset = rollup.offsetMillis;
+                }
+                final Float value = (rollup == null) ? null : rollup.values.get(sensor);
+                samples.add(new Sample(hour, (value == null) ? missingDataDefaultValue : value, offset));
+            }
+
+            final Map<Long, Float> values = partialValues.get(sensor);
+            for(final Map.Entry<Long, Integer> entry : partialOffsets.entrySet()) {
+                final Float value = (values == null) ? null : values.get(entry.getKey());
+                samples.add(new Sample(entry.getKey(), (value == null) ? missingDataDefaultValue : value, entry.getValue()));
+            }
+            merged.add(sensor, samples);
+        }
+        return merged;
+    }
+}
@@ -0,0 +1,18 @@
+package com.hello.suripu.app.sensors.rollups;
+
+import java.util.List;
+import java.util.SortedMap;
+
+/**
+ * Storage for closed hourly rollups of a Sense time series.
+ * The key identifies the account, the Sense and the options the series was generated with.
+ */
+public interface SensorRollupDAO {
+
+    /**
+     * Rollups stored for hours in [startHourUTC, endHourUTC), keyed by hour
+     */
+    SortedMap<Long, HourlyRollup> get(String key, long startHourUTC, long endHourUTC);
+
+    void put(String key, List<HourlyRollup> rollups);
+}
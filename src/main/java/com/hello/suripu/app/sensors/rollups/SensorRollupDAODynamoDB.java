@@ -0,0 +1,158 @@
+package com.hello.suripu.app.sensors.rollups;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeDefinition;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemResult;
+import com.amazonaws.services.dynamodbv2.model.ComparisonOperator;
+import com.amazonaws.services.dynamodbv2.model.Condition;
+import com.amazonaws.services.dynamodbv2.model.CreateTableRequest;
+import com.amazonaws.services.dynamodbv2.model.CreateTableResult;
+import com.amazonaws.services.dynamodbv2.model.KeySchemaElement;
+import com.amazonaws.services.dynamodbv2.model.KeyType;
+import com.amazonaws.services.dynamodbv2.model.ProvisionedThroughput;
+import com.amazonaws.services.dynamodbv2.model.PutRequest;
+import com.amazonaws.services.dynamodbv2.model.QueryRequest;
+import com.amazonaws.services.dynamodbv2.model.QueryResult;
+import com.amazonaws.services.dynamodbv2.model.WriteRequest;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.hello.suripu.core.models.Sensor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Rollups stored one item per hour:
+ * hash key is the rollup key, range key the hour in millis, and one numeric attribute per sensor.
+ */
+public class SensorRollupDAODynamoDB implements SensorRollupDAO {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SensorRollupDAODynamoDB.class);
+
+    private static final String KEY = "rollup_key";
+    private static final String HOUR = "hour_utc";
+    private static final String OFFSET = "offset_millis";
+
+    private static final int MAX_BATCH_SIZE = 25;
+    private static final int MAX_ITERATIONS = 10;
+
+    private final AmazonDynamoDB dynamoDBClient;
+    private final String tableName;
+
+    private SensorRollupDAODynamoDB(final AmazonDynamoDB dynamoDBClient, final String tableName) {
+        this.dynamoDBClient = dynamoDBClient;
+        this.tableName = tableName;
+    }
+
+    public static SensorRollupDAODynamoDB create(final AmazonDynamoDB dynamoDBClient, final String tableName) {
+        return new SensorRollupDAODynamoDB(dynamoDBClient, tableName);
+    }
+
+    public CreateTableResult createTable(final Long readCapacity, final Long writeCapacity) {
+        final CreateTableRequest request = new CreateTableRequest()
+                .withTableName(tableName)
+                .withKeySchema(
+                        new KeySchemaElement().withAttributeName(KEY).withKeyType(KeyType.HASH),
+                        new KeySchemaElement().withAttributeName(HOUR).withKeyType(KeyType.RANGE))
+                .withAttributeDefinitions(
+                        new AttributeDefinition().withAttributeName(KEY).withAttributeType("S"),
+                        new AttributeDefinition().withAttributeName(HOUR).withAttributeType("N"))
+                .withProvisionedThroughput(new ProvisionedThroughput(readCapacity, writeCapacity));
+        return dynamoDBClient.createTable(request);
+    }
+
+    @Override
+    public SortedMap<Long, HourlyRollup> get(final String key, final long startHourUTC, final long endHourUTC) {
+        final SortedMap<Long, HourlyRollup> rollups = Maps.newTreeMap();
+        if(endHourUTC <= startHourUTC) {
+            return rollups;
+        }
+
+        final Map<String, Condition> conditions = Maps.newHashMap();
+        conditions.put(KEY, new Condition()
+                .withComparisonOperator(ComparisonOperator.EQ)
+                .withAttributeValueList(new AttributeValue().withS(key)));
+        conditions.put(HOUR, new Condition()
+                .withComparisonOperator(ComparisonOperator.BETWEEN)
+                .withAttributeValueList(
+                        new AttributeValue().withN(String.valueOf(startHourUTC)),
+                        new AttributeValue().withN(String.valueOf(endHourUTC - 1))));
+
+        Map<String, AttributeValue> lastEvaluatedKey = null;
+        int numIterations = 0;
+        do {
+            final QueryRequest queryRequest = new QueryRequest()
+                    .withTableName(tableName)
+                    .withKeyConditions(conditions)
+                    .withExclusiveStartKey(lastEvaluatedKey)
+                    .withScanIndexForward(true);
+            final QueryResult queryResult = dynamoDBClient.query(queryRequest);
+            lastEvaluatedKey = queryResult.getLastEvaluatedKey();
+            numIterations++;
+
+            if(queryResult.getItems() != null) {
+                for(final Map<String, AttributeValue> item : queryResult.getItems()) {
+                    final HourlyRollup rollup = fromItem(item);
+                    rollups.put(rollup.hourUTC, rollup);
+                }
+            }
+        } while (lastEvaluatedKey != null && numIterations < MAX_ITERATIONS);
+
+        return rollups;
+    }
+
+    @Override
+    public void put(final String key, final List<HourlyRollup> rollups) {
+        for(final List<HourlyRollup> batch : Lists.partition(rollups, MAX_BATCH_SIZE)) {
+            final List<WriteRequest> writeRequests = Lists.newArrayListWithCapacity(batch.size());
+            for(final HourlyRollup rollup : batch) {
+                writeRequests.add(new WriteRequest().withPutRequest(new PutRequest().withItem(toItem(key, rollup))));
+            }
+
+            Map<String, List<WriteRequest>> unprocessed = Maps.newHashMap();
+            unprocessed.put(tableName, writeRequests);
+            int numIterations = 0;
+            while(!unprocessed.isEmpty() && numIterations < MAX_ITERATIONS) {
+                final BatchWriteItemResult result = dynamoDBClient.batchWriteItem(new BatchWriteItemRequest().withRequestItems(unprocessed));
+                unprocessed = result.getUnprocessedItems();
+                numIterations++;
+            }
+            if(!unprocessed.isEmpty()) {
+                // missing hours are filled again on the next read
+                LOGGER.warn("error=rollups-not-stored key={} unprocessed={}", key, unprocessed.get(tableName).size());
+            }
+        }
+    }
+
+    private static Map<String, AttributeValue> toItem(final String key, final HourlyRollup rollup) {
+        final Map<String, AttributeValue> item = Maps.newHashMap();
+        item.put(KEY, new AttributeValue().withS(key));
+        item.put(HOUR, new AttributeValue().withN(String.valueOf(rollup.hourUTC)));
+        item.put(OFFSET, new AttributeValue().withN(String.valueOf(rollup.offsetMillis)));
+        for(final Map.Entry<Sensor, Float> entry : rollup.values.entrySet()) {
+            if(entry.getValue().isNaN() || entry.getValue().isInfinite()) {
+                continue;
+            }
+            item.put(entry.getKey().name(), new AttributeValue().withN(String.valueOf(entry.getValue())));
+        }
+        return item;
+    }
+
+    private static HourlyRollup fromItem(final Map<String, AttributeValue> item) {
+        final long hour = Long.valueOf(item.get(HOUR).getN());
+        final int offset = item.containsKey(OFFSET) ? Integer.valueOf(item.get(OFFSET).getN()) : 0;
+        final Map<Sensor, Float> values = Maps.newEnumMap(Sensor.class);
+        for(final Sensor sensor : Sensor.values()) {
+            final AttributeValue value = item.get(sensor.name());
+            if(value != null) {
+                values.put(sensor, Float.valueOf(value.getN()));
+            }
+        }
+        return HourlyRollup.create(hour, offset, values);
+    }
+}
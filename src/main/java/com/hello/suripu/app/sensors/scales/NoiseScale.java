@@ -1,15 +1,15 @@
 package com.hello.suripu.app.sensors.scales;
 
-import com.hello.suripu.app.sensors.Scale;
+import com.hello.suripu.app.sensors.PrecompiledScale;
 import com.hello.suripu.app.sensors.ScaleInterval;
 import com.hello.suripu.core.roomstate.Condition;
 
 import java.util.ArrayList;
 import java.util.List;
 
-public class NoiseScale  extends Scale{
+public class NoiseScale  extends PrecompiledScale {
 
-    private static List<ScaleInterval> intervals = new ArrayList<>();
+    private static final List<ScaleInterval> intervals = new ArrayList<>();
     static {
         intervals.add(new ScaleInterval("Quiet", "The noise level is just right.", 0f, 64.99f, Condition.IDEAL));
         intervals.add(new ScaleInterval("Somewhat noisy", "It’s a bit noisy.", 65f, 69.99f, Condition.WARNING));
@@ -18,8 +18,7 @@ public class NoiseScale  extends Scale{
         intervals.add(new ScaleInterval("Extremely noisy", "It’s far too noisy.", 130f, null, Condition.ALERT));
     }
 
-    @Override
-    public List<ScaleInterval> intervals() {
-        return intervals;
+    public NoiseScale() {
+        super(intervals);
     }
 }
@@ -1,14 +1,14 @@
 package com.hello.suripu.app.sensors.scales;
 
-import com.hello.suripu.app.sensors.Scale;
+import com.hello.suripu.app.sensors.PrecompiledScale;
 import com.hello.suripu.app.sensors.ScaleInterval;
 import com.hello.suripu.core.roomstate.Condition;
 
 import java.util.ArrayList;
 import java.util.List;
 
-public class ParticulatesScale extends Scale {
-    private static List<ScaleInterval> intervals = new ArrayList<>();
+public class ParticulatesScale extends PrecompiledScale {
+    private static final List<ScaleInterval> intervals = new ArrayList<>();
     static {
         intervals.add(new ScaleInterval("Ideal", "The air quality is just right.", 0f, 49.9f, Condition.IDEAL));
         intervals.add(new ScaleInterval("Moderate", "The air quality is moderate.", 50f, 99.9f, Condition.IDEAL));
@@ -18,8 +18,7 @@ public class ParticulatesScale extends Scale {
         intervals.add(new ScaleInterval("Hazardous", "The air quality is hazardous.", 300f, 399.9f, Condition.ALERT));
     }
 
-    @Override
-    public List<ScaleInterval> intervals() {
-        return intervals;
+    public ParticulatesScale() {
+        super(intervals);
     }
 }
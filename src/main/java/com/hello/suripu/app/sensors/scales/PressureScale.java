@@ -1,5 +1,7 @@
 package com.hello.suripu.app.sensors.scales;
 
+import com.google.common.collect.ImmutableList;
+import com.hello.suripu.app.sensors.PrecompiledScale;
 import com.hello.suripu.app.sensors.Scale;
 import com.hello.suripu.app.sensors.ScaleInterval;
 import com.hello.suripu.core.roomstate.Condition;
@@ -7,15 +9,13 @@ import com.hello.suripu.core.roomstate.Condition;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Pressure is displayed around the current value, conditions come from the change over the last hours.
+ * The change scale is fixed and shared, only the displayed intervals depend on the current pressure.
+ */
 public class PressureScale extends Scale {
 
-    private final float pressure;
-
-    public PressureScale(float currentPressure) {
-        this.pressure = currentPressure;
-    }
-
-    private static List<ScaleInterval> intervals = new ArrayList<>();
+    private static final List<ScaleInterval> intervals = new ArrayList<>();
     static {
         intervals.add(new ScaleInterval("Decreasing", "The barometric pressure is decreasing.", null, -40.1f, Condition.ALERT));
         intervals.add(new ScaleInterval("Decreasing slightly", "The barometric pressure is decreasing.", -40f, -20.1f, Condition.WARNING));
@@ -24,22 +24,27 @@ public class PressureScale extends Scale {
         intervals.add(new ScaleInterval("Increasing", "The barometric pressure is increasing.", 40.1f, null, Condition.ALERT));
     }
 
-    @Override
-    public List<ScaleInterval> intervals() {
-        final List<ScaleInterval> calibratedIntervals = new ArrayList<>();
+    private static final Scale CHANGE_SCALE = new PrecompiledScale(intervals) {};
+
+    private final float pressure;
+    private final List<ScaleInterval> calibratedIntervals;
+
+    public PressureScale(float currentPressure) {
+        this.pressure = currentPressure;
+        final ImmutableList.Builder<ScaleInterval> builder = ImmutableList.builder();
         for (final ScaleInterval interval : intervals) {
-            calibratedIntervals.add(PressureScale.calibrate(interval, pressure));
+            builder.add(PressureScale.calibrate(interval, pressure));
         }
+        this.calibratedIntervals = builder.build();
+    }
+
+    @Override
+    public List<ScaleInterval> intervals() {
         return calibratedIntervals;
     }
 
     public Scale changeScale() {
-        return new Scale() {
-            @Override
-            public List<ScaleInterval> intervals() {
-                return intervals;
-            }
-        };
+        return CHANGE_SCALE;
     }
 
     private static ScaleInterval calibrate(final ScaleInterval interval, final float value) {
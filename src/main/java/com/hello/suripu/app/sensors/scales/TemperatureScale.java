@@ -1,15 +1,15 @@
 package com.hello.suripu.app.sensors.scales;
 
-import com.hello.suripu.app.sensors.Scale;
+import com.hello.suripu.app.sensors.PrecompiledScale;
 import com.hello.suripu.app.sensors.ScaleInterval;
 import com.hello.suripu.core.roomstate.Condition;
 
 import java.util.ArrayList;
 import java.util.List;
 
-public class TemperatureScale extends Scale {
+public class TemperatureScale extends PrecompiledScale {
 
-    private static List<ScaleInterval> intervals = new ArrayList<>();
+    private static final List<ScaleInterval> intervals = new ArrayList<>();
     static {
         intervals.add(new ScaleInterval("Cold", "It’s far too cold.", null, 9.99f, Condition.ALERT));
         intervals.add(new ScaleInterval("Cool", "It’s a bit cool.", 10f, 14.99f, Condition.WARNING));
@@ -18,8 +18,7 @@ public class TemperatureScale extends Scale {
         intervals.add(new ScaleInterval("Hot", "It’s far too hot.", 26f, null, Condition.ALERT));
     }
 
-    @Override
-    public List<ScaleInterval> intervals() {
-        return intervals;
+    public TemperatureScale() {
+        super(intervals);
     }
 }
@@ -6,8 +6,8 @@ import com.amazon.speech.speechlet.Session;
 import com.amazon.speech.speechlet.SpeechletResponse;
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
-import com.hello.suripu.core.db.CalibrationDAO;
-import com.hello.suripu.core.db.DeviceDataDAODynamoDB;
+import com.hello.suripu.app.sensors.LatestReading;
+import com.hello.suripu.app.sensors.LatestReadingCache;
 import com.hello.suripu.core.db.DeviceReadDAO;
 import com.hello.suripu.core.models.Calibration;
 import com.hello.suripu.core.models.DeviceAccountPair;
@@ -19,7 +19,6 @@ import com.hello.suripu.core.roomstate.CurrentRoomState;
 import com.hello.suripu.core.util.RoomConditionUtil;
 import com.hello.suripu.coredropwizard.oauth.AccessToken;
 import org.joda.time.DateTime;
-import org.joda.time.DateTimeZone;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -36,20 +35,17 @@ public class ConditionIntentHandler extends IntentHandler {
   private static final Float NO_SOUND_FILL_VALUE_DB = 35.0f;
 
   final DeviceReadDAO deviceReadDAO;
-  final DeviceDataDAODynamoDB deviceDataDAO;
+  final LatestReadingCache latestReadingCache;
   final AccountPreferencesDAO preferencesDAO;
-  final CalibrationDAO calibrationDAO;
   final TestVoiceResponsesDAO voiceResponsesDAO;
 
   public ConditionIntentHandler(final DeviceReadDAO deviceReadDAO,
-                                final DeviceDataDAODynamoDB deviceDataDAO,
+                                final LatestReadingCache latestReadingCache,
                                 final AccountPreferencesDAO preferencesDAO,
-                                final CalibrationDAO calibrationDAO,
                                 final TestVoiceResponsesDAO voiceResponsesDAO) {
     this.deviceReadDAO = deviceReadDAO;
-    this.deviceDataDAO = deviceDataDAO;
+    this.latestReadingCache = latestReadingCache;
     this.preferencesDAO = preferencesDAO;
-    this.calibrationDAO = calibrationDAO;
     this.voiceResponsesDAO = voiceResponsesDAO;
   }
   @Override
@@ -71,9 +67,8 @@ public class ConditionIntentHandler extends IntentHandler {
       return errorResponse("No Account Found!");
     }
     final DeviceAccountPair accountPair = optionalPair.get();
-    final DateTime maxDT = DateTime.now(DateTimeZone.UTC).plusMinutes(2);
-    final DateTime minDT = DateTime.now(DateTimeZone.UTC).minusMinutes(30);
-    final Optional<DeviceData> optionalData = deviceDataDAO.getMostRecent(accountPair.accountId, accountPair.externalDeviceId, maxDT, minDT);
+    final LatestReading latestReading = latestReadingCache.get(accountPair.accountId, accountPair.externalDeviceId);
+    final Optional<DeviceData> optionalData = latestReading.deviceData;
     if (!optionalData.isPresent()) {
       return errorResponse("No Data Found!");
     }
@@ -82,7 +77,7 @@ public class ConditionIntentHandler extends IntentHandler {
     final Map<PreferenceName, Boolean> preferences = preferencesDAO.get(accountPair.accountId);
 
     Integer thresholdInMinutes = 15;
-    final Optional<Calibration> calibrationOptional = calibrationDAO.getStrict(accountPair.externalDeviceId);
+    final Optional<Calibration> calibrationOptional = latestReading.calibration;
     final Boolean hasDust = calibrationOptional.isPresent();
     final CurrentRoomState roomState = CurrentRoomState.fromDeviceData(data, DateTime.now(), thresholdInMinutes, "c", calibrationOptional, NO_SOUND_FILL_VALUE_DB).withDust(hasDust);
 
@@ -11,10 +11,9 @@ import com.amazon.speech.speechlet.SpeechletException;
 import com.amazon.speech.speechlet.SpeechletResponse;
 import com.google.common.base.Optional;
 import com.google.common.collect.Sets;
+import com.hello.suripu.app.sensors.LatestReadingCache;
 import com.hello.suripu.core.db.AccountDAO;
 import com.hello.suripu.core.db.AlarmDAODynamoDB;
-import com.hello.suripu.core.db.CalibrationDAO;
-import com.hello.suripu.core.db.DeviceDataDAODynamoDB;
 import com.hello.suripu.core.db.DeviceReadDAO;
 import com.hello.suripu.core.db.MergedUserInfoDynamoDB;
 import com.hello.suripu.core.db.SleepStatsDAO;
@@ -59,14 +58,13 @@ public class SenseSpeechlet implements Speechlet {
       final AccountDAO accountDAO,
       final AccessTokenDAO accessTokenDAO,
       final DeviceReadDAO deviceReadDAO,
-      final DeviceDataDAODynamoDB deviceDataDAO,
+      final LatestReadingCache latestReadingCache,
       final TimelineDAODynamoDB timelineDAODynamoDB,
       final MessejiClient messejiClient,
       final SleepSoundsProcessor sleepSoundsProcessor,
       final DurationDAO durationDAO,
       final TimelineProcessor timelineProcessor,
       final AccountPreferencesDAO preferencesDAO,
-      final CalibrationDAO calibrationDAO,
       final MergedUserInfoDynamoDB mergedUserInfoDynamoDB,
       final AlarmDAODynamoDB alarmDAODynamoDB,
       final TestVoiceResponsesDAO voiceResponsesDAO,
@@ -76,12 +74,12 @@ public class SenseSpeechlet implements Speechlet {
     this.deviceReadDAO = deviceReadDAO;
     this.sleepSoundsProcessor = sleepSoundsProcessor;
     this.accessTokenDAO = accessTokenDAO;
-    intentHandlers.add(new TemperatureIntentHandler(deviceReadDAO, deviceDataDAO, preferencesDAO, voiceResponsesDAO));
+    intentHandlers.add(new TemperatureIntentHandler(deviceReadDAO, latestReadingCache, preferencesDAO, voiceResponsesDAO));
     intentHandlers.add(new NameIntentHandler(accountDAO));
     intentHandlers.add(new ScoreIntentHandler(accountDAO, timelineDAODynamoDB, timelineProcessor, sleepStatsDAO));
     intentHandlers.add(new SleepSoundIntentHandler(deviceReadDAO, sleepSoundsProcessor, durationDAO, messejiClient));
     intentHandlers.add(new LastSleepSoundIntentHandler(deviceReadDAO, sleepSoundsProcessor, durationDAO, messejiClient));
-    intentHandlers.add(new ConditionIntentHandler(deviceReadDAO, deviceDataDAO, preferencesDAO, calibrationDAO, voiceResponsesDAO));
+    intentHandlers.add(new ConditionIntentHandler(deviceReadDAO, latestReadingCache, preferencesDAO, voiceResponsesDAO));
     intentHandlers.add(new AlarmIntentHandler(deviceReadDAO, sleepSoundsProcessor, durationDAO, mergedUserInfoDynamoDB, alarmDAODynamoDB));
   }
 
@@ -7,7 +7,7 @@ import com.google.common.collect.Maps;
 import com.amazon.speech.slu.Intent;
 import com.amazon.speech.speechlet.Session;
 import com.amazon.speech.speechlet.SpeechletResponse;
-import com.hello.suripu.core.db.DeviceDataDAODynamoDB;
+import com.hello.suripu.app.sensors.LatestReadingCache;
 import com.hello.suripu.core.db.DeviceReadDAO;
 import com.hello.suripu.core.models.DeviceAccountPair;
 import com.hello.suripu.core.models.DeviceData;
@@ -15,8 +15,6 @@ import com.hello.suripu.core.preferences.AccountPreferencesDAO;
 import com.hello.suripu.core.preferences.PreferenceName;
 import com.hello.suripu.coredropwizard.oauth.AccessToken;
 
-import org.joda.time.DateTime;
-import org.joda.time.DateTimeZone;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,18 +29,18 @@ public class TemperatureIntentHandler extends IntentHandler {
   private static final String INTENT_NAME = "GetTemperature";
 
   final DeviceReadDAO deviceReadDAO;
-  final DeviceDataDAODynamoDB deviceDataDAO;
+  final LatestReadingCache latestReadingCache;
   final AccountPreferencesDAO preferencesDAO;
   final TestVoiceResponsesDAO voiceResponsesDAO;
   final Map<Long, Integer> accountIDInvocationCounts = Maps.newHashMap();
 
   public TemperatureIntentHandler(
       final DeviceReadDAO deviceReadDAO,
-      final DeviceDataDAODynamoDB deviceDataDAO,
+      final LatestReadingCache latestReadingCache,
       final AccountPreferencesDAO preferencesDAO,
       final TestVoiceResponsesDAO voiceResponsesDAO) {
     this.deviceReadDAO = deviceReadDAO;
-    this.deviceDataDAO = deviceDataDAO;
+    this.latestReadingCache = latestReadingCache;
     this.preferencesDAO = preferencesDAO;
     this.voiceResponsesDAO = voiceResponsesDAO;
   }
@@ -61,9 +59,7 @@ public class TemperatureIntentHandler extends IntentHandler {
       return errorResponse("No Account Found!");
     }
     final DeviceAccountPair accountPair = optionalPair.get();
-    final DateTime maxDT = DateTime.now(DateTimeZone.UTC).plusMinutes(2);
-    final DateTime minDT = DateTime.now(DateTimeZone.UTC).minusMinutes(30);
-    final Optional<DeviceData> optionalData = deviceDataDAO.getMostRecent(accountPair.accountId, accountPair.externalDeviceId, maxDT, minDT);
+    final Optional<DeviceData> optionalData = latestReadingCache.get(accountPair.accountId, accountPair.externalDeviceId).deviceData;
     if (!optionalData.isPresent()) {
       return errorResponse("No Data Found!");
     }
@@ -0,0 +1,100 @@
+package com.hello.suripu.app.utils;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.Optional;
+import com.google.common.base.Throwables;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Bounded TTL cache in front of a lookup that rarely changes, such as the primary account of a Sense
+ * or the current timezone of an account.
+ *
+ * Absent results are cached too, for a shorter time so a freshly paired Sense or newly set timezone shows up quickly.
+ * Writers that change the underlying data call {@link #invalidate}, this only applies to this instance,
+ * other instances see the change after the TTL.
+ */
+public class LookupCache<K, V> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LookupCache.class);
+
+    private final String name;
+    private final Function<K, Optional<V>> loader;
+    private final long negativeTtlNanos;
+    private final Ticker ticker;
+    private final Cache<K, Entry<V>> cache;
+
+    private LookupCache(final String name, final Function<K, Optional<V>> loader, final long negativeTtlNanos,
+                        final Ticker ticker, final Cache<K, Entry<V>> cache) {
+        this.name = name;
+        this.loader = loader;
+        this.negativeTtlNanos = negativeTtlNanos;
+        this.ticker = ticker;
+        this.cache = cache;
+    }
+
+    public static <K, V> LookupCache<K, V> create(final String name, final Function<K, Optional<V>> loader,
+                                                  final Integer ttlSeconds, final Integer negativeTtlSeconds,
+                                                  final Integer maxSize, final MetricRegistry metrics) {
+        final LookupCache<K, V> lookupCache = create(name, loader, ttlSeconds, negativeTtlSeconds, maxSize, Ticker.systemTicker());
+        metrics.register(name(LookupCache.class, name, "hit-rate"), (Gauge<Double>) lookupCache::hitRate);
+        return lookupCache;
+    }
+
+    static <K, V> LookupCache<K, V> create(final String name, final Function<K, Optional<V>> loader,
+                                           final Integer ttlSeconds, final Integer negativeTtlSeconds,
+                                           final Integer maxSize, final Ticker ticker) {
+        final Cache<K, Entry<V>> cache = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        return new LookupCache<>(name, loader, TimeUnit.SECONDS.toNanos(negativeTtlSeconds), ticker, cache);
+    }
+
+    public Optional<V> get(final K key) {
+        // the map view does not count towards the stats, an expired absent result is counted once as a miss below
+        final Entry<V> current = cache.asMap().get(key);
+        if(current != null && !current.value.isPresent() && ticker.read() - current.loadedNanos >= negativeTtlNanos) {
+            // only evicts if nobody has replaced it in the meantime
+            cache.asMap().remove(key, current);
+        }
+
+        try {
+            return cache.get(key, () -> new Entry<>(loader.apply(key), ticker.read())).value;
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            LOGGER.error("error=lookup-load-failed cache={} key={} msg={}", name, key, e.getMessage());
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
+    public void invalidate(final K key) {
+        cache.invalidate(key);
+    }
+
+    public double hitRate() {
+        return cache.stats().hitRate();
+    }
+
+    private static class Entry<V> {
+        final Optional<V> value;
+        final long loadedNanos;
+
+        Entry(final Optional<V> value, final long loadedNanos) {
+            this.value = value;
+            this.loadedNanos = loadedNanos;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.hello.suripu.app.v2;
+
+import com.hello.suripu.app.sensors.BatchQueryResponse;
+import com.hello.suripu.app.sensors.CompactBatchQueryResponse;
+
+import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+/**
+ * Writes sensor batch data in the compact encoding when clients ask for it in the Accept header.
+ */
+@Provider
+@Produces(CompactBatchQueryResponse.MEDIA_TYPE)
+public class CompactBatchQueryResponseWriter implements MessageBodyWriter<BatchQueryResponse> {
+
+    @Override
+    public boolean isWriteable(final Class<?> type, final Type genericType, final Annotation[] annotations, final MediaType mediaType) {
+        return BatchQueryResponse.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public long getSize(final BatchQueryResponse response, final Class<?> type, final Type genericType, final Annotation[] annotations, final MediaType mediaType) {
+        return -1;
+    }
+
+    @Override
+    public void writeTo(final BatchQueryResponse response, final Class<?> type, final Type genericType, final Annotation[] annotations,
+                        final MediaType mediaType, final MultivaluedMap<String, Object> httpHeaders,
+                        final OutputStream entityStream) throws IOException, WebApplicationException {
+        CompactBatchQueryResponse.write(response, entityStream);
+    }
+}
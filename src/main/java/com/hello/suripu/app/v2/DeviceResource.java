@@ -3,6 +3,8 @@ package com.hello.suripu.app.v2;
 import com.codahale.metrics.annotation.Timed;
 import com.google.common.base.Optional;
 import com.hello.suripu.app.modules.AppFeatureFlipper;
+import com.hello.suripu.app.sensors.LatestReadingCache;
+import com.hello.suripu.app.utils.LookupCache;
 import com.hello.suripu.core.accounts.pairings.PairedAccount;
 import com.hello.suripu.core.accounts.pairings.PairedAccounts;
 import com.hello.suripu.core.accounts.pairings.UnpairingStatus;
@@ -82,6 +84,8 @@ public class DeviceResource extends BaseResource {
     private final MessejiApi messejiClient;
     private final ExternalOAuthTokenStore<ExternalToken> externalTokenStore;
     private final PairedAccounts pairedAccounts;
+    private final LookupCache<String, Long> primaryAccountCache;
+    private final LatestReadingCache latestReadingCache;
 
     public DeviceResource(final DeviceProcessor deviceProcessor,
                           final Swapper swapper,
@@ -90,7 +94,9 @@ public class DeviceResource extends BaseResource {
                           final VoiceMetadataDAO voiceMetadataDAO,
                           final MessejiClient messejiClient,
                           final ExternalOAuthTokenStore<ExternalToken> externalTokenStore,
-                          final PairedAccounts pairedAccounts) {
+                          final PairedAccounts pairedAccounts,
+                          final LookupCache<String, Long> primaryAccountCache,
+                          final LatestReadingCache latestReadingCache) {
         this.deviceProcessor = deviceProcessor;
         this.swapper = swapper;
         this.accountDAO = accountDAO;
@@ -99,6 +105,8 @@ public class DeviceResource extends BaseResource {
         this.messejiClient = messejiClient;
         this.externalTokenStore = externalTokenStore;
         this.pairedAccounts = pairedAccounts;
+        this.primaryAccountCache = primaryAccountCache;
+        this.latestReadingCache = latestReadingCache;
     }
 
     @ScopesAllowed({OAuthScope.DEVICE_INFORMATION_READ})
@@ -195,6 +203,8 @@ public class DeviceResource extends BaseResource {
     public Response unregisterSense(@Auth final AccessToken accessToken,
                                     @PathParam("sense_id") final String senseId) {
         deviceProcessor.unregisterSense(accessToken.accountId, senseId);
+        primaryAccountCache.invalidate(senseId);
+        latestReadingCache.invalidate(senseId);
         this.actionProcessor.add(new Action(accessToken.accountId, ActionType.SENSE_UNPAIR, Optional.of(senseId), DateTime.now(DateTimeZone.UTC), Optional.absent()));
 
         return Response.noContent().build();
@@ -207,6 +217,8 @@ public class DeviceResource extends BaseResource {
     public Response factoryReset(@Auth final AccessToken accessToken,
                                  @PathParam("sense_id") final String senseId) {
         deviceProcessor.factoryReset(accessToken.accountId, senseId);
+        primaryAccountCache.invalidate(senseId);
+        latestReadingCache.invalidate(senseId);
         externalTokenStore.disableAllByDeviceId(senseId);
         this.actionProcessor.add(new Action(accessToken.accountId, ActionType.FACTORY_RESET_UNPAIR, Optional.of(senseId), DateTime.now(DateTimeZone.UTC), Optional.absent()));
         return Response.noContent().build();
@@ -281,6 +293,7 @@ public class DeviceResource extends BaseResource {
                 case IS_PRIMARY_USER:
                     if((boolean) properties.get(type)) {
                         voiceMetadataDAO.updatePrimaryAccount(senseId, accessToken.accountId);
+                        primaryAccountCache.invalidate(senseId);
                     }
                     break;
                 case VOLUME:
@@ -4,11 +4,15 @@ import com.codahale.metrics.annotation.Timed;
 import com.google.common.base.Optional;
 import com.hello.suripu.app.sensors.BatchQuery;
 import com.hello.suripu.app.sensors.BatchQueryResponse;
+import com.hello.suripu.app.sensors.CompactBatchQueryResponse;
+import com.hello.suripu.app.sensors.SensorCursor;
+import com.hello.suripu.app.sensors.SensorLookupException;
 import com.hello.suripu.app.sensors.SensorResponse;
 import com.hello.suripu.app.sensors.SensorViewLogic;
 import com.hello.suripu.core.actions.Action;
 import com.hello.suripu.core.actions.ActionProcessor;
 import com.hello.suripu.core.actions.ActionType;
+import com.hello.suripu.core.models.DeviceAccountPair;
 import com.hello.suripu.core.oauth.OAuthScope;
 import com.hello.suripu.coredropwizard.oauth.AccessToken;
 import com.hello.suripu.coredropwizard.oauth.Auth;
@@ -27,7 +31,11 @@ import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
 
 @Path("/v2/sensors")
 public class SensorsResource extends BaseResource {
@@ -50,27 +58,57 @@ public class SensorsResource extends BaseResource {
     @Produces(MediaType.APPLICATION_JSON)
     @ScopesAllowed({OAuthScope.SENSORS_BASIC})
     @Timed
-    public SensorResponse list(@Auth final AccessToken token) {
+    public Response list(@Auth final AccessToken token, @Context final Request request) {
 
         LOGGER.debug("action=list-sensors account_id={}", token.accountId);
         final DateTime now = DateTime.now(DateTimeZone.UTC);
-        final SensorResponse response = viewLogic.list(token.accountId, now);
+        final Optional<DeviceAccountPair> deviceAccountPair = viewLogic.pairedSense(token.accountId);
+        if(!deviceAccountPair.isPresent()) {
+            final SensorResponse response = viewLogic.list(token.accountId, now);
+            this.actionProcessor.add(new Action(token.accountId, ActionType.ROOM_CONDITIONS_CURRENT, Optional.of(response.status().toString()), now, Optional.absent()));
+            return Response.ok(response).build();
+        }
+
+        // nothing changed since the client's copy, skip building the views
+        final SensorViewLogic.TaggedSensorResponse tagged = list(token.accountId, deviceAccountPair.get(), now, request);
+        if(!tagged.response.isPresent()) {
+            LOGGER.debug("action=list-sensors account_id={} result=not-modified", token.accountId);
+            this.actionProcessor.add(new Action(token.accountId, ActionType.ROOM_CONDITIONS_CURRENT, Optional.absent(), now, Optional.absent()));
+            return Response.notModified(tagged.entityTag).build();
+        }
+
+        final SensorResponse response = tagged.response.get();
         LOGGER.debug("action=list-sensors account_id={} sensors={}", token.accountId, response.availableSensors());
 
         this.actionProcessor.add(new Action(token.accountId, ActionType.ROOM_CONDITIONS_CURRENT, Optional.of(response.status().toString()), now, Optional.absent()));
 
-        return response;
+        return Response.ok(response).tag(tagged.entityTag).build();
+    }
+
+    private SensorViewLogic.TaggedSensorResponse list(final Long accountId, final DeviceAccountPair deviceAccountPair, final DateTime now,
+                                                      final Request request) {
+        try {
+            return viewLogic.listIfModified(accountId, deviceAccountPair, now, entityTag -> request.evaluatePreconditions(entityTag) == null);
+        } catch (SensorLookupException e) {
+            // not the same as no data, let the client retry
+            LOGGER.error("error=list-sensors-lookup-failed account_id={} msg={}", accountId, e.getMessage());
+            throw new WebApplicationException(Response.status(Response.Status.SERVICE_UNAVAILABLE).build());
+        }
     }
 
     @POST
     @Timed
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, CompactBatchQueryResponse.MEDIA_TYPE})
     @Consumes(MediaType.APPLICATION_JSON)
     public BatchQueryResponse data(@Auth final AccessToken token, @Valid final BatchQuery query) {
         LOGGER.debug("action=get-sensors-data account_id={}", token.accountId);
-        final BatchQueryResponse response = viewLogic.data(token.accountId, query);
-        LOGGER.debug("action=get-sensors-data account_id={} sensors={}", token.accountId, response.sensors().keySet());
-        this.actionProcessor.add(new Action(token.accountId, ActionType.ROOM_CONDITIONS_CURRENT, Optional.absent(), DateTime.now(DateTimeZone.UTC), Optional.absent()));
+        final DateTime now = DateTime.now(DateTimeZone.UTC);
+        if(!SensorCursor.isValid(query.since(), now.getMillis())) {
+            throw new WebApplicationException(Response.Status.BAD_REQUEST);
+        }
+        final BatchQueryResponse response = viewLogic.data(token.accountId, query, now);
+        LOGGER.debug("action=get-sensors-data account_id={} sensors={}", token.accountId, response.sensorData().keySet());
+        this.actionProcessor.add(new Action(token.accountId, ActionType.ROOM_CONDITIONS_CURRENT, Optional.absent(), now, Optional.absent()));
 
         return response;
     }
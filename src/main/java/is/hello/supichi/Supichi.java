@@ -9,13 +9,18 @@ import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.kinesis.producer.KinesisProducer;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3Client;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.InstrumentedExecutorService;
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
 import com.hello.suripu.app.configuration.SuripuAppConfiguration;
+import com.hello.suripu.app.sensors.LatestReadingCache;
 import com.hello.suripu.app.sensors.ScaleFactory;
 import com.hello.suripu.app.sensors.SensorViewFactory;
 import com.hello.suripu.app.sensors.SensorViewLogic;
+import com.hello.suripu.app.utils.LookupCache;
 import com.hello.suripu.core.configuration.DynamoDBTableName;
 import com.hello.suripu.core.db.AccountDAO;
 import com.hello.suripu.core.db.AccountDAOImpl;
@@ -38,7 +43,7 @@ import com.hello.suripu.core.db.TimeZoneHistoryDAODynamoDB;
 import com.hello.suripu.core.db.colors.SenseColorDAO;
 import com.hello.suripu.core.db.colors.SenseColorDAOSQLImpl;
 import com.hello.suripu.core.db.sleep_sounds.SleepSoundSettingsDynamoDB;
-import com.hello.suripu.core.models.device.v2.DeviceProcessor;
+import com.hello.suripu.core.models.TimeZoneHistory;
 import com.hello.suripu.core.preferences.AccountPreferencesDAO;
 import com.hello.suripu.core.preferences.AccountPreferencesDynamoDB;
 import com.hello.suripu.core.processors.SleepSoundsProcessor;
@@ -69,13 +74,18 @@ import is.hello.supichi.executors.HandlerExecutor;
 import is.hello.supichi.executors.RegexAnnotationsHandlerExecutor;
 import is.hello.supichi.handler.AudioRequestHandler;
 import is.hello.supichi.handler.SignedBodyHandler;
+import is.hello.supichi.handler.VoiceRequestPrefetcher;
+import is.hello.supichi.kinesis.AudioArchive;
 import is.hello.supichi.kinesis.KinesisData;
+import is.hello.supichi.kinesis.SegmentFileAudioArchive;
 import is.hello.supichi.kinesis.SpeechKinesisProducer;
+import is.hello.supichi.kinesis.SpeechResultCoalescer;
 import is.hello.supichi.models.HandlerType;
 import is.hello.supichi.resources.demo.DemoUploadResource;
 import is.hello.supichi.resources.ping.PingResource;
 import is.hello.supichi.resources.v2.UploadResource;
 import is.hello.supichi.response.CachedResponseBuilder;
+import is.hello.supichi.response.ResponseWarmup;
 import is.hello.supichi.response.SilentResponseBuilder;
 import is.hello.supichi.response.StaticResponseBuilder;
 import is.hello.supichi.response.SupichiResponseBuilder;
@@ -91,12 +101,16 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.net.InetAddress;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static com.codahale.metrics.MetricRegistry.name;
 
 /**
  * Created by ksg on 10/18/16
@@ -106,6 +120,8 @@ public class Supichi
     private static final Logger LOGGER = LoggerFactory.getLogger(Supichi.class);
 
     private final AudioRequestHandler audioRequestHandler;
+    private final Optional<ExecutorService> uploadExecutor;
+    private final MetricRegistry metrics;
 
     public Supichi(
             final Environment environment,
@@ -116,7 +132,9 @@ public class Supichi
             final TimelineProcessor timelineProcessor,
             final MessejiClient messejiClient,
             final Vault tokenKMSVault,
-            final DeviceProcessor deviceProcessor) throws IOException {
+            final LatestReadingCache latestReadingCache,
+            final LookupCache<String, Long> primaryAccountCache,
+            final LookupCache<Long, TimeZoneHistory> timeZoneCache) throws IOException {
 
         final AWSCredentialsProvider awsCredentialsProvider = new DefaultAWSCredentialsProviderChain();
         final ClientConfiguration clientConfiguration = new ClientConfiguration();
@@ -189,7 +207,7 @@ public class Supichi
         final SleepSoundsProcessor sleepSoundsProcessor = SleepSoundsProcessor.create(fileInfoSenseOneDAO, fileInfoSenseOneFiveDAO, fileManifestDAO);
 
         final SensorViewFactory sensorViewFactory = SensorViewFactory.build(new ScaleFactory());
-        final SensorViewLogic sensorViewLogic = new SensorViewLogic(deviceDataDAODynamoDB, senseKeyStore, deviceDAO, senseColorDAO, calibrationDAO, sensorViewFactory, configuration.availableSensors());
+        final SensorViewLogic sensorViewLogic = new SensorViewLogic(deviceDataDAODynamoDB, senseKeyStore, deviceDAO, senseColorDAO, calibrationDAO, sensorViewFactory, latestReadingCache, configuration.availableSensors());
         final AccountDAO accountDAO = commonDB.onDemand(AccountDAOImpl.class);
 
         // set up speech client
@@ -233,7 +251,7 @@ public class Supichi
                 accountDAO
         );
 
-        final HandlerExecutor handlerExecutor = new RegexAnnotationsHandlerExecutor(timeZoneHistoryDAODynamoDB) //new RegexHandlerExecutor()
+        final HandlerExecutor handlerExecutor = new RegexAnnotationsHandlerExecutor(timeZoneCache) //new RegexHandlerExecutor()
                 .register(HandlerType.ALARM, handlerFactory.alarmHandler())
                 .register(HandlerType.WEATHER, handlerFactory.weatherHandler())
                 .register(HandlerType.SLEEP_SOUNDS, handlerFactory.sleepSoundHandler())
@@ -268,7 +286,24 @@ public class Supichi
         final String kinesisStreamName = kinesisProducerConfiguration.streams().get(kinesisStream);
         final BlockingQueue<KinesisData> kinesisEvents = new ArrayBlockingQueue<>(kinesisProducerConfiguration.queueSize());
         final Boolean showUUIDInLogs = configuration.getDebug();
-        final SpeechKinesisProducer speechKinesisProducer = new SpeechKinesisProducer(kinesisStreamName, kinesisEvents, kinesisProducer, kinesisExecutor, kinesisMetricsExecutor, showUUIDInLogs);
+        final Optional<SpeechResultCoalescer> speechResultCoalescer = kinesisProducerConfiguration.coalesceResults()
+                ? Optional.of(new SpeechResultCoalescer(kinesisProducerConfiguration.coalesceWindowMillis(),
+                        kinesisProducerConfiguration.coalesceMaxPending(), environment.metrics()))
+                : Optional.absent();
+        final Optional<AudioArchive> audioArchive;
+        if (kinesisProducerConfiguration.audioArchivePath().isEmpty()) {
+            audioArchive = Optional.absent();
+        } else {
+            final String instanceId = kinesisProducerConfiguration.audioArchiveInstanceId().isEmpty()
+                    ? InetAddress.getLocalHost().getHostName()
+                    : kinesisProducerConfiguration.audioArchiveInstanceId();
+            LOGGER.warn("warning=audio-archive-local-only path={} instance_id={}", kinesisProducerConfiguration.audioArchivePath(), instanceId);
+            audioArchive = Optional.of(SegmentFileAudioArchive.create(kinesisProducerConfiguration.audioArchivePath(), instanceId,
+                    kinesisProducerConfiguration.audioArchiveSegmentBytes(), kinesisProducerConfiguration.audioArchiveMaxSegments()));
+        }
+        final SpeechKinesisProducer speechKinesisProducer = new SpeechKinesisProducer(kinesisStreamName, kinesisEvents, kinesisProducer, kinesisExecutor, kinesisMetricsExecutor, showUUIDInLogs,
+                kinesisProducerConfiguration.batchSize(), kinesisProducerConfiguration.lingerMillis(),
+                kinesisProducerConfiguration.maxOutstandingRecords(), speechResultCoalescer, audioArchive, environment.metrics());
 
         environment.lifecycle().manage(speechKinesisProducer);
 
@@ -318,9 +353,21 @@ public class Supichi
             }
 
             final String cachePrefix = configuration.speechConfiguration().cachePrefix();
-            final CachedResponseBuilder cachedResponseBuilder = new CachedResponseBuilder(watsonConfiguration.getVoiceName(), watsonResponseBuilder, mc, cachePrefix);
+            final CachedResponseBuilder cachedResponseBuilder = new CachedResponseBuilder(watsonConfiguration.getVoiceName(), watsonResponseBuilder, mc, cachePrefix,
+                    configuration.speechConfiguration().localResponseCacheMaxBytes(),
+                    configuration.speechConfiguration().localResponseCacheTtlSeconds(), environment.metrics());
             // Override watson
             responseBuilders.put(SupichiResponseType.WATSON, cachedResponseBuilder);
+
+            if (speechConfiguration.warmUpResponses()) {
+                final ExecutorService warmupExecutor = environment.lifecycle().executorService("voice_response_warmup")
+                        .minThreads(speechConfiguration.warmUpThreads())
+                        .maxThreads(speechConfiguration.warmUpThreads())
+                        .build();
+                final ResponseWarmup responseWarmup = new ResponseWarmup(cachedResponseBuilder, ResponseWarmup.staticResponseTexts(), warmupExecutor);
+                environment.lifecycle().manage(responseWarmup);
+                environment.healthChecks().register("voice-response-warmup", responseWarmup.healthCheck());
+            }
         }
 
         // map command-handlers to response-builders
@@ -329,14 +376,51 @@ public class Supichi
         final SignedBodyHandler signedBodyHandler = new SignedBodyHandler(senseKeyStore);
 
 
+        final Optional<VoiceRequestPrefetcher> prefetcher;
+        if (speechConfiguration.prefetchContext()) {
+            // three lookups per request, the queue only absorbs bursts, rejected lookups run on the request thread
+            final ExecutorService executor = environment.lifecycle().executorService("voice_prefetch")
+                    .minThreads(speechConfiguration.prefetchThreads())
+                    .maxThreads(speechConfiguration.prefetchThreads())
+                    .workQueue(new ArrayBlockingQueue<>(speechConfiguration.prefetchThreads() * 3))
+                    .rejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy())
+                    .build();
+            prefetcher = Optional.of(new VoiceRequestPrefetcher(
+                    new InstrumentedExecutorService(executor, environment.metrics(), "voice-prefetch"),
+                    speechConfiguration.prefetchTimeoutMillis(),
+                    timeZoneCache, accountPreferencesDAO, mergedUserInfoDynamoDB));
+        } else {
+            prefetcher = Optional.absent();
+        }
+
         this.audioRequestHandler = new AudioRequestHandler(
                 client, signedBodyHandler, handlerExecutor,
                 speechKinesisProducer, responseBuilders, handlersToBuilders,
-                deviceProcessor,
+                primaryAccountCache,
+                prefetcher,
                 environment.metrics());
+
+        this.metrics = environment.metrics();
+        if (speechConfiguration.asyncUpload()) {
+            // voice uploads block on speech to text, keep them off the request threads shared with the app
+            final BlockingQueue<Runnable> uploadQueue = new ArrayBlockingQueue<>(speechConfiguration.uploadQueueSize());
+            final ExecutorService executor = environment.lifecycle().executorService("voice_upload")
+                    .minThreads(speechConfiguration.uploadThreads())
+                    .maxThreads(speechConfiguration.uploadThreads())
+                    .workQueue(uploadQueue)
+                    .rejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy())
+                    .build();
+            environment.metrics().register(name(UploadResource.class, "queue-depth"), (Gauge<Integer>) uploadQueue::size);
+            this.uploadExecutor = Optional.of(new InstrumentedExecutorService(executor, environment.metrics(), "voice-upload"));
+        } else {
+            this.uploadExecutor = Optional.absent();
+        }
     }
 
     public UploadResource uploadResource() {
+        if (uploadExecutor.isPresent()) {
+            return UploadResource.async(audioRequestHandler, uploadExecutor.get(), metrics);
+        }
         return new UploadResource(audioRequestHandler);
     }
 
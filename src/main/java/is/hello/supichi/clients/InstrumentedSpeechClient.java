@@ -28,4 +28,14 @@ public class InstrumentedSpeechClient extends SpeechClient {
             context.stop();
         }
     }
+
+    @Override
+    public SpeechServiceResult streamAdpcm(final String senseId, final byte [] adpcm, int samplingRate) throws InterruptedException, IOException {
+        final Timer.Context context = streamer.time();
+        try {
+            return super.streamAdpcm(senseId, adpcm, samplingRate);
+        } finally {
+            context.stop();
+        }
+    }
 }
@@ -33,12 +33,13 @@ import com.google.protobuf.ByteString;
 import io.grpc.stub.StreamObserver;
 import is.hello.supichi.configuration.AudioConfiguration;
 import is.hello.supichi.models.SpeechServiceResult;
+import is.hello.supichi.utils.AdpcmDecoder;
+import is.hello.supichi.utils.AudioUtils;
 import is.hello.supichi.utils.HelloStreamObserver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.util.Arrays;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
@@ -52,16 +53,24 @@ public class SpeechClient {
     private final AudioConfiguration configuration;
     private final SpeechApi speechApi;
 
+    // decoded chunks are copied into each request, so the buffer is reused by every request on the same thread
+    private final ThreadLocal<byte[]> decodeBuffers;
+
     /**
      * Construct client connecting to Cloud Speech server at {@code host:port}.
      */
     public SpeechClient(final AudioConfiguration configuration) throws IOException {
         this.configuration = configuration;
         this.speechApi  = SpeechApi.create();
+        this.decodeBuffers = ThreadLocal.withInitial(() -> new byte[adpcmChunkSize(configuration) * 4]);
 
         LOGGER.info("action=speech-api-create");
     }
 
+    public Boolean streamingDecode() {
+        return configuration.getStreamingDecode();
+    }
+
     public void shutdown() throws Exception {
 //        channel.shutdown().awaitTermination(1, TimeUnit.SECONDS);
         speechApi.close();
@@ -76,6 +85,39 @@ public class SpeechClient {
      * @throws IOException
      */
     public SpeechServiceResult stream(final String senseId, final byte [] bytes, int samplingRate) throws InterruptedException, IOException {
+        return send(senseId, samplingRate, requestObserver -> sendPcm(senseId, bytes, requestObserver));
+    }
+
+    /**
+     * Send StreamRecognizeRequest for ADPCM audio from Sense.
+     * In streaming decode mode, each chunk is sent as soon as it is decoded instead of decoding the whole upload first.
+     * @param adpcm ADPCM audio
+     * @param samplingRate audio sampling rate
+     * @return transcribed speech result
+     * @throws InterruptedException
+     * @throws IOException
+     */
+    public SpeechServiceResult streamAdpcm(final String senseId, final byte [] adpcm, int samplingRate) throws InterruptedException, IOException {
+        if (!configuration.getStreamingDecode()) {
+            return send(senseId, samplingRate, requestObserver -> {
+                LOGGER.debug("action=start-adpcm-pcm-conversion sense_id={} input_size={}", senseId, adpcm.length);
+                final byte[] decoded = AudioUtils.decodeADPShitMAudio(adpcm);
+                LOGGER.debug("action=done-adpcm-pcm-conversion sense_id={} output_size={}", senseId, decoded.length);
+                return sendPcm(senseId, decoded, requestObserver);
+            });
+        }
+        return send(senseId, samplingRate, requestObserver -> sendAdpcm(senseId, adpcm, requestObserver));
+    }
+
+    @FunctionalInterface
+    private interface AudioSender {
+        /**
+         * @return number of audio bytes sent
+         */
+        int send(StreamObserver<StreamingRecognizeRequest> requestObserver) throws IOException;
+    }
+
+    private SpeechServiceResult send(final String senseId, final int samplingRate, final AudioSender audioSender) throws InterruptedException, IOException {
         final CountDownLatch finishLatch = new CountDownLatch(1);
 
         final HelloStreamObserver responseObserver = new HelloStreamObserver(finishLatch, senseId);
@@ -98,29 +140,9 @@ public class SpeechClient {
                     .setStreamingConfig(streamConfig).build();
             requestObserver.onNext(firstRequest);
 
-            // Open audio file. Read and send sequential buffers of audio as additional RecognizeRequests.
-            // FileInputStream in = new FileInputStream(new File(file));
-            // For LINEAR16 at 16000 Hz sample rate, 3200 bytes corresponds to 100 milliseconds of audio.
-            final int bufferSize = configuration.getBufferSize();
-            final int numChunks = bytes.length / bufferSize;
-
-            int totalBytes = 0;
-
-            LOGGER.debug("sense_id={} body_length={} buffer_size={} num_chunks={}",senseId, bytes.length, bufferSize, numChunks);
-
-            for (int i = 0; i < numChunks + 1; i++) {
-                final int startIndex = i * bufferSize;
-                final int endIndex = (i == numChunks) ? bytes.length : startIndex + bufferSize;
-                final byte[] buffer = Arrays.copyOfRange(bytes, startIndex, endIndex);
-
-                totalBytes += buffer.length;
-                final StreamingRecognizeRequest request = StreamingRecognizeRequest.newBuilder()
-                        .setAudioContent(ByteString.copyFrom(buffer))
-                        .build();
-                requestObserver.onNext(request);
-            }
+            final int totalBytes = audioSender.send(requestObserver);
             LOGGER.info("action=sent-bytes-from-audio total_bytes={} sense_id={}",totalBytes, senseId);
-        } catch (RuntimeException e) {
+        } catch (RuntimeException | IOException e) {
             // Cancel RPC.
             LOGGER.error("error=stream-audio-fail sense_id={}", senseId);
             requestObserver.onError(e);
@@ -133,7 +155,60 @@ public class SpeechClient {
         // Receiving happens asynchronously.
         finishLatch.await(10, TimeUnit.SECONDS);
 
-       // in.close(); // do we need to close this ourselves?
         return responseObserver.result();
     }
-}
\ No newline at end of file
+
+    /**
+     * Read and send sequential buffers of audio as additional RecognizeRequests.
+     * For LINEAR16 at 16000 Hz sample rate, 3200 bytes corresponds to 100 milliseconds of audio.
+     */
+    private int sendPcm(final String senseId, final byte[] bytes, final StreamObserver<StreamingRecognizeRequest> requestObserver) {
+        final int bufferSize = configuration.getBufferSize();
+        final int numChunks = bytes.length / bufferSize;
+
+        int totalBytes = 0;
+
+        LOGGER.debug("sense_id={} body_length={} buffer_size={} num_chunks={}",senseId, bytes.length, bufferSize, numChunks);
+
+        for (int i = 0; i < numChunks + 1; i++) {
+            final int startIndex = i * bufferSize;
+            final int endIndex = (i == numChunks) ? bytes.length : startIndex + bufferSize;
+
+            totalBytes += endIndex - startIndex;
+            final StreamingRecognizeRequest request = StreamingRecognizeRequest.newBuilder()
+                    .setAudioContent(ByteString.copyFrom(bytes, startIndex, endIndex - startIndex))
+                    .build();
+            requestObserver.onNext(request);
+        }
+        return totalBytes;
+    }
+
+    /**
+     * Decodes ADPCM into chunks of about bufferSize bytes of PCM, each chunk is sent before decoding the next one.
+     * Each ADPCM byte decodes to two 16 bit samples.
+     */
+    private int sendAdpcm(final String senseId, final byte[] adpcm, final StreamObserver<StreamingRecognizeRequest> requestObserver) {
+        final int adpcmChunkSize = adpcmChunkSize(configuration);
+        final byte[] buffer = decodeBuffers.get();
+        final AdpcmDecoder decoder = new AdpcmDecoder();
+
+        LOGGER.debug("sense_id={} adpcm_length={} adpcm_chunk_size={}", senseId, adpcm.length, adpcmChunkSize);
+
+        int totalBytes = 0;
+        for (int startIndex = 0; startIndex < adpcm.length; startIndex += adpcmChunkSize) {
+            final int endIndex = Math.min(adpcm.length, startIndex + adpcmChunkSize);
+            final int size = decoder.decode(adpcm, startIndex, endIndex, endIndex == adpcm.length, buffer, 0);
+
+            totalBytes += size;
+            final StreamingRecognizeRequest request = StreamingRecognizeRequest.newBuilder()
+                    .setAudioContent(ByteString.copyFrom(buffer, 0, size))
+                    .build();
+            requestObserver.onNext(request);
+        }
+        return totalBytes;
+    }
+
+    private static int adpcmChunkSize(final AudioConfiguration configuration) {
+        return Math.max(1, configuration.getBufferSize() / 4);
+    }
+}
@@ -20,6 +20,7 @@ import is.hello.supichi.models.HandlerResult;
 import is.hello.supichi.models.HandlerType;
 import is.hello.supichi.models.SpeechCommand;
 import is.hello.supichi.models.VoiceRequest;
+import is.hello.supichi.models.VoiceRequestContext;
 import is.hello.supichi.models.annotations.TimeAnnotation;
 import is.hello.supichi.response.SupichiResponseType;
 import jersey.repackaged.com.google.common.collect.Sets;
@@ -113,7 +114,7 @@ public class AlarmHandler extends BaseHandler {
 
     private static Map<String, SpeechCommand> getAvailableActions() {
         // TODO read from DynamoDB
-        final Map<String, SpeechCommand> tempMap = Maps.newHashMap();
+        final Map<String, SpeechCommand> tempMap = Maps.newLinkedHashMap();
 
         tempMap.put(SET_ALARM_REGEX, SpeechCommand.ALARM_SET);
         tempMap.put("set smart alarm", SpeechCommand.ALARM_SET);
@@ -171,7 +172,7 @@ public class AlarmHandler extends BaseHandler {
                 alarmResult = setAlarm(accountId, senseId, annotatedTranscript);
                 break;
             case ALARM_GET:
-                alarmResult = getAlarm(accountId, senseId, annotatedTranscript);
+                alarmResult = getAlarm(accountId, senseId, annotatedTranscript, request.context);
                 break;
             default:
                 alarmResult = cancelAlarm(accountId, senseId);
@@ -183,8 +184,11 @@ public class AlarmHandler extends BaseHandler {
     /**
      * get next ring time
      */
-    private GenericResult getAlarm(final Long accountId, final String senseId, final AnnotatedTranscript annotatedTranscript) {
-        final Optional<UserInfo> alarmInfoOptional = this.mergedUserInfoDynamoDB.getInfo(senseId, accountId);
+    private GenericResult getAlarm(final Long accountId, final String senseId, final AnnotatedTranscript annotatedTranscript,
+                                   final Optional<VoiceRequestContext> context) {
+        final Optional<UserInfo> alarmInfoOptional = context.isPresent()
+                ? context.get().userInfo()
+                : this.mergedUserInfoDynamoDB.getInfo(senseId, accountId);
         if (!alarmInfoOptional.isPresent()) {
             LOGGER.warn("warning=no-user-info sense_id={} account_id={}", senseId, accountId);
             return GenericResult.failWithResponse(NO_USER_INFO, CANCEL_ALARM_ERROR_RESPONSE);
@@ -36,7 +36,7 @@ public class AlexaHandler extends BaseHandler {
     }
 
     private static Map<String, SpeechCommand> getAvailableActions() {
-        final Map<String, SpeechCommand> tempMap = Maps.newHashMap();
+        final Map<String, SpeechCommand> tempMap = Maps.newLinkedHashMap();
         tempMap.put("ask Alexa", SpeechCommand.ALEXA);
         return tempMap;
     }
@@ -1,6 +1,7 @@
 package is.hello.supichi.commandhandlers;
 
 import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import is.hello.supichi.db.SpeechCommandDAO;
 import is.hello.supichi.models.AnnotatedTranscript;
@@ -11,7 +12,6 @@ import is.hello.supichi.response.SupichiResponseType;
 
 import java.util.Map;
 import java.util.Set;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
@@ -21,14 +21,58 @@ public abstract class BaseHandler {
 
     public static final int NO_ANNOTATION_SCORE = 0;
 
+    private static final Pattern REGEX_CHARACTERS = Pattern.compile("[\\\\\\[\\](){}.*+?^$|]");
+
     private final String handlerName;
     private final ImmutableMap<String, SpeechCommand> commandMap;
+    private final ImmutableList<CommandPattern> commandPatterns;
     private final SpeechCommandDAO speechCommandDAO;
 
+    /**
+     * A command key, compiled once. Lowercase phrases are looked up in the phrases the executor already matched.
+     */
+    private static class CommandPattern {
+        final String key;
+        final SpeechCommand command;
+        final boolean lowercasePhrase;
+        final Pattern pattern;
+
+        CommandPattern(final String key, final SpeechCommand command) {
+            this.key = key;
+            this.command = command;
+            this.lowercasePhrase = isPhrase(key) && key.equals(key.toLowerCase());
+            this.pattern = Pattern.compile(key, Pattern.CASE_INSENSITIVE);
+        }
+
+        boolean matches(final String text, final Optional<Set<String>> matchedPhrases) {
+            if (lowercasePhrase) {
+                return matchedPhrases.isPresent() ? matchedPhrases.get().contains(key) : text.contains(key);
+            }
+            //Check if there is a pattern match when treating the commandMap key as a regex pattern
+            return text.contains(key) || pattern.matcher(text).find();
+        }
+    }
+
+    /**
+     * @param commandMap commands by priority, the first matching one wins unless the transcript is exactly a command
+     */
     BaseHandler(final String handlerName, final SpeechCommandDAO speechCommandDAO, final Map<String, SpeechCommand> commandMap) {
         this.handlerName = handlerName;
         this.speechCommandDAO = speechCommandDAO;
         this.commandMap = ImmutableMap.copyOf(commandMap);
+
+        final ImmutableList.Builder<CommandPattern> patterns = ImmutableList.builder();
+        for (final Map.Entry<String, SpeechCommand> entry : this.commandMap.entrySet()) {
+            patterns.add(new CommandPattern(entry.getKey(), entry.getValue()));
+        }
+        this.commandPatterns = patterns.build();
+    }
+
+    /**
+     * True for commands without regex syntax, which match wherever they appear in the transcript
+     */
+    public static boolean isPhrase(final String command) {
+        return !REGEX_CHARACTERS.matcher(command).find();
     }
 
     public Set<String> getRelevantCommands() {
@@ -40,15 +84,9 @@ public abstract class BaseHandler {
         if (commandMap.containsKey(text)) {
             return Optional.of(commandMap.get(text));
         }
-        for(final String key:commandMap.keySet()) {
-            if(text.contains(key)) {
-                return Optional.of(commandMap.get(key));
-            }
-            //Check if there is a pattern match when treating the commandMap key as a regex pattern
-            final Pattern r = Pattern.compile(key, Pattern.CASE_INSENSITIVE);
-            Matcher m = r.matcher(text);
-            if(m.find()) {
-                return Optional.of(commandMap.get(key));
+        for (final CommandPattern commandPattern : commandPatterns) {
+            if (commandPattern.matches(text, transcript.matchedPhrases)) {
+                return Optional.of(commandPattern.command);
             }
         }
         return Optional.absent();
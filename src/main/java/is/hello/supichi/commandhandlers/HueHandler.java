@@ -106,18 +106,19 @@ public class HueHandler extends BaseHandler {
 
     private static Map<String, SpeechCommand> getAvailableActions() {
         // TODO read from DynamoDB
-        final Map<String, SpeechCommand> tempMap = Maps.newHashMap();
+        // checked in this order, the first matching command wins
+        final Map<String, SpeechCommand> tempMap = Maps.newLinkedHashMap();
         tempMap.put("brighten the", SpeechCommand.LIGHT_SET_BRIGHTNESS);
         tempMap.put("increase the", SpeechCommand.LIGHT_SET_BRIGHTNESS);
-        tempMap.put("light brighter", SpeechCommand.LIGHT_SET_BRIGHTNESS);
+        tempMap.put(TOGGLE_ACTIVE_PATTERN, SpeechCommand.LIGHT_TOGGLE);
         tempMap.put("dim the", SpeechCommand.LIGHT_SET_BRIGHTNESS);
         tempMap.put("reduce the", SpeechCommand.LIGHT_SET_BRIGHTNESS);
-        tempMap.put("light dimmer", SpeechCommand.LIGHT_SET_BRIGHTNESS);
-        tempMap.put("light warmer", SpeechCommand.LIGHT_SET_COLOR);
         tempMap.put("light redder", SpeechCommand.LIGHT_SET_COLOR);
-        tempMap.put("light bluer", SpeechCommand.LIGHT_SET_COLOR);
         tempMap.put("light cooler", SpeechCommand.LIGHT_SET_COLOR);
-        tempMap.put(TOGGLE_ACTIVE_PATTERN, SpeechCommand.LIGHT_TOGGLE);
+        tempMap.put("light brighter", SpeechCommand.LIGHT_SET_BRIGHTNESS);
+        tempMap.put("light warmer", SpeechCommand.LIGHT_SET_COLOR);
+        tempMap.put("light dimmer", SpeechCommand.LIGHT_SET_BRIGHTNESS);
+        tempMap.put("light bluer", SpeechCommand.LIGHT_SET_COLOR);
         return tempMap;
     }
 
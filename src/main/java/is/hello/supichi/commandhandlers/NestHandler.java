@@ -102,7 +102,7 @@ public class NestHandler extends BaseHandler {
 
     private static Map<String, SpeechCommand> getAvailableActions() {
         // TODO read from DynamoDB
-        final Map<String, SpeechCommand> tempMap = Maps.newHashMap();
+        final Map<String, SpeechCommand> tempMap = Maps.newLinkedHashMap();
         tempMap.put(TEMP_SET_PATTERN_WORDS, SpeechCommand.THERMOSTAT_SET);
         tempMap.put(TEMP_SET_PATTERN_NUMERIC, SpeechCommand.THERMOSTAT_SET);
         return tempMap;
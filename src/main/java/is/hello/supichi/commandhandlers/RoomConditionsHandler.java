@@ -3,6 +3,8 @@ package is.hello.supichi.commandhandlers;
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.hello.suripu.app.sensors.SensorLookupException;
 import com.hello.suripu.app.sensors.SensorResponse;
 import com.hello.suripu.app.sensors.SensorUnit;
 import com.hello.suripu.app.sensors.SensorView;
@@ -19,6 +21,7 @@ import is.hello.supichi.models.HandlerResult;
 import is.hello.supichi.models.HandlerType;
 import is.hello.supichi.models.SpeechCommand;
 import is.hello.supichi.models.VoiceRequest;
+import is.hello.supichi.models.VoiceRequestContext;
 import is.hello.supichi.response.SupichiResponseType;
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
@@ -26,6 +29,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import static is.hello.supichi.commandhandlers.ErrorText.COMMAND_NOT_FOUND;
@@ -104,30 +108,25 @@ public class RoomConditionsHandler extends BaseHandler {
     }
 
     private static Map<String, SpeechCommand> getAvailableActions() {
-        final Map<String, SpeechCommand> tempMap = Maps.newHashMap();
-        tempMap.put(TEMPERATURE_PATTERN, SpeechCommand.ROOM_TEMPERATURE);
-        tempMap.put(TEMPERATURE_PATTERN_HOW, SpeechCommand.ROOM_TEMPERATURE);
+        // checked in this order, the first matching command wins
+        final Map<String, SpeechCommand> tempMap = Maps.newLinkedHashMap();
+        tempMap.put("how bright", SpeechCommand.ROOM_LIGHT);
         tempMap.put("what temperature", SpeechCommand.ROOM_TEMPERATURE);
-
-        tempMap.put(HUMIDITY_PATTERN, SpeechCommand.ROOM_HUMIDITY);
+        tempMap.put(ROOM_CONDITION_REGEX_2, SpeechCommand.ROOM_CONDITION);
+        tempMap.put("road condition", SpeechCommand.ROOM_CONDITION); // due to google bad transcript
+        tempMap.put("how noisy", SpeechCommand.ROOM_SOUND);
+        tempMap.put(CO2_PATTERN, SpeechCommand.CO2);
+        tempMap.put(TEMPERATURE_PATTERN, SpeechCommand.ROOM_TEMPERATURE);
+        tempMap.put(ROOM_CONDITION_REGEX_1, SpeechCommand.ROOM_CONDITION);
         tempMap.put(HUMIDITY_PATTERN_HOW, SpeechCommand.ROOM_HUMIDITY);
+        tempMap.put(HUMIDITY_PATTERN, SpeechCommand.ROOM_HUMIDITY);
         tempMap.put("what humidity", SpeechCommand.ROOM_HUMIDITY);
-
         tempMap.put("light level", SpeechCommand.ROOM_LIGHT);
-        tempMap.put("how bright", SpeechCommand.ROOM_LIGHT);
-
-        tempMap.put("sound level", SpeechCommand.ROOM_SOUND);
+        tempMap.put(TEMPERATURE_PATTERN_HOW, SpeechCommand.ROOM_TEMPERATURE);
+        tempMap.put(PRESSURE_PATTERN, SpeechCommand.PRESSURE);
         tempMap.put("noise level", SpeechCommand.ROOM_SOUND);
-        tempMap.put("how noisy", SpeechCommand.ROOM_SOUND);
-
+        tempMap.put("sound level", SpeechCommand.ROOM_SOUND);
         tempMap.put("air quality", SpeechCommand.PARTICULATES);
-
-        tempMap.put(PRESSURE_PATTERN, SpeechCommand.PRESSURE);
-        tempMap.put(CO2_PATTERN, SpeechCommand.CO2);
-
-        tempMap.put(ROOM_CONDITION_REGEX_1, SpeechCommand.ROOM_CONDITION);
-        tempMap.put(ROOM_CONDITION_REGEX_2, SpeechCommand.ROOM_CONDITION);
-        tempMap.put("road condition", SpeechCommand.ROOM_CONDITION); // due to google bad transcript
         return tempMap;
     }
 
@@ -138,7 +137,7 @@ public class RoomConditionsHandler extends BaseHandler {
         final Optional<SpeechCommand> optionalCommand = getCommand(annotatedTranscript); // TODO: ensure that only valid commands are returned
 
         if (optionalCommand.isPresent()) {
-            return getCurrentRoomConditions(request.accountId, optionalCommand.get());
+            return getCurrentRoomConditions(request.accountId, optionalCommand.get(), request.context);
         }
         return new HandlerResult(HandlerType.ROOM_CONDITIONS, HandlerResult.EMPTY_COMMAND, GenericResult.fail(COMMAND_NOT_FOUND));
     }
@@ -149,7 +148,8 @@ public class RoomConditionsHandler extends BaseHandler {
         return NO_ANNOTATION_SCORE;
     }
 
-    private HandlerResult getCurrentRoomConditions(final Long accountId, final SpeechCommand command) {
+    private HandlerResult getCurrentRoomConditions(final Long accountId, final SpeechCommand command,
+                                                  final Optional<VoiceRequestContext> context) {
 
         final String sensorName = getSensorName(command);
         if (sensorName.isEmpty()) {
@@ -158,7 +158,14 @@ public class RoomConditionsHandler extends BaseHandler {
 
         // get current sensor data
         final DateTime asOfUTC = DateTime.now(DateTimeZone.UTC);
-        final SensorResponse sensorResponse = sensorViewLogic.list(accountId, asOfUTC);
+        final SensorResponse sensorResponse;
+        try {
+            sensorResponse = sensorViewLogic.list(accountId, asOfUTC);
+        } catch (SensorLookupException e) {
+            LOGGER.error("error=no-sensor-data reason=lookup-failed account_id={} msg={}", accountId, e.getMessage());
+            return new HandlerResult(HandlerType.ROOM_CONDITIONS, command.getValue(),
+                    GenericResult.failWithResponse(ERROR_NO_DATA, String.format(NO_DATA_ERROR_RESPONSE_TEXT, sensorName)));
+        }
 
         switch (sensorResponse.status()) {
             case NO_SENSE:
@@ -172,7 +179,7 @@ public class RoomConditionsHandler extends BaseHandler {
                         GenericResult.failWithResponse(ERROR_DATA_TOO_OLD, String.format(NO_DATA_ERROR_RESPONSE_TEXT, sensorName)));
 
             case OK:
-                return okSensorResult(accountId, command, sensorResponse);
+                return okSensorResult(accountId, command, sensorResponse, context);
         }
 
         // uh-oh, something wrong
@@ -184,7 +191,8 @@ public class RoomConditionsHandler extends BaseHandler {
 
     private HandlerResult okSensorResult(final Long accountId,
                                          final SpeechCommand command,
-                                         final SensorResponse sensorResponse) {
+                                         final SensorResponse sensorResponse,
+                                         final Optional<VoiceRequestContext> context) {
 
         final Map<Sensor, SensorView> sensorViewMap = sensorResponse.sensors().stream()
                 .collect(Collectors.toMap(SensorView::sensor, item -> item));
@@ -217,7 +225,9 @@ public class RoomConditionsHandler extends BaseHandler {
             // get unit preference, default to use Fahrenheit
             final float temperatureValue = Math.round(sensorView.value());
 
-            final Map<PreferenceName, Boolean> preferences = accountPreferencesDAO.get(accountId);
+            final Map<PreferenceName, Boolean> preferences = context.isPresent()
+                    ? context.get().preferences()
+                    : accountPreferencesDAO.get(accountId);
             final Boolean useCelsius = preferences.getOrDefault(PreferenceName.TEMP_CELSIUS, DEFAULT_USE_FAHRENHEIT);
 
             if (useCelsius) {
@@ -256,7 +266,7 @@ public class RoomConditionsHandler extends BaseHandler {
         return (int) Math.round((value * 9.0) / 5.0) + 32;
     }
 
-    private String getSensorName(final SpeechCommand command) {
+    private static String getSensorName(final SpeechCommand command) {
         switch (command) {
             case ROOM_TEMPERATURE:
                 return Sensor.TEMPERATURE.toString();
@@ -278,6 +288,21 @@ public class RoomConditionsHandler extends BaseHandler {
         return "";
     }
 
+    /**
+     * Responses that do not depend on the room data, for warming up the response cache
+     */
+    public static Set<String> staticResponseTexts() {
+        final Set<String> texts = Sets.newLinkedHashSet(roomConditionResponseText.values());
+        texts.add(ROOM_CONDITION_UNAVAILABLE_RESPONSE_TEXT);
+        for (final SpeechCommand command : getAvailableActions().values()) {
+            final String sensorName = getSensorName(command);
+            if (!sensorName.isEmpty()) {
+                texts.add(String.format(NO_DATA_ERROR_RESPONSE_TEXT, sensorName));
+            }
+        }
+        return texts;
+    }
+
     @Override
     public SupichiResponseType responseType() {
         return SupichiResponseType.WATSON;
@@ -111,25 +111,24 @@ public class SleepSoundHandler extends BaseHandler {
 
 
     private static Map<String, SpeechCommand> getAvailableActions() {
-        final Map<String, SpeechCommand> tempMap = Maps.newHashMap();
-        tempMap.put(SoundName.regexPattern(), SpeechCommand.SLEEP_SOUND_PLAY);
-
-        tempMap.put("okay play", SpeechCommand.SLEEP_SOUND_PLAY);
+        // checked in this order, the first matching command wins
+        final Map<String, SpeechCommand> tempMap = Maps.newLinkedHashMap();
+        tempMap.put(PLAY_SLEEP_SOUND_PATTERN, SpeechCommand.SLEEP_SOUND_PLAY);
+        tempMap.put("play fireplace", SpeechCommand.SLEEP_SOUND_PLAY);
+        tempMap.put("stop sleep", SpeechCommand.SLEEP_SOUND_STOP);
+        tempMap.put("stop sounds", SpeechCommand.SLEEP_SOUND_STOP);
+        tempMap.put("stopping sound", SpeechCommand.SLEEP_SOUND_STOP);
         tempMap.put("play sleep", SpeechCommand.SLEEP_SOUND_PLAY);
         tempMap.put("play raindrops", SpeechCommand.SLEEP_SOUND_PLAY);
-        tempMap.put("play rain", SpeechCommand.SLEEP_SOUND_PLAY);
+        tempMap.put("stop sound", SpeechCommand.SLEEP_SOUND_STOP);
+        tempMap.put("stop", SpeechCommand.SLEEP_SOUND_STOP);
         tempMap.put("play aurora", SpeechCommand.SLEEP_SOUND_PLAY);
-        tempMap.put("play fireplace", SpeechCommand.SLEEP_SOUND_PLAY);
+        tempMap.put("okay play", SpeechCommand.SLEEP_SOUND_PLAY);
         tempMap.put("play campfire", SpeechCommand.SLEEP_SOUND_PLAY);
-        tempMap.put(PLAY_SLEEP_SOUND_PATTERN, SpeechCommand.SLEEP_SOUND_PLAY);
-
-        tempMap.put("stop", SpeechCommand.SLEEP_SOUND_STOP);
-        tempMap.put("stop sound", SpeechCommand.SLEEP_SOUND_STOP);
-        tempMap.put("stop sounds", SpeechCommand.SLEEP_SOUND_STOP);
-        tempMap.put("stop sleep", SpeechCommand.SLEEP_SOUND_STOP);
-        tempMap.put("stop sleep sounds", SpeechCommand.SLEEP_SOUND_STOP);
         tempMap.put("stop sleep sound", SpeechCommand.SLEEP_SOUND_STOP);
-        tempMap.put("stopping sound", SpeechCommand.SLEEP_SOUND_STOP);
+        tempMap.put("stop sleep sounds", SpeechCommand.SLEEP_SOUND_STOP);
+        tempMap.put(SoundName.regexPattern(), SpeechCommand.SLEEP_SOUND_PLAY);
+        tempMap.put("play rain", SpeechCommand.SLEEP_SOUND_PLAY);
         return tempMap;
     }
 
@@ -52,13 +52,13 @@ public class SleepSummaryHandler extends BaseHandler {
 
 
     private static Map<String, SpeechCommand> getAvailableActions() {
-        final Map<String, SpeechCommand> tempMap = Maps.newHashMap();
-        tempMap.put("sleep score", SpeechCommand.SLEEP_SCORE);
+        // checked in this order, the first matching command wins
+        final Map<String, SpeechCommand> tempMap = Maps.newLinkedHashMap();
         tempMap.put("what was my score", SpeechCommand.SLEEP_SCORE);
-        tempMap.put("what's my score", SpeechCommand.SLEEP_SCORE);
-
         tempMap.put("sleep summary", SpeechCommand.SLEEP_SUMMARY);
         tempMap.put(SLEEP_SUMMARY_PATTERN, SpeechCommand.SLEEP_SUMMARY);
+        tempMap.put("what's my score", SpeechCommand.SLEEP_SCORE);
+        tempMap.put("sleep score", SpeechCommand.SLEEP_SCORE);
 //        tempMap.put("how was my sleep", SpeechCommand.SLEEP_SUMMARY);
 //        tempMap.put("how is my sleep", SpeechCommand.SLEEP_SUMMARY);
 //        tempMap.put("how's my sleep", SpeechCommand.SLEEP_SUMMARY);
@@ -58,10 +58,11 @@ public class TimeHandler extends BaseHandler {
 
     private static Map<String, SpeechCommand> getAvailableActions() {
         // TODO read from DynamoDB
-        final Map<String, SpeechCommand> tempMap = Maps.newHashMap();
-        tempMap.put(TIME_REGEX, SpeechCommand.TIME_REPORT);
+        // checked in this order, the first matching command wins
+        final Map<String, SpeechCommand> tempMap = Maps.newLinkedHashMap();
         tempMap.put("what time is it", SpeechCommand.TIME_REPORT);
         tempMap.put(DAY_REGEX, SpeechCommand.DAY_REPORT);
+        tempMap.put(TIME_REGEX, SpeechCommand.TIME_REPORT);
         return tempMap;
     }
 
@@ -72,7 +73,7 @@ public class TimeHandler extends BaseHandler {
 
         if (optionalCommand.isPresent()) {
             final String command = optionalCommand.get().getValue();
-            Optional<String> optionalTimeZoneId = getTimeZone(request.accountId, request.ipAddress);
+            Optional<String> optionalTimeZoneId = getTimeZone(request);
 
             if (!optionalTimeZoneId.isPresent()) {
                 return new HandlerResult(HandlerType.TIME_REPORT, command, GenericResult.failWithResponse(NO_TIMEZONE, TIMEZONE_ERROR_TEXT));
@@ -104,18 +105,20 @@ public class TimeHandler extends BaseHandler {
         return NO_ANNOTATION_SCORE;
     }
 
-    private Optional<String> getTimeZone(final Long accountId, final String ipAddress) {
-        final Optional<TimeZoneHistory> tzHistory = this.timeZoneHistoryDAODynamoDB.getCurrentTimeZone(accountId);
+    private Optional<String> getTimeZone(final VoiceRequest request) {
+        final Optional<TimeZoneHistory> tzHistory = request.context.isPresent()
+                ? request.context.get().timeZone()
+                : this.timeZoneHistoryDAODynamoDB.getCurrentTimeZone(request.accountId);
         if (tzHistory.isPresent()) {
             return Optional.of(tzHistory.get().timeZoneId);
         }
 
         if (geoIPDatabase.isPresent()) {
             try {
-                final CityResponse city = geoIPDatabase.get().city(InetAddress.getByName(ipAddress));
+                final CityResponse city = geoIPDatabase.get().city(InetAddress.getByName(request.ipAddress));
                 return Optional.of(city.getLocation().getTimeZone());
             } catch (GeoIp2Exception | IOException e) {
-                LOGGER.info("error=get-timezone-via-geoip-fail account_id={} msg={}", accountId, e.getMessage());
+                LOGGER.info("error=get-timezone-via-geoip-fail account_id={} msg={}", request.accountId, e.getMessage());
             }
         }
         return Optional.absent();
@@ -25,7 +25,7 @@ public class TimelineHandler extends BaseHandler {
     }
 
     private static Map<String, SpeechCommand> getAvailableActions() {
-        final Map<String, SpeechCommand> tempMap = Maps.newHashMap();
+        final Map<String, SpeechCommand> tempMap = Maps.newLinkedHashMap();
 //        tempMap.put("sleep last", SpeechCommand.TIMELINE);
         tempMap.put("my timeline", SpeechCommand.TIMELINE);
         return tempMap;
@@ -43,7 +43,7 @@ public class TriviaHandler extends BaseHandler {
     }
 
     private static Map<String, SpeechCommand> getAvailableActions() {
-        final Map<String, SpeechCommand> tempMap = Maps.newHashMap();
+        final Map<String, SpeechCommand> tempMap = Maps.newLinkedHashMap();
         tempMap.put("best basketball", SpeechCommand.TRIVIA);
         tempMap.put("best nba", SpeechCommand.TRIVIA);
         tempMap.put("best baseball", SpeechCommand.TRIVIA);
@@ -28,4 +28,10 @@ public class AudioConfiguration {
     private int bufferSize;
     public int getBufferSize() { return bufferSize; }
 
+    // decode ADPCM chunk by chunk while streaming to speech-to-text
+    @Valid
+    @JsonProperty("streaming_decode")
+    private Boolean streamingDecode = false;
+    public Boolean getStreamingDecode() { return streamingDecode; }
+
 }
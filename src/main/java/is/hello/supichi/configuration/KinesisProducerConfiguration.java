@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.collect.ImmutableMap;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 import java.util.Map;
 
@@ -49,6 +50,61 @@ public class KinesisProducerConfiguration {
     private int queueSize;
     public int queueSize() { return this.queueSize; }
 
+    // records handed to the KPL at once, and how long to wait for a batch to fill up
+    @Min(1)
+    @JsonProperty("batch_size")
+    private int batchSize = 100;
+    public int batchSize() { return this.batchSize; }
+
+    @Min(0)
+    @JsonProperty("linger_millis")
+    private long lingerMillis = 50L;
+    public long lingerMillis() { return this.lingerMillis; }
+
+    // KPL outstanding records at which draining stops, it slows down from half of it
+    @Min(1)
+    @JsonProperty("max_outstanding_records")
+    private long maxOutstandingRecords = 10000L;
+    public long maxOutstandingRecords() { return this.maxOutstandingRecords; }
+
+    // one record per voice request with the audio and final result, for consumers that handle it
+    @JsonProperty("coalesce_results")
+    private Boolean coalesceResults = false;
+    public Boolean coalesceResults() { return this.coalesceResults; }
+
+    // how long to hold a request's records waiting for its final result
+    @Min(0)
+    @JsonProperty("coalesce_window_millis")
+    private long coalesceWindowMillis = 15000L;
+    public long coalesceWindowMillis() { return this.coalesceWindowMillis; }
+
+    // requests held at once, each one holds its audio. The oldest are put without waiting when full
+    @Min(1)
+    @JsonProperty("coalesce_max_pending")
+    private int coalesceMaxPending = 1000;
+    public int coalesceMaxPending() { return this.coalesceMaxPending; }
+
+    // when set, audio is appended to segment files in this directory and records only carry a pointer to it.
+    // Local only: segments are not shipped anywhere, consumers that need the audio must read it on this instance
+    @JsonProperty("audio_archive_path")
+    private String audioArchivePath = "";
+    public String audioArchivePath() { return this.audioArchivePath; }
+
+    // instance named in the audio pointers, defaults to the host name
+    @JsonProperty("audio_archive_instance_id")
+    private String audioArchiveInstanceId = "";
+    public String audioArchiveInstanceId() { return this.audioArchiveInstanceId; }
+
+    @Min(1)
+    @JsonProperty("audio_archive_segment_bytes")
+    private int audioArchiveSegmentBytes = 64 * 1024 * 1024;
+    public int audioArchiveSegmentBytes() { return this.audioArchiveSegmentBytes; }
+
+    @Min(1)
+    @JsonProperty("audio_archive_max_segments")
+    private int audioArchiveMaxSegments = 32;
+    public int audioArchiveMaxSegments() { return this.audioArchiveMaxSegments; }
+
     @Valid
     @NotNull
     @JsonProperty("streams")
@@ -5,6 +5,7 @@ import com.google.common.collect.Lists;
 import io.dropwizard.Configuration;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 import java.util.List;
 
@@ -71,4 +72,78 @@ public class SpeechConfiguration extends Configuration {
     public String cachePrefix() {
         return cachePrefix;
     }
+
+    // in-process cache in front of memcached for synthesized responses
+    @Min(0)
+    @JsonProperty("local_response_cache_max_bytes")
+    private Long localResponseCacheMaxBytes = 32L * 1024 * 1024;
+    public Long localResponseCacheMaxBytes() {
+        return localResponseCacheMaxBytes;
+    }
+
+    // responses are re-read from memcached after this, so a re-recorded response is picked up
+    @Min(1)
+    @JsonProperty("local_response_cache_ttl_seconds")
+    private Integer localResponseCacheTtlSeconds = 3600;
+    public Integer localResponseCacheTtlSeconds() {
+        return localResponseCacheTtlSeconds;
+    }
+
+    // render static responses into the response cache at startup, needs memcache_hosts
+    @JsonProperty("warm_up_responses")
+    private Boolean warmUpResponses = false;
+    public Boolean warmUpResponses() {
+        return warmUpResponses;
+    }
+
+    @Min(1)
+    @JsonProperty("warm_up_threads")
+    private Integer warmUpThreads = 2;
+    public Integer warmUpThreads() {
+        return warmUpThreads;
+    }
+
+    // run voice uploads on a dedicated bounded pool instead of the request threads
+    @JsonProperty("async_upload")
+    private Boolean asyncUpload = false;
+    public Boolean asyncUpload() {
+        return asyncUpload;
+    }
+
+    @Min(1)
+    @JsonProperty("upload_threads")
+    private Integer uploadThreads = 8;
+    public Integer uploadThreads() {
+        return uploadThreads;
+    }
+
+    // uploads waiting for a thread, anything beyond that gets a 503
+    @Min(1)
+    @JsonProperty("upload_queue_size")
+    private Integer uploadQueueSize = 16;
+    public Integer uploadQueueSize() {
+        return uploadQueueSize;
+    }
+
+    // load timezone, preferences and alarms while speech to text runs
+    @JsonProperty("prefetch_context")
+    private Boolean prefetchContext = false;
+    public Boolean prefetchContext() {
+        return prefetchContext;
+    }
+
+    @Min(1)
+    @JsonProperty("prefetch_threads")
+    private Integer prefetchThreads = 8;
+    public Integer prefetchThreads() {
+        return prefetchThreads;
+    }
+
+    // how long a handler waits for a prefetched value before loading it itself
+    @Min(1)
+    @JsonProperty("prefetch_timeout_millis")
+    private Integer prefetchTimeoutMillis = 1000;
+    public Integer prefetchTimeoutMillis() {
+        return prefetchTimeoutMillis;
+    }
 }
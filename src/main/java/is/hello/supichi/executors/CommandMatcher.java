@@ -0,0 +1,164 @@
+package is.hello.supichi.executors;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
+import is.hello.supichi.commandhandlers.BaseHandler;
+import is.hello.supichi.models.HandlerType;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Finds every handler type with a command matching a transcript, in one pass over it.
+ *
+ * Plain phrases, which are most commands, go into an Aho-Corasick automaton. The remaining regexes are combined into
+ * one alternation per handler type, which only runs when no phrase already matched that handler type.
+ * A transcript matches a handler type exactly when one of its commands would find() a match on its own.
+ */
+class CommandMatcher {
+
+    static class Result {
+        // in the order handler types were registered
+        final List<HandlerType> handlerTypes;
+        // every registered phrase contained in the transcript
+        final Set<String> phrases;
+
+        private Result(final List<HandlerType> handlerTypes, final Set<String> phrases) {
+            this.handlerTypes = handlerTypes;
+            this.phrases = phrases;
+        }
+    }
+
+    private static class Node {
+        final Map<Character, Node> next = Maps.newHashMap();
+        Node fail;
+        // ids of the phrases ending here, including through fail links
+        int[] output = new int[0];
+    }
+
+    private final List<HandlerType> handlerTypes;
+    private final Node root;
+    private final List<String> phrases;
+    private final long[] phraseHandlerTypes; // bit i set when handlerTypes[i] has the phrase
+    private final List<Pattern> regexes; // indexed like handlerTypes, null when a handler type has none
+
+    private CommandMatcher(final List<HandlerType> handlerTypes, final Node root, final List<String> phrases,
+                           final long[] phraseHandlerTypes, final List<Pattern> regexes) {
+        this.handlerTypes = handlerTypes;
+        this.root = root;
+        this.phrases = phrases;
+        this.phraseHandlerTypes = phraseHandlerTypes;
+        this.regexes = regexes;
+    }
+
+    /**
+     * @param commands commands of each handler type, handler types are returned in the multimap's key order
+     */
+    static CommandMatcher create(final Multimap<HandlerType, String> commands) {
+        final List<HandlerType> handlerTypes = ImmutableList.copyOf(commands.keySet());
+        if (handlerTypes.size() > Long.SIZE) {
+            throw new IllegalArgumentException("too-many-handler-types");
+        }
+
+        final Node root = new Node();
+        final Map<String, Integer> phraseIds = Maps.newLinkedHashMap();
+        final List<Long> phraseHandlerTypes = Lists.newArrayList();
+        final List<Pattern> regexes = Lists.newArrayList();
+        for (int index = 0; index < handlerTypes.size(); index++) {
+            final List<String> groups = Lists.newArrayList();
+            for (final String command : commands.get(handlerTypes.get(index))) {
+                if (command.isEmpty() || !BaseHandler.isPhrase(command)) {
+                    groups.add("(?:" + command + ")");
+                    continue;
+                }
+                Integer id = phraseIds.get(command);
+                if (id == null) {
+                    id = phraseIds.size();
+                    phraseIds.put(command, id);
+                    phraseHandlerTypes.add(0L);
+                    addPhrase(root, command, id);
+                }
+                phraseHandlerTypes.set(id, phraseHandlerTypes.get(id) | (1L << index));
+            }
+            regexes.add(groups.isEmpty() ? null : Pattern.compile(String.join("|", groups)));
+        }
+        link(root);
+
+        final long[] handlerTypeMasks = new long[phraseHandlerTypes.size()];
+        for (int id = 0; id < handlerTypeMasks.length; id++) {
+            handlerTypeMasks[id] = phraseHandlerTypes.get(id);
+        }
+        return new CommandMatcher(handlerTypes, root, ImmutableList.copyOf(phraseIds.keySet()), handlerTypeMasks, regexes);
+    }
+
+    private static void addPhrase(final Node root, final String phrase, final int id) {
+        Node node = root;
+        for (int i = 0; i < phrase.length(); i++) {
+            node = node.next.computeIfAbsent(phrase.charAt(i), c -> new Node());
+        }
+        node.output = new int[]{id};
+    }
+
+    /**
+     * Breadth first, so fail links always point to nodes that are already linked
+     */
+    private static void link(final Node root) {
+        final Deque<Node> queue = new ArrayDeque<>();
+        for (final Node child : root.next.values()) {
+            child.fail = root;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            final Node node = queue.poll();
+            for (final Map.Entry<Character, Node> entry : node.next.entrySet()) {
+                final Node child = entry.getValue();
+                Node fail = node.fail;
+                while (fail != null && !fail.next.containsKey(entry.getKey())) {
+                    fail = fail.fail;
+                }
+                child.fail = (fail == null) ? root : fail.next.get(entry.getKey());
+                if (child.fail.output.length > 0) {
+                    final int[] output = new int[child.output.length + child.fail.output.length];
+                    System.arraycopy(child.output, 0, output, 0, child.output.length);
+                    System.arraycopy(child.fail.output, 0, output, child.output.length, child.fail.output.length);
+                    child.output = output;
+                }
+                queue.add(child);
+            }
+        }
+    }
+
+    Result matches(final String text) {
+        long matched = 0L;
+        final ImmutableSet.Builder<String> matchedPhrases = ImmutableSet.builder();
+        Node node = root;
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            while (node != root && !node.next.containsKey(c)) {
+                node = node.fail;
+            }
+            final Node next = node.next.get(c);
+            node = (next == null) ? root : next;
+            for (final int id : node.output) {
+                matched |= phraseHandlerTypes[id];
+                matchedPhrases.add(phrases.get(id));
+            }
+        }
+
+        final List<HandlerType> result = Lists.newArrayList();
+        for (int i = 0; i < handlerTypes.size(); i++) {
+            final boolean phraseMatch = (matched & (1L << i)) != 0;
+            if (phraseMatch || (regexes.get(i) != null && regexes.get(i).matcher(text).find())) {
+                result.add(handlerTypes.get(i));
+            }
+        }
+        return new Result(result, matchedPhrases.build());
+    }
+}
@@ -7,11 +7,23 @@ import is.hello.supichi.models.HandlerResult;
 import is.hello.supichi.models.HandlerType;
 import is.hello.supichi.models.VoiceRequest;
 import is.hello.supichi.response.SupichiResponseType;
+import is.hello.supichi.utils.VoiceTimings;
 
 import java.util.Map;
 
 public interface HandlerExecutor {
     HandlerResult handle(final VoiceRequest request);
+
+    /**
+     * Same as {@link #handle(VoiceRequest)}, recording the latency of each step
+     */
+    default HandlerResult handle(final VoiceRequest request, final VoiceTimings timings) {
+        final long start = VoiceTimings.start();
+        final HandlerResult result = handle(request);
+        timings.record("handler", start, result.handlerType.name());
+        return result;
+    }
+
     HandlerExecutor register(HandlerType handlerType, BaseHandler baseHandler);
     Map<HandlerType, SupichiResponseType> responseBuilders();
     Optional<BaseHandler> getHandler(AnnotatedTranscript annotatedTranscript);
@@ -1,8 +1,12 @@
 package is.hello.supichi.executors;
 
 import com.google.common.base.Optional;
+import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Sets;
+import com.hello.suripu.app.utils.LookupCache;
 import com.hello.suripu.core.db.TimeZoneHistoryDAODynamoDB;
 import com.hello.suripu.core.models.TimeZoneHistory;
 import is.hello.supichi.commandhandlers.BaseHandler;
@@ -12,58 +16,85 @@ import is.hello.supichi.models.HandlerResult;
 import is.hello.supichi.models.HandlerType;
 import is.hello.supichi.models.VoiceRequest;
 import is.hello.supichi.response.SupichiResponseType;
+import is.hello.supichi.utils.VoiceTimings;
 import org.joda.time.DateTimeZone;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TimeZone;
-import java.util.regex.Matcher;
+import java.util.function.Function;
 import java.util.regex.Pattern;
 
 public class RegexAnnotationsHandlerExecutor implements HandlerExecutor {
 
     private Map<HandlerType, BaseHandler> availableHandlers = Maps.newConcurrentMap();
-    private Map<Pattern, HandlerType> commandToHandlerMap = Maps.newConcurrentMap();
+    private final Multimap<HandlerType, String> commands = LinkedHashMultimap.create();
+    private final Set<String> registeredCommands = Sets.newHashSet();
+    private volatile CommandMatcher commandMatcher = CommandMatcher.create(LinkedHashMultimap.create());
     private Map<HandlerType, SupichiResponseType> responseBuilders = Maps.newConcurrentMap();
 
-    private final TimeZoneHistoryDAODynamoDB timeZoneHistoryDAODynamoDB;
+    private final Function<Long, Optional<TimeZoneHistory>> timeZoneLookup;
 
     private final static Logger LOGGER = LoggerFactory.getLogger(RegexAnnotationsHandlerExecutor.class);
 
     public RegexAnnotationsHandlerExecutor(final TimeZoneHistoryDAODynamoDB timeZoneHistoryDAODynamoDB) {
-        this.timeZoneHistoryDAODynamoDB = timeZoneHistoryDAODynamoDB;
+        this.timeZoneLookup = timeZoneHistoryDAODynamoDB::getCurrentTimeZone;
+    }
+
+    public RegexAnnotationsHandlerExecutor(final LookupCache<Long, TimeZoneHistory> timeZoneCache) {
+        this.timeZoneLookup = timeZoneCache::get;
     }
 
 
     @Override
     public HandlerResult handle(final VoiceRequest request) {
+        return handle(request, VoiceTimings.noop());
+    }
+
+    @Override
+    public HandlerResult handle(final VoiceRequest request, final VoiceTimings timings) {
         // TODO: command-parser
 
         final Long accountId = request.accountId;
         final String transcript = request.transcript;
 
         // get user TimeZone
-        final Optional<TimeZoneHistory> timeZoneHistoryOptional = timeZoneHistoryDAODynamoDB.getCurrentTimeZone(accountId);
+        long start = VoiceTimings.start();
+        final Optional<TimeZoneHistory> timeZoneHistoryOptional = request.context.isPresent()
+                ? request.context.get().timeZone()
+                : timeZoneLookup.apply(accountId);
         final Optional<TimeZone> timeZone;// = DateTimeZone.forID("America/Los_Angeles").toTimeZone();
         if (timeZoneHistoryOptional.isPresent()) {
             timeZone = Optional.of(DateTimeZone.forID(timeZoneHistoryOptional.get().timeZoneId).toTimeZone());
         } else {
             timeZone = Optional.absent();
         }
+        timings.record("timezone_lookup", start);
 
         // extract entities
+        start = VoiceTimings.start();
         final AnnotatedTranscript annotatedTranscript = Annotator.get(transcript, timeZone);
+        timings.record("annotate", start);
 
-        final Optional<BaseHandler> optionalHandler = getHandler(annotatedTranscript);
+        start = VoiceTimings.start();
+        final CommandMatcher.Result match = commandMatcher.matches(annotatedTranscript.lowercaseTranscript());
+        // handlers resolve their command from the phrases already found
+        final AnnotatedTranscript matchedTranscript = annotatedTranscript.withMatchedPhrases(match.phrases);
+        final Optional<BaseHandler> optionalHandler = getHandler(matchedTranscript, match.handlerTypes);
+        timings.record("handler_select", start);
 
         if (optionalHandler.isPresent()) {
             final BaseHandler handler = optionalHandler.get();
             LOGGER.debug("action=find-handler sense_id={} account_id={} result=success handler={}",
                     request.senseId, accountId, handler.getClass().toString());
 
-            final HandlerResult executeResult = handler.executeCommand(annotatedTranscript, request);
+            start = VoiceTimings.start();
+            final HandlerResult executeResult = handler.executeCommand(matchedTranscript, request);
+            timings.record("handler_execute", start, executeResult.handlerType.name());
+            timings.tag("handler", executeResult.handlerType.name());
             LOGGER.info("action=execute-command sense_id={} account_id={} result={} response={}",
                     request.senseId, accountId, executeResult.outcome().getValue(),
                     executeResult.responseText().replace(" ", "-"));
@@ -76,15 +107,16 @@ public class RegexAnnotationsHandlerExecutor implements HandlerExecutor {
     }
 
     @Override
-    public HandlerExecutor register(final HandlerType handlerType, final BaseHandler baseHandler) {
+    public synchronized HandlerExecutor register(final HandlerType handlerType, final BaseHandler baseHandler) {
         // Create in memory global map of commands
         for (final String command : baseHandler.getRelevantCommands()) {
-            final Pattern regexPattern = Pattern.compile(command);
-            final HandlerType type = commandToHandlerMap.putIfAbsent(regexPattern, handlerType);
-            if(type != null) {
+            Pattern.compile(command); // fail on invalid commands when registering
+            if(!registeredCommands.add(command)) {
                 LOGGER.warn("warn=duplicate-command command={} handler={}", command, handlerType);
             }
+            commands.put(handlerType, command);
         }
+        commandMatcher = CommandMatcher.create(commands);
 
         availableHandlers.put(handlerType, baseHandler);
         responseBuilders.put(handlerType, baseHandler.responseType());
@@ -92,26 +124,17 @@ public class RegexAnnotationsHandlerExecutor implements HandlerExecutor {
     }
 
     public Optional<BaseHandler> getHandler(final AnnotatedTranscript annotatedTranscript) {
-
         // Find a suitable handler via text
         final String command = annotatedTranscript.transcript.toLowerCase();
+        return getHandler(annotatedTranscript, commandMatcher.matches(command).handlerTypes);
+    }
 
-        // final Map<BaseHandler, Integer> possibleHandlers = Maps.newHashMap();
+    private Optional<BaseHandler> getHandler(final AnnotatedTranscript annotatedTranscript, final List<HandlerType> handlerTypes) {
         final List<BaseHandler> possibleHandlers = Lists.newArrayList();
-        for(final Pattern pattern : commandToHandlerMap.keySet()) {
-
-            final HandlerType handlerType = commandToHandlerMap.get(pattern);
-            Matcher m = pattern.matcher(command);
-            if(m.find()) {
-                LOGGER.debug("match_pattern={} handler_type={}", pattern, handlerType);
-                if (availableHandlers.containsKey(handlerType)) {
-                    final BaseHandler matchedHandler = availableHandlers.get(handlerType);
-                    if (!possibleHandlers.contains(matchedHandler)) {
-                        possibleHandlers.add(matchedHandler);
-                    }
-//                    possibleHandlers.putIfAbsent(matchedHandler, 0);
-//                    possibleHandlers.replace(matchedHandler, possibleHandlers.get(matchedHandler) + 1);
-                }
+        for (final HandlerType handlerType : handlerTypes) {
+            LOGGER.debug("match_command handler_type={}", handlerType);
+            if (availableHandlers.containsKey(handlerType)) {
+                possibleHandlers.add(availableHandlers.get(handlerType));
             }
         }
 
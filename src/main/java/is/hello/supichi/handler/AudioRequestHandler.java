@@ -4,7 +4,7 @@ import com.codahale.metrics.Meter;
 import com.codahale.metrics.MetricRegistry;
 import com.google.common.base.Optional;
 import com.google.common.collect.Maps;
-import com.hello.suripu.core.models.device.v2.DeviceProcessor;
+import com.hello.suripu.app.utils.LookupCache;
 import com.hello.suripu.core.speech.models.Result;
 import com.hello.suripu.core.speech.models.SpeechResult;
 import com.hello.suripu.core.speech.models.SpeechToTextService;
@@ -22,9 +22,11 @@ import is.hello.supichi.models.HandlerResult;
 import is.hello.supichi.models.HandlerType;
 import is.hello.supichi.models.SpeechServiceResult;
 import is.hello.supichi.models.VoiceRequest;
+import is.hello.supichi.models.VoiceRequestContext;
 import is.hello.supichi.response.SupichiResponseBuilder;
 import is.hello.supichi.response.SupichiResponseType;
 import is.hello.supichi.utils.AudioUtils;
+import is.hello.supichi.utils.VoiceTimings;
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
 import org.slf4j.Logger;
@@ -48,7 +50,8 @@ public class AudioRequestHandler {
     private final SignedBodyHandler signedBodyHandler;
     private final HandlerExecutor handlerExecutor;
 
-    private final DeviceProcessor deviceProcessor;
+    private final LookupCache<String, Long> primaryAccountCache;
+    private final Optional<VoiceRequestPrefetcher> prefetcher;
 
     private final SpeechKinesisProducer speechKinesisProducer;
     private final Map<SupichiResponseType, SupichiResponseBuilder> responseBuilders;
@@ -72,7 +75,24 @@ public class AudioRequestHandler {
                                final SpeechKinesisProducer speechKinesisProducer,
                                final Map<SupichiResponseType, SupichiResponseBuilder> responseBuilders,
                                final Map<HandlerType, SupichiResponseType> handlerMap,
-                               final DeviceProcessor deviceProcessor,
+                               final LookupCache<String, Long> primaryAccountCache,
+                               final MetricRegistry metricRegistry
+                               ) {
+        this(speechClient, signedBodyHandler, handlerExecutor, speechKinesisProducer, responseBuilders, handlerMap,
+                primaryAccountCache, Optional.<VoiceRequestPrefetcher>absent(), metricRegistry);
+    }
+
+    /**
+     * @param prefetcher loads account data while speech to text runs, handlers query it themselves when absent
+     */
+    public AudioRequestHandler(final InstrumentedSpeechClient speechClient,
+                               final SignedBodyHandler signedBodyHandler,
+                               final HandlerExecutor handlerExecutor,
+                               final SpeechKinesisProducer speechKinesisProducer,
+                               final Map<SupichiResponseType, SupichiResponseBuilder> responseBuilders,
+                               final Map<HandlerType, SupichiResponseType> handlerMap,
+                               final LookupCache<String, Long> primaryAccountCache,
+                               final Optional<VoiceRequestPrefetcher> prefetcher,
                                final MetricRegistry metricRegistry
                                ) {
         this.speechClient = speechClient;
@@ -81,7 +101,8 @@ public class AudioRequestHandler {
         this.speechKinesisProducer = speechKinesisProducer;
         this.responseBuilders = responseBuilders;
         this.handlerMap = handlerMap;
-        this.deviceProcessor = deviceProcessor;
+        this.primaryAccountCache = primaryAccountCache;
+        this.prefetcher = prefetcher;
 
         this.metrics = metricRegistry;
         this.commandOK = metrics.meter(name(AudioRequestHandler.class, "command-ok"));
@@ -95,12 +116,27 @@ public class AudioRequestHandler {
     }
 
     public WrappedResponse handle(final RawRequest rawRequest) {
+        final VoiceTimings timings = VoiceTimings.create(metrics);
+        try {
+            return handle(rawRequest, timings);
+        } finally {
+            LOGGER.info("action=voice-request-timings sense_id={} {}", rawRequest.senseId(), timings.toLogString());
+        }
+    }
+
+    private WrappedResponse handle(final RawRequest rawRequest, final VoiceTimings timings) {
         LOGGER.debug("action=received-bytes size={} sense_id={}", rawRequest.signedBody().length, rawRequest.senseId());
 
         // parse audio and protobuf
         final UploadData uploadData;
         try {
-            uploadData = signedBodyHandler.extractUploadData(rawRequest.senseId(), rawRequest.signedBody());
+            long start = VoiceTimings.start();
+            final int bodyLength = signedBodyHandler.verifySignature(rawRequest.senseId(), rawRequest.signedBody());
+            timings.record("signature", start);
+
+            start = VoiceTimings.start();
+            uploadData = signedBodyHandler.extractData(rawRequest.senseId(), rawRequest.signedBody(), bodyLength);
+            timings.record("protobuf", start);
         } catch (InvalidSignedBodyException e) {
             LOGGER.error("error=invalid-signed-body sense_id={} msg={}", rawRequest.senseId(), e.getMessage());
             this.requestInvalidBody.mark(1);
@@ -121,11 +157,13 @@ public class AudioRequestHandler {
         HandlerResult executeResult = HandlerResult.emptyResult();
 
         // check for primary user account-id
-        final Optional<Long> optionalPrimaryAccount = deviceProcessor.primaryAccount(rawRequest.senseId());
+        final long accountStart = VoiceTimings.start();
+        final Optional<Long> optionalPrimaryAccount = primaryAccountCache.get(rawRequest.senseId());
+        timings.record("account_lookup", accountStart);
         if (!optionalPrimaryAccount.isPresent()) {
             LOGGER.error("error=no-paired-sense-found sense_id={}", rawRequest.senseId());
             executeResult = new HandlerResult(HandlerType.NONE, "", GenericResult.failWithResponse(ERROR_NO_PAIRED_SENSE, GenericResponseText.NO_PAIRED_SENSE_TEXT));
-            final byte[] content = responseBuilders.get(SupichiResponseType.WATSON).response(Response.SpeechResponse.Result.UNPAIRED_SENSE, executeResult, uploadData.request);
+            final byte[] content = response(timings, SupichiResponseType.WATSON, Response.SpeechResponse.Result.UNPAIRED_SENSE, executeResult, uploadData.request);
             return WrappedResponse.ok(content);
         }
 
@@ -143,7 +181,7 @@ public class AudioRequestHandler {
                 .withAudioIndentifier(audioUUID)
                 .withDateTimeUTC(speechCreated)
                 .withFirmwareVersion(uploadData.request.getVersion());
-        speechKinesisProducer.addResult(builder.build(), SpeechResultsKinesis.SpeechResultsData.Action.TIMELINE, body);
+        addResult(timings, builder.build(), SpeechResultsKinesis.SpeechResultsData.Action.TIMELINE, body);
 
         // return empty bytes for certain wakeword
         final Speech.Keyword keyword = uploadData.request.getWord();
@@ -158,21 +196,39 @@ public class AudioRequestHandler {
         if (keyword.equals(Speech.Keyword.STOP) || keyword.equals(Speech.Keyword.SNOOZE)) {
             LOGGER.debug("action=encounter-STOP-SNOOZE keyword={}", keyword);
             builder.withResult(Result.OK);
-            speechKinesisProducer.addResult(builder.build(), SpeechResultsKinesis.SpeechResultsData.Action.PUT_ITEM, EMPTY_BYTE);
+            addResult(timings, builder.build(), SpeechResultsKinesis.SpeechResultsData.Action.PUT_ITEM, EMPTY_BYTE);
 
             return WrappedResponse.silence();
         }
 
-        try {
-            // convert audio: ADPCM to 16-bit 16k PCM
-            LOGGER.debug("action=start-adpcm-pcm-conversion sense_id={} input_size={}", senseId, body.length);
-
-            final byte[] decoded = AudioUtils.decodeADPShitMAudio(body);
+        // start loading what the handlers need, it overlaps with speech to text
+        final Optional<VoiceRequestContext> context;
+        if (prefetcher.isPresent()) {
+            final long prefetchStart = VoiceTimings.start();
+            context = Optional.of(prefetcher.get().prefetch(senseId, accountId));
+            timings.record("prefetch", prefetchStart);
+        } else {
+            context = Optional.absent();
+        }
 
-            LOGGER.debug("action=done-adpcm-pcm-conversion sense_id={} output_size={}", senseId, decoded.length);
+        try {
+            // convert audio: ADPCM to 16-bit 16k PCM, and send speech to google
+            final SpeechServiceResult resp;
+            if (speechClient.streamingDecode()) {
+                // decoding is interleaved with streaming, both are part of the stt stage
+                final long sttStart = VoiceTimings.start();
+                resp = speechClient.streamAdpcm(rawRequest.senseId(), body, uploadData.request.getSamplingRate());
+                timings.record("stt", sttStart);
+                timings.tag("decode", "streaming");
+            } else {
+                final long decodeStart = VoiceTimings.start();
+                final byte[] decoded = AudioUtils.decodeADPShitMAudio(body);
+                timings.record("decode", decodeStart);
 
-            // send speech to google
-            final SpeechServiceResult resp = speechClient.stream(rawRequest.senseId(), decoded, uploadData.request.getSamplingRate());
+                final long sttStart = VoiceTimings.start();
+                resp = speechClient.stream(rawRequest.senseId(), decoded, uploadData.request.getSamplingRate());
+                timings.record("stt", sttStart);
+            }
 
 
             if (!resp.getTranscript().isPresent()) {
@@ -183,7 +239,7 @@ public class AudioRequestHandler {
                 builder.withUpdatedUTC(DateTime.now(DateTimeZone.UTC))
                         .withResponseText(GenericResponseText.TRY_AGAIN_TEXT)
                         .withResult(Result.TRY_AGAIN);
-                speechKinesisProducer.addResult(builder.build(), SpeechResultsKinesis.SpeechResultsData.Action.PUT_ITEM, EMPTY_BYTE);
+                addResult(timings, builder.build(), SpeechResultsKinesis.SpeechResultsData.Action.PUT_ITEM, EMPTY_BYTE);
 
                 return WrappedResponse.silence();
             }
@@ -204,7 +260,7 @@ public class AudioRequestHandler {
                     builder.withUpdatedUTC(DateTime.now(DateTimeZone.UTC))
                             .withResponseText(GenericResponseText.COMMAND_REJECTED_TEXT)
                             .withResult(Result.REJECTED);
-                    speechKinesisProducer.addResult(builder.build(), SpeechResultsKinesis.SpeechResultsData.Action.PUT_ITEM, EMPTY_BYTE);
+                    addResult(timings, builder.build(), SpeechResultsKinesis.SpeechResultsData.Action.PUT_ITEM, EMPTY_BYTE);
 
                     LOGGER.error("error=command-rejected reason=single-word final_result=rejected sense_id={} account_id={} response=silence",
                             senseId, accountId);
@@ -213,11 +269,10 @@ public class AudioRequestHandler {
             }
 
             // try to execute text command
-            final VoiceRequest voiceRequest = new VoiceRequest(rawRequest.senseId(), accountId, transcribedText, rawRequest.ipAddress());
-            executeResult = handlerExecutor.handle(voiceRequest);
+            final VoiceRequest voiceRequest = new VoiceRequest(rawRequest.senseId(), accountId, transcribedText, rawRequest.ipAddress(), context);
+            executeResult = handlerExecutor.handle(voiceRequest, timings);
 
             final SupichiResponseType responseType = handlerMap.getOrDefault(executeResult.handlerType, SupichiResponseType.STATIC);
-            final SupichiResponseBuilder responseBuilder = responseBuilders.get(responseType);
 
             if (!executeResult.handlerType.equals(HandlerType.NONE)) {
                 // save OK speech result
@@ -237,12 +292,12 @@ public class AudioRequestHandler {
                         .withHandlerType(executeResult.handlerType.value)
                         .withResponseText(executeResult.responseText())
                         .withResult(commandResult);
-                speechKinesisProducer.addResult(builder.build(), SpeechResultsKinesis.SpeechResultsData.Action.PUT_ITEM, EMPTY_BYTE);
+                addResult(timings, builder.build(), SpeechResultsKinesis.SpeechResultsData.Action.PUT_ITEM, EMPTY_BYTE);
 
                 LOGGER.info("action=command-processed-building-response final_result={} sense_id={} account_id={} command={} response={}",
                         commandResult.name(), senseId, accountId, executeResult.command, executeResult.responseText().replace(" ", "-"));
 
-                final byte[] content = responseBuilder.response(Response.SpeechResponse.Result.OK, executeResult, uploadData.request);
+                final byte[] content = response(timings, responseType, Response.SpeechResponse.Result.OK, executeResult, uploadData.request);
                 return WrappedResponse.ok(content);
             }
 
@@ -251,12 +306,12 @@ public class AudioRequestHandler {
             builder.withUpdatedUTC(DateTime.now(DateTimeZone.UTC))
                     .withResponseText(GenericResponseText.TRY_AGAIN_TEXT)
                     .withResult(Result.TRY_AGAIN);
-            speechKinesisProducer.addResult(builder.build(), SpeechResultsKinesis.SpeechResultsData.Action.PUT_ITEM, EMPTY_BYTE);
+            addResult(timings, builder.build(), SpeechResultsKinesis.SpeechResultsData.Action.PUT_ITEM, EMPTY_BYTE);
 
             LOGGER.info("action=command-processed-no-handler-found final_result=try-again sense_id={} account_id={} response=generic-try-again-text",
                     senseId, accountId);
 
-            final byte[] content = responseBuilder.response(Response.SpeechResponse.Result.TRY_AGAIN, executeResult, uploadData.request);
+            final byte[] content = response(timings, responseType, Response.SpeechResponse.Result.TRY_AGAIN, executeResult, uploadData.request);
             return WrappedResponse.ok(content);
 
         } catch (Exception e) {
@@ -269,15 +324,37 @@ public class AudioRequestHandler {
         builder.withUpdatedUTC(DateTime.now(DateTimeZone.UTC))
                 .withResponseText(responseText)
                 .withResult(Result.REJECTED);
-        speechKinesisProducer.addResult(builder.build(), SpeechResultsKinesis.SpeechResultsData.Action.PUT_ITEM, EMPTY_BYTE);
+        addResult(timings, builder.build(), SpeechResultsKinesis.SpeechResultsData.Action.PUT_ITEM, EMPTY_BYTE);
 
         LOGGER.info("action=nothing-processed final_result=rejected sense_id={} account_id={} response={}",
                 senseId, accountId, responseText.replace(" ", "-"));
 
-        final byte[] content = responseBuilders.get(SupichiResponseType.STATIC).response(Response.SpeechResponse.Result.REJECTED, executeResult, uploadData.request);
+        final byte[] content = response(timings, SupichiResponseType.STATIC, Response.SpeechResponse.Result.REJECTED, executeResult, uploadData.request);
         return WrappedResponse.ok(content);
     }
 
+    private void addResult(final VoiceTimings timings, final SpeechResult speechResult,
+                           final SpeechResultsKinesis.SpeechResultsData.Action action, final byte[] audioBytes) {
+        final long start = VoiceTimings.start();
+        speechKinesisProducer.addResult(speechResult, action, audioBytes);
+        timings.record("kinesis", start);
+    }
+
+    private byte[] response(final VoiceTimings timings, final SupichiResponseType responseType,
+                            final Response.SpeechResponse.Result result, final HandlerResult executeResult,
+                            final Speech.SpeechRequest request) {
+        final long start = VoiceTimings.start();
+        final byte[] content = responseBuilders.get(responseType).response(result, executeResult, request, timings);
+        final Optional<String> cache = timings.tag("cache");
+        if (cache.isPresent()) {
+            timings.record("response", start, responseType.name(), cache.get());
+        } else {
+            timings.record("response", start, responseType.name());
+        }
+        timings.tag("response_type", responseType.name());
+        return content;
+    }
+
     private Map<String, Float> setWakeWordConfidence(final WakeWord wakeWord, final Float confidence) {
         final Map<String, Float> wakeWordConfidence = Maps.newHashMap();
         for (final WakeWord word : WakeWord.values()) {
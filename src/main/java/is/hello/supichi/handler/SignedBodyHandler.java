@@ -1,6 +1,7 @@
 package is.hello.supichi.handler;
 
 import com.google.common.base.Optional;
+import com.google.protobuf.CodedInputStream;
 import com.google.protobuf.InvalidProtocolBufferException;
 import com.hello.suripu.core.db.KeyStore;
 import is.hello.supichi.utils.HmacSignedMessage;
@@ -8,7 +9,7 @@ import is.hello.supichi.api.Speech;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
 
@@ -28,13 +29,16 @@ public class SignedBodyHandler {
 
     public UploadData extractUploadData(final String senseId, byte[] signedBody) throws InvalidSignedBodyException, InvalidSignatureException {
         // Check HMAC signature
-        final byte[] body = extractSignature(senseId, signedBody);
+        final int bodyLength = verifySignature(senseId, signedBody);
 
-        // extract protobuf and audio
-        return extractData(senseId, body);
+        // extract protobuf and audio, the signed body is only read in place
+        return extractData(senseId, signedBody, bodyLength);
     }
 
-    protected byte[] extractSignature(final String senseId, byte[] signedBody) throws InvalidSignedBodyException, InvalidSignatureException {
+    /**
+     * @return length of the body preceding the signature
+     */
+    protected int verifySignature(final String senseId, byte[] signedBody) throws InvalidSignedBodyException, InvalidSignatureException {
         final Optional<byte[]> optionalKey = keystore.getStrict(senseId);
         if(!optionalKey.isPresent()) {
             LOGGER.error("error=no-keys-found sense_id={}", senseId);
@@ -46,41 +50,34 @@ public class SignedBodyHandler {
             throw new InvalidSignedBodyException("invalid-body-length");
         }
 
-        final byte[] sig = Arrays.copyOfRange(signedBody, signedBody.length - SIGNATURE_LENGTH, signedBody.length);
-        final byte[] body = Arrays.copyOfRange(signedBody, 0, signedBody.length - SIGNATURE_LENGTH);
+        final int bodyLength = signedBody.length - SIGNATURE_LENGTH;
+        final byte[] sig = Arrays.copyOfRange(signedBody, bodyLength, signedBody.length);
 
-        if(!HmacSignedMessage.match(body, optionalKey.get(), sig)) {
+        if(!HmacSignedMessage.match(signedBody, 0, bodyLength, optionalKey.get(), sig)) {
             LOGGER.error("error=HMAC-mismatch");
             throw new InvalidSignatureException("HMAC-mismatch");
         }
-        return body;
+        return bodyLength;
     }
 
     protected UploadData extractData(final String senseId, byte[] body) throws InvalidSignedBodyException {
+        return extractData(senseId, body, body.length);
+    }
 
-        // parse body for PB and audio
-        final int bodySize = body.length;
-        int totalRead = 0;
+    /**
+     * Parses body[0, bodySize) for PB and audio
+     */
+    protected UploadData extractData(final String senseId, byte[] body, final int bodySize) throws InvalidSignedBodyException {
 
         if (bodySize < PREFIX_LENGTH) {
             throw new InvalidSignedBodyException("insufficient-bytes-prefix-length");
         }
 
-        final ByteArrayInputStream inputStream = new ByteArrayInputStream(body);
-
         // read prefix
-        final byte[] pbSizeBytes = new byte[PREFIX_LENGTH];
-        int readSize = inputStream.read(pbSizeBytes, 0, PREFIX_LENGTH);
-        if (readSize != PREFIX_LENGTH) {
-            LOGGER.error("error=upload-prefix-read-fail expect={} read={}", PREFIX_LENGTH, readSize);
-            throw new InvalidSignedBodyException("read-inputstream-error-for-protobuf-size");
-        }
-
-        final int  pbSize = ByteBuffer.wrap(pbSizeBytes).getInt();
+        final int pbSize = ByteBuffer.wrap(body, 0, PREFIX_LENGTH).getInt();
 
         // read protobuf
-        totalRead += readSize;
-        if ((totalRead + pbSize) > bodySize) {
+        if ((PREFIX_LENGTH + (long) pbSize) > bodySize) {
             throw new InvalidSignedBodyException("insufficient-bytes-protobuf");
         }
 
@@ -89,28 +86,21 @@ public class SignedBodyHandler {
             throw new InvalidSignedBodyException("invalid-pb-size");
         }
 
-        final byte[] pbBytes = new byte[pbSize];
-        readSize = inputStream.read(pbBytes, 0, pbSize);
-        if (readSize != pbSize) {
-            LOGGER.error("error=upload-protobuf-size-read-fail expect={} read={} sense_id={}",
-                    pbSize, readSize, senseId);
-            throw new InvalidSignedBodyException("read-inputstream-error-for-protobuf-data");
-        }
-
-        // read audio data
-        final int audioSize = body.length - SIGNATURE_LENGTH - PREFIX_LENGTH - pbSize;
-        final byte[] audioBody = new byte[audioSize];
-        readSize = inputStream.read(audioBody, 0, audioSize);
-        if (readSize != audioSize) {
-            LOGGER.error("error=upload-protobuf-bytes-read-fail expect={} read={} sense_id={}", pbSize, readSize, senseId);
+        // read audio data, which stops SIGNATURE_LENGTH bytes before the end of the body
+        final int audioOffset = PREFIX_LENGTH + pbSize;
+        final int audioSize = bodySize - SIGNATURE_LENGTH - audioOffset;
+        if (audioSize < 0) {
+            LOGGER.error("error=upload-audio-size-invalid size={} sense_id={}", audioSize, senseId);
             throw new InvalidSignedBodyException("read-inputstream-error-for-audio-data");
         }
 
         try {
-            final Speech.SpeechRequest request = Speech.SpeechRequest.parseFrom(pbBytes);
-            return new UploadData(pbSize, request, audioBody);
+            final Speech.SpeechRequest request = Speech.SpeechRequest.parseFrom(CodedInputStream.newInstance(body, PREFIX_LENGTH, pbSize));
+            return new UploadData(pbSize, request, Arrays.copyOfRange(body, audioOffset, audioOffset + audioSize));
         } catch (InvalidProtocolBufferException e) {
             LOGGER.error("error=fail-to-decode-upload-speech-data error_msg={} sense_id={}", e.getMessage(), senseId);
+        } catch (IOException e) {
+            LOGGER.error("error=fail-to-read-upload-speech-data error_msg={} sense_id={}", e.getMessage(), senseId);
         }
 
         throw new InvalidSignedBodyException("fail-to-parse-upload-data");
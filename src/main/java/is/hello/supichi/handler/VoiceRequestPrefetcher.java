@@ -0,0 +1,43 @@
+package is.hello.supichi.handler;
+
+import com.hello.suripu.app.utils.LookupCache;
+import com.hello.suripu.core.db.MergedUserInfoDynamoDB;
+import com.hello.suripu.core.models.TimeZoneHistory;
+import com.hello.suripu.core.preferences.AccountPreferencesDAO;
+import is.hello.supichi.models.VoiceRequestContext;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Starts loading the account data of a voice request as soon as the account is known, to overlap it with speech to text
+ */
+public class VoiceRequestPrefetcher {
+
+    private final ExecutorService executor;
+    private final long timeoutMillis;
+    private final LookupCache<Long, TimeZoneHistory> timeZoneCache;
+    private final AccountPreferencesDAO accountPreferencesDAO;
+    private final MergedUserInfoDynamoDB mergedUserInfoDynamoDB;
+
+    public VoiceRequestPrefetcher(final ExecutorService executor,
+                                  final long timeoutMillis,
+                                  final LookupCache<Long, TimeZoneHistory> timeZoneCache,
+                                  final AccountPreferencesDAO accountPreferencesDAO,
+                                  final MergedUserInfoDynamoDB mergedUserInfoDynamoDB) {
+        this.executor = executor;
+        this.timeoutMillis = timeoutMillis;
+        this.timeZoneCache = timeZoneCache;
+        this.accountPreferencesDAO = accountPreferencesDAO;
+        this.mergedUserInfoDynamoDB = mergedUserInfoDynamoDB;
+    }
+
+    public VoiceRequestContext prefetch(final String senseId, final Long accountId) {
+        return new VoiceRequestContext(
+                VoiceRequestContext.Prefetched.submit("timezone", executor,
+                        () -> timeZoneCache.get(accountId), timeoutMillis),
+                VoiceRequestContext.Prefetched.submit("preferences", executor,
+                        () -> accountPreferencesDAO.get(accountId), timeoutMillis),
+                VoiceRequestContext.Prefetched.submit("user_info", executor,
+                        () -> mergedUserInfoDynamoDB.getInfo(senseId, accountId), timeoutMillis));
+    }
+}
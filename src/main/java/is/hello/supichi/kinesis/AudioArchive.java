@@ -0,0 +1,14 @@
+package is.hello.supichi.kinesis;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Where raw voice audio goes when Kinesis records only carry a pointer to it
+ */
+public interface AudioArchive extends Closeable {
+
+    AudioPointer append(String audioUUID, byte[] audio) throws IOException;
+
+    byte[] read(AudioPointer pointer) throws IOException;
+}
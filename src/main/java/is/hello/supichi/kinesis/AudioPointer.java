@@ -0,0 +1,80 @@
+package is.hello.supichi.kinesis;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Objects;
+import com.google.common.base.Splitter;
+
+import java.util.List;
+
+/**
+ * Location of archived audio: instance that archived it, segment name, offset and length in bytes.
+ *
+ * Serialized as "audio-pointer/1:instance:segment:offset:length", which is what the Kinesis audio data carries
+ * instead of the audio. The prefix lets consumers tell a pointer from inline audio with {@link #isPointer}.
+ */
+public class AudioPointer {
+
+    private static final char SEPARATOR = ':';
+    private static final byte[] MARKER = "audio-pointer/1:".getBytes(Charsets.UTF_8);
+
+    public final String instanceId;
+    public final String segment;
+    public final long offset;
+    public final int length;
+
+    public AudioPointer(final String instanceId, final String segment, final long offset, final int length) {
+        this.instanceId = instanceId;
+        this.segment = segment;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    public byte[] toBytes() {
+        return (new String(MARKER, Charsets.UTF_8) + instanceId + SEPARATOR + segment + SEPARATOR + offset + SEPARATOR + length)
+                .getBytes(Charsets.UTF_8);
+    }
+
+    public static boolean isPointer(final byte[] data) {
+        if (data.length < MARKER.length) {
+            return false;
+        }
+        for (int i = 0; i < MARKER.length; i++) {
+            if (data[i] != MARKER[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static AudioPointer fromBytes(final byte[] bytes) {
+        if (!isPointer(bytes)) {
+            throw new IllegalArgumentException("invalid-audio-pointer");
+        }
+        final String pointer = new String(bytes, MARKER.length, bytes.length - MARKER.length, Charsets.UTF_8);
+        final List<String> parts = Splitter.on(SEPARATOR).splitToList(pointer);
+        if (parts.size() != 4) {
+            throw new IllegalArgumentException("invalid-audio-pointer");
+        }
+        return new AudioPointer(parts.get(0), parts.get(1), Long.parseLong(parts.get(2)), Integer.parseInt(parts.get(3)));
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (!(obj instanceof AudioPointer)) {
+            return false;
+        }
+        final AudioPointer other = (AudioPointer) obj;
+        return instanceId.equals(other.instanceId) && segment.equals(other.segment)
+                && offset == other.offset && length == other.length;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(instanceId, segment, offset, length);
+    }
+
+    @Override
+    public String toString() {
+        return new String(toBytes(), Charsets.UTF_8);
+    }
+}
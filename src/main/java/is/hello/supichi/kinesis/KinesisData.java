@@ -10,11 +10,28 @@ public class KinesisData {
     public final SpeechResult speechResult;
     public final SpeechResultsKinesis.SpeechResultsData.Action action;
     public final byte [] audioData;
+    public final long createdNanos;
+    public final boolean coalesced;
 
 
     public KinesisData(final SpeechResult speechResult, final SpeechResultsKinesis.SpeechResultsData.Action  action, final byte[] audioData) {
+        this(speechResult, action, audioData, System.nanoTime(), false);
+    }
+
+    private KinesisData(final SpeechResult speechResult, final SpeechResultsKinesis.SpeechResultsData.Action action,
+                        final byte[] audioData, final long createdNanos, final boolean coalesced) {
         this.speechResult = speechResult;
         this.action = action;
         this.audioData = audioData;
+        this.createdNanos = createdNanos;
+        this.coalesced = coalesced;
+    }
+
+    /**
+     * The update's result and action, with the audio of the first record of the same request
+     */
+    public static KinesisData coalesce(final KinesisData first, final KinesisData update) {
+        final byte[] audio = (update.audioData.length > 0) ? update.audioData : first.audioData;
+        return new KinesisData(update.speechResult, update.action, audio, first.createdNanos, true);
     }
 }
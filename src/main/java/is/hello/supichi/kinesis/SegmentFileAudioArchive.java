@@ -0,0 +1,155 @@
+package is.hello.supichi.kinesis;
+
+import com.google.common.collect.Lists;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * Appends audio to memory-mapped segment files in a local directory.
+ *
+ * A segment is mapped at its full size when it is created and truncated to what was written when it is rotated.
+ * Only the last maxSegments segments in the directory are kept, including the ones left by earlier runs, older ones
+ * are deleted.
+ *
+ * This archive is local only: nothing ships the segments anywhere, so the audio can only be read on the instance
+ * named in the pointers, and only until its segment is rotated out.
+ */
+public class SegmentFileAudioArchive implements AudioArchive {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SegmentFileAudioArchive.class);
+
+    static final String SEGMENT_SUFFIX = ".seg";
+
+    private final File directory;
+    private final String instanceId;
+    private final int segmentBytes;
+    private final int maxSegments;
+
+    private final Deque<File> segments = Lists.newLinkedList();
+    private long sequence = 0;
+    private RandomAccessFile currentFile = null;
+    private MappedByteBuffer current = null;
+    private String currentName = null;
+
+    private SegmentFileAudioArchive(final File directory, final String instanceId, final int segmentBytes, final int maxSegments) {
+        this.directory = directory;
+        this.instanceId = instanceId;
+        this.segmentBytes = segmentBytes;
+        this.maxSegments = maxSegments;
+    }
+
+    public static SegmentFileAudioArchive create(final String path, final String instanceId, final int segmentBytes,
+                                                 final int maxSegments) throws IOException {
+        final File directory = new File(path);
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("cannot create audio archive directory " + path);
+        }
+        final SegmentFileAudioArchive archive = new SegmentFileAudioArchive(directory, instanceId, segmentBytes, maxSegments);
+        // segments from earlier runs count towards the limit, names sort by creation time
+        for (final String name : archive.segmentFiles()) {
+            archive.segments.addLast(new File(directory, name));
+        }
+        synchronized (archive) {
+            archive.deleteOldSegments(maxSegments);
+        }
+        LOGGER.info("action=open-audio-archive path={} instance_id={} existing_segments={}", path, instanceId, archive.segments.size());
+        return archive;
+    }
+
+    @Override
+    public synchronized AudioPointer append(final String audioUUID, final byte[] audio) throws IOException {
+        if (audio.length > segmentBytes) {
+            throw new IOException("audio-larger-than-segment");
+        }
+        if (current == null || current.remaining() < audio.length) {
+            rotate();
+        }
+        final long offset = current.position();
+        current.put(audio);
+        LOGGER.trace("action=archive-audio uuid={} segment={} offset={} length={}", audioUUID, currentName, offset, audio.length);
+        return new AudioPointer(instanceId, currentName, offset, audio.length);
+    }
+
+    @Override
+    public byte[] read(final AudioPointer pointer) throws IOException {
+        if (!instanceId.equals(pointer.instanceId)) {
+            throw new IOException("audio-archived-on-other-instance");
+        }
+        synchronized (this) {
+            if (current != null && pointer.segment.equals(currentName)) {
+                final ByteBuffer view = current.duplicate();
+                view.position((int) pointer.offset);
+                final byte[] audio = new byte[pointer.length];
+                view.get(audio);
+                return audio;
+            }
+        }
+        try (final RandomAccessFile file = new RandomAccessFile(new File(directory, pointer.segment), "r")) {
+            final byte[] audio = new byte[pointer.length];
+            file.seek(pointer.offset);
+            file.readFully(audio);
+            return audio;
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        closeCurrent();
+    }
+
+    private void rotate() throws IOException {
+        closeCurrent();
+
+        currentName = String.format("audio-%d-%06d%s", System.currentTimeMillis(), sequence++, SEGMENT_SUFFIX);
+        final File segment = new File(directory, currentName);
+        currentFile = new RandomAccessFile(segment, "rw");
+        current = currentFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        segments.addLast(segment);
+
+        deleteOldSegments(maxSegments);
+        LOGGER.info("action=rotate-audio-segment segment={}", currentName);
+    }
+
+    private void deleteOldSegments(final int keep) {
+        while (segments.size() > keep) {
+            final File oldest = segments.removeFirst();
+            if (!oldest.delete()) {
+                LOGGER.warn("warning=fail-to-delete-audio-segment segment={}", oldest.getName());
+            }
+        }
+    }
+
+    private void closeCurrent() throws IOException {
+        if (current == null) {
+            return;
+        }
+        current.force();
+        final int written = current.position();
+        current = null;
+        currentFile.getChannel().truncate(written);
+        currentFile.close();
+        currentFile = null;
+    }
+
+    synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    String[] segmentFiles() {
+        final String[] names = directory.list((dir, name) -> name.endsWith(SEGMENT_SUFFIX));
+        if (names == null) {
+            return new String[0];
+        }
+        Arrays.sort(names);
+        return names;
+    }
+}
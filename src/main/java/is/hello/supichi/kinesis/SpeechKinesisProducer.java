@@ -5,6 +5,13 @@ import com.amazonaws.services.kinesis.producer.KinesisProducer;
 import com.amazonaws.services.kinesis.producer.Metric;
 import com.amazonaws.services.kinesis.producer.UserRecordFailedException;
 import com.amazonaws.services.kinesis.producer.UserRecordResult;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
@@ -19,13 +26,17 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nullable;
+import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
+import static com.codahale.metrics.MetricRegistry.name;
+
 /**
  * Created by ksg on 8/9/16
  */
@@ -33,81 +44,203 @@ public class SpeechKinesisProducer extends AbstractSpeechKinesisProducer {
 
     private final static Logger LOGGER = LoggerFactory.getLogger(SpeechKinesisProducer.class);
 
-    private final static Long KINESIS_MAX_RECORDS_IN_QUEUE = 10000L;
+    // how often the drain loop checks whether it should stop when there is nothing to put
+    private final static long POLL_MILLIS = 500L;
+    private final static long MAX_BACKOFF_MILLIS = 1000L;
 
     private final String streamName;
     private final Boolean logUUID;
+    private final int batchSize;
+    private final long lingerMillis;
+    private final long maxOutstandingRecords;
+    private final Optional<SpeechResultCoalescer> coalescer;
+    private final Optional<AudioArchive> audioArchive;
+
+    private final Meter dropped;
+    private final Histogram batchSizes;
+    private final Timer queueLatency;
+    private final Meter archiveFailures;
 
     public SpeechKinesisProducer(final String streamName,
                                  final BlockingQueue<KinesisData> inputQueue,
                                  final KinesisProducer kinesisProducer,
                                  final ExecutorService executor,
                                  final ScheduledExecutorService metricsScheduledExecutor,
-                                 final Boolean logUUID) {
+                                 final Boolean logUUID,
+                                 final int batchSize,
+                                 final long lingerMillis,
+                                 final long maxOutstandingRecords,
+                                 final Optional<SpeechResultCoalescer> coalescer,
+                                 final Optional<AudioArchive> audioArchive,
+                                 final MetricRegistry metrics) {
         super(streamName, inputQueue, executor, metricsScheduledExecutor, kinesisProducer);
         this.streamName = streamName;
         this.logUUID = logUUID;
+        this.batchSize = batchSize;
+        this.lingerMillis = lingerMillis;
+        this.maxOutstandingRecords = maxOutstandingRecords;
+        this.coalescer = coalescer;
+        this.audioArchive = audioArchive;
+
+        this.dropped = metrics.meter(name(SpeechKinesisProducer.class, "dropped"));
+        this.batchSizes = metrics.histogram(name(SpeechKinesisProducer.class, "batch-size"));
+        this.queueLatency = metrics.timer(name(SpeechKinesisProducer.class, "queue-latency"));
+        this.archiveFailures = metrics.meter(name(SpeechKinesisProducer.class, "archive-failures"));
+        metrics.register(name(SpeechKinesisProducer.class, "queue-depth"), (Gauge<Integer>) inputQueue::size);
     }
 
+    /**
+     * Never blocks the request thread, results are dropped when the queue is full.
+     * When coalescing, results are held until the final update of their request.
+     */
     public Boolean addResult(final SpeechResult result, final SpeechResultsKinesis.SpeechResultsData.Action action, final byte[] audioBytes) {
-        try {
-            inputQueue.offer(new KinesisData(result, action, audioBytes), 1000L, TimeUnit.MILLISECONDS);
-            return true;
-        } catch (InterruptedException e) {
-            LOGGER.warn("error=fail-to-put-audio-data-in-queue error_msg={}", e.getMessage());
+        final KinesisData data = new KinesisData(result, action, audioBytes);
+        if (!coalescer.isPresent()) {
+            return enqueue(data);
+        }
+        boolean enqueued = true;
+        for (final KinesisData ready : coalescer.get().add(data)) {
+            enqueued &= enqueue(ready);
+        }
+        return enqueued;
+    }
+
+    private Boolean enqueue(final KinesisData data) {
+        if (!inputQueue.offer(data)) {
+            dropped.mark();
+            LOGGER.warn("error=fail-to-put-audio-data-in-queue reason=queue-full sense_id={}", data.speechResult.senseId);
             return false;
         }
+        return true;
+    }
+
+    private void enqueueAll(final List<KinesisData> data) {
+        for (final KinesisData item : data) {
+            enqueue(item);
+        }
     }
 
     @Override
     protected void putData() throws Exception {
         LOGGER.debug("action=KPL-running");
+        final List<KinesisData> batch = Lists.newArrayListWithCapacity(batchSize);
         do {
-            if (!inputQueue.isEmpty()) {
-                LOGGER.debug("action=kpl-put-data queue_size={}", inputQueue.size());
-                final SpeechResultsKinesis.SpeechResultsData speechResult = getSpeechResultsData(inputQueue.take());
+            if (coalescer.isPresent()) {
+                enqueueAll(coalescer.get().expired(System.nanoTime()));
+            }
+            if (nextBatch(batch)) {
+                putBatch(batch);
+                batch.clear();
+            }
+        } while (isRunning);
+
+        // whatever was queued or held before stopping
+        if (coalescer.isPresent()) {
+            enqueueAll(coalescer.get().removeAll());
+        }
+        inputQueue.drainTo(batch);
+        if (!batch.isEmpty()) {
+            LOGGER.info("action=kpl-put-remaining-data size={}", batch.size());
+            putBatch(batch);
+        }
+    }
 
-                final String partitionKey = speechResult.getSenseId();
-                final ByteBuffer payload = ByteBuffer.wrap(speechResult.toByteArray());
+    /**
+     * Waits for a first record, then for up to lingerMillis until the batch is full
+     * @return false if nothing came in
+     */
+    boolean nextBatch(final List<KinesisData> batch) throws InterruptedException {
+        final KinesisData first = inputQueue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return false;
+        }
+        batch.add(first);
+
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+        while (batch.size() < batchSize) {
+            inputQueue.drainTo(batch, batchSize - batch.size());
+            final long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                break;
+            }
+            final KinesisData next = inputQueue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+        return true;
+    }
 
-                while (kinesisProducer.getOutstandingRecordsCount() > KINESIS_MAX_RECORDS_IN_QUEUE) {
-                    LOGGER.warn("warning=too-many-outstanding-records-in-kp records_size={} action=sleep-1", kinesisProducer.getOutstandingRecordsCount());
-                    Thread.sleep(1000L);
+    private void putBatch(final List<KinesisData> batch) throws InterruptedException {
+        LOGGER.debug("action=kpl-put-data batch_size={} queue_size={}", batch.size(), inputQueue.size());
+        batchSizes.update(batch.size());
+
+        long outstanding = kinesisProducer.getOutstandingRecordsCount();
+        long backoff = backoffMillis(outstanding, maxOutstandingRecords);
+        while (backoff > 0) {
+            LOGGER.warn("warning=too-many-outstanding-records-in-kp records_size={} action=sleep sleep_millis={}", outstanding, backoff);
+            Thread.sleep(backoff);
+            // below the hard limit, one pause per batch is enough
+            if (outstanding <= maxOutstandingRecords) {
+                break;
+            }
+            outstanding = kinesisProducer.getOutstandingRecordsCount();
+            backoff = backoffMillis(outstanding, maxOutstandingRecords);
+        }
+
+        final long now = System.nanoTime();
+        for (final KinesisData data : batch) {
+            queueLatency.update(now - data.createdNanos, TimeUnit.NANOSECONDS);
+            put(getSpeechResultsData(data));
+        }
+    }
+
+    /**
+     * No pause below half of maxOutstanding, then up to MAX_BACKOFF_MILLIS at maxOutstanding and above
+     */
+    static long backoffMillis(final long outstanding, final long maxOutstanding) {
+        final long softLimit = maxOutstanding / 2;
+        if (outstanding <= softLimit) {
+            return 0L;
+        }
+        if (outstanding >= maxOutstanding) {
+            return MAX_BACKOFF_MILLIS;
+        }
+        return Math.max(1L, MAX_BACKOFF_MILLIS * (outstanding - softLimit) / (maxOutstanding - softLimit));
+    }
+
+    private void put(final SpeechResultsKinesis.SpeechResultsData speechResult) {
+        final String partitionKey = speechResult.getSenseId();
+        final ByteBuffer payload = ByteBuffer.wrap(speechResult.toByteArray());
+
+        recordsPut.getAndIncrement();
+        final ListenableFuture<UserRecordResult> putFutures = kinesisProducer.addUserRecord(streamName, partitionKey, payload);
+
+        Futures.addCallback(putFutures, new FutureCallback<UserRecordResult>() {
+            @Override
+            public void onSuccess(@Nullable final UserRecordResult putResult) {
+                if (putResult != null) {
+                    LOGGER.debug("action=put-record-success partition_key={} shard={} seq_num={} attempts={} time_taken={}",
+                            partitionKey, putResult.getShardId(), putResult.getSequenceNumber(),
+                            putResult.getAttempts().size(), getTotalTime(putResult));
                 }
-                recordsPut.getAndIncrement();
-                final ListenableFuture<UserRecordResult> putFutures = kinesisProducer.addUserRecord(streamName, partitionKey, payload);
-
-                Futures.addCallback(putFutures, new FutureCallback<UserRecordResult>() {
-                    @Override
-                    public void onSuccess(@Nullable final UserRecordResult putResult) {
-                        if (putResult != null) {
-                            LOGGER.debug("action=put-record-success partition_key={} shard={} seq_num={} attempts={} time_taken={}",
-                                    partitionKey, putResult.getShardId(), putResult.getSequenceNumber(),
-                                    putResult.getAttempts().size(), getTotalTime(putResult));
-                        }
-                    }
-
-                    @Override
-                    public void onFailure(@NotNull Throwable throwable) {
-                        if (throwable instanceof UserRecordFailedException) {
-                            final UserRecordFailedException e = (UserRecordFailedException) throwable;
-                            final UserRecordResult putResult = e.getResult();
-                            final int numAttempts = putResult.getAttempts().size();
-                            final Attempt lastAttempt = putResult.getAttempts().get(numAttempts-1);
-
-                            LOGGER.error("error=put-record-fail partition_key={} shard={} attempts={} time_taken={} last_error_code={} last_error_msg={}",
-                                    partitionKey, putResult.getShardId(), numAttempts, getTotalTime(putResult),
-                                    lastAttempt.getErrorCode(), lastAttempt.getErrorMessage());
-                        }
-                    }
-                });
-            } else {
-                // nothing in queue, sleep a little
-                if (isRunning) {
-                    Thread.sleep(500L);
+            }
+
+            @Override
+            public void onFailure(@NotNull Throwable throwable) {
+                if (throwable instanceof UserRecordFailedException) {
+                    final UserRecordFailedException e = (UserRecordFailedException) throwable;
+                    final UserRecordResult putResult = e.getResult();
+                    final int numAttempts = putResult.getAttempts().size();
+                    final Attempt lastAttempt = putResult.getAttempts().get(numAttempts-1);
+
+                    LOGGER.error("error=put-record-fail partition_key={} shard={} attempts={} time_taken={} last_error_code={} last_error_msg={}",
+                            partitionKey, putResult.getShardId(), numAttempts, getTotalTime(putResult),
+                            lastAttempt.getErrorCode(), lastAttempt.getErrorMessage());
                 }
             }
-        } while (isRunning);
+        });
     }
 
     @Override
@@ -141,6 +274,14 @@ public class SpeechKinesisProducer extends AbstractSpeechKinesisProducer {
 
         LOGGER.debug("action=before-destroy");
         kinesisProducer.destroy();
+
+        if (audioArchive.isPresent()) {
+            try {
+                audioArchive.get().close();
+            } catch (IOException e) {
+                LOGGER.error("error=fail-to-close-audio-archive error_msg={}", e.getMessage());
+            }
+        }
         super.stop();
     }
 
@@ -161,12 +302,9 @@ public class SpeechKinesisProducer extends AbstractSpeechKinesisProducer {
         final SpeechResultsKinesis.SpeechResultsData.Builder builder = SpeechResultsKinesis.SpeechResultsData.newBuilder();
         final Integer firmwareVersion = (data.speechResult.firmwareVersion.isPresent()) ? data.speechResult.firmwareVersion.get() : 0;
 
-        if (data.audioData.length > 0) {
+        if (data.audioData.length > 0 && !data.coalesced) {
             // store audio path
-            final SpeechResultsKinesis.AudioData audioData = SpeechResultsKinesis.AudioData.newBuilder()
-                    .setDataSize(data.audioData.length)
-                    .setData(ByteString.copyFrom(data.audioData))
-                    .build();
+            final SpeechResultsKinesis.AudioData audioData = audioData(data);
 
             final Long accountId = (data.speechResult.accountId.isPresent()) ? data.speechResult.accountId.get() : 0L;
 
@@ -223,6 +361,11 @@ public class SpeechKinesisProducer extends AbstractSpeechKinesisProducer {
             builder.setResponseText(data.speechResult.responseText.get());
         }
 
+        // final result carrying the audio it was transcribed from
+        if (data.coalesced && data.audioData.length > 0) {
+            builder.setAudio(audioData(data));
+        }
+
         // set wake confidence
         for (final WakeWord word : WakeWord.values()) {
             if (word.equals(WakeWord.NULL)) {
@@ -236,4 +379,28 @@ public class SpeechKinesisProducer extends AbstractSpeechKinesisProducer {
         }
         return builder.build();
     }
+
+    /**
+     * With an archive, data only holds the {@link AudioPointer}, marked so consumers can tell it from inline audio
+     * with {@link AudioPointer#isPointer}, and data_size is still the audio size
+     */
+    private SpeechResultsKinesis.AudioData audioData(final KinesisData data) {
+        if (audioArchive.isPresent()) {
+            try {
+                final AudioPointer pointer = audioArchive.get().append(data.speechResult.audioIdentifier, data.audioData);
+                return SpeechResultsKinesis.AudioData.newBuilder()
+                        .setDataSize(data.audioData.length)
+                        .setData(ByteString.copyFrom(pointer.toBytes()))
+                        .build();
+            } catch (IOException e) {
+                // keep the audio in the record rather than losing it
+                archiveFailures.mark();
+                LOGGER.error("error=fail-to-archive-audio sense_id={} error_msg={}", data.speechResult.senseId, e.getMessage());
+            }
+        }
+        return SpeechResultsKinesis.AudioData.newBuilder()
+                .setDataSize(data.audioData.length)
+                .setData(ByteString.copyFrom(data.audioData))
+                .build();
+    }
 }
@@ -0,0 +1,89 @@
+package is.hello.supichi.kinesis;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import is.hello.supichi.api.SpeechResultsKinesis;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Holds the records of a voice request, keyed by audio UUID, until its PUT_ITEM update comes in.
+ *
+ * The update is then emitted as a single record carrying the audio. Requests that never get an update are emitted
+ * unchanged once the window is over. At most maxPending requests are held, since each one holds its audio: past that
+ * the oldest requests are emitted unchanged right away.
+ */
+public class SpeechResultCoalescer {
+
+    private final long windowNanos;
+    private final int maxPending;
+    private final Meter evicted;
+
+    // insertion ordered, so expired entries are at the head
+    private final Map<String, KinesisData> pending = Maps.newLinkedHashMap();
+
+    public SpeechResultCoalescer(final long windowMillis, final int maxPending, final MetricRegistry metrics) {
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.maxPending = maxPending;
+        this.evicted = metrics.meter(name(SpeechResultCoalescer.class, "evicted"));
+        metrics.register(name(SpeechResultCoalescer.class, "pending"), (Gauge<Integer>) this::size);
+    }
+
+    /**
+     * @return the records to put now: the coalesced record on the final update, and the oldest ones over maxPending
+     */
+    public synchronized List<KinesisData> add(final KinesisData data) {
+        final String uuid = data.speechResult.audioIdentifier;
+        final KinesisData previous = pending.remove(uuid);
+        final KinesisData current = (previous == null) ? data : KinesisData.coalesce(previous, data);
+
+        if (data.action == SpeechResultsKinesis.SpeechResultsData.Action.PUT_ITEM) {
+            return Lists.newArrayList(current);
+        }
+        pending.put(uuid, current);
+
+        final List<KinesisData> ready = Lists.newArrayList();
+        final Iterator<KinesisData> iterator = pending.values().iterator();
+        while (pending.size() > maxPending) {
+            ready.add(iterator.next());
+            iterator.remove();
+        }
+        evicted.mark(ready.size());
+        return ready;
+    }
+
+    /**
+     * Removes and returns the records held for longer than the window
+     */
+    public synchronized List<KinesisData> expired(final long nowNanos) {
+        final List<KinesisData> expired = Lists.newArrayList();
+        final Iterator<KinesisData> iterator = pending.values().iterator();
+        while (iterator.hasNext()) {
+            final KinesisData data = iterator.next();
+            if (nowNanos - data.createdNanos < windowNanos) {
+                break;
+            }
+            expired.add(data);
+            iterator.remove();
+        }
+        return expired;
+    }
+
+    public synchronized List<KinesisData> removeAll() {
+        final List<KinesisData> all = Lists.newArrayList(pending.values());
+        pending.clear();
+        return all;
+    }
+
+    public synchronized int size() {
+        return pending.size();
+    }
+}
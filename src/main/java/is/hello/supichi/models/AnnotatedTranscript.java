@@ -8,6 +8,7 @@ import is.hello.supichi.models.annotations.TimeAnnotation;
 import is.hello.supichi.models.annotations.VolumeAnnotation;
 
 import java.util.List;
+import java.util.Set;
 import java.util.TimeZone;
 
 /**
@@ -27,6 +28,9 @@ public class AnnotatedTranscript {
 
     public final List<VolumeAnnotation> volumes;
 
+    // command phrases found in the transcript by the executor, absent when it was not matched yet
+    public final Optional<Set<String>> matchedPhrases;
+
     // future entities
     // temperature
     // Hue patterns
@@ -39,12 +43,29 @@ public class AnnotatedTranscript {
                                final List<DurationAnnotation> durations,
                                final List<SleepSoundAnnotation> sleepSounds,
                                final List<VolumeAnnotation> volumes) {
+        this(transcript, timeZoneOptional, times, durations, sleepSounds, volumes, Optional.<Set<String>>absent());
+    }
+
+    private AnnotatedTranscript(final String transcript, final Optional<TimeZone> timeZoneOptional,
+                                final List<TimeAnnotation> times,
+                                final List<DurationAnnotation> durations,
+                                final List<SleepSoundAnnotation> sleepSounds,
+                                final List<VolumeAnnotation> volumes,
+                                final Optional<Set<String>> matchedPhrases) {
         this.transcript = transcript;
         this.timeZoneOptional = timeZoneOptional;
         this.times = times;
         this.durations = durations;
         this.sleepSounds = sleepSounds;
         this.volumes = volumes;
+        this.matchedPhrases = matchedPhrases;
+    }
+
+    /**
+     * Same transcript, with every command phrase it contains
+     */
+    public AnnotatedTranscript withMatchedPhrases(final Set<String> phrases) {
+        return new AnnotatedTranscript(transcript, timeZoneOptional, times, durations, sleepSounds, volumes, Optional.of(phrases));
     }
 
     public String lowercaseTranscript() {
@@ -1,7 +1,14 @@
 package is.hello.supichi.models;
 
+import com.google.common.base.CharMatcher;
 import com.google.common.base.Optional;
+import com.google.common.base.Splitter;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.joestelmach.natty.DateGroup;
 import com.joestelmach.natty.Parser;
 import is.hello.supichi.commandhandlers.SleepSoundHandler;
@@ -13,8 +20,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Date;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Created by ksg on 9/20/16
@@ -22,6 +35,43 @@ import java.util.TimeZone;
 public class Annotator {
     private final static Logger LOGGER = LoggerFactory.getLogger(Annotator.class);
 
+    private static final int MAX_POOLED_PARSERS = 16;
+
+    // idle parsers by timezone id, a Parser is only used by one thread at a time
+    private static final LoadingCache<String, Queue<Parser>> PARSERS = CacheBuilder.newBuilder()
+            .maximumSize(128)
+            .expireAfterAccess(1, TimeUnit.HOURS)
+            .build(new CacheLoader<String, Queue<Parser>>() {
+                @Override
+                public Queue<Parser> load(final String timeZoneId) {
+                    return new ConcurrentLinkedQueue<>();
+                }
+            });
+
+    // words that can start a date or duration, transcripts without any of them or a digit are not parsed
+    private static final Set<String> TIME_WORDS = ImmutableSet.of(
+            "am", "pm", "a.m", "p.m", "o'clock", "oclock", "noon", "midnight", "now",
+            "today", "tonight", "tomorrow", "yesterday", "morning", "afternoon", "evening", "night",
+            "second", "seconds", "sec", "secs", "minute", "minutes", "min", "mins", "hour", "hours", "hr", "hrs",
+            "day", "days", "week", "weeks", "weekend", "month", "months", "year", "years",
+            "next", "last", "ago", "later", "before", "after", "half", "quarter",
+            "one", "two", "three", "four", "five", "six", "seven", "eight", "nine", "ten", "eleven", "twelve",
+            "thirteen", "fourteen", "fifteen", "sixteen", "seventeen", "eighteen", "nineteen", "twenty",
+            "thirty", "forty", "fifty", "sixty", "hundred", "first", "third", "fourth", "fifth", "sixth", "seventh",
+            "eighth", "ninth", "tenth", "eleventh", "twelfth", "twentieth", "thirtieth",
+            "monday", "tuesday", "wednesday", "thursday", "friday", "saturday", "sunday",
+            "mon", "tue", "tues", "wed", "thu", "thur", "thurs", "fri", "sat", "sun",
+            "january", "february", "march", "april", "may", "june", "july", "august", "september", "october",
+            "november", "december", "jan", "feb", "mar", "apr", "jun", "jul", "aug", "sep", "sept", "oct", "nov", "dec",
+            "christmas", "halloween", "thanksgiving", "easter", "valentine's", "new");
+
+    private static final Splitter WORDS = Splitter.on(CharMatcher.anyOf("abcdefghijklmnopqrstuvwxyz.'").negate())
+            .omitEmptyStrings();
+
+    // sound names by first character, to look for all of them in one pass
+    // lowercase sound names by their first character
+    private static final Map<Character, List<Map.Entry<String, SleepSoundHandler.SoundName>>> SOUND_NAMES = soundNamesByFirstCharacter();
+
     private static class TimeDurations {
         public final List<TimeAnnotation> times;
         public final List<DurationAnnotation> durations;
@@ -48,14 +98,35 @@ public class Annotator {
         return builder.build();
     }
 
-    private static List<SleepSoundAnnotation> getSleepSounds(final String text) {
-        final List<SleepSoundAnnotation> entities = Lists.newArrayList();
+    private static Map<Character, List<Map.Entry<String, SleepSoundHandler.SoundName>>> soundNamesByFirstCharacter() {
+        final Map<Character, List<Map.Entry<String, SleepSoundHandler.SoundName>>> soundNames = Maps.newHashMap();
         for (final SleepSoundHandler.SoundName soundName : SleepSoundHandler.SoundName.values()) {
-            if (text.contains(soundName.value.toLowerCase())) {
-                entities.add(new SleepSoundAnnotation(soundName.value, soundName));
+            final String name = soundName.value.toLowerCase();
+            soundNames.computeIfAbsent(name.charAt(0), c -> Lists.newArrayList()).add(Maps.immutableEntry(name, soundName));
+        }
+        return soundNames;
+    }
+
+    static List<SleepSoundAnnotation> getSleepSounds(final String text) {
+        final Set<SleepSoundHandler.SoundName> found = EnumSet.noneOf(SleepSoundHandler.SoundName.class);
+        for (int i = 0; i < text.length(); i++) {
+            final List<Map.Entry<String, SleepSoundHandler.SoundName>> candidates = SOUND_NAMES.get(text.charAt(i));
+            if (candidates == null) {
+                continue;
+            }
+            for (final Map.Entry<String, SleepSoundHandler.SoundName> candidate : candidates) {
+                if (text.startsWith(candidate.getKey(), i)) {
+                    found.add(candidate.getValue());
+                }
             }
         }
 
+        // in SoundName order
+        final List<SleepSoundAnnotation> entities = Lists.newArrayList();
+        for (final SleepSoundHandler.SoundName soundName : found) {
+            entities.add(new SleepSoundAnnotation(soundName.value, soundName));
+        }
+
         // map similar-sounding words to correct sound-names
         if (entities.isEmpty()) {
             if (text.contains("play fireplace") || text.contains("play campfire")) {
@@ -70,13 +141,46 @@ public class Annotator {
         return entities;
     }
 
+    /**
+     * Cheap check for anything the date parser could match
+     */
+    static boolean hasTimeWords(final String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (Character.isDigit(text.charAt(i))) {
+                return true;
+            }
+        }
+        for (final String word : WORDS.split(text)) {
+            if (TIME_WORDS.contains(CharMatcher.is('.').trimTrailingFrom(word))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<DateGroup> parse(final String text, final TimeZone timezone) {
+        final Queue<Parser> parsers = PARSERS.getUnchecked(timezone.getID());
+        Parser timeParser = parsers.poll();
+        if (timeParser == null) {
+            timeParser = new Parser(timezone);
+        }
+        try {
+            return timeParser.parse(text);
+        } finally {
+            if (parsers.size() < MAX_POOLED_PARSERS) {
+                parsers.offer(timeParser);
+            }
+        }
+    }
+
     private static TimeDurations getTimeDurations(final String text, final TimeZone timezone) {
-        // final Parser timeParser = new Parser(DateTimeZone.forID("America/Los_Angeles").toTimeZone());
-        final Parser timeParser = new Parser(timezone);
         final List<TimeAnnotation> times = Lists.newArrayList();
         final List<DurationAnnotation> durations = Lists.newArrayList();
+        if (!hasTimeWords(text)) {
+            return new TimeDurations(times, durations);
+        }
 
-        final List<DateGroup> groups = timeParser.parse(text);
+        final List<DateGroup> groups = parse(text, timezone);
         for (final DateGroup group : groups) {
             final List<Date> dates = group.getDates();
             if (dates.size() == 2) {
@@ -1,16 +1,24 @@
 package is.hello.supichi.models;
 
+import com.google.common.base.Optional;
+
 public class VoiceRequest {
 
     public final String senseId;
     public final Long accountId;
     public final String ipAddress;
     public final String transcript;
+    public final Optional<VoiceRequestContext> context;
 
     public VoiceRequest(String senseId, Long accountId, String transcript, String ipAddress) {
+        this(senseId, accountId, transcript, ipAddress, Optional.<VoiceRequestContext>absent());
+    }
+
+    public VoiceRequest(String senseId, Long accountId, String transcript, String ipAddress, Optional<VoiceRequestContext> context) {
         this.senseId = senseId;
         this.accountId = accountId;
         this.ipAddress = ipAddress;
         this.transcript = transcript;
+        this.context = context;
     }
 }
@@ -0,0 +1,109 @@
+package is.hello.supichi.models;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Supplier;
+import com.hello.suripu.core.models.TimeZoneHistory;
+import com.hello.suripu.core.models.UserInfo;
+import com.hello.suripu.core.preferences.PreferenceName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Account data most voice commands need, loaded while the audio is still being transcribed.
+ *
+ * A value whose prefetch was rejected, failed or takes too long is loaded on the calling thread instead.
+ */
+public class VoiceRequestContext {
+
+    private final static Logger LOGGER = LoggerFactory.getLogger(VoiceRequestContext.class);
+
+    private final Prefetched<Optional<TimeZoneHistory>> timeZone;
+    private final Prefetched<Map<PreferenceName, Boolean>> preferences;
+    private final Prefetched<Optional<UserInfo>> userInfo;
+
+    public VoiceRequestContext(final Prefetched<Optional<TimeZoneHistory>> timeZone,
+                               final Prefetched<Map<PreferenceName, Boolean>> preferences,
+                               final Prefetched<Optional<UserInfo>> userInfo) {
+        this.timeZone = timeZone;
+        this.preferences = preferences;
+        this.userInfo = userInfo;
+    }
+
+    public Optional<TimeZoneHistory> timeZone() {
+        return timeZone.get();
+    }
+
+    public Map<PreferenceName, Boolean> preferences() {
+        return preferences.get();
+    }
+
+    /**
+     * Alarms and pairing info of the Sense, as of the prefetch
+     */
+    public Optional<UserInfo> userInfo() {
+        return userInfo.get();
+    }
+
+    public static class Prefetched<T> {
+        private final String name;
+        private final Optional<Future<T>> future;
+        private final Supplier<T> loader;
+        private final long timeoutMillis;
+
+        // first value returned by get(), prefetched or loaded, so every handler of the request sees the same one
+        private boolean resolved = false;
+        private T value;
+
+        private Prefetched(final String name, final Optional<Future<T>> future, final Supplier<T> loader, final long timeoutMillis) {
+            this.name = name;
+            this.future = future;
+            this.loader = loader;
+            this.timeoutMillis = timeoutMillis;
+        }
+
+        /**
+         * Starts loading on the executor, or defers it to the first get() when the executor is full
+         */
+        public static <T> Prefetched<T> submit(final String name, final ExecutorService executor, final Supplier<T> loader,
+                                               final long timeoutMillis) {
+            try {
+                return new Prefetched<>(name, Optional.of(executor.submit(loader::get)), loader, timeoutMillis);
+            } catch (RejectedExecutionException e) {
+                LOGGER.warn("warning=prefetch-rejected name={}", name);
+                return new Prefetched<>(name, Optional.<Future<T>>absent(), loader, timeoutMillis);
+            }
+        }
+
+        public synchronized T get() {
+            if (!resolved) {
+                value = resolve();
+                resolved = true;
+            }
+            return value;
+        }
+
+        private T resolve() {
+            if (!future.isPresent()) {
+                return loader.get();
+            }
+            try {
+                return future.get().get(timeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (ExecutionException | TimeoutException | CancellationException e) {
+                LOGGER.warn("warning=prefetch-failed name={} error={}", name, e.getClass().getSimpleName());
+                future.get().cancel(true);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return loader.get();
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package is.hello.supichi.resources.v2;
 
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
 import com.codahale.metrics.annotation.Timed;
+import com.google.common.base.Optional;
 import com.hello.suripu.core.util.HelloHttpHeader;
 import is.hello.supichi.handler.AudioRequestHandler;
 import is.hello.supichi.handler.RawRequest;
@@ -15,9 +19,16 @@ import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
 import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static com.codahale.metrics.MetricRegistry.name;
 
 
 @Path("/v2/upload")
@@ -28,11 +39,38 @@ public class UploadResource {
 
     private final AudioRequestHandler audioRequestHandler;
 
+    // when present, uploads are handled on this executor instead of the request thread
+    private final Optional<ExecutorService> uploadExecutor;
+    private final Optional<Timer> queueWait;
+    // @Timed only covers the hand-off to uploadExecutor
+    private final Optional<Timer> handleTime;
+    private final Optional<Meter> rejected;
+
     @Context
     HttpServletRequest request;
 
     public UploadResource(final AudioRequestHandler audioRequestHandler) {
+        this(audioRequestHandler, Optional.absent(), Optional.absent(), Optional.absent(), Optional.absent());
+    }
+
+    private UploadResource(final AudioRequestHandler audioRequestHandler, final Optional<ExecutorService> uploadExecutor,
+                           final Optional<Timer> queueWait, final Optional<Timer> handleTime, final Optional<Meter> rejected) {
         this.audioRequestHandler = audioRequestHandler;
+        this.uploadExecutor = uploadExecutor;
+        this.queueWait = queueWait;
+        this.handleTime = handleTime;
+        this.rejected = rejected;
+    }
+
+    /**
+     * Uploads are handled on uploadExecutor, which should be bounded: once it rejects, Sense gets a 503 right away.
+     */
+    public static UploadResource async(final AudioRequestHandler audioRequestHandler, final ExecutorService uploadExecutor,
+                                       final MetricRegistry metrics) {
+        return new UploadResource(audioRequestHandler, Optional.of(uploadExecutor),
+                Optional.of(metrics.timer(name(UploadResource.class, "queue-wait"))),
+                Optional.of(metrics.timer(name(UploadResource.class, "handle"))),
+                Optional.of(metrics.meter(name(UploadResource.class, "rejected"))));
     }
 
     @Path("/audio")
@@ -40,7 +78,7 @@ public class UploadResource {
     @Timed
     @Consumes(MediaType.APPLICATION_OCTET_STREAM)
     @Produces(MediaType.APPLICATION_OCTET_STREAM)
-    public byte[] streaming(final byte[] signedBody) {
+    public void streaming(final byte[] signedBody, @Suspended final AsyncResponse asyncResponse) {
 
         final String senseId = this.request.getHeader(HelloHttpHeader.SENSE_ID);
         if(senseId == null) {
@@ -48,15 +86,43 @@ public class UploadResource {
             throw new WebApplicationException(Response.Status.BAD_REQUEST);
         }
 
+        // the injected request is only valid on the request thread
         final RawRequest rawRequest = RawRequest.create(signedBody, senseId, Metadata.getIpAddress(request));
-        final WrappedResponse response = audioRequestHandler.handle(rawRequest);
-        if(response.hasError()) {
-            throw new WebApplicationException(Response.Status.BAD_REQUEST);
+        if(!uploadExecutor.isPresent()) {
+            resume(asyncResponse, rawRequest);
+            return;
         }
 
-        return response.content();
+        final long queuedAt = System.nanoTime();
+        try {
+            uploadExecutor.get().execute(() -> {
+                queueWait.get().update(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                try (final Timer.Context timer = handleTime.get().time()) {
+                    resume(asyncResponse, rawRequest);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            LOGGER.warn("warning=voice-upload-rejected sense_id={}", senseId);
+            rejected.get().mark();
+            asyncResponse.resume(Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                    .entity(WrappedResponse.silentBytes())
+                    .type(MediaType.APPLICATION_OCTET_STREAM)
+                    .build());
+        }
     }
 
-
-
+    private void resume(final AsyncResponse asyncResponse, final RawRequest rawRequest) {
+        try {
+            final WrappedResponse response = audioRequestHandler.handle(rawRequest);
+            if(response.hasError()) {
+                asyncResponse.resume(new WebApplicationException(Response.Status.BAD_REQUEST));
+                return;
+            }
+            asyncResponse.resume(response.content());
+        } catch (Throwable e) {
+            // anything not resumed here leaves Sense waiting until its connection times out
+            LOGGER.error("error=voice-upload-fail sense_id={} msg={}", rawRequest.senseId(), e.getMessage());
+            asyncResponse.resume(e);
+        }
+    }
 }
@@ -1,31 +1,86 @@
 package is.hello.supichi.response;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.Ticker;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import is.hello.supichi.api.Response;
 import is.hello.supichi.api.Speech;
 import is.hello.supichi.models.HandlerResult;
+import is.hello.supichi.utils.VoiceTimings;
 import net.spy.memcached.MemcachedClient;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Caches synthesized responses by voice, format, eq and text.
+ *
+ * An in-process LRU bounded by size and age sits in front of memcached, so the small set of common responses
+ * ("Okay, done", error texts) never goes over the network. Concurrent misses for the same key wait for a single
+ * memcached read and Watson call. While memcached is failing it is skipped for a while and only the LRU is used.
+ * Failed responses from Watson are returned but never cached.
+ */
 public class CachedResponseBuilder implements SupichiResponseBuilder {
 
     private final static Logger LOGGER = LoggerFactory.getLogger(CachedResponseBuilder.class);
 
+    private static final long MEMCACHE_RETRY_MILLIS = 30000L;
+
     private final String voiceName;
     private final SupichiResponseBuilder responseBuilder;
     private final MemcachedClient mc;
     private final String cachePrefix;
+    private final Cache<String, byte[]> localCache;
+    private final AtomicLong localRequests = new AtomicLong(0L);
+    private final AtomicLong localHits = new AtomicLong(0L);
+
+    // System.nanoTime() until which memcached is skipped after an error
+    private volatile long memcacheRetryNanos;
+    private volatile boolean memcacheFailing = false;
 
-    public CachedResponseBuilder(final String voiceName, final SupichiResponseBuilder wrapped, final MemcachedClient mc, final String cachePrefix) {
+    public CachedResponseBuilder(final String voiceName, final SupichiResponseBuilder wrapped, final MemcachedClient mc, final String cachePrefix,
+                                 final Long localCacheMaxBytes, final Integer localCacheTtlSeconds, final MetricRegistry metrics) {
+        this(voiceName, wrapped, mc, cachePrefix, localCacheMaxBytes, localCacheTtlSeconds, metrics, Ticker.systemTicker());
+    }
+
+    CachedResponseBuilder(final String voiceName, final SupichiResponseBuilder wrapped, final MemcachedClient mc, final String cachePrefix,
+                          final Long localCacheMaxBytes, final Integer localCacheTtlSeconds, final MetricRegistry metrics, final Ticker ticker) {
         this.voiceName = voiceName;
         this.responseBuilder = wrapped;
         this.mc = mc;
         this.cachePrefix = cachePrefix;
+        this.localCache = CacheBuilder.newBuilder()
+                .maximumWeight(localCacheMaxBytes)
+                .weigher((String key, byte[] audio) -> audio.length)
+                .expireAfterWrite(localCacheTtlSeconds, TimeUnit.SECONDS)
+                .ticker(ticker)
+                .build();
+        // only requests answered without waiting on a load are hits
+        metrics.register(name(CachedResponseBuilder.class, "local-hit-rate"), (Gauge<Double>) () -> {
+            final long requests = localRequests.get();
+            return requests == 0L ? 1.0 : (double) localHits.get() / requests;
+        });
     }
 
     @Override
     public byte[] response(Response.SpeechResponse.Result result, HandlerResult handlerResult, Speech.SpeechRequest request) {
+        return response(result, handlerResult, request, VoiceTimings.noop());
+    }
+
+    @Override
+    public byte[] response(Response.SpeechResponse.Result result, HandlerResult handlerResult, Speech.SpeechRequest request,
+                           VoiceTimings timings) {
 
         // This assumes that responseText() always returns a non empty response
         final String text = handlerResult.responseText();
@@ -40,26 +95,100 @@ public class CachedResponseBuilder implements SupichiResponseBuilder {
                 md5Text
         );
 
+        localRequests.incrementAndGet();
+        final byte[] cached = localCache.getIfPresent(cacheKey);
+        if(cached != null) {
+            localHits.incrementAndGet();
+            timings.tag("cache", "local");
+            return cached;
+        }
+
+        final AtomicBoolean loaded = new AtomicBoolean(false);
         try {
-            byte[] audio = (byte[]) mc.get(cacheKey);
-            if(audio != null) {
-                LOGGER.debug("action=get-cached-response key={}", cacheKey);
-                return audio;
+            final byte[] audio = localCache.get(cacheKey, () -> {
+                loaded.set(true);
+                return load(cacheKey, result, handlerResult, request, timings);
+            });
+            if(!loaded.get()) {
+                // waited on the load of a concurrent request for the same response
+                timings.tag("cache", "shared");
+            }
+            return audio;
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof FailedResponse) {
+                if(!loaded.get()) {
+                    timings.tag("cache", "shared");
+                }
+                return ((FailedResponse) e.getCause()).audio;
             }
-        } catch (Exception e) {
-            // If there was an error attempting to read from cache
-            // bypass caching altogether
-            LOGGER.error("error=memcache-get key={} message={}", cacheKey, e.getMessage());
-            return responseBuilder.response(result, handlerResult, request);
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
+    /**
+     * Carries a failed response out of the local cache load so it is returned to every waiting request without being cached
+     */
+    private static class FailedResponse extends Exception {
+        private final byte[] audio;
+
+        private FailedResponse(final byte[] audio) {
+            super("failed-response", null, false, false);
+            this.audio = audio;
+        }
+    }
+
+    private byte[] load(final String cacheKey, final Response.SpeechResponse.Result result, final HandlerResult handlerResult,
+                        final Speech.SpeechRequest request, final VoiceTimings timings) throws FailedResponse {
+        final boolean useMemcache = memcacheAvailable();
+        if(useMemcache) {
+            try {
+                final byte[] audio = (byte[]) mc.get(cacheKey);
+                if(audio != null) {
+                    LOGGER.debug("action=get-cached-response key={}", cacheKey);
+                    timings.tag("cache", "hit");
+                    return audio;
+                }
+                timings.tag("cache", "miss");
+            } catch (Exception e) {
+                // keep caching locally, memcached is skipped until the retry delay is over
+                LOGGER.error("error=memcache-get key={} message={}", cacheKey, e.getMessage());
+                timings.tag("cache", "error");
+                memcacheFailed();
+            }
+        } else {
+            timings.tag("cache", "local-only");
         }
 
         final byte[] audioBytes = responseBuilder.response(result, handlerResult, request);
-        try {
-            // never expires
-            mc.set(cacheKey, 0, audioBytes);
-        } catch (Exception e) {
-            LOGGER.error("error=memcache-set key={} message={}", cacheKey, e.getMessage());
+        if(WatsonResponseBuilder.isFailedResponse(audioBytes)) {
+            LOGGER.warn("warning=skip-caching-failed-response key={}", cacheKey);
+            throw new FailedResponse(audioBytes);
+        }
+        if(useMemcache && memcacheAvailable()) {
+            try {
+                // never expires
+                mc.set(cacheKey, 0, audioBytes);
+            } catch (Exception e) {
+                LOGGER.error("error=memcache-set key={} message={}", cacheKey, e.getMessage());
+                memcacheFailed();
+            }
         }
         return audioBytes;
     }
+
+    private boolean memcacheAvailable() {
+        if(memcacheFailing && System.nanoTime() - memcacheRetryNanos < 0) {
+            return false;
+        }
+        memcacheFailing = false;
+        return true;
+    }
+
+    private void memcacheFailed() {
+        memcacheRetryNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(MEMCACHE_RETRY_MILLIS);
+        if(!memcacheFailing) {
+            memcacheFailing = true;
+            LOGGER.warn("action=skip-memcache retry_millis={}", MEMCACHE_RETRY_MILLIS);
+        }
+    }
 }
@@ -0,0 +1,141 @@
+package is.hello.supichi.response;
+
+import com.codahale.metrics.health.HealthCheck;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import io.dropwizard.lifecycle.Managed;
+import is.hello.supichi.api.Response;
+import is.hello.supichi.api.Speech;
+import is.hello.supichi.commandhandlers.HueHandler;
+import is.hello.supichi.commandhandlers.NestHandler;
+import is.hello.supichi.commandhandlers.RoomConditionsHandler;
+import is.hello.supichi.commandhandlers.results.GenericResult;
+import is.hello.supichi.models.GenericResponseText;
+import is.hello.supichi.models.HandlerResult;
+import is.hello.supichi.models.HandlerType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Renders every static response text in every audio format and eq at startup, so they are already in the response
+ * cache when the first voice requests come in after a deploy. Renders run in the background on the given executor,
+ * which bounds how many Watson calls are made at once.
+ */
+public class ResponseWarmup implements Managed {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResponseWarmup.class);
+
+    private final SupichiResponseBuilder responseBuilder;
+    private final Set<String> texts;
+    private final ExecutorService executor;
+    private final int total;
+
+    private final AtomicInteger rendered = new AtomicInteger(0);
+    private final AtomicInteger failed = new AtomicInteger(0);
+    private final AtomicInteger completed = new AtomicInteger(0);
+    private volatile boolean started = false;
+
+    public ResponseWarmup(final SupichiResponseBuilder responseBuilder, final Set<String> texts, final ExecutorService executor) {
+        this.responseBuilder = responseBuilder;
+        this.texts = ImmutableSet.copyOf(texts);
+        this.executor = executor;
+        this.total = this.texts.size() * Speech.AudioFormat.values().length * Speech.Equalizer.values().length;
+    }
+
+    /**
+     * Fixed response texts of the handlers, templates are rendered for every value they are used with
+     */
+    public static Set<String> staticResponseTexts() {
+        final Set<String> texts = Sets.newLinkedHashSet();
+        texts.add(GenericResponseText.NO_PAIRED_SENSE_TEXT);
+        texts.add(GenericResponseText.TRY_AGAIN_TEXT);
+        texts.add(GenericResponseText.COMMAND_REJECTED_TEXT);
+        texts.add(GenericResponseText.UNKNOWN_TEXT);
+        texts.add(GenericResponseText.OK_TEXT);
+
+        texts.add(HueHandler.SET_LIGHT_OK_RESPONSE);
+        texts.add(HueHandler.SET_LIGHT_ERROR_RESPONSE);
+        texts.add(HueHandler.SET_LIGHT_ERROR_AUTH);
+        texts.add(HueHandler.SET_LIGHT_ERROR_CONFIG);
+        texts.add(HueHandler.SET_LIGHT_ERROR_APPLICATION);
+
+        texts.add(NestHandler.SET_TEMP_OK_RESPONSE);
+        texts.add(NestHandler.SET_TEMP_ERROR_RESPONSE);
+        texts.add(NestHandler.SET_TEMP_ERROR_LOCKED_RESPONSE);
+        texts.add(NestHandler.SET_TEMP_ERROR_AUTH);
+        texts.add(NestHandler.SET_TEMP_ERROR_CONFIG);
+        texts.add(NestHandler.SET_TEMP_ERROR_APPLICATION);
+
+        texts.addAll(RoomConditionsHandler.staticResponseTexts());
+        return texts;
+    }
+
+    @Override
+    public void start() throws Exception {
+        LOGGER.info("action=start-response-warmup texts={} responses={}", texts.size(), total);
+        started = true;
+        for (final String text : texts) {
+            for (final Speech.AudioFormat format : Speech.AudioFormat.values()) {
+                for (final Speech.Equalizer eq : Speech.Equalizer.values()) {
+                    executor.submit(() -> render(text, format, eq));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void stop() throws Exception {
+        // the executor is shut down by the lifecycle
+    }
+
+    private void render(final String text, final Speech.AudioFormat format, final Speech.Equalizer eq) {
+        // builders only read the response format and eq of the request
+        final Speech.SpeechRequest request = Speech.SpeechRequest.newBuilder()
+                .setResponse(format)
+                .setEq(eq)
+                .buildPartial();
+        try {
+            final byte[] audio = responseBuilder.response(Response.SpeechResponse.Result.OK,
+                    new HandlerResult(HandlerType.NONE, HandlerResult.EMPTY_COMMAND, GenericResult.ok(text)), request);
+            if (WatsonResponseBuilder.isFailedResponse(audio)) {
+                LOGGER.error("error=response-warmup-failed format={} eq={} text=\"{}\" message=failed-response", format, eq, text);
+                failed.incrementAndGet();
+            } else {
+                rendered.incrementAndGet();
+            }
+        } catch (Exception e) {
+            LOGGER.error("error=response-warmup-failed format={} eq={} text=\"{}\" message={}", format, eq, text, e.getMessage());
+            failed.incrementAndGet();
+        }
+
+        if (completed.incrementAndGet() == total) {
+            LOGGER.info("action=response-warmup-done rendered={} failed={}", rendered.get(), failed.get());
+        }
+    }
+
+    private boolean done() {
+        return completed.get() == total;
+    }
+
+    /**
+     * Always healthy since the warm-up is best effort, the message gives the progress and how many renders failed
+     */
+    public HealthCheck healthCheck() {
+        return new HealthCheck() {
+            @Override
+            protected Result check() throws Exception {
+                if (!started) {
+                    return Result.healthy("not started");
+                }
+                if (!done()) {
+                    return Result.healthy(String.format("rendered %d of %d, failed %d", rendered.get(), total, failed.get()));
+                }
+                return Result.healthy(String.format("done, rendered %d of %d, failed %d", rendered.get(), total, failed.get()));
+            }
+        };
+    }
+}
@@ -3,10 +3,21 @@ package is.hello.supichi.response;
 import is.hello.supichi.models.HandlerResult;
 import is.hello.supichi.api.Response;
 import is.hello.supichi.api.Speech;
+import is.hello.supichi.utils.VoiceTimings;
 
 public interface SupichiResponseBuilder {
 
     byte[] response(final Response.SpeechResponse.Result result,
                     final HandlerResult handlerResult,
                     final Speech.SpeechRequest request);
+
+    /**
+     * Same as {@link #response}, builders that cache their responses tag the request with the cache outcome
+     */
+    default byte[] response(final Response.SpeechResponse.Result result,
+                            final HandlerResult handlerResult,
+                            final Speech.SpeechRequest request,
+                            final VoiceTimings timings) {
+        return response(result, handlerResult, request);
+    }
 }
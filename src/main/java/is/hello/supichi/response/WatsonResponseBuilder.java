@@ -18,6 +18,7 @@ import org.slf4j.LoggerFactory;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
 
 import static com.codahale.metrics.MetricRegistry.name;
 
@@ -27,6 +28,9 @@ import static com.codahale.metrics.MetricRegistry.name;
 public class WatsonResponseBuilder implements SupichiResponseBuilder {
     private final static Logger LOGGER = LoggerFactory.getLogger(WatsonResponseBuilder.class);
 
+    // returned when the audio could not be fetched or synthesized, never cached
+    private static final byte[] FAILED_RESPONSE = new byte[]{0,0,0};
+
     private final TextToSpeech watson;
     private final Voice watsonVoice;
     private AmazonS3 amazonS3;
@@ -41,6 +45,13 @@ public class WatsonResponseBuilder implements SupichiResponseBuilder {
         this.s3BucketNameForMp3 = s3BucketNameForMp3;
     }
 
+    /**
+     * True for the placeholder returned when Watson or S3 failed
+     */
+    public static boolean isFailedResponse(final byte[] audio) {
+        return Arrays.equals(audio, FAILED_RESPONSE);
+    }
+
     @Override
     public byte[] response(final Response.SpeechResponse.Result result,
                            final HandlerResult handlerResult,
@@ -54,7 +65,7 @@ public class WatsonResponseBuilder implements SupichiResponseBuilder {
                 return IOUtils.toByteArray(in);
             } catch (IOException e) {
                 LOGGER.error("action=get-mp3-from-s3 key={} error={}", url, e.getMessage());
-                return new byte[]{0,0,0};
+                return FAILED_RESPONSE.clone();
             }
         }
 
@@ -99,6 +110,6 @@ public class WatsonResponseBuilder implements SupichiResponseBuilder {
             LOGGER.error("action=watson-down-sample-fails error_msg={}", e.getMessage());
         }
 
-        return new byte[]{0,0,0};
+        return FAILED_RESPONSE.clone();
     }
 }
@@ -0,0 +1,91 @@
+package is.hello.supichi.utils;
+
+/**
+ * Incremental IMA ADPCM decoder, output is 16-bit little endian PCM.
+ *
+ * The step index is the only state besides the predicted value: the difference and next index for every
+ * (index, nibble) pair are precomputed, so decoding a sample is two table lookups and an add.
+ * Decoding an upload in consecutive blocks gives the same bytes as decoding it at once, so PCM can be streamed out
+ * while the rest of the upload is still being decoded.
+ */
+public class AdpcmDecoder {
+
+    private static final int MAX_INDEX = 88;
+
+    // signed difference and next step index, indexed by (index << 4) | nibble
+    private static final int[] DIFF_TABLE = new int[(MAX_INDEX + 1) << 4];
+    private static final byte[] NEXT_INDEX_TABLE = new byte[(MAX_INDEX + 1) << 4];
+
+    static {
+        for (int index = 0; index <= MAX_INDEX; index++) {
+            final int step = AudioUtils.STEP_SIZE_TABLE[index];
+            for (int nibble = 0; nibble < 16; nibble++) {
+                int vpdiff = step >> 3;
+                if ((nibble & 4) != 0) vpdiff += step;
+                if ((nibble & 2) != 0) vpdiff += step >> 1;
+                if ((nibble & 1) != 0) vpdiff += step >> 2;
+
+                final int nextIndex = Math.min(MAX_INDEX, Math.max(0, index + AudioUtils.INDEX_TABLE[nibble]));
+                DIFF_TABLE[(index << 4) | nibble] = ((nibble & 8) != 0) ? -vpdiff : vpdiff;
+                NEXT_INDEX_TABLE[(index << 4) | nibble] = (byte) nextIndex;
+            }
+        }
+    }
+
+    private short valpred = 0;
+    private int index = 0;
+
+    /**
+     * Size of the PCM decoded from a whole upload, the low nibble of the last byte is never decoded
+     */
+    public static int pcmSize(final int adpcmLength) {
+        return (adpcmLength == 0) ? 0 : (adpcmLength * 2 - 1) * 2;
+    }
+
+    /**
+     * Decodes a whole upload into out, which needs at least {@link #pcmSize} bytes
+     * @return number of PCM bytes written
+     */
+    public static int decode(final byte[] adpcm, final byte[] out) {
+        return new AdpcmDecoder().decode(adpcm, 0, adpcm.length, true, out, 0);
+    }
+
+    /**
+     * Decodes adpcm[from, to) into out, starting at outOffset. out needs room for 4 bytes per ADPCM byte.
+     * @param last true for the block ending the upload
+     * @return number of PCM bytes written
+     */
+    public int decode(final byte[] adpcm, final int from, final int to, final boolean last, final byte[] out, final int outOffset) {
+        // locals instead of fields in the loop
+        short sample = valpred;
+        int stepIndex = index;
+        int outPos = outOffset;
+
+        final int fullBytesEnd = (last && to > from) ? to - 1 : to;
+        for (int i = from; i < fullBytesEnd; i++) {
+            final int high = (stepIndex << 4) | ((adpcm[i] >> 4) & 0x0f);
+            // 16 bit wrap around, same as the original short arithmetic
+            sample = (short) (sample + DIFF_TABLE[high]);
+            stepIndex = NEXT_INDEX_TABLE[high];
+            out[outPos++] = (byte) sample;
+            out[outPos++] = (byte) (sample >> 8);
+
+            final int low = (stepIndex << 4) | (adpcm[i] & 0x0f);
+            sample = (short) (sample + DIFF_TABLE[low]);
+            stepIndex = NEXT_INDEX_TABLE[low];
+            out[outPos++] = (byte) sample;
+            out[outPos++] = (byte) (sample >> 8);
+        }
+        if (fullBytesEnd < to) {
+            final int high = (stepIndex << 4) | ((adpcm[fullBytesEnd] >> 4) & 0x0f);
+            sample = (short) (sample + DIFF_TABLE[high]);
+            stepIndex = NEXT_INDEX_TABLE[high];
+            out[outPos++] = (byte) sample;
+            out[outPos++] = (byte) (sample >> 8);
+        }
+
+        valpred = sample;
+        index = stepIndex;
+        return outPos - outOffset;
+    }
+}
@@ -1,7 +1,6 @@
 package is.hello.supichi.utils;
 
 import com.google.common.base.Optional;
-import com.google.common.io.LittleEndianDataOutputStream;
 import davaguine.jeq.core.EqualizerInputStream;
 import net.sourceforge.lame.lowlevel.LameEncoder;
 import net.sourceforge.lame.mp3.Lame;
@@ -17,7 +16,6 @@ import javax.sound.sampled.AudioSystem;
 import javax.sound.sampled.UnsupportedAudioFileException;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
-import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
@@ -298,81 +296,9 @@ public class AudioUtils {
         return Optional.absent();
     }
 
-    public static byte[] decodeADPShitMAudio(byte[] adpcm) throws IOException {
-        {
-            final DataInputStream dataInputStream = new DataInputStream(new ByteArrayInputStream(adpcm));
-
-            final int outputSize = (adpcm.length + 1) * 4;
-
-            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            final LittleEndianDataOutputStream dataOutputStream = new LittleEndianDataOutputStream(outputStream);
-
-            short valpred = 0;
-            int index = 0;
-            int step = STEP_SIZE_TABLE[0];
-
-            boolean bufferstep = false;
-
-            int sign;
-            int vpdiff;
-
-            int delta;
-            int inPos = 0;
-
-            int readValue = 0;
-            for (int i = 0; i < adpcm.length * 2 - 1; i++) {
-
-                // step 1
-                final byte currentData = adpcm[inPos];
-
-                if (bufferstep) {
-                    delta = readValue & 0x0f;
-                } else {
-                    readValue = dataInputStream.readByte();
-                    delta = (currentData >> 4) & 0x0f;
-                    inPos++;
-                }
-
-                bufferstep = !bufferstep;
-
-                // step 2
-                index += INDEX_TABLE[delta];
-                if (index < 0) index = 0;
-                if (index > 88) index = 88;
-
-                // step 3
-                sign = delta & 8;
-                delta = delta & 7;
-
-                // step 4
-                vpdiff = step >> 3;
-                if ((delta & 4) != 0) vpdiff += step;
-                if ((delta & 2) != 0) vpdiff += step >> 1;
-                if ((delta & 1) != 0) vpdiff += step >> 2;
-
-                if (sign != 0) {
-                    valpred -= vpdiff;
-                } else {
-                    valpred += vpdiff;
-                }
-
-                // step 5 - clamp values
-                if (valpred > 32767) {
-                    valpred = 32767;
-                } else if (valpred < -32768) {
-                    valpred = -32768;
-                }
-
-                // step 6 - update step
-                step = STEP_SIZE_TABLE[index];
-
-                // step 7 - output value
-                dataOutputStream.writeShort(valpred);
-            }
-
-            dataInputStream.close();
-            return outputStream.toByteArray();
-
-        }
+    public static byte[] decodeADPShitMAudio(byte[] adpcm) {
+        final byte[] decoded = new byte[AdpcmDecoder.pcmSize(adpcm.length)];
+        AdpcmDecoder.decode(adpcm, decoded);
+        return decoded;
     }
 }
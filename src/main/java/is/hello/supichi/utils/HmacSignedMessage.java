@@ -5,7 +5,8 @@ import org.slf4j.LoggerFactory;
 
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
-import java.util.Arrays;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 
 public class HmacSignedMessage {
 
@@ -13,21 +14,38 @@ public class HmacSignedMessage {
 
     private static final String HMAC_SHA1_ALGORITHM = "HmacSHA1";
 
+    // Mac.getInstance goes through the provider lookup, instances are not thread-safe but can be re-initialized
+    private static final ThreadLocal<Mac> MACS = ThreadLocal.withInitial(() -> {
+        try {
+            return Mac.getInstance(HMAC_SHA1_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
     /**
      * See http://docs.aws.amazon.com/AWSSimpleQueueService/latest/SQSDeveloperGuide/AuthJavaSampleHMACSignature.html
      */
     public static byte[] calculateRFC2104HMAC(final byte[] data, final byte[] key) {
+        return calculateRFC2104HMAC(data, 0, data.length, key);
+    }
+
+    /**
+     * HMAC of data[offset, offset + length), without copying it
+     */
+    public static byte[] calculateRFC2104HMAC(final byte[] data, final int offset, final int length, final byte[] key) {
         try {
 
             // get an hmac_sha1 key from the raw key bytes
             final SecretKeySpec signingKey = new SecretKeySpec(key, HMAC_SHA1_ALGORITHM);
 
-            // get an hmac_sha1 Mac instance and initialize with the signing key
-            final Mac mac = Mac.getInstance(HMAC_SHA1_ALGORITHM);
+            // initialize this thread's hmac_sha1 Mac instance with the signing key
+            final Mac mac = MACS.get();
             mac.init(signingKey);
 
             // compute the hmac on input data bytes
-            return mac.doFinal(data);
+            mac.update(data, offset, length);
+            return mac.doFinal();
         } catch (Exception e) {
             LOGGER.error("action=hmac error={}", e.getMessage());
         }
@@ -35,7 +53,15 @@ public class HmacSignedMessage {
     }
 
     public static boolean match(final byte[] data, final byte[] key, final byte[] sig) {
-        final byte[] computedSig = calculateRFC2104HMAC(data,key);
-        return Arrays.equals(computedSig, sig);
+        return match(data, 0, data.length, key, sig);
+    }
+
+    /**
+     * Constant time comparison of sig with the HMAC of data[offset, offset + length)
+     */
+    public static boolean match(final byte[] data, final int offset, final int length, final byte[] key, final byte[] sig) {
+        final byte[] computedSig = calculateRFC2104HMAC(data, offset, length, key);
+        return computedSig.length > 0 && MessageDigest.isEqual(computedSig, sig);
     }
+
 }
@@ -0,0 +1,83 @@
+package is.hello.supichi.utils;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.Optional;
+import com.google.common.collect.Maps;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Latency of each stage of a single voice request.
+ *
+ * Every stage is published to a histogram named after it, and the whole request is logged as one line.
+ * Stages recorded more than once in a request (e.g. kinesis enqueues) add up in the log line.
+ */
+public class VoiceTimings {
+
+    private static final String HISTOGRAM_PREFIX = "voice-stage-millis";
+
+    private final Optional<MetricRegistry> metrics;
+    private final long createdNanos;
+    private final Map<String, Long> stageMillis = Maps.newLinkedHashMap();
+    private final Map<String, String> tags = Maps.newLinkedHashMap();
+
+    private VoiceTimings(final Optional<MetricRegistry> metrics) {
+        this.metrics = metrics;
+        this.createdNanos = System.nanoTime();
+    }
+
+    public static VoiceTimings create(final MetricRegistry metrics) {
+        return new VoiceTimings(Optional.of(metrics));
+    }
+
+    /**
+     * Timings that are not published, for callers outside of a voice request
+     */
+    public static VoiceTimings noop() {
+        return new VoiceTimings(Optional.absent());
+    }
+
+    public static long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Records the time since startNanos, as returned by {@link #start()}
+     * @param histogramTags appended to the histogram name only, e.g. the handler type
+     */
+    public void record(final String stage, final long startNanos, final String... histogramTags) {
+        final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        if(metrics.isPresent()) {
+            metrics.get().histogram(name(name(HISTOGRAM_PREFIX, stage), histogramTags)).update(millis);
+        }
+        synchronized (this) {
+            stageMillis.merge(stage, millis, Long::sum);
+        }
+    }
+
+    public synchronized void tag(final String key, final String value) {
+        tags.put(key, value);
+    }
+
+    public synchronized Optional<String> tag(final String key) {
+        return Optional.fromNullable(tags.get(key));
+    }
+
+    /**
+     * key=value pairs for every stage in milliseconds, then tags, then the total
+     */
+    public synchronized String toLogString() {
+        final StringBuilder builder = new StringBuilder();
+        for(final Map.Entry<String, Long> entry : stageMillis.entrySet()) {
+            builder.append(entry.getKey()).append("_ms=").append(entry.getValue()).append(' ');
+        }
+        for(final Map.Entry<String, String> entry : tags.entrySet()) {
+            builder.append(entry.getKey()).append('=').append(entry.getValue()).append(' ');
+        }
+        builder.append("total_ms=").append(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - createdNanos));
+        return builder.toString();
+    }
+}
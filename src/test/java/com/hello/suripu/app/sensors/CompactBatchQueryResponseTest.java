@@ -0,0 +1,170 @@
+package com.hello.suripu.app.sensors;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.WireFormat;
+import com.hello.suripu.core.models.Sample;
+import com.hello.suripu.core.models.Sensor;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class CompactBatchQueryResponseTest {
+
+    /**
+     * Minimal decoder, mirrors what clients do with the compact format.
+     */
+    private static class Decoded {
+        long start;
+        long step;
+        int count;
+        final Map<Integer, Integer> offsets = Maps.newTreeMap();
+        final List<Long> timestampDeltas = Lists.newArrayList();
+        final Map<String, float[]> columns = Maps.newHashMap();
+        Long cursor;
+
+        static Decoded from(final byte[] bytes) throws IOException {
+            final Decoded decoded = new Decoded();
+            final CodedInputStream in = CodedInputStream.newInstance(bytes);
+            while(!in.isAtEnd()) {
+                final int tag = in.readTag();
+                switch (WireFormat.getTagFieldNumber(tag)) {
+                    case 1:
+                        decoded.start = in.readInt64();
+                        break;
+                    case 2:
+                        decoded.step = in.readInt64();
+                        break;
+                    case 3:
+                        decoded.count = in.readInt32();
+                        break;
+                    case 4: {
+                        final int limit = in.pushLimit(in.readRawVarint32());
+                        int index = 0;
+                        int offset = 0;
+                        while(!in.isAtEnd()) {
+                            final int fieldTag = in.readTag();
+                            if(WireFormat.getTagFieldNumber(fieldTag) == 1) {
+                                index = in.readInt32();
+                            } else {
+                                offset = in.readSInt32();
+                            }
+                        }
+                        in.popLimit(limit);
+                        decoded.offsets.put(index, offset);
+                        break;
+                    }
+                    case 5: {
+                        final int limit = in.pushLimit(in.readRawVarint32());
+                        while(!in.isAtEnd()) {
+                            decoded.timestampDeltas.add(in.readSInt64());
+                        }
+                        in.popLimit(limit);
+                        break;
+                    }
+                    case 6: {
+                        final int limit = in.pushLimit(in.readRawVarint32());
+                        String sensor = "";
+                        int scale = 1;
+                        final List<Float> values = Lists.newArrayList();
+                        while(!in.isAtEnd()) {
+                            final int fieldTag = in.readTag();
+                            final int field = WireFormat.getTagFieldNumber(fieldTag);
+                            if(field == 1) {
+                                sensor = in.readString();
+                            } else if(field == 2) {
+                                scale = in.readInt32();
+                            } else {
+                                final int packedLimit = in.pushLimit(in.readRawVarint32());
+                                long previous = 0L;
+                                while(!in.isAtEnd()) {
+                                    previous += in.readSInt64();
+                                    values.add((float) previous / scale);
+                                }
+                                in.popLimit(packedLimit);
+                            }
+                        }
+                        in.popLimit(limit);
+                        final float[] array = new float[values.size()];
+                        for(int i = 0; i < array.length; i++) {
+                            array[i] = values.get(i);
+                        }
+                        decoded.columns.put(sensor, array);
+                        break;
+                    }
+                    case 7:
+                        decoded.cursor = in.readInt64();
+                        break;
+                    default:
+                        in.skipField(tag);
+                }
+            }
+            return decoded;
+        }
+    }
+
+    private static byte[] encode(final BatchQueryResponse response) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        CompactBatchQueryResponse.write(response, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    @Test
+    public void testRegularGrid() throws IOException {
+        final List<Sample> temperature = Lists.newArrayList();
+        final List<Sample> light = Lists.newArrayList();
+        final List<X> timestamps = Lists.newArrayList();
+        for(int i = 0; i < 288; i++) {
+            final long t = 1475280000000L + i * 300000L;
+            final int offset = (i < 100) ? -25200000 : -28800000;
+            temperature.add(new Sample(t, 20f + (i % 7) * 0.13f, offset));
+            light.add(i == 50 ? null : new Sample(t, i * 1.55f, offset));
+            timestamps.add(new X(t, offset));
+        }
+        final Map<Sensor, SensorData> data = Maps.newEnumMap(Sensor.class);
+        data.put(Sensor.TEMPERATURE, SensorData.from(temperature));
+        data.put(Sensor.LIGHT, SensorData.from(light));
+        final BatchQueryResponse response = BatchQueryResponse.ok(data, timestamps);
+
+        final Decoded decoded = Decoded.from(encode(response));
+        assertThat(decoded.start, equalTo(1475280000000L));
+        assertThat(decoded.step, equalTo(300000L));
+        assertThat(decoded.count, equalTo(288));
+        assertTrue(decoded.timestampDeltas.isEmpty());
+        assertNull(decoded.cursor);
+        assertThat(decoded.offsets.size(), equalTo(2));
+        assertThat(decoded.offsets.get(0), equalTo(-25200000));
+        assertThat(decoded.offsets.get(100), equalTo(-28800000));
+        assertArrayEquals(data.get(Sensor.TEMPERATURE).values(), decoded.columns.get("TEMPERATURE"), 0.0001f);
+        assertArrayEquals(data.get(Sensor.LIGHT).values(), decoded.columns.get("LIGHT"), 0.0001f);
+    }
+
+    @Test
+    public void testIrregularTimestamps() throws IOException {
+        final List<X> timestamps = Lists.newArrayList(new X(1000L, 0), new X(2000L, 0), new X(4000L, 0));
+        final Map<Sensor, SensorData> data = Maps.newEnumMap(Sensor.class);
+        data.put(Sensor.HUMIDITY, SensorData.from(Lists.newArrayList(new Sample(1000L, 40f, 0), new Sample(2000L, 41.5f, 0), new Sample(4000L, 39.9f, 0))));
+
+        final Decoded decoded = Decoded.from(encode(BatchQueryResponse.ok(data, timestamps).withCursor(Optional.of(2000L))));
+        assertThat(decoded.cursor, equalTo(2000L));
+        assertThat(decoded.step, equalTo(0L));
+        assertThat(decoded.timestampDeltas, equalTo((List<Long>) Lists.newArrayList(0L, 1000L, 2000L)));
+        assertArrayEquals(new float[]{40f, 41.5f, 39.9f}, decoded.columns.get("HUMIDITY"), 0.0001f);
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        assertThat(encode(BatchQueryResponse.noData()).length, equalTo(0));
+    }
+}
@@ -0,0 +1,102 @@
+package com.hello.suripu.app.sensors;
+
+import com.google.common.collect.Lists;
+import com.hello.suripu.core.models.AllSensorSampleList;
+import com.hello.suripu.core.models.Sample;
+import com.hello.suripu.core.models.Sensor;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class DownsamplerTest {
+
+    private static List<Sample> samples(final float... values) {
+        final List<Sample> samples = Lists.newArrayList();
+        for(int i = 0; i < values.length; i++) {
+            samples.add(new Sample(i * 300000L, values[i], 0));
+        }
+        return samples;
+    }
+
+    @Test
+    public void testAggregate() {
+        final List<Sample> samples = samples(1f, 2f, 3f, -1f, 5f, 6f, -1f, -1f, 9f);
+
+        assertArrayEquals(new float[]{2f, 5.5f, 9f}, Downsampler.aggregate(samples, 3, AggregationMethod.AVG), 0f);
+        assertArrayEquals(new float[]{1f, 5f, 9f}, Downsampler.aggregate(samples, 3, AggregationMethod.MIN), 0f);
+        assertArrayEquals(new float[]{3f, 6f, 9f}, Downsampler.aggregate(samples, 3, AggregationMethod.MAX), 0f);
+        assertArrayEquals(new float[]{6f, 11f, 9f}, Downsampler.aggregate(samples, 3, AggregationMethod.SUM), 0f);
+    }
+
+    @Test
+    public void testAggregateMissingBucket() {
+        final List<Sample> samples = samples(1f, 2f, -1f, -1f, 5f, 6f);
+        assertArrayEquals(new float[]{1.5f, -1f, 5.5f}, Downsampler.aggregate(samples, 3, AggregationMethod.AVG), 0f);
+    }
+
+    @Test
+    public void testUnevenBuckets() {
+        final List<Sample> samples = samples(1f, 1f, 1f, 1f, 1f, 1f, 1f);
+        final float[] sums = Downsampler.aggregate(samples, 3, AggregationMethod.SUM);
+        assertThat(sums.length, equalTo(3));
+        assertThat(sums[0] + sums[1] + sums[2], equalTo(7f));
+
+        final List<X> timestamps = Lists.newArrayList();
+        for(final Sample sample : samples) {
+            timestamps.add(new X(sample.dateTime, sample.offsetMillis));
+        }
+        final List<X> bucketTimestamps = Downsampler.bucketTimestamps(timestamps, 3);
+        assertThat(bucketTimestamps.get(0).timestamp(), equalTo(0L));
+        assertThat(bucketTimestamps.get(1).timestamp(), equalTo(2 * 300000L));
+        assertThat(bucketTimestamps.get(2).timestamp(), equalTo(4 * 300000L));
+    }
+
+    @Test
+    public void testLttbKeepsEndsAndSpikes() {
+        final float[] values = new float[100];
+        for(int i = 0; i < values.length; i++) {
+            values[i] = 20f;
+        }
+        values[37] = 80f;
+        final int[] indices = Downsampler.lttb(samples(values), 10);
+
+        assertThat(indices.length, equalTo(10));
+        assertThat(indices[0], equalTo(0));
+        assertThat(indices[9], equalTo(99));
+        boolean hasSpike = false;
+        for(int i = 1; i < indices.length; i++) {
+            assertTrue("increasing", indices[i] > indices[i - 1]);
+            hasSpike |= indices[i] == 37;
+        }
+        assertTrue("spike kept", hasSpike);
+    }
+
+    @Test
+    public void testConvertWithPoints() {
+        final AllSensorSampleList allSensorSampleList = new AllSensorSampleList();
+        final float[] values = new float[288];
+        for(int i = 0; i < values.length; i++) {
+            values[i] = i % 10;
+        }
+        allSensorSampleList.add(Sensor.TEMPERATURE, samples(values));
+        allSensorSampleList.add(Sensor.HUMIDITY, samples(values));
+        final List<Sensor> sensors = Lists.newArrayList(Sensor.TEMPERATURE, Sensor.HUMIDITY);
+
+        for(final DownsamplingMethod method : DownsamplingMethod.values()) {
+            final BatchQuery query = BatchQuery.create(QueryScope.DAY_5_MINUTE, sensors, AggregationMethod.MAX, 48, method);
+            final BatchQueryResponse response = SensorViewLogic.convert(allSensorSampleList, query, sensors);
+
+            assertThat(response.timestamps().size(), equalTo(48));
+            assertThat(response.sensorData().get(Sensor.TEMPERATURE).values().length, equalTo(48));
+            assertThat(response.sensorData().get(Sensor.HUMIDITY).values().length, equalTo(48));
+        }
+
+        final BatchQuery all = BatchQuery.create(QueryScope.DAY_5_MINUTE, sensors, AggregationMethod.MAX, 500, DownsamplingMethod.BUCKETS);
+        assertThat(SensorViewLogic.convert(allSensorSampleList, all, sensors).timestamps().size(), equalTo(288));
+    }
+}
@@ -0,0 +1,126 @@
+package com.hello.suripu.app.sensors;
+
+import com.google.common.base.Optional;
+import com.hello.suripu.core.db.CalibrationDAO;
+import com.hello.suripu.core.db.DeviceDataDAODynamoDB;
+import com.hello.suripu.core.db.colors.SenseColorDAO;
+import com.hello.suripu.core.models.Calibration;
+import com.hello.suripu.core.models.Device;
+import com.hello.suripu.core.models.DeviceData;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class LatestReadingCacheTest {
+
+    private static final DateTime NOW = new DateTime(2016, 10, 1, 12, 0, DateTimeZone.UTC);
+
+    private DeviceDataDAODynamoDB deviceDataDAODynamoDB;
+    private CalibrationDAO calibrationDAO;
+    private SenseColorDAO senseColorDAO;
+    private LatestReadingCache cache;
+
+    private static DeviceData dataFor(final Long accountId) {
+        return new DeviceData.Builder()
+                .withExternalDeviceId("sense")
+                .withAccountId(accountId)
+                .withDateTimeUTC(NOW.minusMinutes(1))
+                .withOffsetMillis(0)
+                .withExtraSensorData(null)
+                .build();
+    }
+
+    @Before
+    public void setUp() {
+        deviceDataDAODynamoDB = mock(DeviceDataDAODynamoDB.class);
+        calibrationDAO = mock(CalibrationDAO.class);
+        when(calibrationDAO.getStrict(anyString())).thenReturn(Optional.absent());
+        senseColorDAO = mock(SenseColorDAO.class);
+        when(senseColorDAO.getColorForSense(anyString())).thenReturn(Optional.absent());
+        cache = LatestReadingCache.create(deviceDataDAODynamoDB, calibrationDAO, senseColorDAO, 15);
+    }
+
+    @Test
+    public void testReadingsAreKeptPerAccount() {
+        when(deviceDataDAODynamoDB.getMostRecent(eq(1L), eq("sense"), any(DateTime.class), any(DateTime.class)))
+                .thenReturn(Optional.of(dataFor(1L)));
+        when(deviceDataDAODynamoDB.getMostRecent(eq(2L), eq("sense"), any(DateTime.class), any(DateTime.class)))
+                .thenReturn(Optional.of(dataFor(2L)));
+
+        assertThat(cache.get(1L, "sense", NOW).deviceData.get().accountId, equalTo(1L));
+        assertThat(cache.get(2L, "sense", NOW).deviceData.get().accountId, equalTo(2L));
+        assertThat(cache.get(1L, "sense", NOW).deviceData.get().accountId, equalTo(1L));
+
+        verify(deviceDataDAODynamoDB, times(1)).getMostRecent(eq(1L), eq("sense"), any(DateTime.class), any(DateTime.class));
+        verify(deviceDataDAODynamoDB, times(1)).getMostRecent(eq(2L), eq("sense"), any(DateTime.class), any(DateTime.class));
+    }
+
+    @Test
+    public void testInvalidateDropsEveryAccount() {
+        when(deviceDataDAODynamoDB.getMostRecent(any(Long.class), eq("sense"), any(DateTime.class), any(DateTime.class)))
+                .thenReturn(Optional.of(dataFor(1L)));
+        cache.get(1L, "sense", NOW);
+        cache.get(2L, "sense", NOW);
+
+        cache.invalidate("sense");
+        cache.get(1L, "sense", NOW);
+        cache.get(2L, "sense", NOW);
+
+        verify(deviceDataDAODynamoDB, times(4)).getMostRecent(any(Long.class), eq("sense"), any(DateTime.class), any(DateTime.class));
+    }
+
+    @Test
+    public void testDefaultCalibrationIsCached() {
+        final Calibration calibration = mock(Calibration.class);
+        when(calibrationDAO.get("sense")).thenReturn(Optional.of(calibration));
+        when(deviceDataDAODynamoDB.getMostRecent(eq(1L), eq("sense"), any(DateTime.class), any(DateTime.class)))
+                .thenReturn(Optional.of(dataFor(1L)));
+
+        assertThat(cache.get(1L, "sense", NOW).calibrationOrDefault, equalTo(Optional.of(calibration)));
+        final LatestReading reading = cache.get(1L, "sense", NOW);
+        assertThat(reading.calibration, equalTo(Optional.<Calibration>absent()));
+        assertThat(reading.calibrationOrDefault, equalTo(Optional.of(calibration)));
+
+        verify(calibrationDAO, times(1)).get("sense");
+    }
+
+    @Test
+    public void testLookupsRunWhileDeviceDataIsQueried() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            cache = LatestReadingCache.create(deviceDataDAODynamoDB, calibrationDAO, senseColorDAO, 15, executor);
+            final CountDownLatch colorQueried = new CountDownLatch(1);
+            when(senseColorDAO.getColorForSense("sense")).thenAnswer(invocation -> {
+                colorQueried.countDown();
+                return Optional.of(Device.Color.WHITE);
+            });
+            // only returns once the color lookup started
+            when(deviceDataDAODynamoDB.getMostRecent(eq(1L), eq("sense"), any(DateTime.class), any(DateTime.class)))
+                    .thenAnswer(invocation -> colorQueried.await(1, TimeUnit.SECONDS)
+                            ? Optional.of(dataFor(1L))
+                            : Optional.absent());
+
+            final LatestReading reading = cache.get(1L, "sense", NOW);
+            assertThat(reading.deviceData.isPresent(), equalTo(true));
+            assertThat(reading.color, equalTo(Optional.of(Device.Color.WHITE)));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
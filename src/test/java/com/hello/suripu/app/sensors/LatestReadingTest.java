@@ -0,0 +1,72 @@
+package com.hello.suripu.app.sensors;
+
+import com.google.common.base.Optional;
+import com.hello.suripu.core.models.DeviceData;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LatestReadingTest {
+
+    private static DeviceData dataAt(final DateTime dateTimeUTC) {
+        return new DeviceData.Builder()
+                .withExternalDeviceId("sense")
+                .withAccountId(999L)
+                .withDateTimeUTC(dateTimeUTC)
+                .withOffsetMillis(0)
+                .withExtraSensorData(null)
+                .build();
+    }
+
+    @Test
+    public void testFreshDataKeptForMaxTtl() {
+        final DateTime now = new DateTime(2016, 10, 1, 12, 0, DateTimeZone.UTC);
+        final LatestReading reading = LatestReading.create(Optional.of(dataAt(now.minusMinutes(1))),
+                Optional.absent(), Optional.absent(), now, 15, 60);
+
+        assertFalse(reading.isExpired(now.plusSeconds(59)));
+        assertTrue(reading.isExpired(now.plusSeconds(60)));
+    }
+
+    @Test
+    public void testExpiresWhenDataBecomesTooOld() {
+        final DateTime now = new DateTime(2016, 10, 1, 12, 0, DateTimeZone.UTC);
+        // too old 30 seconds from now
+        final LatestReading reading = LatestReading.create(Optional.of(dataAt(now.minusMinutes(15).plusSeconds(30))),
+                Optional.absent(), Optional.absent(), now, 15, 60);
+
+        assertFalse(reading.isExpired(now.plusSeconds(29)));
+        assertTrue(reading.isExpired(now.plusSeconds(30)));
+    }
+
+    @Test
+    public void testMissingOrStaleDataKeptForMaxTtl() {
+        final DateTime now = new DateTime(2016, 10, 1, 12, 0, DateTimeZone.UTC);
+        final LatestReading missing = LatestReading.create(Optional.absent(), Optional.absent(), Optional.absent(), now, 15, 60);
+        final LatestReading stale = LatestReading.create(Optional.of(dataAt(now.minusMinutes(20))),
+                Optional.absent(), Optional.absent(), now, 15, 60);
+
+        assertFalse(missing.isExpired(now.plusSeconds(59)));
+        assertFalse(stale.isExpired(now.plusSeconds(59)));
+    }
+
+    @Test
+    public void testTooOld() {
+        final DateTime now = new DateTime(2016, 10, 1, 12, 0, DateTimeZone.UTC);
+        final LatestReading reading = LatestReading.create(Optional.of(dataAt(now.minusMinutes(10))),
+                Optional.absent(), Optional.absent(), now, 15, 60);
+
+        assertFalse(reading.isTooOld(now.plusMinutes(4)));
+        assertTrue(reading.isTooOld(now.plusMinutes(5)));
+        assertTrue(LatestReading.create(Optional.absent(), Optional.absent(), Optional.absent(), now, 15, 60).isTooOld(now));
+    }
+
+    @Test
+    public void testEmptyIsExpired() {
+        final DateTime now = DateTime.now(DateTimeZone.UTC);
+        assertTrue(LatestReading.empty(now).isExpired(now));
+    }
+}
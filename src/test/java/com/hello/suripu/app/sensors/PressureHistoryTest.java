@@ -0,0 +1,62 @@
+package com.hello.suripu.app.sensors;
+
+import com.google.common.base.Optional;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class PressureHistoryTest {
+
+    private static final long MINUTE = 60000L;
+    private static final long START = 1475280000000L;
+
+    @Test
+    public void testFourHoursAgo() {
+        final PressureHistory history = PressureHistory.create(10);
+        // one reading per minute for 5 hours
+        for(int i = 0; i < 300; i++) {
+            history.record("sense", START + i * MINUTE, 1000f + i);
+        }
+
+        final long fourHoursAgo = START + 299 * MINUTE - 240 * MINUTE;
+        assertThat(history.mostRecent("sense", fourHoursAgo, fourHoursAgo + 5 * MINUTE), equalTo(Optional.of(1063f)));
+        // older than the history
+        assertThat(history.mostRecent("sense", START, START + 5 * MINUTE), equalTo(Optional.<Float>absent()));
+        assertThat(history.mostRecent("other", fourHoursAgo, fourHoursAgo + 5 * MINUTE), equalTo(Optional.<Float>absent()));
+    }
+
+    @Test
+    public void testOutOfOrder() {
+        final PressureHistory.Ring ring = new PressureHistory.Ring();
+        ring.add(START + 100 * MINUTE, 1f);
+        ring.add(START + 10 * MINUTE, 2f);
+        ring.add(START + 50 * MINUTE, 3f);
+        // same slot as an existing reading, the latest one is kept
+        ring.add(START + 11 * MINUTE, 4f);
+        ring.add(START + 101 * MINUTE, 5f);
+
+        assertThat(ring.size(), equalTo(3));
+        assertThat(ring.mostRecent(START, START + 20 * MINUTE), equalTo(Optional.of(4f)));
+        assertThat(ring.mostRecent(START + 40 * MINUTE, START + 60 * MINUTE), equalTo(Optional.of(3f)));
+        assertThat(ring.mostRecent(START + 60 * MINUTE, START + 90 * MINUTE), equalTo(Optional.<Float>absent()));
+        assertThat(ring.mostRecent(START, START + 200 * MINUTE), equalTo(Optional.of(5f)));
+    }
+
+    @Test
+    public void testFullRingDropsOldest() {
+        final PressureHistory.Ring ring = new PressureHistory.Ring();
+        for(int i = 0; i < PressureHistory.CAPACITY; i++) {
+            ring.add(START + i * PressureHistory.SLOT_MILLIS, i);
+        }
+        // older than everything in a full ring
+        ring.add(START - PressureHistory.SLOT_MILLIS, -1f);
+        assertThat(ring.size(), equalTo(PressureHistory.CAPACITY));
+        assertThat(ring.mostRecent(START - PressureHistory.SLOT_MILLIS, START), equalTo(Optional.of(0f)));
+
+        ring.add(START + 1000 * PressureHistory.SLOT_MILLIS, 1000f);
+        assertThat(ring.size(), equalTo(PressureHistory.CAPACITY));
+        assertThat(ring.mostRecent(START, START), equalTo(Optional.<Float>absent()));
+        assertThat(ring.mostRecent(START, START + PressureHistory.SLOT_MILLIS), equalTo(Optional.of(1f)));
+    }
+}
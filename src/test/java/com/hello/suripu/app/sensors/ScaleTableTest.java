@@ -0,0 +1,81 @@
+package com.hello.suripu.app.sensors;
+
+import com.google.common.collect.Lists;
+import com.hello.suripu.app.sensors.scales.PressureScale;
+import com.hello.suripu.core.models.Sensor;
+import com.hello.suripu.core.roomstate.Condition;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class ScaleTableTest {
+
+    private final ScaleFactory scaleFactory = new ScaleFactory();
+
+    private static int linearIndexOf(final float value, final List<ScaleInterval> intervals) {
+        for(int i = 0; i < intervals.size(); i++) {
+            if(SensorViewFactory.inRange(value, intervals.get(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void assertSameAsLinearScan(final Scale scale) {
+        final List<ScaleInterval> intervals = scale.intervals();
+        for(float value = -100f; value <= 5000f; value += 0.01f) {
+            if(scale.indexOf(value) != linearIndexOf(value, intervals)) {
+                fail(String.format("value=%f scale=%s", value, scale));
+            }
+        }
+        for(final ScaleInterval interval : intervals) {
+            if(interval.min() != null) {
+                assertThat(scale.indexOf(interval.min()), equalTo(linearIndexOf(interval.min(), intervals)));
+            }
+            if(interval.max() != null) {
+                assertThat(scale.indexOf(interval.max()), equalTo(linearIndexOf(interval.max(), intervals)));
+            }
+        }
+    }
+
+    @Test
+    public void testMatchesLinearScan() {
+        for(final Sensor sensor : Sensor.values()) {
+            assertSameAsLinearScan(scaleFactory.forSensor(sensor));
+        }
+        assertSameAsLinearScan(new PressureScale(1000f).changeScale());
+    }
+
+    @Test
+    public void testGapsAndOutOfRange() {
+        final ScaleTable table = ScaleTable.create(Lists.newArrayList(
+                new ScaleInterval("high", "", 10f, null, Condition.ALERT),
+                new ScaleInterval("low", "", 0f, 4.99f, Condition.IDEAL)
+        ));
+        assertThat(table.indexOf(-1f), equalTo(-1));
+        assertThat(table.indexOf(0f), equalTo(1));
+        assertThat(table.indexOf(4.995f), equalTo(-1));
+        assertThat(table.indexOf(10f), equalTo(0));
+        assertThat(table.indexOf(Float.MAX_VALUE), equalTo(0));
+        assertThat(table.indexOf(Float.NaN), equalTo(-1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOverlappingIntervals() {
+        ScaleTable.create(Lists.newArrayList(
+                new ScaleInterval("a", "", 0f, 5f, Condition.IDEAL),
+                new ScaleInterval("b", "", 5f, null, Condition.ALERT)
+        ));
+    }
+
+    @Test
+    public void testScalesAreShared() {
+        assertSame(scaleFactory.forSensor(Sensor.TEMPERATURE), scaleFactory.forSensor(Sensor.TEMPERATURE));
+        assertSame(new PressureScale(900f).changeScale(), new PressureScale(1000f).changeScale());
+    }
+}
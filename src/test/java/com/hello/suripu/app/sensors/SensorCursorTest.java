@@ -0,0 +1,82 @@
+package com.hello.suripu.app.sensors;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+import com.hello.suripu.core.models.AllSensorSampleList;
+import com.hello.suripu.core.models.Sample;
+import com.hello.suripu.core.models.Sensor;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class SensorCursorTest {
+
+    private static final long START = 1475280000000L;
+    private static final long SLOT = 300000L;
+
+    private static List<Sample> samples(final int count) {
+        final List<Sample> samples = Lists.newArrayList();
+        for(int i = 0; i < count; i++) {
+            samples.add(new Sample(START + i * SLOT, i, 0));
+        }
+        return samples;
+    }
+
+    @Test
+    public void testStart() {
+        assertThat(SensorCursor.start(START, Optional.absent()), equalTo(START));
+        assertThat(SensorCursor.start(START, Optional.of(START - SLOT)), equalTo(START));
+        assertThat(SensorCursor.start(START, Optional.of(START + SLOT)), equalTo(START + SLOT));
+    }
+
+    @Test
+    public void testIsValid() {
+        final long end = START + 9 * SLOT;
+        assertThat(SensorCursor.isValid(Optional.absent(), end), equalTo(true));
+        assertThat(SensorCursor.isValid(Optional.of(START), end), equalTo(true));
+        assertThat(SensorCursor.isValid(Optional.of(end), end), equalTo(true));
+        assertThat(SensorCursor.isValid(Optional.of(end + 1), end), equalTo(false));
+        assertThat(SensorCursor.isValid(Optional.of(-1L), end), equalTo(false));
+    }
+
+    @Test
+    public void testOnlyNewerSlots() {
+        final List<Sample> samples = SensorCursor.after(samples(10), Optional.of(START + 6 * SLOT));
+        assertThat(samples.size(), equalTo(3));
+        assertThat(samples.get(0).dateTime, equalTo(START + 7 * SLOT));
+        assertThat(SensorCursor.after(samples(10), Optional.absent()).size(), equalTo(10));
+    }
+
+    @Test
+    public void testCursorSkipsPartialSlot() {
+        // last slot started 2 minutes before the end of the query, it is returned again next time
+        final long end = START + 9 * SLOT + 120000L;
+        assertThat(SensorCursor.cursor(samples(10), 5, end, Optional.absent()), equalTo(Optional.of(START + 8 * SLOT)));
+        assertThat(SensorCursor.cursor(samples(10), 5, START + 10 * SLOT, Optional.absent()), equalTo(Optional.of(START + 9 * SLOT)));
+    }
+
+    @Test
+    public void testCursorUnchangedWithoutNewSlots() {
+        final Optional<Long> since = Optional.of(START + 9 * SLOT);
+        final List<Sample> none = SensorCursor.after(samples(10), since);
+        assertThat(none.isEmpty(), equalTo(true));
+        assertThat(SensorCursor.cursor(none, 5, START + 10 * SLOT, since), equalTo(since));
+        assertThat(SensorCursor.cursor(Lists.newArrayList(), 5, START, Optional.absent()), equalTo(Optional.<Long>absent()));
+    }
+
+    @Test
+    public void testAllSensors() {
+        final AllSensorSampleList allSensorSampleList = new AllSensorSampleList();
+        allSensorSampleList.add(Sensor.TEMPERATURE, samples(12));
+        allSensorSampleList.add(Sensor.HUMIDITY, samples(12));
+
+        final Optional<Long> since = Optional.of(START + 9 * SLOT);
+        final AllSensorSampleList after = SensorCursor.after(allSensorSampleList, since);
+        assertThat(after.get(Sensor.TEMPERATURE).size(), equalTo(2));
+        assertThat(after.get(Sensor.HUMIDITY).size(), equalTo(2));
+        assertThat(SensorCursor.cursor(after, 5, START + 12 * SLOT, since), equalTo(Optional.of(START + 11 * SLOT)));
+    }
+}
@@ -11,8 +11,11 @@ import org.joda.time.DateTime;
 import org.junit.Test;
 
 import java.util.List;
+import java.util.Random;
 
 import static net.java.quickcheck.QuickCheck.forAll;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
 
 public class SensorDataTest {
     private final ObjectMapper mapper = new ObjectMapper();
@@ -64,4 +67,34 @@ public class SensorDataTest {
             }
         });
     }
+
+    @Test
+    public void testRoundMatchesDecimalRounding() {
+        final Random random = new Random(42L);
+        final float[] edges = new float[]{0f, -0f, 0.05f, -0.05f, 0.15f, 0.35f, 1.45f, -2.25f, 99.95f, 1048575.9f, 2e7f,
+                Float.NaN, Float.POSITIVE_INFINITY, Float.MIN_VALUE, Float.MAX_VALUE};
+        for(final float value : edges) {
+            assertThat(String.valueOf(value), SensorData.round(value), equalTo(SensorData.roundExact(value)));
+        }
+        for(int i = 0; i < 100000; i++) {
+            final float value = (random.nextInt(2000000) - 1000000) / 100f;
+            final float bits = Float.intBitsToFloat(random.nextInt());
+            assertThat(String.valueOf(value), SensorData.round(value), equalTo(SensorData.roundExact(value)));
+            assertThat(String.valueOf(bits), SensorData.round(bits), equalTo(SensorData.roundExact(bits)));
+        }
+    }
+
+    @Test
+    public void testParseInto() {
+        final List<Sample> samples = Lists.newArrayList(
+                new Sample(DateTime.now().getMillis(), 10.04f, 0),
+                null,
+                new Sample(DateTime.now().getMillis(), 10.05f, 0)
+        );
+        final float[] values = new float[samples.size()];
+        SensorData.parseInto(samples, values);
+        assertThat(values[0], equalTo(10.0f));
+        assertThat(values[1], equalTo(-1f));
+        assertThat(values[2], equalTo(10.1f));
+    }
 }
@@ -0,0 +1,60 @@
+package com.hello.suripu.app.sensors;
+
+import com.google.common.base.Optional;
+import com.hello.suripu.core.firmware.HardwareVersion;
+import com.hello.suripu.core.models.Device;
+import com.hello.suripu.core.models.DeviceData;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+
+import javax.ws.rs.core.EntityTag;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class SensorEntityTagsTest {
+
+    private static final DateTime NOW = new DateTime(2016, 10, 1, 12, 0, DateTimeZone.UTC);
+
+    private static LatestReading readingAt(final DateTime dateTimeUTC, final DateTime loadedAt) {
+        return readingAt(dateTimeUTC, loadedAt, Optional.absent());
+    }
+
+    private static LatestReading readingAt(final DateTime dateTimeUTC, final DateTime loadedAt, final Optional<Device.Color> color) {
+        final DeviceData deviceData = new DeviceData.Builder()
+                .withExternalDeviceId("sense")
+                .withAccountId(999L)
+                .withDateTimeUTC(dateTimeUTC)
+                .withOffsetMillis(0)
+                .withExtraSensorData(null)
+                .build();
+        return LatestReading.create(Optional.of(deviceData), Optional.absent(), color, loadedAt, 15, 60);
+    }
+
+    @Test
+    public void testSameDataSameTag() {
+        // reloading the same data later gives the same tag
+        final EntityTag first = SensorEntityTags.from("sense", readingAt(NOW.minusMinutes(1), NOW), NOW, "c", true);
+        final EntityTag second = SensorEntityTags.from("sense", readingAt(NOW.minusMinutes(1), NOW.plusSeconds(50)), NOW.plusSeconds(50), "c", true);
+
+        assertTrue(first.isWeak());
+        assertThat(first, equalTo(second));
+    }
+
+    @Test
+    public void testTagChanges() {
+        final EntityTag tag = SensorEntityTags.from("sense", readingAt(NOW.minusMinutes(1), NOW), NOW, "c", true);
+
+        assertThat(SensorEntityTags.from("sense", readingAt(NOW, NOW), NOW, "c", true), not(equalTo(tag)));
+        assertThat(SensorEntityTags.from("other", readingAt(NOW.minusMinutes(1), NOW), NOW, "c", true), not(equalTo(tag)));
+        assertThat(SensorEntityTags.from("sense", readingAt(NOW.minusMinutes(1), NOW), NOW, "f", true), not(equalTo(tag)));
+        assertThat(SensorEntityTags.from("sense", readingAt(NOW.minusMinutes(1), NOW), NOW, "c", false), not(equalTo(tag)));
+        assertThat(SensorEntityTags.from("sense", readingAt(NOW.minusMinutes(1), NOW, Optional.of(Device.Color.WHITE)), NOW, "c", true), not(equalTo(tag)));
+        assertThat(SensorEntityTags.from("sense", readingAt(NOW.minusMinutes(1), NOW), NOW, "c", true, HardwareVersion.SENSE_ONE_FIVE), not(equalTo(tag)));
+        // same data once it is too old to display
+        assertThat(SensorEntityTags.from("sense", readingAt(NOW.minusMinutes(1), NOW), NOW.plusMinutes(14), "c", true), not(equalTo(tag)));
+    }
+}
@@ -1,9 +1,18 @@
 package com.hello.suripu.app.sensors;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Optional;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.hello.suripu.core.db.CalibrationDAO;
+import com.hello.suripu.core.db.DeviceDAO;
+import com.hello.suripu.core.db.DeviceDataDAODynamoDB;
+import com.hello.suripu.core.db.KeyStore;
+import com.hello.suripu.core.db.colors.SenseColorDAO;
+import com.hello.suripu.core.firmware.HardwareVersion;
 import com.hello.suripu.core.models.AllSensorSampleList;
 import com.hello.suripu.core.models.Device;
+import com.hello.suripu.core.models.DeviceAccountPair;
 import com.hello.suripu.core.models.DeviceData;
 import com.hello.suripu.core.models.Sample;
 import com.hello.suripu.core.models.Sensor;
@@ -14,9 +23,21 @@ import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.core.IsEqual.equalTo;
 import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class SensorViewLogicTest {
 
@@ -64,8 +85,8 @@ public class SensorViewLogicTest {
 //        allSensorSampleList.add(Sensor.CO2, Lists.newArrayList(new Sample(0,1f,0)));
         final List<Sensor> sensors = Lists.newArrayList(Sensor.CO2);
         final BatchQueryResponse response = SensorViewLogic.convert(allSensorSampleList, query, sensors);
-        assertTrue("should be empty", response.sensors().isEmpty());
-        assertThat("same size", response.sensors().size(), equalTo(response.timestamps().size()));
+        assertTrue("should be empty", response.sensorData().isEmpty());
+        assertThat("same size", response.sensorData().size(), equalTo(response.timestamps().size()));
     }
 
     @Test
@@ -78,7 +99,107 @@ public class SensorViewLogicTest {
         allSensorSampleList.add(Sensor.CO2, Lists.newArrayList(new Sample(0,1f,0)));
         final List<Sensor> sensors = Lists.newArrayList(Sensor.CO2);
         final BatchQueryResponse response = SensorViewLogic.convert(allSensorSampleList, query, sensors);
-        assertFalse("should not be empty", response.sensors().isEmpty());
-        assertThat("same size", response.sensors().size(), equalTo(response.timestamps().size()));
+        assertFalse("should not be empty", response.sensorData().isEmpty());
+        assertThat("same size", response.sensorData().size(), equalTo(response.timestamps().size()));
+    }
+
+    @Test
+    public void testSerializeBatchResponse() throws Exception {
+        final AllSensorSampleList allSensorSampleList = new AllSensorSampleList();
+        final BatchQuery query = BatchQuery.create(
+                QueryScope.LAST_3H_5_MINUTE,
+                Lists.newArrayList(Sensor.CO2, Sensor.TEMPERATURE)
+        );
+        allSensorSampleList.add(Sensor.CO2, Lists.newArrayList(new Sample(0,1.04f,0), new Sample(300000L,2.05f,3600000)));
+        allSensorSampleList.add(Sensor.TEMPERATURE, Lists.newArrayList(new Sample(0,20.5f,0), new Sample(300000L,-1f,3600000)));
+        final List<Sensor> sensors = Lists.newArrayList(Sensor.CO2, Sensor.TEMPERATURE);
+        final BatchQueryResponse response = SensorViewLogic.convert(allSensorSampleList, query, sensors);
+
+        final ObjectMapper mapper = new ObjectMapper();
+        final Map<String, Object> expected = Maps.newHashMap();
+        expected.put("timestamps", response.timestamps());
+        final Map<String, float[]> expectedSensors = Maps.newHashMap();
+        for(final Map.Entry<Sensor, SensorData> entry : response.sensorData().entrySet()) {
+            expectedSensors.put(entry.getKey().name(), entry.getValue().values());
+        }
+        expected.put("sensors", expectedSensors);
+
+        assertThat(mapper.readTree(mapper.writeValueAsString(response)), equalTo(mapper.readTree(mapper.writeValueAsString(expected))));
+    }
+
+    @Test(expected = SensorLookupException.class)
+    public void testLatestReadingTimeoutIsAnError() {
+        final LatestReadingCache latestReadingCache = mock(LatestReadingCache.class);
+        when(latestReadingCache.get(anyLong(), anyString(), any(DateTime.class))).thenAnswer(invocation -> {
+            Thread.sleep(1000L);
+            return null;
+        });
+        final KeyStore keyStore = mock(KeyStore.class);
+        when(keyStore.getKeyStoreRecord(anyString())).thenReturn(Optional.absent());
+
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Map<HardwareVersion, List<Sensor>> availableSensors = Maps.newHashMap();
+            availableSensors.put(HardwareVersion.SENSE_ONE, Lists.newArrayList(Sensor.TEMPERATURE));
+            final SensorViewLogic viewLogic = SensorViewLogic.async(mock(DeviceDataDAODynamoDB.class), keyStore, mock(DeviceDAO.class),
+                    mock(SenseColorDAO.class), mock(CalibrationDAO.class), SensorViewFactory.build(new ScaleFactory()),
+                    latestReadingCache, availableSensors, executor, 50L, Optional.absent(),
+                    PressureHistory.create(PressureHistory.DEFAULT_MAX_SENSES));
+
+            viewLogic.list(999L, new DeviceAccountPair(999L, 1L, "sense", DateTime.now(DateTimeZone.UTC)), DateTime.now(DateTimeZone.UTC));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testNoOldReadingLookupWithoutPressureSensor() throws Exception {
+        final LatestReadingCache latestReadingCache = mock(LatestReadingCache.class);
+        when(latestReadingCache.get(anyLong(), anyString(), any(DateTime.class))).thenReturn(LatestReading.empty(DateTime.now(DateTimeZone.UTC)));
+        final KeyStore keyStore = mock(KeyStore.class);
+        when(keyStore.getKeyStoreRecord(anyString())).thenReturn(Optional.absent());
+        final CalibrationDAO calibrationDAO = mock(CalibrationDAO.class);
+        when(calibrationDAO.get(anyString())).thenReturn(Optional.absent());
+        final DeviceDataDAODynamoDB deviceDataDAODynamoDB = mock(DeviceDataDAODynamoDB.class);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        final Map<HardwareVersion, List<Sensor>> availableSensors = Maps.newHashMap();
+        availableSensors.put(HardwareVersion.SENSE_ONE, Lists.newArrayList(Sensor.TEMPERATURE));
+        final SensorViewLogic viewLogic = SensorViewLogic.async(deviceDataDAODynamoDB, keyStore, mock(DeviceDAO.class),
+                mock(SenseColorDAO.class), calibrationDAO, SensorViewFactory.build(new ScaleFactory()),
+                latestReadingCache, availableSensors, executor, 500L, Optional.absent(),
+                PressureHistory.create(PressureHistory.DEFAULT_MAX_SENSES));
+
+        viewLogic.list(999L, new DeviceAccountPair(999L, 1L, "sense", DateTime.now(DateTimeZone.UTC)), DateTime.now(DateTimeZone.UTC));
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.SECONDS);
+
+        verify(deviceDataDAODynamoDB, never()).getMostRecent(anyLong(), anyString(), any(DateTime.class), any(DateTime.class));
+    }
+
+    @Test
+    public void testTagIsComputedFromListLookups() {
+        final DateTime now = DateTime.now(DateTimeZone.UTC);
+        final LatestReading latestReading = LatestReading.empty(now);
+        final LatestReadingCache latestReadingCache = mock(LatestReadingCache.class);
+        when(latestReadingCache.get(anyLong(), anyString(), any(DateTime.class))).thenReturn(latestReading);
+        final KeyStore keyStore = mock(KeyStore.class);
+        when(keyStore.getKeyStoreRecord(anyString())).thenReturn(Optional.absent());
+        final CalibrationDAO calibrationDAO = mock(CalibrationDAO.class);
+
+        final Map<HardwareVersion, List<Sensor>> availableSensors = Maps.newHashMap();
+        availableSensors.put(HardwareVersion.SENSE_ONE, Lists.newArrayList(Sensor.TEMPERATURE));
+        final SensorViewLogic viewLogic = new SensorViewLogic(mock(DeviceDataDAODynamoDB.class), keyStore, mock(DeviceDAO.class),
+                mock(SenseColorDAO.class), calibrationDAO, SensorViewFactory.build(new ScaleFactory()),
+                latestReadingCache, availableSensors);
+
+        final DeviceAccountPair pair = new DeviceAccountPair(999L, 1L, "sense", now);
+        final SensorViewLogic.TaggedSensorResponse tagged = viewLogic.listIfModified(999L, pair, now, entityTag -> false);
+
+        assertFalse(tagged.response.isPresent());
+        assertThat(tagged.entityTag, equalTo(SensorEntityTags.from("sense", latestReading, now, pair.created.getMillis(), HardwareVersion.SENSE_ONE)));
+        verify(keyStore, times(1)).getKeyStoreRecord("sense");
+        verify(latestReadingCache, times(1)).get(999L, "sense", now);
+        verify(calibrationDAO, never()).get(anyString());
     }
 }
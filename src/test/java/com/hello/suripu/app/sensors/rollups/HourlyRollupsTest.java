@@ -0,0 +1,179 @@
+package com.hello.suripu.app.sensors.rollups;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+import com.hello.suripu.core.db.DeviceDataDAODynamoDB;
+import com.hello.suripu.core.models.AllSensorSampleList;
+import com.hello.suripu.core.models.Calibration;
+import com.hello.suripu.core.models.Device;
+import com.hello.suripu.core.models.Sample;
+import com.hello.suripu.core.models.Sensor;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.TreeMap;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class HourlyRollupsTest {
+
+    private static final long HOUR = 3600000L;
+    // 2016-10-01T00:00:00Z, long closed
+    private static final long START = 1475280000000L;
+    private static final int MISSING = -1;
+    private static final int OFFSET = -25200000;
+
+    private DeviceDataDAODynamoDB deviceDataDAODynamoDB;
+    private InMemorySensorRollupDAO sensorRollupDAO;
+    private HourlyRollups hourlyRollups;
+
+    private static AllSensorSampleList hourly(final long start, final long end) {
+        final List<Sample> temperature = Lists.newArrayList();
+        final List<Sample> humidity = Lists.newArrayList();
+        for(long hour = start; hour < end; hour += HOUR) {
+            final int index = (int) ((hour - START) / HOUR);
+            temperature.add(new Sample(hour, 20f + index, OFFSET));
+            humidity.add(new Sample(hour, 40f + index, OFFSET));
+        }
+        final AllSensorSampleList sampleList = new AllSensorSampleList();
+        sampleList.add(Sensor.TEMPERATURE, temperature);
+        sampleList.add(Sensor.HUMIDITY, humidity);
+        return sampleList;
+    }
+
+    private void stub(final long start, final long end) {
+        when(deviceDataDAODynamoDB.generateTimeSeriesByUTCTimeAllSensors(eq(start), eq(end), anyLong(), anyString(), anyInt(), anyInt(),
+                org.mockito.Matchers.<Optional<Device.Color>>any(), org.mockito.Matchers.<Optional<Calibration>>any(), anyBoolean()))
+                .thenReturn(hourly(start, end));
+    }
+
+    private void verifyQueried(final long start, final long end, final int count) {
+        verify(deviceDataDAODynamoDB, times(count)).generateTimeSeriesByUTCTimeAllSensors(eq(start), eq(end), anyLong(), anyString(), anyInt(), anyInt(),
+                org.mockito.Matchers.<Optional<Device.Color>>any(), org.mockito.Matchers.<Optional<Calibration>>any(), anyBoolean());
+    }
+
+    private AllSensorSampleList query(final long start, final long end) {
+        return hourlyRollups.generateTimeSeriesByUTCTimeAllSensors(start, end, 1L, "sense", MISSING,
+                Optional.<Device.Color>absent(), Optional.<Calibration>absent(), false);
+    }
+
+    @Before
+    public void setUp() {
+        deviceDataDAODynamoDB = mock(DeviceDataDAODynamoDB.class);
+        sensorRollupDAO = InMemorySensorRollupDAO.create(10);
+        hourlyRollups = HourlyRollups.create(deviceDataDAODynamoDB, sensorRollupDAO, 10);
+    }
+
+    @Test
+    public void testFillsOnceThenReadsRollups() {
+        final long end = START + 6 * HOUR;
+        stub(START, end);
+
+        final AllSensorSampleList first = query(START, end);
+        final AllSensorSampleList second = query(START, end);
+
+        verifyQueried(START, end, 1);
+        assertThat(sensorRollupDAO.size(HourlyRollups.key(1L, "sense", MISSING, Optional.<Device.Color>absent(), Optional.<Calibration>absent(), false)), equalTo(6));
+        for(final AllSensorSampleList sampleList : Lists.newArrayList(first, second)) {
+            final List<Sample> temperature = sampleList.get(Sensor.TEMPERATURE);
+            assertThat(temperature.size(), equalTo(6));
+            for(int i = 0; i < 6; i++) {
+                assertThat(temperature.get(i).dateTime, equalTo(START + i * HOUR));
+                assertThat(temperature.get(i).value, equalTo(20f + i));
+                assertThat(temperature.get(i).offsetMillis, equalTo(OFFSET));
+            }
+            assertThat(sampleList.get(Sensor.HUMIDITY).get(5).value, equalTo(45f));
+        }
+    }
+
+    @Test
+    public void testOnlyNewHoursAreGenerated() {
+        stub(START, START + 6 * HOUR);
+        stub(START + 6 * HOUR, START + 8 * HOUR);
+
+        query(START, START + 6 * HOUR);
+        final AllSensorSampleList extended = query(START, START + 8 * HOUR);
+
+        verifyQueried(START, START + 6 * HOUR, 1);
+        verifyQueried(START + 6 * HOUR, START + 8 * HOUR, 1);
+        verifyQueried(START, START + 8 * HOUR, 0);
+        assertThat(extended.get(Sensor.TEMPERATURE).size(), equalTo(8));
+        assertThat(extended.get(Sensor.TEMPERATURE).get(7).value, equalTo(27f));
+    }
+
+    @Test
+    public void testEmptyHoursAreStored() {
+        when(deviceDataDAODynamoDB.generateTimeSeriesByUTCTimeAllSensors(anyLong(), anyLong(), anyLong(), anyString(), anyInt(), anyInt(),
+                org.mockito.Matchers.<Optional<Device.Color>>any(), org.mockito.Matchers.<Optional<Calibration>>any(), anyBoolean()))
+                .thenReturn(new AllSensorSampleList());
+
+        assertThat(query(START, START + 3 * HOUR).isEmpty(), equalTo(true));
+        assertThat(query(START, START + 3 * HOUR).isEmpty(), equalTo(true));
+        verifyQueried(START, START + 3 * HOUR, 1);
+    }
+
+    @Test
+    public void testMergeFillsGapsAndAppendsPartialHour() {
+        // data for the first hour only, the second one is stored empty
+        final TreeMap<Long, HourlyRollup> rollups = toMap(HourlyRollups.toRollups(hourly(START, START + HOUR), START, START + 2 * HOUR));
+        assertThat(rollups.size(), equalTo(2));
+        assertThat(rollups.get(START + HOUR).isEmpty(), equalTo(true));
+        final AllSensorSampleList partial = hourly(START + 2 * HOUR, START + 3 * HOUR);
+
+        final AllSensorSampleList merged = HourlyRollups.merge(rollups, START, START + 2 * HOUR, partial, MISSING);
+        final List<Sample> temperature = merged.get(Sensor.TEMPERATURE);
+
+        assertThat(temperature.size(), equalTo(3));
+        assertThat(temperature.get(0).value, equalTo(20f));
+        assertThat(temperature.get(1).value, equalTo((float) MISSING));
+        assertThat(temperature.get(1).dateTime, equalTo(START + HOUR));
+        assertThat(temperature.get(2).value, equalTo(22f));
+        assertThat(temperature.get(2).dateTime, equalTo(START + 2 * HOUR));
+    }
+
+    @Test
+    public void testMergeAlignsPartialSamplesOfEverySensor() {
+        final long closedEnd = START + HOUR;
+        final TreeMap<Long, HourlyRollup> rollups = toMap(HourlyRollups.toRollups(hourly(START, closedEnd), START, closedEnd));
+        final AllSensorSampleList partial = new AllSensorSampleList();
+        partial.add(Sensor.TEMPERATURE, Lists.newArrayList(new Sample(closedEnd + 10 * 60000L, 30f, OFFSET)));
+        partial.add(Sensor.HUMIDITY, Lists.newArrayList(
+                new Sample(closedEnd, 50f, OFFSET), new Sample(closedEnd + 10 * 60000L, 51f, OFFSET)));
+
+        final AllSensorSampleList merged = HourlyRollups.merge(rollups, START, closedEnd, partial, MISSING);
+        final List<Sample> temperature = merged.get(Sensor.TEMPERATURE);
+
+        assertThat(temperature.size(), equalTo(3));
+        assertThat(temperature.get(1).dateTime, equalTo(closedEnd));
+        assertThat(temperature.get(1).value, equalTo((float) MISSING));
+        assertThat(temperature.get(2).dateTime, equalTo(closedEnd + 10 * 60000L));
+        assertThat(temperature.get(2).value, equalTo(30f));
+        assertThat(merged.get(Sensor.HUMIDITY).size(), equalTo(3));
+    }
+
+    @Test
+    public void testFloorHour() {
+        assertThat(HourlyRollups.floorHour(START + 59 * 60000L), equalTo(START));
+        assertThat(HourlyRollups.floorHour(START), equalTo(START));
+        assertThat(HourlyRollups.floorHour(-1L), equalTo(-HOUR));
+    }
+
+    private static TreeMap<Long, HourlyRollup> toMap(final List<HourlyRollup> rollups) {
+        final TreeMap<Long, HourlyRollup> map = new TreeMap<>();
+        for(final HourlyRollup rollup : rollups) {
+            map.put(rollup.hourUTC, rollup);
+        }
+        return map;
+    }
+}
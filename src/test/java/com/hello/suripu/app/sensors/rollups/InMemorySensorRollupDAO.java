@@ -0,0 +1,70 @@
+package com.hello.suripu.app.sensors.rollups;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSortedMap;
+
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local rollup storage for tests.
+ * Only the most recently used keys are kept, and nothing older than maxAgeHours.
+ */
+public class InMemorySensorRollupDAO implements SensorRollupDAO {
+
+    private static final Integer DEFAULT_MAX_AGE_HOURS = 24 * 8;
+
+    private final Cache<String, NavigableMap<Long, HourlyRollup>> rollups;
+    private final long maxAgeMillis;
+
+    private InMemorySensorRollupDAO(final Cache<String, NavigableMap<Long, HourlyRollup>> rollups, final long maxAgeMillis) {
+        this.rollups = rollups;
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    public static InMemorySensorRollupDAO create(final Integer maxKeys) {
+        final Cache<String, NavigableMap<Long, HourlyRollup>> rollups = CacheBuilder.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(DEFAULT_MAX_AGE_HOURS, TimeUnit.HOURS)
+                .build();
+        return new InMemorySensorRollupDAO(rollups, TimeUnit.HOURS.toMillis(DEFAULT_MAX_AGE_HOURS));
+    }
+
+    @Override
+    public SortedMap<Long, HourlyRollup> get(final String key, final long startHourUTC, final long endHourUTC) {
+        final NavigableMap<Long, HourlyRollup> hours = rollups.getIfPresent(key);
+        if(hours == null) {
+            return ImmutableSortedMap.of();
+        }
+        return ImmutableSortedMap.copyOfSorted(hours.subMap(startHourUTC, true, endHourUTC, false));
+    }
+
+    @Override
+    public void put(final String key, final List<HourlyRollup> toStore) {
+        if(toStore.isEmpty()) {
+            return;
+        }
+        final NavigableMap<Long, HourlyRollup> hours;
+        try {
+            hours = rollups.get(key, ConcurrentSkipListMap::new);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+        long latest = Long.MIN_VALUE;
+        for(final HourlyRollup rollup : toStore) {
+            hours.put(rollup.hourUTC, rollup);
+            latest = Math.max(latest, rollup.hourUTC);
+        }
+        hours.headMap(latest - maxAgeMillis).clear();
+    }
+
+    int size(final String key) {
+        final NavigableMap<Long, HourlyRollup> hours = rollups.getIfPresent(key);
+        return (hours == null) ? 0 : hours.size();
+    }
+}
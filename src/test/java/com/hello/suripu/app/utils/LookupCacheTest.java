@@ -0,0 +1,106 @@
+package com.hello.suripu.app.utils;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Ticker;
+import com.google.common.collect.Maps;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class LookupCacheTest {
+
+    private static class FakeTicker extends Ticker {
+        private long nanos = 0L;
+
+        @Override
+        public long read() {
+            return nanos;
+        }
+
+        void advance(final long duration, final TimeUnit unit) {
+            nanos += unit.toNanos(duration);
+        }
+    }
+
+    private final Map<String, Long> primaryAccounts = Maps.newHashMap();
+    private final Map<String, Integer> loads = Maps.newHashMap();
+    private FakeTicker ticker;
+    private LookupCache<String, Long> cache;
+
+    private Optional<Long> load(final String senseId) {
+        loads.put(senseId, loads.containsKey(senseId) ? loads.get(senseId) + 1 : 1);
+        return Optional.fromNullable(primaryAccounts.get(senseId));
+    }
+
+    @Before
+    public void setUp() {
+        primaryAccounts.clear();
+        loads.clear();
+        ticker = new FakeTicker();
+        cache = LookupCache.create("test", this::load, 600, 30, 100, ticker);
+    }
+
+    @Test
+    public void testPresentValueIsCachedForTtl() {
+        primaryAccounts.put("sense", 1L);
+
+        assertThat(cache.get("sense"), equalTo(Optional.of(1L)));
+        primaryAccounts.put("sense", 2L);
+        ticker.advance(5, TimeUnit.MINUTES);
+        assertThat(cache.get("sense"), equalTo(Optional.of(1L)));
+        assertThat(loads.get("sense"), equalTo(1));
+
+        ticker.advance(6, TimeUnit.MINUTES);
+        assertThat(cache.get("sense"), equalTo(Optional.of(2L)));
+        assertThat(loads.get("sense"), equalTo(2));
+    }
+
+    @Test
+    public void testAbsentValueIsCachedForNegativeTtl() {
+        assertThat(cache.get("sense"), equalTo(Optional.<Long>absent()));
+        primaryAccounts.put("sense", 1L);
+        ticker.advance(20, TimeUnit.SECONDS);
+        assertThat(cache.get("sense"), equalTo(Optional.<Long>absent()));
+        assertThat(loads.get("sense"), equalTo(1));
+
+        ticker.advance(10, TimeUnit.SECONDS);
+        assertThat(cache.get("sense"), equalTo(Optional.of(1L)));
+        assertThat(loads.get("sense"), equalTo(2));
+
+        // present now, kept for the full TTL
+        ticker.advance(5, TimeUnit.MINUTES);
+        assertThat(cache.get("sense"), equalTo(Optional.of(1L)));
+        assertThat(loads.get("sense"), equalTo(2));
+    }
+
+    @Test
+    public void testInvalidate() {
+        primaryAccounts.put("sense", 1L);
+        cache.get("sense");
+        primaryAccounts.remove("sense");
+
+        cache.invalidate("sense");
+        assertThat(cache.get("sense"), equalTo(Optional.<Long>absent()));
+        assertThat(loads.get("sense"), equalTo(2));
+    }
+
+    @Test
+    public void testHitRate() {
+        primaryAccounts.put("sense", 1L);
+        for(int i = 0; i < 4; i++) {
+            cache.get("sense");
+        }
+        assertThat(cache.hitRate(), equalTo(0.75));
+
+        // an expired absent value counts as a single miss
+        cache.get("other");
+        ticker.advance(30, TimeUnit.SECONDS);
+        cache.get("other");
+        assertThat(cache.hitRate(), equalTo(0.5));
+    }
+}
@@ -0,0 +1,194 @@
+package is.hello.supichi.executors;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Sets;
+import com.hello.suripu.app.sensors.SensorViewLogic;
+import com.hello.suripu.core.db.AccountDAO;
+import com.hello.suripu.core.db.AccountLocationDAO;
+import com.hello.suripu.core.db.AlarmDAODynamoDB;
+import com.hello.suripu.core.db.MergedUserInfoDynamoDB;
+import com.hello.suripu.core.db.SleepStatsDAODynamoDB;
+import com.hello.suripu.core.db.TimeZoneHistoryDAODynamoDB;
+import com.hello.suripu.core.db.sleep_sounds.SleepSoundSettingsDynamoDB;
+import com.hello.suripu.core.preferences.AccountPreferencesDynamoDB;
+import com.hello.suripu.core.processors.SleepSoundsProcessor;
+import com.hello.suripu.core.speech.interfaces.Vault;
+import com.hello.suripu.coredropwizard.clients.MessejiClient;
+import com.hello.suripu.coredropwizard.timeline.TimelineProcessor;
+import is.hello.gaibu.core.stores.PersistentExpansionDataStore;
+import is.hello.gaibu.core.stores.PersistentExpansionStore;
+import is.hello.gaibu.core.stores.PersistentExternalTokenStore;
+import is.hello.gaibu.weather.interfaces.WeatherReport;
+import is.hello.supichi.commandhandlers.BaseHandler;
+import is.hello.supichi.commandhandlers.HandlerFactory;
+import is.hello.supichi.commandhandlers.WeatherHandler;
+import is.hello.supichi.db.SpeechCommandDAO;
+import is.hello.supichi.models.HandlerType;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class CommandMatcherTest {
+
+    private static Multimap<HandlerType, String> commands() {
+        final Multimap<HandlerType, String> commands = LinkedHashMultimap.create();
+        commands.put(HandlerType.ALARM, "set alarm");
+        commands.put(HandlerType.ALARM, "((set).*(?:alarm))|(wake me)");
+        commands.put(HandlerType.SLEEP_SOUNDS, "play");
+        commands.put(HandlerType.SLEEP_SOUNDS, "stop");
+        commands.put(HandlerType.SLEEP_SOUNDS, "play.+(rain|ocean)");
+        commands.put(HandlerType.HUE, "(?i)^.*turn.*(?:light|lamp)?\\s(on|off)");
+        commands.put(HandlerType.TIME_REPORT, "what time");
+        commands.put(HandlerType.TIME_REPORT, "time is it");
+        commands.put(HandlerType.TRIVIA, "she");
+        commands.put(HandlerType.TRIVIA, "hers");
+        return commands;
+    }
+
+    private static List<HandlerType> naive(final Multimap<HandlerType, String> commands, final String text) {
+        final List<HandlerType> matches = Lists.newArrayList();
+        for (final Map.Entry<HandlerType, String> entry : commands.entries()) {
+            if (!matches.contains(entry.getKey()) && Pattern.compile(entry.getValue()).matcher(text).find()) {
+                matches.add(entry.getKey());
+            }
+        }
+        return matches;
+    }
+
+    @Test
+    public void testMatchesInRegistrationOrder() {
+        final CommandMatcher matcher = CommandMatcher.create(commands());
+        assertThat(matcher.matches("stop the alarm and play rain").handlerTypes, equalTo(Lists.newArrayList(HandlerType.SLEEP_SOUNDS)));
+        assertThat(matcher.matches("set my alarm and play music").handlerTypes, equalTo(Lists.newArrayList(HandlerType.ALARM, HandlerType.SLEEP_SOUNDS)));
+        assertThat(matcher.matches("turn the lights on").handlerTypes, equalTo(Lists.newArrayList(HandlerType.HUE)));
+        assertThat(matcher.matches("what time is it").handlerTypes, equalTo(Lists.newArrayList(HandlerType.TIME_REPORT)));
+        assertThat(matcher.matches("hello").handlerTypes, equalTo(Lists.<HandlerType>newArrayList()));
+        assertThat(matcher.matches("").handlerTypes, equalTo(Lists.<HandlerType>newArrayList()));
+    }
+
+    @Test
+    public void testOverlappingPhrases() {
+        final CommandMatcher matcher = CommandMatcher.create(commands());
+        // "hers" only matches through the fail link from "she"
+        assertThat(matcher.matches("ushers").handlerTypes, equalTo(Lists.newArrayList(HandlerType.TRIVIA)));
+        assertThat(matcher.matches("whatime").handlerTypes, equalTo(Lists.<HandlerType>newArrayList()));
+        assertThat(matcher.matches("so what time").handlerTypes, equalTo(Lists.newArrayList(HandlerType.TIME_REPORT)));
+    }
+
+    @Test
+    public void testMatchedPhrases() {
+        final CommandMatcher matcher = CommandMatcher.create(commands());
+        assertThat(matcher.matches("ushers").phrases, equalTo((Set<String>) Sets.newHashSet("she", "hers")));
+        assertThat(matcher.matches("set my alarm and play music").phrases, equalTo((Set<String>) Sets.newHashSet("play")));
+        assertThat(matcher.matches("turn the lights on").phrases.isEmpty(), equalTo(true));
+    }
+
+    @Test
+    public void testSameMatchesAsEachCommand() {
+        final Multimap<HandlerType, String> commands = commands();
+        final CommandMatcher matcher = CommandMatcher.create(commands);
+        final List<String> transcripts = Lists.newArrayList(
+                "wake me up at 7", "please set the alarm", "play the ocean sounds", "play", "stop", "turn off",
+                "turn the lamp off please", "what's the time", "what time is it", "she sells sea shells",
+                "the stopwatch", "playing rainfall", "set", "alarm set");
+        for (final String transcript : transcripts) {
+            assertThat(transcript, matcher.matches(transcript).handlerTypes, equalTo(naive(commands, transcript)));
+        }
+    }
+
+    /**
+     * Commands of the handlers registered by Supichi, in the same order, plus the alexa handler
+     */
+    private static Multimap<HandlerType, String> handlerCommands() {
+        final SpeechCommandDAO speechCommandDAO = mock(SpeechCommandDAO.class);
+        final HandlerFactory handlerFactory = HandlerFactory.create(
+                speechCommandDAO,
+                mock(MessejiClient.class),
+                mock(SleepSoundsProcessor.class),
+                mock(SleepSoundSettingsDynamoDB.class),
+                mock(TimeZoneHistoryDAODynamoDB.class),
+                "BLAH", // forecastio
+                mock(AccountLocationDAO.class),
+                mock(PersistentExternalTokenStore.class),
+                mock(PersistentExpansionStore.class),
+                mock(PersistentExpansionDataStore.class),
+                mock(Vault.class),
+                mock(AlarmDAODynamoDB.class),
+                mock(MergedUserInfoDynamoDB.class),
+                mock(SleepStatsDAODynamoDB.class),
+                mock(TimelineProcessor.class),
+                Optional.absent(), // geoip DatabaseReader, needed by handlerFactory.weatherHandler()
+                mock(SensorViewLogic.class),
+                mock(AccountPreferencesDynamoDB.class),
+                false,
+                mock(AccountDAO.class));
+
+        final Map<HandlerType, BaseHandler> handlers = Maps.newLinkedHashMap();
+        handlers.put(HandlerType.ALARM, handlerFactory.alarmHandler());
+        handlers.put(HandlerType.WEATHER, WeatherHandler.create(speechCommandDAO, mock(WeatherReport.class), mock(AccountLocationDAO.class)));
+        handlers.put(HandlerType.SLEEP_SOUNDS, handlerFactory.sleepSoundHandler());
+        handlers.put(HandlerType.ROOM_CONDITIONS, handlerFactory.roomConditionsHandler());
+        handlers.put(HandlerType.TIME_REPORT, handlerFactory.timeHandler());
+        handlers.put(HandlerType.TRIVIA, handlerFactory.triviaHandler());
+        handlers.put(HandlerType.TIMELINE, handlerFactory.timelineHandler());
+        handlers.put(HandlerType.HUE, handlerFactory.hueHandler("sense-dev"));
+        handlers.put(HandlerType.NEST, handlerFactory.nestHandler());
+        handlers.put(HandlerType.SLEEP_SUMMARY, handlerFactory.sleepSummaryHandler());
+        handlers.put(HandlerType.ALEXA, handlerFactory.alexaHandler());
+
+        final Multimap<HandlerType, String> commands = LinkedHashMultimap.create();
+        for (final Map.Entry<HandlerType, BaseHandler> entry : handlers.entrySet()) {
+            commands.putAll(entry.getKey(), entry.getValue().getRelevantCommands());
+        }
+        return commands;
+    }
+
+    @Test
+    public void testSameMatchesAsEachHandlerCommand() {
+        final Multimap<HandlerType, String> commands = handlerCommands();
+        final CommandMatcher matcher = CommandMatcher.create(commands);
+
+        // transcripts for the regex commands, as the executor sees them
+        final List<String> transcripts = Lists.newArrayList(
+                "please set my alarm for 7 am", "wake me at 6", "cancel my alarms", "turn off the alarm",
+                "what's my alarm", "when is the alarm",
+                "turn the lights on", "turn off the lamp",
+                "set the thermostat to seventy two degrees", "set the nest to 70", "turn the thermostat off",
+                "what's the room condition", "how's the bedroom conditions", "bedroom's condition",
+                "what's the temperature", "how is the temperature", "what's the humidity", "how's the humidity",
+                "what is the barometric pressure", "how is the co2", "what's the carbon dioxide",
+                "play some sleep sound", "start playing a soothing sound", "play the brown noise", "play aura please",
+                "how was my sleep", "how many hours did i sleep", "how's the sleep",
+                "what's the time", "what is the time", "what day is it", "what's the date today",
+                "ask Alexa what's on", "ask alexa to dance",
+                "", "hello", "what", "turn", "play", "sleep", "set the", "the weather today",
+                "stop the alarm and play rain", "set my alarm and play music");
+        // every phrase, alone and inside a sentence
+        for (final String command : commands.values()) {
+            if (BaseHandler.isPhrase(command)) {
+                transcripts.add(command);
+                transcripts.add("hey sense " + command.toLowerCase() + " now");
+            }
+        }
+
+        for (final String command : commands.values()) {
+            final Pattern pattern = Pattern.compile(command);
+            assertTrue("no transcript for " + command, transcripts.stream().anyMatch(text -> pattern.matcher(text).find()));
+        }
+        for (final String transcript : transcripts) {
+            assertThat(transcript, matcher.matches(transcript).handlerTypes, equalTo(naive(commands, transcript)));
+        }
+    }
+}
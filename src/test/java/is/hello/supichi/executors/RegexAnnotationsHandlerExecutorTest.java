@@ -3,6 +3,7 @@ package is.hello.supichi.executors;
 import com.google.common.base.Optional;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.hello.suripu.app.sensors.SensorResponse;
 import com.hello.suripu.app.sensors.SensorViewLogic;
 import com.hello.suripu.core.db.AccountDAO;
@@ -57,6 +58,7 @@ import org.mockito.Mockito;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TimeZone;
 
 import static is.hello.supichi.models.SpeechCommand.*;
@@ -165,8 +167,8 @@ public class RegexAnnotationsHandlerExecutorTest {
         when(sleepSoundSettingsDynamoDB.get(SENSE_ID, ACCOUNT_ID)).thenReturn(Optional.absent());
     }
 
-    private HandlerExecutor getExecutor() {
-        final HandlerFactory handlerFactory = HandlerFactory.create(
+    private HandlerFactory getHandlerFactory() {
+        return HandlerFactory.create(
                 speechCommandDAO,
                 messejiClient,
                 sleepSoundsProcessor,
@@ -188,7 +190,10 @@ public class RegexAnnotationsHandlerExecutorTest {
                 false,
                 accountDAO
         );
+    }
 
+    private HandlerExecutor getExecutor() {
+        final HandlerFactory handlerFactory = getHandlerFactory();
         return new RegexAnnotationsHandlerExecutor(timeZoneHistoryDAODynamoDB)
                 .register(HandlerType.ALARM, handlerFactory.alarmHandler())
                 .register(HandlerType.SLEEP_SOUNDS, handlerFactory.sleepSoundHandler())
@@ -364,6 +369,98 @@ public class RegexAnnotationsHandlerExecutorTest {
 
     }
 
+    private static class CommandTestData {
+        public final String text;
+        public final SpeechCommand command;
+
+        private CommandTestData(final String text, final SpeechCommand command) {
+            this.text = text;
+            this.command = command;
+        }
+    }
+
+    private static Set<String> containedPhrases(final BaseHandler handler, final String text) {
+        final Set<String> phrases = Sets.newHashSet();
+        for (final String command : handler.getRelevantCommands()) {
+            if (BaseHandler.isPhrase(command) && text.toLowerCase().contains(command)) {
+                phrases.add(command);
+            }
+        }
+        return phrases;
+    }
+
+    @Test
+    public void TestCommandResolution() {
+        // transcripts matching several commands of the same handler resolve to the first one in priority order
+        final HandlerFactory handlerFactory = getHandlerFactory();
+        final Map<BaseHandler, List<CommandTestData>> dataMap = Maps.newLinkedHashMap();
+        dataMap.put(handlerFactory.roomConditionsHandler(), Lists.newArrayList(
+                new CommandTestData("what's the temperature", ROOM_TEMPERATURE),
+                new CommandTestData("how is the humidity", ROOM_HUMIDITY),
+                new CommandTestData("what is the humidity and temperature", ROOM_TEMPERATURE),
+                new CommandTestData("how's the temperature condition", ROOM_CONDITION),
+                new CommandTestData("what is the light level and noise level", ROOM_LIGHT),
+                new CommandTestData("how noisy is it", ROOM_SOUND),
+                new CommandTestData("what's the air quality", PARTICULATES),
+                new CommandTestData("what's the pressure", PRESSURE),
+                new CommandTestData("what's the co2 level", CO2),
+                new CommandTestData("what's the road condition", ROOM_CONDITION)));
+        dataMap.put(handlerFactory.timeHandler(), Lists.newArrayList(
+                new CommandTestData("what time is it", TIME_REPORT),
+                new CommandTestData("what is the time", TIME_REPORT),
+                new CommandTestData("what is the time and date", DAY_REPORT),
+                new CommandTestData("what day and what is the time", DAY_REPORT)));
+        dataMap.put(handlerFactory.sleepSummaryHandler(), Lists.newArrayList(
+                new CommandTestData("what's my score", SLEEP_SCORE),
+                new CommandTestData("how was my sleep", SLEEP_SUMMARY),
+                new CommandTestData("sleep summary and sleep score", SLEEP_SUMMARY),
+                new CommandTestData("how was my sleep score", SLEEP_SUMMARY)));
+        dataMap.put(handlerFactory.hueHandler("sense-dev"), Lists.newArrayList(
+                new CommandTestData("make the light warmer", LIGHT_SET_COLOR),
+                new CommandTestData("make the light brighter", LIGHT_SET_BRIGHTNESS),
+                new CommandTestData("turn the light off and dim the light", LIGHT_TOGGLE),
+                new CommandTestData("turn on the light and make the light warmer", LIGHT_TOGGLE)));
+        dataMap.put(handlerFactory.sleepSoundHandler(), Lists.newArrayList(
+                new CommandTestData("play rainfall", SLEEP_SOUND_PLAY),
+                new CommandTestData("stop", SLEEP_SOUND_STOP),
+                new CommandTestData("play a sound and stop", SLEEP_SOUND_PLAY),
+                new CommandTestData("stop playing rainfall", SLEEP_SOUND_STOP),
+                new CommandTestData("stop sleep sounds and play rain", SLEEP_SOUND_STOP)));
+        dataMap.put(handlerFactory.triviaHandler(), Lists.newArrayList(
+                new CommandTestData("good night", TRIVIA),
+                new CommandTestData("who is your father", TRIVIA)));
+        dataMap.put(handlerFactory.alarmHandler(), Lists.newArrayList(
+                new CommandTestData("set an alarm for 7 am", ALARM_SET),
+                new CommandTestData("wake me up at 7", ALARM_SET),
+                new CommandTestData("cancel my alarm", ALARM_DELETE),
+                new CommandTestData("when is my alarm", ALARM_GET),
+                new CommandTestData("delete my alarm and set a new alarm", ALARM_SET),
+                new CommandTestData("what time is my alarm and remove the alarm", ALARM_DELETE),
+                new CommandTestData("unset alarm", ALARM_DELETE)));
+        dataMap.put(handlerFactory.nestHandler(), Lists.newArrayList(
+                new CommandTestData("set the thermostat to seventy two degrees", THERMOSTAT_SET),
+                new CommandTestData("set the nest to 68", THERMOSTAT_SET)));
+        dataMap.put(handlerFactory.alexaHandler(), Lists.newArrayList(
+                new CommandTestData("ask alexa", ALEXA),
+                new CommandTestData("Ask Alexa what's the weather", ALEXA)));
+        dataMap.put(handlerFactory.timelineHandler(), Lists.newArrayList(
+                new CommandTestData("show me my timeline", TIMELINE),
+                new CommandTestData("how does my timeline look", TIMELINE)));
+
+        final TimeZone timeZone = DateTimeZone.forID("America/Los_Angeles").toTimeZone();
+        for (final Map.Entry<BaseHandler, List<CommandTestData>> entry : dataMap.entrySet()) {
+            final BaseHandler handler = entry.getKey();
+            for (final CommandTestData data : entry.getValue()) {
+                final AnnotatedTranscript transcript = Annotator.get(data.text, Optional.of(timeZone));
+                assertEquals(data.text, Optional.of(data.command), handler.getCommand(transcript));
+
+                // same command from the phrases found by the executor
+                final AnnotatedTranscript matched = transcript.withMatchedPhrases(containedPhrases(handler, data.text));
+                assertEquals(data.text, Optional.of(data.command), handler.getCommand(matched));
+            }
+        }
+    }
+
     //Reproduce tests for UnigramHandlerExecutor to ensure regex executor doesn't break anything
     @Test
     public void TestHandleEmptyHandler() {
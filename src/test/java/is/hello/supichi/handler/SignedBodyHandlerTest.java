@@ -2,12 +2,17 @@ package is.hello.supichi.handler;
 
 import com.google.common.base.Optional;
 import com.hello.suripu.core.db.KeyStore;
+import is.hello.supichi.utils.HmacSignedMessage;
 import org.junit.Test;
 
 import java.io.IOException;
 import java.util.Arrays;
 
 import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertTrue;
+import static junit.framework.TestCase.fail;
+import static org.junit.Assert.assertArrayEquals;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -22,7 +27,7 @@ public class SignedBodyHandlerTest {
 
         final SignedBodyHandler signedBodyHandler = new SignedBodyHandler(keystore);
         try {
-            signedBodyHandler.extractSignature("sense", new byte[]{});
+            signedBodyHandler.verifySignature("sense", new byte[]{});
         } catch (InvalidSignedBodyException w) {
             assertEquals(w.getMessage(), "invalid-key");
             throw w;
@@ -36,7 +41,7 @@ public class SignedBodyHandlerTest {
         final SignedBodyHandler signedBodyHandler = new SignedBodyHandler(keystore);
 
         try {
-            signedBodyHandler.extractSignature("sense", new byte[]{});
+            signedBodyHandler.verifySignature("sense", new byte[]{});
         } catch (InvalidSignedBodyException w) {
             assertEquals(w.getMessage(), "invalid-body-length");
             throw w;
@@ -53,7 +58,7 @@ public class SignedBodyHandlerTest {
         try {
             final byte[] body = new byte[21];
             Arrays.fill(body, (byte) 1);
-            signedBodyHandler.extractSignature("sense", body);
+            signedBodyHandler.verifySignature("sense", body);
         } catch (InvalidSignatureException w) {
             assertEquals(w.getMessage(), "HMAC-mismatch");
             throw w;
@@ -86,4 +91,46 @@ public class SignedBodyHandlerTest {
         }
     }
 
+    @Test
+    public void testValidSignatureIsReadInPlace() throws InvalidSignatureException {
+        final byte[] key = "sense-key".getBytes();
+        when(keystore.getStrict(any(String.class))).thenReturn(Optional.of(key));
+
+        final SignedBodyHandler signedBodyHandler = new SignedBodyHandler(keystore);
+
+        // protobuf size 0
+        final byte[] body = new byte[]{0, 0, 0, 0, 1, 2, 3};
+        final byte[] sig = HmacSignedMessage.calculateRFC2104HMAC(body, key);
+        final byte[] signedBody = Arrays.copyOf(body, body.length + sig.length);
+        System.arraycopy(sig, 0, signedBody, body.length, sig.length);
+
+        try {
+            assertEquals(body.length, signedBodyHandler.verifySignature("sense", signedBody));
+            signedBodyHandler.extractUploadData("sense", signedBody);
+            fail();
+        } catch (InvalidSignedBodyException e) {
+            assertEquals(e.getMessage(), "invalid-pb-size");
+        }
+
+        signedBody[0] = 1;
+        try {
+            signedBodyHandler.verifySignature("sense", signedBody);
+            fail();
+        } catch (InvalidSignedBodyException e) {
+            fail();
+        } catch (InvalidSignatureException e) {
+            assertEquals(e.getMessage(), "HMAC-mismatch");
+        }
+    }
+
+    @Test
+    public void testHmacOfSlice() {
+        final byte[] key = "whatever".getBytes();
+        final byte[] data = "xxhelloyy".getBytes();
+        final byte[] sig = HmacSignedMessage.calculateRFC2104HMAC("hello".getBytes(), key);
+
+        assertArrayEquals(sig, HmacSignedMessage.calculateRFC2104HMAC(data, 2, 5, key));
+        assertTrue(HmacSignedMessage.match(data, 2, 5, key, sig));
+        assertFalse(HmacSignedMessage.match(data, 1, 5, key, sig));
+    }
 }
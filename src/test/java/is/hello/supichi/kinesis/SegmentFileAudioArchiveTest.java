@@ -0,0 +1,98 @@
+package is.hello.supichi.kinesis;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertThat;
+
+public class SegmentFileAudioArchiveTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static byte[] audio(final int length, final int seed) {
+        final byte[] audio = new byte[length];
+        for (int i = 0; i < length; i++) {
+            audio[i] = (byte) (seed + i);
+        }
+        return audio;
+    }
+
+    @Test
+    public void testAppendAndRead() throws IOException {
+        final SegmentFileAudioArchive archive = SegmentFileAudioArchive.create(folder.getRoot().getPath(), "host-1", 100, 10);
+
+        final AudioPointer first = archive.append("a", audio(40, 1));
+        final AudioPointer second = archive.append("b", audio(40, 2));
+        // does not fit in the first segment
+        final AudioPointer third = archive.append("c", audio(40, 3));
+
+        assertThat(first.segment, equalTo(second.segment));
+        assertThat(second.offset, equalTo(40L));
+        assertThat(third.offset, equalTo(0L));
+        assertThat(archive.segmentCount(), equalTo(2));
+
+        assertArrayEquals(audio(40, 2), archive.read(second));
+        assertArrayEquals(audio(40, 3), archive.read(third));
+
+        archive.close();
+        assertArrayEquals(audio(40, 1), archive.read(first));
+        assertArrayEquals(audio(40, 3), archive.read(third));
+    }
+
+    @Test
+    public void testOldSegmentsAreDeleted() throws IOException {
+        final SegmentFileAudioArchive archive = SegmentFileAudioArchive.create(folder.getRoot().getPath(), "host-1", 10, 2);
+        for (int i = 0; i < 5; i++) {
+            archive.append("uuid" + i, audio(10, i));
+        }
+        assertThat(archive.segmentCount(), equalTo(2));
+        assertThat(archive.segmentFiles().length, equalTo(2));
+        archive.close();
+    }
+
+    @Test
+    public void testSegmentsFromEarlierRunsAreDeleted() throws IOException {
+        final SegmentFileAudioArchive previous = SegmentFileAudioArchive.create(folder.getRoot().getPath(), "host-1", 10, 3);
+        for (int i = 0; i < 3; i++) {
+            previous.append("uuid" + i, audio(10, i));
+        }
+        previous.close();
+        final File unrelated = folder.newFile("notes.txt");
+
+        final SegmentFileAudioArchive archive = SegmentFileAudioArchive.create(folder.getRoot().getPath(), "host-1", 10, 2);
+        assertThat(archive.segmentFiles().length, equalTo(2));
+
+        archive.append("uuid", audio(10, 0));
+        assertThat(archive.segmentCount(), equalTo(2));
+        assertThat(archive.segmentFiles().length, equalTo(2));
+        assertThat(unrelated.exists(), equalTo(true));
+        archive.close();
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadFromOtherInstance() throws IOException {
+        final SegmentFileAudioArchive archive = SegmentFileAudioArchive.create(folder.getRoot().getPath(), "host-1", 100, 2);
+        final AudioPointer pointer = archive.append("a", audio(10, 0));
+        archive.read(new AudioPointer("host-2", pointer.segment, pointer.offset, pointer.length));
+    }
+
+    @Test(expected = IOException.class)
+    public void testAudioLargerThanSegment() throws IOException {
+        SegmentFileAudioArchive.create(folder.getRoot().getPath(), "host-1", 10, 2).append("uuid", audio(11, 0));
+    }
+
+    @Test
+    public void testPointerBytes() {
+        final AudioPointer pointer = new AudioPointer("host-1", "audio-1-000001.seg", 1234L, 56);
+        assertThat(AudioPointer.isPointer(pointer.toBytes()), equalTo(true));
+        assertThat(AudioPointer.fromBytes(pointer.toBytes()), equalTo(pointer));
+        assertThat(AudioPointer.isPointer(audio(40, 1)), equalTo(false));
+    }
+}
@@ -0,0 +1,103 @@
+package is.hello.supichi.kinesis;
+
+import com.amazonaws.services.kinesis.producer.KinesisProducer;
+import com.amazonaws.services.kinesis.producer.UserRecordResult;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.SettableFuture;
+import com.hello.suripu.core.speech.models.SpeechResult;
+import is.hello.supichi.api.SpeechResultsKinesis;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SpeechKinesisProducerTest {
+
+    private static final String STREAM = "speech_results";
+    private static final byte[] AUDIO = new byte[]{1, 2, 3};
+
+    // stands in for the KPL, which needs its native daemon
+    private KinesisProducer kinesisProducer;
+    private BlockingQueue<KinesisData> queue;
+    private MetricRegistry metrics;
+    private SpeechKinesisProducer producer;
+
+    private static SpeechResult result(final String senseId) {
+        return new SpeechResult.Builder()
+                .withAccountId(1L)
+                .withSenseId(senseId)
+                .withAudioIndentifier("uuid-" + senseId)
+                .withDateTimeUTC(DateTime.now(DateTimeZone.UTC))
+                .withFirmwareVersion(1)
+                .build();
+    }
+
+    @Before
+    public void setUp() {
+        kinesisProducer = mock(KinesisProducer.class);
+        when(kinesisProducer.addUserRecord(anyString(), anyString(), any(ByteBuffer.class)))
+                .thenReturn(SettableFuture.<UserRecordResult>create());
+        queue = new ArrayBlockingQueue<>(3);
+        metrics = new MetricRegistry();
+        producer = new SpeechKinesisProducer(STREAM, queue, kinesisProducer, mock(ExecutorService.class),
+                mock(ScheduledExecutorService.class), false, 2, 10L, 100L, Optional.<SpeechResultCoalescer>absent(), Optional.<AudioArchive>absent(), metrics);
+    }
+
+    @Test
+    public void testEnqueueDropsWhenFull() {
+        for(int i = 0; i < 3; i++) {
+            assertThat(producer.addResult(result("sense" + i), SpeechResultsKinesis.SpeechResultsData.Action.TIMELINE, AUDIO), equalTo(true));
+        }
+        assertThat(producer.addResult(result("sense3"), SpeechResultsKinesis.SpeechResultsData.Action.TIMELINE, AUDIO), equalTo(false));
+        assertThat(metrics.meter(MetricRegistry.name(SpeechKinesisProducer.class, "dropped")).getCount(), equalTo(1L));
+        assertThat(metrics.getGauges().get(MetricRegistry.name(SpeechKinesisProducer.class, "queue-depth")).getValue(), equalTo((Object) 3));
+    }
+
+    @Test
+    public void testBatches() throws Exception {
+        for(int i = 0; i < 3; i++) {
+            producer.addResult(result("sense" + i), SpeechResultsKinesis.SpeechResultsData.Action.TIMELINE, AUDIO);
+        }
+
+        final List<KinesisData> batch = Lists.newArrayList();
+        assertThat(producer.nextBatch(batch), equalTo(true));
+        assertThat(batch.size(), equalTo(2));
+        batch.clear();
+        assertThat(producer.nextBatch(batch), equalTo(true));
+        assertThat(batch.size(), equalTo(1));
+
+        // not running: puts what is left in the queue and returns
+        producer.addResult(result("sense4"), SpeechResultsKinesis.SpeechResultsData.Action.TIMELINE, AUDIO);
+        producer.putData();
+        verify(kinesisProducer, times(1)).addUserRecord(eq(STREAM), eq("sense4"), any(ByteBuffer.class));
+        assertThat(queue.isEmpty(), equalTo(true));
+    }
+
+    @Test
+    public void testBackoff() {
+        assertThat(SpeechKinesisProducer.backoffMillis(0L, 100L), equalTo(0L));
+        assertThat(SpeechKinesisProducer.backoffMillis(50L, 100L), equalTo(0L));
+        assertThat(SpeechKinesisProducer.backoffMillis(75L, 100L), equalTo(500L));
+        assertThat(SpeechKinesisProducer.backoffMillis(100L, 100L), equalTo(1000L));
+        assertThat(SpeechKinesisProducer.backoffMillis(1000L, 100L), equalTo(1000L));
+    }
+}
@@ -0,0 +1,85 @@
+package is.hello.supichi.kinesis;
+
+import com.codahale.metrics.MetricRegistry;
+import com.hello.suripu.core.speech.models.Result;
+import com.hello.suripu.core.speech.models.SpeechResult;
+import is.hello.supichi.api.SpeechResultsKinesis;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class SpeechResultCoalescerTest {
+
+    private static final byte[] AUDIO = new byte[]{1, 2, 3};
+    private static final byte[] EMPTY = new byte[0];
+
+    private static SpeechResult.Builder builder(final String uuid) {
+        return new SpeechResult.Builder()
+                .withAccountId(1L)
+                .withSenseId("sense")
+                .withAudioIndentifier(uuid)
+                .withDateTimeUTC(DateTime.now(DateTimeZone.UTC))
+                .withFirmwareVersion(1);
+    }
+
+    @Test
+    public void testFinalUpdateCarriesAudio() {
+        final SpeechResultCoalescer coalescer = new SpeechResultCoalescer(1000L, 10, new MetricRegistry());
+
+        final List<KinesisData> first = coalescer.add(new KinesisData(builder("a").build(), SpeechResultsKinesis.SpeechResultsData.Action.TIMELINE, AUDIO));
+        assertThat(first.isEmpty(), equalTo(true));
+        assertThat(coalescer.size(), equalTo(1));
+
+        final SpeechResult result = builder("a").withResult(Result.OK).build();
+        final List<KinesisData> last = coalescer.add(new KinesisData(result, SpeechResultsKinesis.SpeechResultsData.Action.PUT_ITEM, EMPTY));
+        assertThat(last.size(), equalTo(1));
+        assertThat(last.get(0).coalesced, equalTo(true));
+        assertThat(last.get(0).audioData, equalTo(AUDIO));
+        assertThat(last.get(0).speechResult, equalTo(result));
+        assertThat(last.get(0).action, equalTo(SpeechResultsKinesis.SpeechResultsData.Action.PUT_ITEM));
+        assertThat(coalescer.size(), equalTo(0));
+    }
+
+    @Test
+    public void testUpdateWithoutAudioPassesThrough() {
+        final SpeechResultCoalescer coalescer = new SpeechResultCoalescer(1000L, 10, new MetricRegistry());
+        final List<KinesisData> data = coalescer.add(new KinesisData(builder("b").build(), SpeechResultsKinesis.SpeechResultsData.Action.PUT_ITEM, EMPTY));
+        assertThat(data.size(), equalTo(1));
+        assertThat(data.get(0).coalesced, equalTo(false));
+    }
+
+    @Test
+    public void testExpired() {
+        final SpeechResultCoalescer coalescer = new SpeechResultCoalescer(1000L, 10, new MetricRegistry());
+        final KinesisData timeline = new KinesisData(builder("c").build(), SpeechResultsKinesis.SpeechResultsData.Action.TIMELINE, AUDIO);
+        coalescer.add(timeline);
+
+        assertThat(coalescer.expired(timeline.createdNanos).isEmpty(), equalTo(true));
+        final List<KinesisData> expired = coalescer.expired(timeline.createdNanos + TimeUnit.SECONDS.toNanos(1));
+        assertThat(expired.size(), equalTo(1));
+        assertThat(expired.get(0), equalTo(timeline));
+        assertThat(coalescer.size(), equalTo(0));
+    }
+
+    @Test
+    public void testOldestAreEmittedWhenFull() {
+        final MetricRegistry metrics = new MetricRegistry();
+        final SpeechResultCoalescer coalescer = new SpeechResultCoalescer(1000L, 2, metrics);
+        final KinesisData oldest = new KinesisData(builder("d").build(), SpeechResultsKinesis.SpeechResultsData.Action.TIMELINE, AUDIO);
+        coalescer.add(oldest);
+        coalescer.add(new KinesisData(builder("e").build(), SpeechResultsKinesis.SpeechResultsData.Action.TIMELINE, AUDIO));
+
+        final List<KinesisData> ready = coalescer.add(new KinesisData(builder("f").build(), SpeechResultsKinesis.SpeechResultsData.Action.TIMELINE, AUDIO));
+        assertThat(ready.size(), equalTo(1));
+        assertThat(ready.get(0), equalTo(oldest));
+        assertThat(coalescer.size(), equalTo(2));
+        assertThat(metrics.getGauges().get("is.hello.supichi.kinesis.SpeechResultCoalescer.pending").getValue(), equalTo((Object) 2));
+        assertThat(metrics.meter("is.hello.supichi.kinesis.SpeechResultCoalescer.evicted").getCount(), equalTo(1L));
+    }
+}
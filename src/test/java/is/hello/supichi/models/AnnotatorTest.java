@@ -0,0 +1,46 @@
+package is.hello.supichi.models;
+
+import com.google.common.collect.Lists;
+import is.hello.supichi.commandhandlers.SleepSoundHandler;
+import is.hello.supichi.models.annotations.SleepSoundAnnotation;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class AnnotatorTest {
+
+    @Test
+    public void testTimeWords() {
+        for (final String text : Lists.newArrayList("wake me up at 7", "set an alarm for seven thirty", "wake me at 6 a.m.",
+                "what's the weather tomorrow", "how did i sleep last night", "play rain for twenty minutes",
+                "set an alarm for noon", "what day is it on friday", "wake me up at half past six")) {
+            assertThat(text, Annotator.hasTimeWords(text), equalTo(true));
+        }
+        for (final String text : Lists.newArrayList("what's the temperature", "turn off the light", "play rainfall",
+                "stop", "how is the humidity", "")) {
+            assertThat(text, Annotator.hasTimeWords(text), equalTo(false));
+        }
+    }
+
+    private static List<SleepSoundHandler.SoundName> soundNames(final String text) {
+        final List<SleepSoundHandler.SoundName> soundNames = Lists.newArrayList();
+        for (final SleepSoundAnnotation annotation : Annotator.getSleepSounds(text)) {
+            soundNames.add(annotation.sound());
+        }
+        return soundNames;
+    }
+
+    @Test
+    public void testSleepSounds() {
+        assertThat(soundNames("play white noise"), equalTo(Lists.newArrayList(SleepSoundHandler.SoundName.WHITE_NOISE)));
+        assertThat(soundNames("play rainfall and autumn wind"),
+                equalTo(Lists.newArrayList(SleepSoundHandler.SoundName.AUTUMN_WIND, SleepSoundHandler.SoundName.RAINFALL)));
+        assertThat(soundNames("play aurora"), equalTo(Lists.newArrayList(SleepSoundHandler.SoundName.AURA)));
+        assertThat(soundNames("play campfire"), equalTo(Lists.newArrayList(SleepSoundHandler.SoundName.FIRESIDE)));
+        assertThat(soundNames("play rain"), equalTo(Lists.newArrayList(SleepSoundHandler.SoundName.RAINFALL)));
+        assertThat(soundNames("play something"), equalTo(Lists.<SleepSoundHandler.SoundName>newArrayList()));
+    }
+}
@@ -0,0 +1,108 @@
+package is.hello.supichi.models;
+
+import com.google.common.base.Supplier;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class VoiceRequestContextTest {
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private static Supplier<String> counting(final AtomicInteger calls, final String value) {
+        return () -> {
+            calls.incrementAndGet();
+            return value;
+        };
+    }
+
+    @Test
+    public void testPrefetchedValue() {
+        final AtomicInteger calls = new AtomicInteger();
+        final VoiceRequestContext.Prefetched<String> prefetched =
+                VoiceRequestContext.Prefetched.submit("test", executor, counting(calls, "value"), 1000L);
+
+        assertThat(prefetched.get(), equalTo("value"));
+        assertThat(calls.get(), equalTo(1));
+    }
+
+    @Test
+    public void testRejectedPrefetchLoadsOnGet() {
+        executor.shutdown();
+        final AtomicInteger calls = new AtomicInteger();
+        final VoiceRequestContext.Prefetched<String> prefetched =
+                VoiceRequestContext.Prefetched.submit("test", executor, counting(calls, "value"), 1000L);
+
+        assertThat(calls.get(), equalTo(0));
+        assertThat(prefetched.get(), equalTo("value"));
+        assertThat(calls.get(), equalTo(1));
+    }
+
+    @Test
+    public void testFailedPrefetchLoadsAgain() {
+        final AtomicInteger calls = new AtomicInteger();
+        final VoiceRequestContext.Prefetched<String> prefetched = VoiceRequestContext.Prefetched.submit("test", executor, () -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new IllegalStateException("timeout");
+            }
+            return "value";
+        }, 1000L);
+
+        assertThat(prefetched.get(), equalTo("value"));
+        assertThat(calls.get(), equalTo(2));
+    }
+
+    @Test
+    public void testSlowPrefetchLoadsOnCallingThread() throws InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        final VoiceRequestContext.Prefetched<String> prefetched = VoiceRequestContext.Prefetched.submit("test", executor, () -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Thread.currentThread().getName();
+        }, 10L);
+
+        assertThat(prefetched.get(), equalTo(Thread.currentThread().getName()));
+        release.countDown();
+    }
+
+    @Test
+    public void testTimedOutPrefetchIsLoadedOnce() {
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger callerLoads = new AtomicInteger();
+        final Thread caller = Thread.currentThread();
+        final VoiceRequestContext.Prefetched<String> prefetched = VoiceRequestContext.Prefetched.submit("test", executor, () -> {
+            if (Thread.currentThread() != caller) {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "prefetched";
+            }
+            callerLoads.incrementAndGet();
+            return "loaded";
+        }, 10L);
+
+        assertThat(prefetched.get(), equalTo("loaded"));
+        // the cancelled future is not read again
+        assertThat(prefetched.get(), equalTo("loaded"));
+        assertThat(callerLoads.get(), equalTo(1));
+        release.countDown();
+    }
+}
@@ -0,0 +1,61 @@
+package is.hello.supichi.resources.v2;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.hello.suripu.core.util.HelloHttpHeader;
+import is.hello.supichi.handler.AudioRequestHandler;
+import is.hello.supichi.handler.RawRequest;
+import is.hello.supichi.handler.WrappedResponse;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.ws.rs.container.AsyncResponse;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class UploadResourceTest {
+
+    private static final byte[] AUDIO = new byte[]{1, 2, 3};
+
+    private AudioRequestHandler audioRequestHandler;
+    private AsyncResponse asyncResponse;
+    private MetricRegistry metrics;
+    private UploadResource uploadResource;
+
+    @Before
+    public void setUp() {
+        audioRequestHandler = mock(AudioRequestHandler.class);
+        asyncResponse = mock(AsyncResponse.class);
+        metrics = new MetricRegistry();
+        uploadResource = UploadResource.async(audioRequestHandler, MoreExecutors.newDirectExecutorService(), metrics);
+        uploadResource.request = mock(HttpServletRequest.class);
+        when(uploadResource.request.getHeader(HelloHttpHeader.SENSE_ID)).thenReturn("sense");
+    }
+
+    @Test
+    public void testResumesWithResponse() {
+        when(audioRequestHandler.handle(any(RawRequest.class))).thenReturn(WrappedResponse.ok(AUDIO));
+
+        uploadResource.streaming(new byte[0], asyncResponse);
+
+        verify(asyncResponse).resume(AUDIO);
+        assertThat(metrics.timer(MetricRegistry.name(UploadResource.class, "handle")).getCount(), equalTo(1L));
+    }
+
+    @Test
+    public void testResumesWhenHandlerFails() {
+        final AssertionError error = new AssertionError("boom");
+        when(audioRequestHandler.handle(any(RawRequest.class))).thenThrow(error);
+
+        uploadResource.streaming(new byte[0], asyncResponse);
+
+        verify(asyncResponse).resume(error);
+        assertThat(metrics.timer(MetricRegistry.name(UploadResource.class, "handle")).getCount(), equalTo(1L));
+    }
+}
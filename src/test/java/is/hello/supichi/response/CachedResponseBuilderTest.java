@@ -0,0 +1,194 @@
+package is.hello.supichi.response;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.Optional;
+import com.google.common.base.Ticker;
+import com.google.common.collect.Lists;
+import is.hello.supichi.api.Response;
+import is.hello.supichi.api.Speech;
+import is.hello.supichi.commandhandlers.results.GenericResult;
+import is.hello.supichi.models.HandlerResult;
+import is.hello.supichi.models.HandlerType;
+import is.hello.supichi.utils.VoiceTimings;
+import net.spy.memcached.MemcachedClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CachedResponseBuilderTest {
+
+    private static class FakeTicker extends Ticker {
+        private long nanos = 0L;
+
+        @Override
+        public long read() {
+            return nanos;
+        }
+
+        void advance(final long duration, final TimeUnit unit) {
+            nanos += unit.toNanos(duration);
+        }
+    }
+
+    private static final Speech.SpeechRequest REQUEST = Speech.SpeechRequest.newBuilder()
+            .setResponse(Speech.AudioFormat.MP3)
+            .setEq(Speech.Equalizer.NONE)
+            .buildPartial();
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final AtomicInteger synthesized = new AtomicInteger(0);
+    private CountDownLatch synthesizing;
+    private MemcachedClient mc;
+    private FakeTicker ticker;
+    private CachedResponseBuilder builder;
+
+    private final SupichiResponseBuilder watson = (result, handlerResult, request) -> {
+        synthesized.incrementAndGet();
+        try {
+            synthesizing.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (handlerResult.responseText().startsWith("watson down")) {
+            return new byte[]{0, 0, 0};
+        }
+        return handlerResult.responseText().getBytes();
+    };
+
+    private byte[] response(final String text) {
+        return response(text, VoiceTimings.noop());
+    }
+
+    private byte[] response(final String text, final VoiceTimings timings) {
+        return builder.response(Response.SpeechResponse.Result.OK, new HandlerResult(HandlerType.ALARM, "", GenericResult.ok(text)), REQUEST, timings);
+    }
+
+    @Before
+    public void setUp() {
+        synthesized.set(0);
+        synthesizing = new CountDownLatch(0);
+        mc = mock(MemcachedClient.class);
+        ticker = new FakeTicker();
+        builder = new CachedResponseBuilder("Allison", watson, mc, "test", 1024L, 600, new MetricRegistry(), ticker);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testLocalHitSkipsMemcache() {
+        assertThat(response("Okay, done"), equalTo("Okay, done".getBytes()));
+        assertThat(response("Okay, done"), equalTo("Okay, done".getBytes()));
+
+        assertThat(synthesized.get(), equalTo(1));
+        verify(mc, times(1)).get(anyString());
+        verify(mc, times(1)).set(anyString(), anyInt(), org.mockito.Matchers.any());
+    }
+
+    @Test
+    public void testMemcacheHit() {
+        when(mc.get(anyString())).thenReturn("cached".getBytes());
+
+        assertThat(response("Okay, done"), equalTo("cached".getBytes()));
+        assertThat(response("Okay, done"), equalTo("cached".getBytes()));
+        assertThat(synthesized.get(), equalTo(0));
+        verify(mc, times(1)).get(anyString());
+    }
+
+    @Test
+    public void testConcurrentMissesSynthesizeOnce() throws Exception {
+        synthesizing = new CountDownLatch(1);
+        final List<Future<byte[]>> futures = Lists.newArrayList();
+        for(int i = 0; i < 4; i++) {
+            futures.add(executor.submit(() -> response("Okay, done")));
+        }
+        Thread.sleep(100);
+        synthesizing.countDown();
+
+        for(final Future<byte[]> future : futures) {
+            assertThat(future.get(1, TimeUnit.SECONDS), equalTo("Okay, done".getBytes()));
+        }
+        assertThat(synthesized.get(), equalTo(1));
+        verify(mc, times(1)).get(anyString());
+    }
+
+    @Test
+    public void testFailingMemcacheKeepsLocalCache() {
+        when(mc.get(anyString())).thenThrow(new RuntimeException("timeout"));
+
+        assertThat(response("Okay, done"), equalTo("Okay, done".getBytes()));
+        assertThat(response("Okay, done"), equalTo("Okay, done".getBytes()));
+        assertThat(synthesized.get(), equalTo(1));
+
+        // skipped until the retry delay is over
+        assertThat(response("Sorry, try again"), equalTo("Sorry, try again".getBytes()));
+        assertThat(synthesized.get(), equalTo(2));
+        verify(mc, times(1)).get(anyString());
+        verify(mc, times(0)).set(anyString(), anyInt(), org.mockito.Matchers.any());
+    }
+
+    @Test
+    public void testFailedResponseIsNotCached() {
+        assertThat(response("watson down"), equalTo(new byte[]{0, 0, 0}));
+        assertThat(response("watson down"), equalTo(new byte[]{0, 0, 0}));
+
+        assertThat(synthesized.get(), equalTo(2));
+        verify(mc, times(0)).set(anyString(), anyInt(), org.mockito.Matchers.any());
+    }
+
+    @Test
+    public void testLocalCacheExpires() {
+        response("Okay, done");
+        ticker.advance(5, TimeUnit.MINUTES);
+        response("Okay, done");
+        verify(mc, times(1)).get(anyString());
+
+        ticker.advance(6, TimeUnit.MINUTES);
+        response("Okay, done");
+        verify(mc, times(2)).get(anyString());
+    }
+
+    @Test
+    public void testOnlyLocalHitsAreTaggedLocal() throws Exception {
+        final VoiceTimings first = VoiceTimings.noop();
+        response("Okay, done", first);
+        assertThat(first.tag("cache"), equalTo(Optional.of("miss")));
+
+        final VoiceTimings second = VoiceTimings.noop();
+        response("Okay, done", second);
+        assertThat(second.tag("cache"), equalTo(Optional.of("local")));
+
+        synthesizing = new CountDownLatch(1);
+        final VoiceTimings loading = VoiceTimings.noop();
+        final VoiceTimings waiting = VoiceTimings.noop();
+        final Future<byte[]> loader = executor.submit(() -> response("Sorry, try again", loading));
+        Thread.sleep(100);
+        final Future<byte[]> waiter = executor.submit(() -> response("Sorry, try again", waiting));
+        Thread.sleep(100);
+        synthesizing.countDown();
+        loader.get(1, TimeUnit.SECONDS);
+        waiter.get(1, TimeUnit.SECONDS);
+
+        assertThat(loading.tag("cache"), equalTo(Optional.of("miss")));
+        assertThat(waiting.tag("cache"), equalTo(Optional.of("shared")));
+    }
+}
@@ -0,0 +1,77 @@
+package is.hello.supichi.response;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.MoreExecutors;
+import is.hello.supichi.api.Speech;
+import is.hello.supichi.commandhandlers.HueHandler;
+import is.hello.supichi.models.GenericResponseText;
+import org.junit.Test;
+
+import java.util.Set;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class ResponseWarmupTest {
+
+    private static final int COMBINATIONS = Speech.AudioFormat.values().length * Speech.Equalizer.values().length;
+
+    private final Set<String> rendered = Sets.newConcurrentHashSet();
+
+    private final SupichiResponseBuilder watson = (result, handlerResult, request) -> {
+        final String text = handlerResult.responseText();
+        if (text.startsWith("fail")) {
+            throw new RuntimeException("watson unavailable");
+        }
+        if (text.startsWith("placeholder")) {
+            return new byte[]{0, 0, 0};
+        }
+        rendered.add(String.format("%s-%s-%s", request.getResponse(), request.getEq(), text));
+        return text.getBytes();
+    };
+
+    @Test
+    public void testRendersEveryFormatAndEq() throws Exception {
+        final ResponseWarmup warmup = new ResponseWarmup(watson, ImmutableSet.of("Okay.", "Okay, done"), MoreExecutors.newDirectExecutorService());
+        assertThat(warmup.healthCheck().execute().getMessage(), equalTo("not started"));
+
+        warmup.start();
+
+        assertThat(rendered.size(), equalTo(2 * COMBINATIONS));
+        assertThat(warmup.healthCheck().execute().isHealthy(), equalTo(true));
+        assertThat(warmup.healthCheck().execute().getMessage(),
+                equalTo(String.format("done, rendered %d of %d, failed 0", 2 * COMBINATIONS, 2 * COMBINATIONS)));
+    }
+
+    @Test
+    public void testFailuresAreReported() throws Exception {
+        final ResponseWarmup warmup = new ResponseWarmup(watson, ImmutableSet.of("Okay.", "fail", "placeholder"), MoreExecutors.newDirectExecutorService());
+
+        warmup.start();
+
+        assertThat(rendered.size(), equalTo(COMBINATIONS));
+        // best effort, failures are only reported
+        assertThat(warmup.healthCheck().execute().isHealthy(), equalTo(true));
+        assertThat(warmup.healthCheck().execute().getMessage(),
+                equalTo(String.format("done, rendered %d of %d, failed %d", COMBINATIONS, 3 * COMBINATIONS, 2 * COMBINATIONS)));
+    }
+
+    @Test
+    public void testStaticResponseTexts() {
+        final Set<String> texts = ResponseWarmup.staticResponseTexts();
+
+        assertThat(texts.contains(GenericResponseText.NO_PAIRED_SENSE_TEXT), equalTo(true));
+        assertThat(texts.contains(HueHandler.SET_LIGHT_OK_RESPONSE), equalTo(true));
+        assertThat(texts.contains("Room conditions are just right."), equalTo(true));
+        int noDataTexts = 0;
+        for (final String text : texts) {
+            assertThat(text.contains("%s"), equalTo(false));
+            if (text.startsWith("Sorry, I wasn't able to access your")) {
+                noDataTexts++;
+            }
+        }
+        // one per sensor and one for room conditions
+        assertThat(noDataTexts, equalTo(8));
+    }
+}
@@ -0,0 +1,96 @@
+package is.hello.supichi.utils;
+
+import com.google.common.io.LittleEndianDataOutputStream;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class AdpcmDecoderTest {
+
+    /**
+     * Straightforward per sample decoding, as AudioUtils used to do it
+     */
+    private static byte[] referenceDecode(final byte[] adpcm) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final LittleEndianDataOutputStream dataOutputStream = new LittleEndianDataOutputStream(outputStream);
+
+        short valpred = 0;
+        int index = 0;
+        int step = AudioUtils.STEP_SIZE_TABLE[0];
+
+        for (int i = 0; i < adpcm.length * 2 - 1; i++) {
+            int delta = (i % 2 == 0) ? (adpcm[i / 2] >> 4) & 0x0f : adpcm[i / 2] & 0x0f;
+
+            index += AudioUtils.INDEX_TABLE[delta];
+            if (index < 0) index = 0;
+            if (index > 88) index = 88;
+
+            final int sign = delta & 8;
+            delta = delta & 7;
+
+            int vpdiff = step >> 3;
+            if ((delta & 4) != 0) vpdiff += step;
+            if ((delta & 2) != 0) vpdiff += step >> 1;
+            if ((delta & 1) != 0) vpdiff += step >> 2;
+
+            if (sign != 0) {
+                valpred -= vpdiff;
+            } else {
+                valpred += vpdiff;
+            }
+
+            step = AudioUtils.STEP_SIZE_TABLE[index];
+            dataOutputStream.writeShort(valpred);
+        }
+        return outputStream.toByteArray();
+    }
+
+    private static byte[] decodeInBlocks(final byte[] adpcm, final int blockSize) {
+        final AdpcmDecoder decoder = new AdpcmDecoder();
+        final byte[] out = new byte[adpcm.length * 4];
+        int size = 0;
+        for(int from = 0; from < adpcm.length; from += blockSize) {
+            final int to = Math.min(adpcm.length, from + blockSize);
+            size += decoder.decode(adpcm, from, to, to == adpcm.length, out, size);
+        }
+        return Arrays.copyOf(out, size);
+    }
+
+    @Test
+    public void testSameAsReference() throws IOException {
+        final Random random = new Random(42L);
+        for(final int length : new int[]{1, 2, 17, 1600, 3201}) {
+            final byte[] adpcm = new byte[length];
+            random.nextBytes(adpcm);
+            final byte[] expected = referenceDecode(adpcm);
+
+            assertArrayEquals(expected, AudioUtils.decodeADPShitMAudio(adpcm));
+            for(final int blockSize : new int[]{1, 3, 800, length}) {
+                final byte[] decoded = decodeInBlocks(adpcm, blockSize);
+                assertEquals(AdpcmDecoder.pcmSize(length), decoded.length);
+                assertArrayEquals(expected, decoded);
+            }
+        }
+    }
+
+    @Test
+    public void testSaturatedInput() throws IOException {
+        // drives the predicted value past the 16 bit range
+        final byte[] adpcm = new byte[2000];
+        Arrays.fill(adpcm, (byte) 0x77);
+        assertArrayEquals(referenceDecode(adpcm), AudioUtils.decodeADPShitMAudio(adpcm));
+    }
+
+    @Test
+    public void testEmpty() {
+        assertEquals(0, AdpcmDecoder.pcmSize(0));
+        assertEquals(0, AudioUtils.decodeADPShitMAudio(new byte[0]).length);
+        assertEquals(0, new AdpcmDecoder().decode(new byte[0], 0, 0, true, new byte[0], 0));
+    }
+}
@@ -0,0 +1,38 @@
+package is.hello.supichi.utils;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class VoiceTimingsTest {
+
+    @Test
+    public void testStagesArePublishedAndLogged() {
+        final MetricRegistry metrics = new MetricRegistry();
+        final VoiceTimings timings = VoiceTimings.create(metrics);
+
+        timings.record("kinesis", VoiceTimings.start());
+        timings.record("kinesis", VoiceTimings.start());
+        timings.record("handler_execute", VoiceTimings.start(), "ALARM");
+        timings.tag("cache", "hit");
+
+        assertEquals(2, metrics.histogram("voice-stage-millis.kinesis").getCount());
+        assertEquals(1, metrics.histogram("voice-stage-millis.handler_execute.ALARM").getCount());
+        assertEquals("hit", timings.tag("cache").get());
+
+        final String line = timings.toLogString();
+        assertTrue(line, line.startsWith("kinesis_ms="));
+        assertTrue(line, line.contains(" handler_execute_ms="));
+        assertTrue(line, line.contains(" cache=hit total_ms="));
+    }
+
+    @Test
+    public void testNoop() {
+        final VoiceTimings timings = VoiceTimings.noop();
+        timings.record("stt", VoiceTimings.start());
+        assertTrue(timings.toLogString().startsWith("stt_ms="));
+        assertEquals(false, timings.tag("cache").isPresent());
+    }
+}